@@ -55,6 +55,15 @@ final class Arguments extends IdScriptableObject {
         defineProperty(SymbolKey.ITERATOR, iteratorMethod, ScriptableObject.NOT_ENUMERABLE);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        calleeObj = copier.copy(calleeObj);
+        lengthObj = copier.copy(lengthObj);
+        activation = copier.copy(activation);
+        args = copier.copyArray(args);
+    }
+
     @Override
     public String getClassName() {
         return FTAG;
@@ -13,8 +13,8 @@ package org.mozilla.javascript;
 public class ArrowFunction extends BaseFunction {
     private static final long serialVersionUID = -7377989503697220633L;
 
-    protected final Callable targetFunction;
-    protected final Scriptable boundThis;
+    protected Callable targetFunction;
+    protected Scriptable boundThis;
 
     public ArrowFunction(Context cx, Scriptable scope, Callable targetFunction, Scriptable boundThis) {
         this.targetFunction = targetFunction;
@@ -34,6 +34,13 @@ public class ArrowFunction extends BaseFunction {
         this.defineOwnProperty(cx, "arguments", throwing, false);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        targetFunction = copier.copy(targetFunction);
+        boundThis = copier.copy(boundThis);
+    }
+
     @Override
     public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
         Scriptable callThis = boundThis != null ? boundThis : ScriptRuntime.getTopCallScope(cx);
@@ -600,6 +600,15 @@ public class BaseFunction extends IdScriptableObject implements Function {
         this.forcedNewTarget = forcedNewTarget;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        prototypeProperty = copier.copy(prototypeProperty);
+        argumentsObj = copier.copy(argumentsObj);
+        forcedNewTarget = copier.copy(forcedNewTarget);
+        forcedName = copier.copy(forcedName);
+    }
+
     private static Object jsConstructor(Context cx, Scriptable scope,
                                         Object[] args) {
         int arglen = args.length;
@@ -16,9 +16,9 @@ public class BoundFunction extends BaseFunction {
 
     private static final long serialVersionUID = 2118137342826470729L;
 
-    private final Callable targetFunction;
-    private final Scriptable boundThis;
-    private final Object[] boundArgs;
+    private Callable targetFunction;
+    private Scriptable boundThis;
+    private Object[] boundArgs;
     private final int length;
 
     public BoundFunction(Context cx, Scriptable scope, Callable targetFunction, Scriptable boundThis,
@@ -50,6 +50,14 @@ public class BoundFunction extends BaseFunction {
         this.defineOwnProperty(cx, "arguments", throwing, false);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        targetFunction = copier.copy(targetFunction);
+        boundThis = copier.copy(boundThis);
+        boundArgs = copier.copyArray(boundArgs);
+    }
+
     @Override
     public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] extraArgs) {
         Scriptable callThis = boundThis != null ? boundThis : ScriptRuntime.getTopCallScope(cx);
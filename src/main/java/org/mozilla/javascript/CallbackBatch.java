@@ -0,0 +1,125 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+// API class
+
+package org.mozilla.javascript;
+
+import java.util.Arrays;
+
+/**
+ * Collects calls of JavaScript functions, such as event handlers triggered
+ * from Java code, and makes them all under a single enter of a
+ * {@link Context} instead of entering one for each call.
+ * <pre>
+ * CallbackBatch batch = new CallbackBatch(factory);
+ * // for every event, on any thread
+ * batch.add(handler, scope, scope, new Object[] { event });
+ * // once per frame, on the thread running scripts
+ * batch.run();
+ * </pre>
+ * Calls can be added from any thread. They are made in the order they were
+ * added, by the thread calling {@link #run()}, and their results are
+ * discarded. Calls added while a batch runs are left for the next run.
+ */
+public class CallbackBatch {
+    // 4 slots per call: function, scope, this object and arguments
+    private static final int SLOTS = 4;
+
+    private final ContextFactory factory;
+    private Object[] pending = new Object[16 * SLOTS];
+    private Object[] spare;
+    private int size;
+
+    /**
+     * @param factory the factory for the context the calls are made in
+     */
+    public CallbackBatch(ContextFactory factory) {
+        if (factory == null) throw new IllegalArgumentException();
+        this.factory = factory;
+    }
+
+    /**
+     * Add a call to the batch.
+     *
+     * @param args the arguments, not copied. Must not be null.
+     */
+    public synchronized void add(Callable callable, Scriptable scope,
+                                 Scriptable thisObj, Object[] args) {
+        if (callable == null || args == null) throw new IllegalArgumentException();
+        if (size == pending.length) {
+            pending = Arrays.copyOf(pending, size * 2);
+        }
+        pending[size] = callable;
+        pending[size + 1] = scope;
+        pending[size + 2] = thisObj;
+        pending[size + 3] = args;
+        size += SLOTS;
+    }
+
+    /**
+     * Return the number of calls waiting for the next {@link #run()}.
+     */
+    public synchronized int size() {
+        return size / SLOTS;
+    }
+
+    /**
+     * Make the calls added so far, using the Context of the current thread
+     * or entering one of the factory for all of them.
+     * <p>
+     * A call throwing an exception does not stop the calls after it. The
+     * first exception is thrown when all calls have been made, with the
+     * exceptions of later calls added as suppressed exceptions.
+     *
+     * @return the number of calls made
+     */
+    public int run() {
+        Object[] batch;
+        int count;
+        synchronized (this) {
+            if (size == 0) {
+                return 0;
+            }
+            batch = pending;
+            count = size;
+            pending = (spare != null) ? spare : new Object[batch.length];
+            spare = null;
+            size = 0;
+        }
+        RuntimeException failure = null;
+        Context cx = Context.enter(null, factory);
+        try {
+            for (int i = 0; i != count; i += SLOTS) {
+                Callable callable = (Callable) batch[i];
+                Scriptable scope = (Scriptable) batch[i + 1];
+                Scriptable thisObj = (Scriptable) batch[i + 2];
+                Object[] args = (Object[]) batch[i + 3];
+                try {
+                    callable.call(cx, scope, thisObj, args);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            Context.exit();
+            Arrays.fill(batch, 0, count, null);
+            synchronized (this) {
+                if (spare == null) {
+                    spare = batch;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return count / SLOTS;
+    }
+}
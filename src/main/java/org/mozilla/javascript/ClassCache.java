@@ -27,6 +27,17 @@ public class ClassCache implements Serializable {
     private int generatedClassSerial;
     private Scriptable associatedScope;
 
+    /**
+     * Return an empty cache with the settings of this one, associated with
+     * the copy of the scope for a {@link ScopeSnapshot}.
+     */
+    ClassCache copy(ScopeSnapshot.Copier copier) {
+        ClassCache copy = new ClassCache();
+        copy.cachingIsEnabled = cachingIsEnabled;
+        copy.associatedScope = copier.copy(associatedScope);
+        return copy;
+    }
+
     /**
      * Search for ClassCache object in the given scope.
      * The method first calls
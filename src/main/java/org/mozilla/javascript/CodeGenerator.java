@@ -24,6 +24,10 @@ class CodeGenerator extends Icode {
     private static final int MIN_FIXUP_TABLE_SIZE = 40;
 
     private CompilerEnvirons compilerEnv;
+    // source of the tree, set when nested functions are compiled lazily
+    private InterpreterData.LazySource lazySource;
+    // offset of the tree in the text of lazySource
+    private int sourceOffset;
 
     private boolean itsInFunctionFlag;
     private boolean itsInTryFlag;
@@ -57,6 +61,16 @@ class CodeGenerator extends Icode {
                                    boolean returnFunction) {
         this.compilerEnv = compilerEnv;
 
+        if (compilerEnv.isLazyFunctionCompilation() && tree instanceof AstRoot) {
+            if (lazySource == null && ((AstRoot) tree).getSource() != null) {
+                lazySource = new InterpreterData.LazySource(
+                        ((AstRoot) tree).getSource(), compilerEnv);
+            }
+            if (lazySource != null) {
+                markLazyFunctions(returnFunction ? tree.getFunctionNode(0) : tree);
+            }
+        }
+
         if (Token.printTrees) {
             System.out.println("before transform:");
             System.out.println(tree.toStringTree(tree));
@@ -75,10 +89,16 @@ class CodeGenerator extends Icode {
             scriptOrFn = tree;
         }
 
+        CompressedSource compressedSource = null;
+        if (encodedSource != null && compilerEnv.isCompressingSource()) {
+            compressedSource = CompressedSource.compress(encodedSource);
+            encodedSource = null;
+        }
         itsData = new InterpreterData(compilerEnv.getLanguageVersion(),
                 scriptOrFn.getSourceName(),
                 encodedSource,
                 scriptOrFn.isInStrictMode());
+        itsData.compressedSource = compressedSource;
         itsData.topLevel = true;
 
         if (returnFunction) {
@@ -89,6 +109,36 @@ class CodeGenerator extends Icode {
         return itsData;
     }
 
+    /**
+     * Mark the nested functions that get stub data instead of code, so
+     * that NodeTransformer skips them as well.
+     */
+    private static void markLazyFunctions(ScriptNode scriptOrFn) {
+        for (int i = 0; i != scriptOrFn.getFunctionCount(); i++) {
+            FunctionNode fn = scriptOrFn.getFunctionNode(i);
+            if (canCompileLazily(fn)) {
+                fn.putIntProp(Node.LAZY_FUNCTION_PROP, 1);
+            } else {
+                markLazyFunctions(fn);
+            }
+        }
+    }
+
+    private static boolean canCompileLazily(FunctionNode fn) {
+        // The function is parsed again on its own, which must give the same
+        // function: that rules out arrow functions, which capture "this",
+        // and methods, which can not be parsed outside their object literal
+        // or class. Generators are left out as their frames are resumed
+        // without going through a call.
+        int type = fn.getFunctionType();
+        return (type == FunctionNode.FUNCTION_STATEMENT
+                        || type == FunctionNode.FUNCTION_EXPRESSION)
+                && fn.getSourceStart() >= 0
+                && !fn.isGenerator()
+                && !fn.isMethod()
+                && !fn.isClassConstructor();
+    }
+
     private void generateFunctionICode() {
         itsInFunctionFlag = true;
 
@@ -187,23 +237,152 @@ class CodeGenerator extends Icode {
         InterpreterData[] array = new InterpreterData[functionCount];
         for (int i = 0; i != functionCount; i++) {
             FunctionNode fn = scriptOrFn.getFunctionNode(i);
-            CodeGenerator gen = new CodeGenerator();
-            gen.compilerEnv = compilerEnv;
-            gen.scriptOrFn = fn;
-            gen.itsData = new InterpreterData(itsData);
-            gen.generateFunctionICode();
-            array[i] = gen.itsData;
+            InterpreterData data;
+            if (fn.getIntProp(Node.LAZY_FUNCTION_PROP, 0) != 0) {
+                data = generateLazyFunction(fn);
+            } else {
+                CodeGenerator gen = new CodeGenerator();
+                gen.compilerEnv = compilerEnv;
+                gen.lazySource = lazySource;
+                gen.sourceOffset = sourceOffset;
+                gen.scriptOrFn = fn;
+                gen.itsData = new InterpreterData(itsData);
+                gen.generateFunctionICode();
+                data = gen.itsData;
+            }
+            array[i] = data;
 
             final AstNode fnParent = fn.getParent();
             if (!(fnParent instanceof AstRoot
                     || fnParent instanceof Scope
                     || fnParent instanceof Block)) {
-                        gen.itsData.declaredAsFunctionExpression = true;
+                        data.declaredAsFunctionExpression = true;
             }
         }
         itsData.itsNestedFunctions = array;
     }
 
+    /**
+     * Create the data of a function that is compiled on its first call. It
+     * only has what is needed to create and describe the function object.
+     */
+    private InterpreterData generateLazyFunction(FunctionNode fn) {
+        InterpreterData data = new InterpreterData(itsData,
+                new InterpreterData.LazyFunction(lazySource,
+                        sourceOffset + fn.getSourceStart(),
+                        sourceOffset + fn.getSourceEnd(), fn.getLineno()));
+        data.itsFunctionType = fn.getFunctionType();
+        if (fn.getFunctionName() != null) {
+            data.itsName = fn.getName();
+        }
+        if (fn.isInStrictMode()) {
+            data.isStrict = true;
+        }
+        data.declaredAsVar = (fn.getParent() instanceof VariableInitializer);
+        data.argCount = fn.getParamCount();
+        data.encodedSourceStart = fn.getEncodedSourceStart();
+        data.encodedSourceEnd = fn.getEncodedSourceEnd();
+        return data;
+    }
+
+    /**
+     * Compile a function created by {@link #generateLazyFunction}, by
+     * parsing its source again, and fill in its data.
+     */
+    static void compileLazyFunction(InterpreterData idata) {
+        synchronized (idata) {
+            InterpreterData.LazyFunction lazy = idata.lazyFunction;
+            if (lazy == null) {
+                // Compiled by another thread
+                return;
+            }
+            Context cx = Context.getCurrentContext();
+            if (cx == null) {
+                // Parsing needs a context, which is not there when the
+                // function is serialized
+                cx = Context.enter();
+                try {
+                    compileLazyFunction(idata, lazy);
+                } finally {
+                    Context.exit();
+                }
+            } else {
+                compileLazyFunction(idata, lazy);
+            }
+        }
+    }
+
+    private static void compileLazyFunction(InterpreterData idata,
+                                            InterpreterData.LazyFunction lazy) {
+        // Warnings were reported when the whole script was parsed
+        final ErrorReporter errors = Context.getContext().getErrorReporter();
+        ErrorReporter reporter = new ErrorReporter() {
+            @Override
+            public void warning(String message, String sourceName, int line,
+                                String lineSource, int lineOffset) {
+            }
+
+            @Override
+            public void error(String message, String sourceName, int line,
+                              String lineSource, int lineOffset) {
+                errors.error(message, sourceName, line, lineSource,
+                        lineOffset);
+            }
+
+            @Override
+            public EvaluatorException runtimeError(String message, String sourceName,
+                                                   int line, String lineSource,
+                                                   int lineOffset) {
+                return errors.runtimeError(message, sourceName, line,
+                        lineSource, lineOffset);
+            }
+        };
+        CompilerEnvirons compilerEnv = lazy.source.newCompilerEnvirons(reporter);
+        Parser p = new Parser(compilerEnv, reporter);
+        p.calledByCompileFunction =
+                (idata.itsFunctionType == FunctionNode.FUNCTION_EXPRESSION);
+        if (idata.isStrict) {
+            p.setDefaultUseStrictDirective(true);
+        }
+        AstRoot ast = p.parse(lazy.source.text.subSequence(lazy.start, lazy.end),
+                idata.itsSourceFile, lazy.lineno);
+        ScriptNode tree = new IRFactory(compilerEnv, reporter).transformTree(ast);
+        // Functions nested in this one refer to the same shared source
+        CodeGenerator gen = new CodeGenerator();
+        gen.lazySource = lazy.source;
+        gen.sourceOffset = lazy.start;
+        InterpreterData data = gen.compile(compilerEnv, tree,
+                tree.getEncodedSource(), true);
+
+        // The name, flags and encoded source of the stub stay as they are
+        idata.itsNeedsActivation = data.itsNeedsActivation;
+        idata.itsStringTable = data.itsStringTable;
+        idata.itsDoubleTable = data.itsDoubleTable;
+        idata.itsNestedFunctions = data.itsNestedFunctions;
+        if (data.itsNestedFunctions != null) {
+            for (InterpreterData nested : data.itsNestedFunctions) {
+                nested.parentData = idata;
+            }
+        }
+        idata.itsRegExpLiterals = data.itsRegExpLiterals;
+        idata.itsICode = data.itsICode;
+        idata.itsExceptionTable = data.itsExceptionTable;
+        idata.itsMaxVars = data.itsMaxVars;
+        idata.itsMaxLocals = data.itsMaxLocals;
+        idata.itsMaxStack = data.itsMaxStack;
+        idata.itsMaxFrameArray = data.itsMaxFrameArray;
+        idata.argNames = data.argNames;
+        idata.argIsConst = data.argIsConst;
+        idata.argCount = data.argCount;
+        idata.itsMaxCalleeArgs = data.itsMaxCalleeArgs;
+        idata.literalIds = data.literalIds;
+        idata.longJumps = data.longJumps;
+        idata.firstLinePC = data.firstLinePC;
+        // Publishes the fields above to threads that see the function as
+        // compiled
+        idata.lazyFunction = null;
+    }
+
     private void generateRegExpLiterals() {
         int N = scriptOrFn.getRegexpCount();
         if (N == 0) return;
@@ -0,0 +1,150 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+// API class
+
+package org.mozilla.javascript;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compiles scripts and functions on worker threads, so that parsing and
+ * code generation do not hold up a thread that is busy executing scripts.
+ * <p>
+ * Every compilation runs in a {@link Context} entered on the worker thread
+ * through the service's {@link ContextFactory}, and is configured by the
+ * {@link CompilerEnvirons} passed with the source rather than by that
+ * context. Take the snapshot on the requesting thread, for example
+ * <pre>
+ * CompilerEnvirons env = new CompilerEnvirons();
+ * env.initFromContext(cx);
+ * service.compileString(env, source, "module.js", 1, null)
+ *        .thenAccept(script -&gt; ...);
+ * </pre>
+ * and do not modify it while compilations using it are pending. The
+ * resulting scripts can be executed on any thread with an entered context.
+ * <p>
+ * Failures, such as syntax errors reported as {@link EvaluatorException},
+ * complete the returned future exceptionally.
+ */
+public class CompilationService {
+    private final ContextFactory factory;
+    private final Executor executor;
+
+    /**
+     * Creates a service compiling on the common fork/join pool with
+     * contexts from the global context factory.
+     */
+    public CompilationService() {
+        this(ContextFactory.getGlobal(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param factory  the factory for the contexts compilations run in
+     * @param executor the executor running compilations
+     */
+    public CompilationService(ContextFactory factory, Executor executor) {
+        if (factory == null || executor == null) throw new IllegalArgumentException();
+        this.factory = factory;
+        this.executor = executor;
+    }
+
+    public final ContextFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Compiles the source in the given string.
+     *
+     * @see Context#compileString(String, String, int, Object)
+     */
+    public CompletableFuture<Script> compileString(CompilerEnvirons compilerEnv,
+                                                   String source, String sourceName,
+                                                   int lineno, Object securityDomain) {
+        return submit(compilerEnv, null, source, null, sourceName, lineno,
+                securityDomain, false);
+    }
+
+    /**
+     * Compiles the source in the given reader. The reader is consumed and
+     * closed on the worker thread.
+     *
+     * @see Context#compileReader(Reader, String, int, Object)
+     */
+    public CompletableFuture<Script> compileReader(CompilerEnvirons compilerEnv,
+                                                   Reader in, String sourceName,
+                                                   int lineno, Object securityDomain) {
+        return submit(compilerEnv, null, null, in, sourceName, lineno,
+                securityDomain, false);
+    }
+
+    /**
+     * Compiles a function definition. The function object is created on the
+     * worker thread, which only reads the scope to look up the function
+     * prototype.
+     *
+     * @see Context#compileFunction(Scriptable, String, String, int, Object)
+     */
+    public CompletableFuture<Function> compileFunction(CompilerEnvirons compilerEnv,
+                                                       Scriptable scope, String source,
+                                                       String sourceName, int lineno,
+                                                       Object securityDomain) {
+        if (scope == null) throw new IllegalArgumentException();
+        return submit(compilerEnv, scope, source, null, sourceName, lineno,
+                securityDomain, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(final CompilerEnvirons compilerEnv,
+                                            final Scriptable scope,
+                                            final String source, final Reader in,
+                                            final String sourceName, int lineno,
+                                            final Object securityDomain,
+                                            final boolean returnFunction) {
+        if (compilerEnv == null) throw new IllegalArgumentException();
+        // For compatibility with Context IllegalArgumentException is not
+        // thrown for negative line numbers
+        final int line = (lineno < 0) ? 0 : lineno;
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String sourceString = source;
+                    if (in != null) {
+                        try {
+                            sourceString = Kit.readReader(in);
+                        } finally {
+                            in.close();
+                        }
+                    }
+                    final String compiledSource = sourceString;
+                    Object compiled = factory.call(new ContextAction<Object>() {
+                        @Override
+                        public Object run(Context cx) {
+                            try {
+                                return cx.compileImpl(compilerEnv, scope, compiledSource,
+                                        sourceName, line, securityDomain,
+                                        returnFunction, null, null, null);
+                            } catch (IOException ex) {
+                                // Should not happen when dealing with source as string
+                                throw new RuntimeException(ex);
+                            }
+                        }
+                    });
+                    result.complete((T) compiled);
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            }
+        });
+        return result;
+    }
+}
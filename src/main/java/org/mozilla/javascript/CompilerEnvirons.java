@@ -35,6 +35,9 @@ public class CompilerEnvirons {
         optimizationLevel = cx.getOptimizationLevel();
 
         generatingSource = cx.isGeneratingSource();
+        compressingSource = cx.isCompressingSource();
+        lazyFunctionCompilation = cx.isLazyFunctionCompilation()
+                && cx.getDebugger() == null;
         activationNames = cx.activationNames;
 
         // Observer code generation in compiled code :
@@ -121,6 +124,32 @@ public class CompilerEnvirons {
         this.generatingSource = generatingSource;
     }
 
+    public final boolean isCompressingSource() {
+        return compressingSource;
+    }
+
+    /**
+     * Specify whether generated source information should be stored
+     * deflate-compressed and only inflated when a function is decompiled.
+     */
+    public void setCompressingSource(boolean compressingSource) {
+        this.compressingSource = compressingSource;
+    }
+
+    public final boolean isLazyFunctionCompilation() {
+        return lazyFunctionCompilation;
+    }
+
+    /**
+     * Specify whether the interpreter should generate code for nested
+     * functions only when they are first called.
+     *
+     * @see Context#setLazyFunctionCompilation(boolean)
+     */
+    public void setLazyFunctionCompilation(boolean lazyFunctionCompilation) {
+        this.lazyFunctionCompilation = lazyFunctionCompilation;
+    }
+
     /**
      * @return true iff code will be generated with callbacks to enable
      * instruction thresholds
@@ -235,6 +264,8 @@ public class CompilerEnvirons {
     private boolean reservedKeywordAsIdentifier;
     private int optimizationLevel;
     private boolean generatingSource;
+    private boolean compressingSource;
+    private boolean lazyFunctionCompilation;
     private boolean strictMode;
     private boolean warningAsError;
     private boolean generateObserverCount;
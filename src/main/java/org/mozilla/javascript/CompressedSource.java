@@ -0,0 +1,165 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate-compressed storage for the encoded source of a script and its
+ * nested functions, used when {@link Context#isCompressingSource()} is set.
+ * <p>
+ * The source is only inflated when a function is decompiled, and the
+ * inflated text is held through a soft reference so it can be reclaimed
+ * again under memory pressure.
+ * <p>
+ * This class is public only so that classes generated by the optimizer can
+ * call {@link #unpackSubstring(String, int, int)}; it is not part of the
+ * public API.
+ */
+public final class CompressedSource implements Serializable {
+    private static final long serialVersionUID = -4394736306226858593L;
+
+    private static final Map<String, SoftReference<String>> unpacked =
+            Collections.synchronizedMap(new WeakHashMap<String, SoftReference<String>>());
+
+    private final byte[] data;
+    private final int length;
+    private transient SoftReference<String> source;
+
+    private CompressedSource(byte[] data, int length) {
+        this.data = data;
+        this.length = length;
+    }
+
+    public static CompressedSource compress(String encodedSource) {
+        int length = encodedSource.length();
+        byte[] bytes = new byte[length * 2];
+        for (int i = 0; i != length; ++i) {
+            char c = encodedSource.charAt(i);
+            bytes[2 * i] = (byte) (c >>> 8);
+            bytes[2 * i + 1] = (byte) c;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            // Not seeded with encodedSource, which would keep the whole
+            // uncompressed text alive until the first GC under pressure
+            return new CompressedSource(out.toByteArray(), length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Return the substring of the encoded source between start and end,
+     * inflating the whole source first if it is not cached.
+     */
+    public String substring(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Return the size of the compressed data in bytes.
+     */
+    public int compressedLength() {
+        return data.length;
+    }
+
+    @Override
+    public String toString() {
+        SoftReference<String> ref = source;
+        String s = (ref == null) ? null : ref.get();
+        if (s == null) {
+            s = inflate(data, 0, data.length, length);
+            source = new SoftReference<String>(s);
+        }
+        return s;
+    }
+
+    /**
+     * Return the compressed data packed two bytes per char, suitable for
+     * storing as a string constant in a class file. The first char holds
+     * the number of padding bytes at the end.
+     */
+    public String pack() {
+        int n = data.length;
+        StringBuilder sb = new StringBuilder(1 + (n + 1) / 2);
+        sb.append((char) (n & 1));
+        for (int i = 0; i < n; i += 2) {
+            int hi = data[i] & 0xFF;
+            int lo = (i + 1 < n) ? data[i + 1] & 0xFF : 0;
+            sb.append((char) ((hi << 8) | lo));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Inflate source packed with {@link #pack()} and return the substring
+     * between start and end. The inflated text is cached per packed string.
+     */
+    public static String unpackSubstring(String packed, int start, int end) {
+        SoftReference<String> ref = unpacked.get(packed);
+        String s = (ref == null) ? null : ref.get();
+        if (s == null) {
+            int n = (packed.length() - 1) * 2 - packed.charAt(0);
+            byte[] bytes = new byte[n];
+            for (int i = 0; i < n; ++i) {
+                char c = packed.charAt(1 + i / 2);
+                bytes[i] = (byte) ((i & 1) == 0 ? c >>> 8 : c);
+            }
+            s = inflate(bytes, 0, n, -1);
+            unpacked.put(packed, new SoftReference<String>(s));
+        }
+        return s.substring(start, end);
+    }
+
+    private static String inflate(byte[] data, int offset, int count, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, count);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    length >= 0 ? length * 2 : count * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw Kit.codeBug();
+                }
+                out.write(buffer, 0, n);
+            }
+            byte[] bytes = out.toByteArray();
+            char[] chars = new char[bytes.length / 2];
+            for (int i = 0; i != chars.length; ++i) {
+                chars[i] = (char) (((bytes[2 * i] & 0xFF) << 8) | (bytes[2 * i + 1] & 0xFF));
+            }
+            return new String(chars);
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -9,6 +9,7 @@
 package org.mozilla.javascript;
 
 import org.mozilla.javascript.ast.AstRoot;
+import org.mozilla.javascript.ast.NodeVisitor;
 import org.mozilla.javascript.ast.ScriptNode;
 import org.mozilla.javascript.debug.DebuggableScript;
 import org.mozilla.javascript.debug.Debugger;
@@ -437,24 +438,39 @@ public class Context {
     }
 
     static final Context enter(Context cx, ContextFactory factory) {
-        Object helper = VMBridge.instance.getThreadContextHelper();
+        return enter(cx, factory, VMBridge.instance.getThreadContextHelper());
+    }
+
+    private static Context enter(Context cx, ContextFactory factory,
+                                 Object helper) {
         Context old = VMBridge.instance.getContext(helper);
         if (old != null) {
             cx = old;
         } else {
+            if (cx == null) {
+                cx = VMBridge.instance.getRetainedContext(helper);
+                if (cx != null) {
+                    VMBridge.instance.setRetainedContext(helper, null);
+                    if (cx.factory != factory || !factory.isRetainingThreadContexts()) {
+                        cx.factory.onContextReleased(cx);
+                        cx = null;
+                    }
+                }
+            } else {
+                if (cx.enterCount != 0 || cx.retainable) {
+                    throw new IllegalStateException("can not use Context instance already associated with some thread");
+                }
+            }
             if (cx == null) {
                 cx = factory.makeContext();
                 if (cx.enterCount != 0) {
                     throw new IllegalStateException("factory.makeContext() returned Context instance already associated with some thread");
                 }
+                cx.retainable = factory.isRetainingThreadContexts();
                 factory.onContextCreated(cx);
                 if (factory.isSealed() && !cx.isSealed()) {
                     cx.seal(null);
                 }
-            } else {
-                if (cx.enterCount != 0) {
-                    throw new IllegalStateException("can not use Context instance already associated with some thread");
-                }
             }
             VMBridge.instance.setContext(helper, cx);
         }
@@ -475,7 +491,10 @@ public class Context {
      * @see ContextFactory#enterContext()
      */
     public static void exit() {
-        Object helper = VMBridge.instance.getThreadContextHelper();
+        exit(VMBridge.instance.getThreadContextHelper());
+    }
+
+    private static void exit(Object helper) {
         Context cx = VMBridge.instance.getContext(helper);
         if (cx == null) {
             throw new IllegalStateException(
@@ -484,6 +503,28 @@ public class Context {
         if (cx.enterCount < 1) Kit.codeBug();
         if (--cx.enterCount == 0) {
             VMBridge.instance.setContext(helper, null);
+            if (cx.retainable) {
+                // Kept for the next enter on this thread, the release is
+                // reported when it is dropped
+                VMBridge.instance.setRetainedContext(helper, cx);
+            } else if (cx.pooledSettings == null) {
+                cx.factory.onContextReleased(cx);
+            }
+        }
+    }
+
+    /**
+     * Drop the Context that the current thread retained after its last
+     * exit, if any, and notify the listeners of its factory that it was
+     * released.
+     *
+     * @see ContextFactory#setRetainingThreadContexts(boolean)
+     */
+    static void releaseRetainedContext() {
+        Object helper = VMBridge.instance.getThreadContextHelper();
+        Context cx = VMBridge.instance.getRetainedContext(helper);
+        if (cx != null) {
+            VMBridge.instance.setRetainedContext(helper, null);
             cx.factory.onContextReleased(cx);
         }
     }
@@ -529,18 +570,25 @@ public class Context {
         if (factory == null) {
             factory = ContextFactory.getGlobal();
         }
-        return call(factory, cx -> callable.call(cx, scope, thisObj, args));
+        Object helper = VMBridge.instance.getThreadContextHelper();
+        Context cx = enter(null, factory, helper);
+        try {
+            return callable.call(cx, scope, thisObj, args);
+        } finally {
+            exit(helper);
+        }
     }
 
     /**
      * The method implements {@link ContextFactory#call(ContextAction)} logic.
      */
     static <T> T call(ContextFactory factory, ContextAction<T> action) {
-        Context cx = enter(null, factory);
+        Object helper = VMBridge.instance.getThreadContextHelper();
+        Context cx = enter(null, factory, helper);
         try {
             return action.run(cx);
         } finally {
-            exit();
+            exit(helper);
         }
     }
 
@@ -1492,6 +1540,79 @@ public class Context {
                 securityDomain);
     }
 
+    /**
+     * Compiles the source in the given character sequence, such as a
+     * {@link java.nio.CharBuffer} holding a decoded file.
+     * <p>
+     * Unlike {@link #compileReader(Reader, String, int, Object)} the source
+     * is scanned in place without first being copied into a string, which
+     * saves time and memory for large scripts. The characters must not change
+     * while the source is compiled.
+     *
+     * @param source         the source text
+     * @param sourceName     a string describing the source, such as a filename
+     * @param lineno         the starting line number for reporting errors. Use
+     *                       0 if the line number is unknown.
+     * @param securityDomain an arbitrary object that specifies security
+     *                       information about the origin or owner of the script. For
+     *                       implementations that don't care about security, this value
+     *                       may be null.
+     * @return a script that may later be executed
+     * @see #compileString(String, String, int, Object)
+     */
+    public final Script compileSource(CharSequence source,
+                                      String sourceName, int lineno,
+                                      Object securityDomain) {
+        if (lineno < 0) {
+            // For compatibility IllegalArgumentException can not be thrown here
+            lineno = 0;
+        }
+        try {
+            return (Script) compileImpl(null, source, sourceName, lineno,
+                    securityDomain, false, null, null);
+        } catch (IOException ioe) {
+            // Should not happen when dealing with source in memory
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    /**
+     * Compiles the source in the given character sequence like
+     * {@link #compileSource(CharSequence, String, int, Object)}, showing
+     * its syntax tree to the given visitor before generating code. This lets
+     * callers inspect the source without parsing it a second time.
+     *
+     * @param source         the source text
+     * @param sourceName     a string describing the source, such as a filename
+     * @param lineno         the starting line number for reporting errors. Use
+     *                       0 if the line number is unknown.
+     * @param securityDomain an arbitrary object that specifies security
+     *                       information about the origin or owner of the script. For
+     *                       implementations that don't care about security, this value
+     *                       may be null.
+     * @param astVisitor     visits the parsed syntax tree; it must not modify
+     *                       the tree
+     * @return a script that may later be executed
+     */
+    public final Script compileSource(CharSequence source,
+                                      String sourceName, int lineno,
+                                      Object securityDomain,
+                                      NodeVisitor astVisitor) {
+        if (lineno < 0) {
+            // For compatibility IllegalArgumentException can not be thrown here
+            lineno = 0;
+        }
+        CompilerEnvirons compilerEnv = new CompilerEnvirons();
+        compilerEnv.initFromContext(this);
+        try {
+            return (Script) compileImpl(compilerEnv, null, source, sourceName,
+                    lineno, securityDomain, false, null, null, astVisitor);
+        } catch (IOException ioe) {
+            // Should not happen when dealing with source in memory
+            throw new RuntimeException(ioe);
+        }
+    }
+
     final Script compileString(String source,
                                Evaluator compiler,
                                ErrorReporter compilationErrorReporter,
@@ -1946,6 +2067,62 @@ public class Context {
         this.generatingSource = generatingSource;
     }
 
+    /**
+     * Tell whether generated source information is stored compressed.
+     *
+     * @see #setCompressingSource(boolean)
+     */
+    public final boolean isCompressingSource() {
+        return compressingSource;
+    }
+
+    /**
+     * Specify whether source information generated for scripts should be
+     * kept deflate-compressed.
+     * <p>
+     * Compressed source is only inflated when a function is decompiled,
+     * for example by "toString", which trades a slower first "toString"
+     * call for a smaller footprint of loaded scripts. This has no effect
+     * unless {@link #isGeneratingSource()} is true.
+     */
+    public final void setCompressingSource(boolean compressingSource) {
+        if (sealed) onSealedMutation();
+        this.compressingSource = compressingSource;
+    }
+
+    /**
+     * Tell whether nested functions are compiled on their first call.
+     *
+     * @see #setLazyFunctionCompilation(boolean)
+     */
+    public final boolean isLazyFunctionCompilation() {
+        return lazyFunctionCompilation;
+    }
+
+    /**
+     * Specify whether the interpreter should compile nested functions only
+     * when they are called for the first time.
+     * <p>
+     * Scripts are still parsed completely, so syntax errors are reported
+     * when the script is compiled, but no code is generated for the bodies
+     * of function declarations and function expressions until they run.
+     * This shortens the time to load scripts that define many functions of
+     * which only a few are used, while compiling a function that is used
+     * costs parsing it a second time. The source of a script is kept in
+     * memory until all its functions have been compiled, so a
+     * {@link CharSequence} passed to
+     * {@link #compileSource(CharSequence, String, int, Object)} must not be
+     * changed afterwards.
+     * <p>
+     * This only applies to interpreted mode, that is an optimization level
+     * of -1, and is ignored while a debugger is set, as the debugger is
+     * notified about all functions of a script when it is compiled.
+     */
+    public final void setLazyFunctionCompilation(boolean lazyFunctionCompilation) {
+        if (sealed) onSealedMutation();
+        this.lazyFunctionCompilation = lazyFunctionCompilation;
+    }
+
     /**
      * Get the current optimization level.
      * <p>
@@ -2425,11 +2602,29 @@ public class Context {
     }
 
     private Object compileImpl(Scriptable scope,
-                               String sourceString, String sourceName, int lineno,
+                               CharSequence sourceString, String sourceName, int lineno,
                                Object securityDomain, boolean returnFunction,
                                Evaluator compiler,
                                ErrorReporter compilationErrorReporter)
             throws IOException {
+        CompilerEnvirons compilerEnv = new CompilerEnvirons();
+        compilerEnv.initFromContext(this);
+        return compileImpl(compilerEnv, scope, sourceString, sourceName, lineno,
+                securityDomain, returnFunction, compiler, compilationErrorReporter,
+                null);
+    }
+
+    /**
+     * Compile with the given compiler environment instead of one initialized
+     * from this context, for compiling on behalf of another thread.
+     */
+    Object compileImpl(CompilerEnvirons compilerEnv, Scriptable scope,
+                       CharSequence sourceString, String sourceName, int lineno,
+                       Object securityDomain, boolean returnFunction,
+                       Evaluator compiler,
+                       ErrorReporter compilationErrorReporter,
+                       NodeVisitor astVisitor)
+            throws IOException {
         if (sourceName == null) {
             sourceName = "unnamed script";
         }
@@ -2441,17 +2636,15 @@ public class Context {
         // scope should be given if and only if compiling function
         if ((scope == null) == returnFunction) Kit.codeBug();
 
-        CompilerEnvirons compilerEnv = new CompilerEnvirons();
-        compilerEnv.initFromContext(this);
         if (compilationErrorReporter == null) {
             compilationErrorReporter = compilerEnv.getErrorReporter();
         }
 
         ScriptNode tree = parse(sourceString, sourceName, lineno,
-                compilerEnv, compilationErrorReporter, returnFunction);
+                compilerEnv, compilationErrorReporter, returnFunction, astVisitor);
 
         if (compiler == null) {
-            compiler = createCompiler();
+            compiler = createCompiler(compilerEnv.getOptimizationLevel());
         }
 
         Object bytecode = compiler.compile(compilerEnv, tree, tree.getEncodedSource(), returnFunction);
@@ -2460,7 +2653,7 @@ public class Context {
             if (sourceString == null) Kit.codeBug();
             if (bytecode instanceof DebuggableScript) {
                 DebuggableScript dscript = (DebuggableScript) bytecode;
-                notifyDebugger_r(this, dscript, sourceString);
+                notifyDebugger_r(this, dscript, sourceString.toString());
             } else {
                 throw new RuntimeException("NOT SUPPORTED");
             }
@@ -2476,9 +2669,10 @@ public class Context {
         return result;
     }
 
-    private ScriptNode parse(String sourceString, String sourceName, int lineno,
+    private ScriptNode parse(CharSequence sourceString, String sourceName, int lineno,
                              CompilerEnvirons compilerEnv, ErrorReporter compilationErrorReporter,
-                             boolean returnFunction) throws IOException {
+                             boolean returnFunction, NodeVisitor astVisitor)
+            throws IOException {
         Parser p = new Parser(compilerEnv, compilationErrorReporter);
         if (returnFunction) {
             p.calledByCompileFunction = true;
@@ -2500,6 +2694,10 @@ public class Context {
             }
         }
 
+        if (astVisitor != null) {
+            ast.visit(astVisitor);
+        }
+
         IRFactory irf = new IRFactory(compilerEnv, compilationErrorReporter);
         ScriptNode tree = irf.transformTree(ast);
         return tree;
@@ -2518,7 +2716,7 @@ public class Context {
     private static Class<?> interpreterClass = Kit.classOrNull(
             "org.mozilla.javascript.Interpreter");
 
-    private Evaluator createCompiler() {
+    private static Evaluator createCompiler(int optimizationLevel) {
         Evaluator result = null;
         if (optimizationLevel >= 0 && codegenClass != null) {
             result = (Evaluator) Kit.newInstanceOrNull(codegenClass);
@@ -2637,6 +2835,109 @@ public class Context {
         javaObjectMappingProvider = provider;
     }
 
+    /**
+     * The settings of a context, saved by {@link ContextPool} to undo the
+     * changes jobs make to a pooled context.
+     */
+    static final class Settings {
+        private final boolean sealed;
+        private final Object sealKey;
+        private final int version;
+        private final File debugOutputPath;
+        private final SecurityController securityController;
+        private final boolean hasClassShutter;
+        private final ClassShutter classShutter;
+        private final ErrorReporter errorReporter;
+        private final RegExpProxy regExpProxy;
+        private final Locale locale;
+        private final boolean generatingDebug;
+        private final boolean generatingDebugChanged;
+        private final boolean generatingSource;
+        private final boolean compressingSource;
+        private final boolean lazyFunctionCompilation;
+        private final boolean useDynamicScope;
+        private final int optimizationLevel;
+        private final int maximumInterpreterStackDepth;
+        private final WrapFactory wrapFactory;
+        private final Debugger debugger;
+        private final Object debuggerData;
+        private final Object propertyListeners;
+        private final Map<Object, Object> threadLocalMap;
+        private final ClassLoader applicationClassLoader;
+        private final JavaObjectMappingProvider javaObjectMappingProvider;
+        private final Set<String> activationNames;
+        private final int instructionThreshold;
+        private final boolean generateObserverCount;
+
+        Settings(Context cx) {
+            sealed = cx.sealed;
+            sealKey = cx.sealKey;
+            version = cx.version;
+            debugOutputPath = cx.debugOutputPath;
+            securityController = cx.securityController;
+            hasClassShutter = cx.hasClassShutter;
+            classShutter = cx.classShutter;
+            errorReporter = cx.errorReporter;
+            regExpProxy = cx.regExpProxy;
+            locale = cx.locale;
+            generatingDebug = cx.generatingDebug;
+            generatingDebugChanged = cx.generatingDebugChanged;
+            generatingSource = cx.generatingSource;
+            compressingSource = cx.compressingSource;
+            lazyFunctionCompilation = cx.lazyFunctionCompilation;
+            useDynamicScope = cx.useDynamicScope;
+            optimizationLevel = cx.optimizationLevel;
+            maximumInterpreterStackDepth = cx.maximumInterpreterStackDepth;
+            wrapFactory = cx.wrapFactory;
+            debugger = cx.debugger;
+            debuggerData = cx.debuggerData;
+            propertyListeners = cx.propertyListeners;
+            threadLocalMap = (cx.threadLocalMap == null || cx.threadLocalMap.isEmpty())
+                    ? null : new HashMap<Object, Object>(cx.threadLocalMap);
+            applicationClassLoader = cx.applicationClassLoader;
+            javaObjectMappingProvider = cx.javaObjectMappingProvider;
+            activationNames = cx.activationNames;
+            instructionThreshold = cx.instructionThreshold;
+            generateObserverCount = cx.generateObserverCount;
+        }
+
+        void restore(Context cx) {
+            cx.sealed = sealed;
+            cx.sealKey = sealKey;
+            cx.version = version;
+            cx.debugOutputPath = debugOutputPath;
+            cx.securityController = securityController;
+            cx.hasClassShutter = hasClassShutter;
+            cx.classShutter = classShutter;
+            cx.errorReporter = errorReporter;
+            cx.regExpProxy = regExpProxy;
+            cx.locale = locale;
+            cx.generatingDebug = generatingDebug;
+            cx.generatingDebugChanged = generatingDebugChanged;
+            cx.generatingSource = generatingSource;
+            cx.compressingSource = compressingSource;
+            cx.lazyFunctionCompilation = lazyFunctionCompilation;
+            cx.useDynamicScope = useDynamicScope;
+            cx.optimizationLevel = optimizationLevel;
+            cx.maximumInterpreterStackDepth = maximumInterpreterStackDepth;
+            cx.wrapFactory = wrapFactory;
+            cx.debugger = debugger;
+            cx.debuggerData = debuggerData;
+            cx.propertyListeners = propertyListeners;
+            if (threadLocalMap != null) {
+                cx.threadLocalMap = new HashMap<Object, Object>(threadLocalMap);
+            } else if (cx.threadLocalMap != null) {
+                cx.threadLocalMap.clear();
+            }
+            cx.applicationClassLoader = applicationClassLoader;
+            cx.javaObjectMappingProvider = javaObjectMappingProvider;
+            cx.activationNames = activationNames;
+            cx.instructionThreshold = instructionThreshold;
+            cx.instructionCount = 0;
+            cx.generateObserverCount = generateObserverCount;
+        }
+    }
+
     private static String implementationVersion;
 
     private final ContextFactory factory;
@@ -2667,6 +2968,8 @@ public class Context {
     private boolean generatingDebug;
     private boolean generatingDebugChanged;
     private boolean generatingSource = true;
+    private boolean compressingSource;
+    private boolean lazyFunctionCompilation;
     boolean useDynamicScope;
     private int optimizationLevel;
     private int maximumInterpreterStackDepth;
@@ -2674,6 +2977,10 @@ public class Context {
     Debugger debugger;
     private Object debuggerData;
     private int enterCount;
+    // true if the context is kept by its thread after the last exit
+    private boolean retainable;
+    // the settings restored when a context of a ContextPool is returned
+    Settings pooledSettings;
     private Object propertyListeners;
     private Map<Object, Object> threadLocalMap;
     private ClassLoader applicationClassLoader;
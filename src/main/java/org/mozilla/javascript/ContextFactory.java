@@ -114,8 +114,10 @@ public class ContextFactory {
 
     private final Object listenersLock = new Object();
     private volatile Object listeners;
+    private volatile boolean hasInitListeners;
     private boolean disabledListening;
     private ClassLoader applicationClassLoader;
+    private volatile boolean retainingThreadContexts;
 
     /**
      * Listener of {@link Context} creation and release events.
@@ -133,6 +135,43 @@ public class ContextFactory {
         void contextReleased(Context cx);
     }
 
+    /**
+     * Listener of the initialization of standard objects, for finding out
+     * where the start-up time of an embedding goes.
+     * <p>
+     * While a factory has such a listener, its contexts measure how long
+     * {@link Context#initStandardObjects()} takes to set up each standard
+     * object, and how long each lazily loaded constructor takes to load on
+     * its first use. The measurement itself takes time, so listeners should
+     * only be added for profiling.
+     */
+    public interface InitListener extends Listener {
+        /**
+         * Notify that a standard object was set up.
+         *
+         * @param name           the name of the standard object, such as
+         *                       "Array", or of a group of them
+         * @param lazy           true if a lazily loaded constructor was loaded
+         *                       on its first use, false if the object was set
+         *                       up by {@link Context#initStandardObjects()}
+         * @param nanos          the elapsed time, including nested
+         *                       initializations
+         * @param allocatedBytes the number of bytes allocated by the current
+         *                       thread meanwhile, or -1 if the JVM cannot
+         *                       tell
+         */
+        void standardObjectInitialized(Context cx, String name, boolean lazy,
+                                       long nanos, long allocatedBytes);
+
+        @Override
+        default void contextCreated(Context cx) {
+        }
+
+        @Override
+        default void contextReleased(Context cx) {
+        }
+    }
+
     /**
      * Get global ContextFactory.
      *
@@ -372,6 +411,24 @@ public class ContextFactory {
         }
     }
 
+    final boolean hasInitListeners() {
+        return hasInitListeners;
+    }
+
+    final void onStandardObjectInitialized(Context cx, String name, boolean lazy,
+                                           long nanos, long allocatedBytes) {
+        Object listeners = this.listeners;
+        for (int i = 0; ; ++i) {
+            Object l = Kit.getListener(listeners, i);
+            if (l == null)
+                break;
+            if (l instanceof InitListener) {
+                ((InitListener) l).standardObjectInitialized(cx, name, lazy,
+                        nanos, allocatedBytes);
+            }
+        }
+    }
+
     public final void addListener(Listener listener) {
         checkNotSealed();
         synchronized (listenersLock) {
@@ -379,6 +436,7 @@ public class ContextFactory {
                 throw new IllegalStateException();
             }
             listeners = Kit.addListener(listeners, listener);
+            updateInitListeners();
         }
     }
 
@@ -389,7 +447,22 @@ public class ContextFactory {
                 throw new IllegalStateException();
             }
             listeners = Kit.removeListener(listeners, listener);
+            updateInitListeners();
+        }
+    }
+
+    private void updateInitListeners() {
+        boolean found = false;
+        for (int i = 0; ; ++i) {
+            Object l = Kit.getListener(listeners, i);
+            if (l == null)
+                break;
+            if (l instanceof InitListener) {
+                found = true;
+                break;
+            }
         }
+        hasInitListeners = found;
     }
 
     /**
@@ -401,9 +474,53 @@ public class ContextFactory {
         synchronized (listenersLock) {
             disabledListening = true;
             listeners = null;
+            hasInitListeners = false;
         }
     }
 
+    /**
+     * Tell whether threads keep the contexts of this factory for reuse.
+     *
+     * @see #setRetainingThreadContexts(boolean)
+     */
+    public final boolean isRetainingThreadContexts() {
+        return retainingThreadContexts;
+    }
+
+    /**
+     * Specify whether a thread should keep the Context it created with this
+     * factory after its last {@link Context#exit()}, and use it again the
+     * next time it enters a context of this factory.
+     * <p>
+     * This makes entering a context from a thread that does not have one,
+     * for example to call back into JavaScript from a Java event loop, as
+     * cheap as entering it again from within JavaScript: no Context is
+     * created and no listeners are notified. The retained context keeps
+     * its settings and thread local values between uses.
+     * {@link Listener#contextReleased(Context)} is only called when the
+     * context is dropped, which happens on {@link #releaseThreadContext()},
+     * or when the thread enters a context of another factory or after
+     * retaining has been turned off. Contexts retained by threads that
+     * terminate are not reported as released.
+     * <p>
+     * Retained contexts can not be entered by other threads with
+     * {@link #enterContext(Context)}.
+     */
+    public final void setRetainingThreadContexts(boolean retain) {
+        checkNotSealed();
+        retainingThreadContexts = retain;
+    }
+
+    /**
+     * Drop the Context that the current thread retained after its last
+     * exit, if any.
+     *
+     * @see #setRetainingThreadContexts(boolean)
+     */
+    public final void releaseThreadContext() {
+        Context.releaseRetainedContext();
+    }
+
     /**
      * Checks if this is a sealed ContextFactory.
      *
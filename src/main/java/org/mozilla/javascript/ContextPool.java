@@ -0,0 +1,179 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+// API class
+
+package org.mozilla.javascript;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A pool of configured {@link Context} instances for running many short jobs
+ * on arbitrary threads, such as the threads of an executor or virtual
+ * threads.
+ * <p>
+ * {@link ContextFactory#call(ContextAction)} creates, configures and
+ * releases a new Context for every job run on a thread that has none. A
+ * pool instead lends each job a Context that was set up once, and takes it
+ * back when the job is done:
+ * <pre>
+ * ContextPool pool = new ContextPool(factory, 16,
+ *         cx -&gt; cx.setLanguageVersion(Context.VERSION_ES6));
+ * executor.execute(() -&gt; pool.call(cx -&gt; script.exec(cx, scope)));
+ * </pre>
+ * Changes a job makes to the settings of its Context, such as the
+ * optimization level, language version or error reporter, and thread local
+ * values it stores are undone when the Context is returned.
+ * <p>
+ * Listeners of the factory are told about a pooled Context when it is
+ * created, and about its release when it is dropped from the pool, not for
+ * every job.
+ */
+public class ContextPool {
+    private final ContextFactory factory;
+    private final Consumer<Context> initializer;
+    private final Context[] idle;
+    private int idleCount;
+
+    /**
+     * Create a pool of contexts as made by the factory, keeping up to twice
+     * as many idle contexts as there are processors.
+     */
+    public ContextPool(ContextFactory factory) {
+        this(factory, Math.max(4, 2 * Runtime.getRuntime().availableProcessors()),
+                null);
+    }
+
+    /**
+     * @param factory     the factory making the contexts
+     * @param maxIdle     the number of contexts kept for reuse; more contexts
+     *                    are created when more jobs run at the same time
+     * @param initializer configures each new Context, which is entered on
+     *                    the current thread while it runs. Can be null.
+     */
+    public ContextPool(ContextFactory factory, int maxIdle,
+                       Consumer<Context> initializer) {
+        if (factory == null || maxIdle < 0) throw new IllegalArgumentException();
+        this.factory = factory;
+        this.initializer = initializer;
+        this.idle = new Context[maxIdle];
+    }
+
+    public final ContextFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Call {@link ContextAction#run(Context)} with a Context from the pool
+     * entered on the current thread. If the thread already has a Context,
+     * that one is used instead.
+     *
+     * @return the result of {@link ContextAction#run(Context)}.
+     */
+    public <T> T call(ContextAction<T> action) {
+        Context current = Context.getCurrentContext();
+        if (current != null) {
+            return action.run(current);
+        }
+        Context cx = acquire();
+        try {
+            Context.enter(cx, factory);
+            try {
+                return action.run(cx);
+            } finally {
+                Context.exit();
+            }
+        } finally {
+            release(cx);
+        }
+    }
+
+    /**
+     * Run {@link ContextAction#run(Context)} on the executor, with a
+     * Context from the pool.
+     *
+     * @return a future completed with the result of the action, or
+     * exceptionally with the exception it throws.
+     */
+    public <T> CompletableFuture<T> submit(Executor executor,
+                                           final ContextAction<T> action) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(call(action));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Return the number of contexts waiting for a job.
+     */
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * Drop the idle contexts. Contexts in use are returned to the pool as
+     * usual.
+     */
+    public void clear() {
+        Context[] dropped;
+        synchronized (this) {
+            dropped = new Context[idleCount];
+            System.arraycopy(idle, 0, dropped, 0, idleCount);
+            java.util.Arrays.fill(idle, 0, idleCount, null);
+            idleCount = 0;
+        }
+        for (Context cx : dropped) {
+            factory.onContextReleased(cx);
+        }
+    }
+
+    private Context acquire() {
+        synchronized (this) {
+            if (idleCount != 0) {
+                Context cx = idle[--idleCount];
+                idle[idleCount] = null;
+                return cx;
+            }
+        }
+        Context cx = factory.makeContext();
+        factory.onContextCreated(cx);
+        if (factory.isSealed() && !cx.isSealed()) {
+            cx.seal(null);
+        }
+        Context.enter(cx, factory);
+        try {
+            if (initializer != null) {
+                initializer.accept(cx);
+            }
+            // Set before the exit so that it does not release the context
+            cx.pooledSettings = new Context.Settings(cx);
+        } finally {
+            Context.exit();
+        }
+        return cx;
+    }
+
+    private void release(Context cx) {
+        cx.pooledSettings.restore(cx);
+        synchronized (this) {
+            if (idleCount != idle.length) {
+                idle[idleCount++] = cx;
+                return;
+            }
+        }
+        factory.onContextReleased(cx);
+    }
+}
@@ -72,6 +72,17 @@ public class Decompiler {
     // the last RC of object literals in case of function expressions
     private static final int FUNCTION_END = Token.LAST_TOKEN + 1;
 
+    public Decompiler() {
+        this(128);
+    }
+
+    /**
+     * @param capacity the initial capacity of the encoded source buffer
+     */
+    Decompiler(int capacity) {
+        sourceBuffer = new char[capacity];
+    }
+
     String getEncodedSource() {
         return sourceToString(0);
     }
@@ -918,7 +929,7 @@ public class Decompiler {
         return offset;
     }
 
-    private char[] sourceBuffer = new char[128];
+    private char[] sourceBuffer;
 
     // Per script/function source buffer top: parent source does not include a
 // nested functions source and uses function index as a reference instead.
@@ -15,7 +15,8 @@ import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
-public class FunctionObject extends BaseFunction {
+public class FunctionObject extends BaseFunction
+        implements ScopeSnapshot.SharedReferences {
     private static final long serialVersionUID = -5332312783643935019L;
 
     /**
@@ -52,6 +52,11 @@ public final class IRFactory extends Parser {
      * Optionally generates the encoded source.
      */
     public ScriptNode transformTree(AstRoot root) {
+        if (decompiler.getCurrentOffset() == 0 && root.getLength() > 128) {
+            // The encoded source is rarely longer than the source, so this
+            // avoids growing the buffer repeatedly
+            decompiler = new Decompiler(root.getLength());
+        }
         currentScriptOrFn = root;
         this.inUseStrictDirective = root.isInStrictMode();
         int sourceStartOffset = decompiler.getCurrentOffset();
@@ -145,11 +145,18 @@ public class IdFunctionObject extends BaseFunction {
                 "BAD FUNCTION ID=" + methodId + " MASTER=" + idcall);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        // The tag identifies the class of the function and is shared
+        idcall = copier.copy(idcall);
+    }
+
     static boolean equalObjectGraphs(IdFunctionObject f1, IdFunctionObject f2, EqualObjectGraphs eq) {
         return f1.methodId == f2.methodId && f1.hasTag(f2.tag) && eq.equalGraphs(f1.idcall, f2.idcall);
     }
 
-    private final IdFunctionCall idcall;
+    private IdFunctionCall idcall;
     private final Object tag;
     private final int methodId;
     private int arity;
@@ -309,6 +309,43 @@ public abstract class IdScriptableObject extends ScriptableObject implements IdF
             }
             return value;
         }
+
+        synchronized PrototypeValues copy(IdScriptableObject obj,
+                                          ScopeSnapshot.Copier copier) {
+            PrototypeValues copy = new PrototypeValues(obj, maxId);
+            if (valueArray != null) {
+                copy.valueArray = copier.copyArray(valueArray);
+                copy.attributeArray = attributeArray.clone();
+            }
+            copy.constructorId = constructorId;
+            copy.constructor = copier.copy(constructor);
+            copy.constructorAttrs = constructorAttrs;
+            return copy;
+        }
+    }
+
+    /**
+     * The getter of the Symbol.species property of constructors.
+     */
+    private static final class SpeciesGetter extends BaseFunction {
+        private static final long serialVersionUID = 6101237497211373487L;
+
+        private IdFunctionObject ctor;
+
+        SpeciesGetter(IdFunctionObject ctor) {
+            this.ctor = ctor;
+        }
+
+        @Override
+        public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
+            return ctor;
+        }
+
+        @Override
+        protected void copyReferences(ScopeSnapshot.Copier copier) {
+            super.copyReferences(copier);
+            ctor = copier.copy(ctor);
+        }
     }
 
     public IdScriptableObject() {
@@ -825,12 +862,7 @@ public abstract class IdScriptableObject extends ScriptableObject implements IdF
         NativeObject desc = new NativeObject();
         ScriptableObject.defineProperty(desc, "configurable", true, 0);
         ScriptableObject.defineProperty(desc, "enumerable", false, 0);
-        ScriptableObject.defineProperty(desc, "get", new BaseFunction() {
-            @Override
-            public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
-                return ctor;
-            }
-        }, 0);
+        ScriptableObject.defineProperty(desc, "get", new SpeciesGetter(ctor), 0);
 
         ctor.defineOwnProperty(Context.getContext(), SymbolKey.SPECIES, desc, true);
     }
@@ -1002,6 +1034,14 @@ public abstract class IdScriptableObject extends ScriptableObject implements IdF
         return null;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        if (prototypeValues != null) {
+            prototypeValues = prototypeValues.copy(this, copier);
+        }
+    }
+
     private void readObject(ObjectInputStream stream)
             throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
@@ -60,6 +60,18 @@ public class ImporterTopLevel extends TopLevel {
         return (topScopeFlag) ? "global" : "JavaImporter";
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        ObjArray copy = new ObjArray();
+        synchronized (importedPackages) {
+            for (int i = 0; i != importedPackages.size(); i++) {
+                copy.add(copier.copy(importedPackages.get(i)));
+            }
+        }
+        importedPackages = copy;
+    }
+
     public static void init(Context cx, Scriptable scope, boolean sealed) {
         ImporterTopLevel obj = new ImporterTopLevel();
         obj.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
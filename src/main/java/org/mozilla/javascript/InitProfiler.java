@@ -0,0 +1,106 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures the initialization of standard objects for the
+ * {@link ContextFactory.InitListener}s of a factory.
+ */
+final class InitProfiler {
+    /**
+     * Looks up the thread bean when the first profiler is created, so that
+     * the management classes are only loaded for factories with init
+     * listeners.
+     */
+    private static final class ThreadBean {
+        static final Object BEAN;
+        static final Method ALLOCATED_BYTES;
+
+        static {
+            // Not available on all VMs, so looked up by reflection
+            Object bean = null;
+            Method method = null;
+            try {
+                Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+                bean = factory.getMethod("getThreadMXBean").invoke(null);
+                Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+                if (beanClass.isInstance(bean)) {
+                    method = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+                }
+            } catch (Exception | LinkageError e) {
+                // no allocation data
+            }
+            BEAN = bean;
+            ALLOCATED_BYTES = method;
+        }
+    }
+
+    private final Context cx;
+    private long startTime;
+    private long startBytes;
+
+    private InitProfiler(Context cx) {
+        this.cx = cx;
+        restart();
+    }
+
+    /**
+     * Return a profiler if the factory of the context has init listeners,
+     * null otherwise.
+     */
+    static InitProfiler start(Context cx) {
+        if (cx == null || !cx.getFactory().hasInitListeners()) {
+            return null;
+        }
+        return new InitProfiler(cx);
+    }
+
+    /**
+     * Report the time and allocation since the profiler was started or
+     * since the previous call.
+     *
+     * @param profiler the profiler, or null if not profiling
+     */
+    static void done(InitProfiler profiler, String name, boolean lazy) {
+        if (profiler != null) {
+            profiler.done(name, lazy);
+        }
+    }
+
+    private void done(String name, boolean lazy) {
+        long nanos = System.nanoTime() - startTime;
+        long bytes = allocatedBytes();
+        if (bytes >= 0 && startBytes >= 0) {
+            bytes -= startBytes;
+        } else {
+            bytes = -1;
+        }
+        cx.getFactory().onStandardObjectInitialized(cx, name, lazy, nanos, bytes);
+        // Leave out the time taken by the listeners
+        restart();
+    }
+
+    private void restart() {
+        startBytes = allocatedBytes();
+        startTime = System.nanoTime();
+    }
+
+    private static long allocatedBytes() {
+        if (ThreadBean.ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            Object bytes = ThreadBean.ALLOCATED_BYTES.invoke(ThreadBean.BEAN,
+                    Thread.currentThread().getId());
+            return ((Long) bytes).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -6,15 +6,34 @@
 
 package org.mozilla.javascript;
 
+import org.mozilla.classfile.ByteCode;
+import org.mozilla.classfile.ClassFileWriter;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Adapter to use JS function as implementation of Java interfaces with
  * single method or multiple methods with the same signature.
+ * <p>
+ * Functions are wrapped into an adapter class generated once per interface,
+ * which calls back into {@link Binding} without going through reflection. Interfaces the generated class can not implement (for example
+ * non-public ones) and JS objects implementing interfaces by method name
+ * still use a {@link java.lang.reflect.Proxy}.
  */
 public class InterfaceAdapter {
+    private static final String BINDING_CLASS =
+            "org/mozilla/javascript/InterfaceAdapter$Binding";
+
     private final Object proxyHelper;
+    private final Method[] adapterMethods;
+    private final Constructor<?> adapterCtor;
 
     /**
      * Make glue object implementing interface cl that will
@@ -61,9 +80,12 @@ public class InterfaceAdapter {
                     }
                 }
             }
-            adapter = new InterfaceAdapter(cf, cl);
+            adapter = new InterfaceAdapter(cf, cl, cache);
             cache.cacheInterfaceAdapter(cl, adapter);
         }
+        if (adapter.adapterCtor != null && object instanceof Callable) {
+            return adapter.newAdapter(cf, object, topScope);
+        }
         return VMBridge.instance.newInterfaceProxy(
                 adapter.proxyHelper, cf, adapter, object, topScope);
     }
@@ -86,10 +108,465 @@ public class InterfaceAdapter {
         }
     }
 
-    private InterfaceAdapter(ContextFactory cf, Class<?> cl) {
+    private InterfaceAdapter(ContextFactory cf, Class<?> cl, ClassCache cache) {
         this.proxyHelper
                 = VMBridge.instance.getInterfaceProxyHelper(
                 cf, new Class[]{cl});
+
+        Method[] methods = getAdapterMethods(cl);
+        Constructor<?> ctor = null;
+        if (methods != null) {
+            String adapterName = "iadapter" + cache.newClassSerialNumber();
+            try {
+                byte[] code = createAdapterCode(adapterName, cl, methods);
+                Class<?> adapterClass = JavaAdapter.loadAdapterClass(adapterName, code);
+                if (isLinkedAgainst(adapterClass, cl, methods)) {
+                    ctor = adapterClass.getConstructor(Binding.class);
+                }
+            } catch (LinkageError | NoSuchMethodException | SecurityException e) {
+                // The interface is not visible to generated classes, fall
+                // back to a proxy
+                ctor = null;
+            }
+        }
+        this.adapterMethods = ctor == null ? null : methods;
+        this.adapterCtor = ctor;
+    }
+
+    /**
+     * Collect the methods a generated adapter class for interface cl has to
+     * implement, or return null if such class can not be generated.
+     */
+    private static Method[] getAdapterMethods(Class<?> cl) {
+        if (!Modifier.isPublic(cl.getModifiers())) {
+            return null;
+        }
+        List<Method> list = new ArrayList<Method>();
+        Map<String, Class<?>> returnTypes = new HashMap<String, Class<?>>();
+        for (Method method : cl.getMethods()) {
+            int mods = method.getModifiers();
+            if (Modifier.isStatic(mods) || !Modifier.isAbstract(mods)
+                    || isObjectMethod(method)) {
+                continue;
+            }
+            if (!isAccessibleType(method.getReturnType())) {
+                return null;
+            }
+            for (Class<?> type : method.getParameterTypes()) {
+                if (!isAccessibleType(type)) {
+                    return null;
+                }
+            }
+            StringBuilder sb = new StringBuilder(method.getName());
+            JavaAdapter.appendMethodSignature(method.getParameterTypes(),
+                    Void.TYPE, sb);
+            String key = sb.toString();
+            Class<?> returnType = returnTypes.get(key);
+            if (returnType == null) {
+                returnTypes.put(key, method.getReturnType());
+                list.add(method);
+            } else if (returnType != method.getReturnType()) {
+                // Covariant redeclaration, leave it to the proxy
+                return null;
+            }
+        }
+        return list.toArray(new Method[list.size()]);
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        String name = method.getName();
+        int arity = method.getParameterTypes().length;
+        return (arity == 0 && (name.equals("hashCode") || name.equals("toString")))
+                || (arity == 1 && name.equals("equals")
+                && method.getParameterTypes()[0] == ScriptRuntime.ObjectClass);
+    }
+
+    private static boolean isAccessibleType(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    /**
+     * Check that the generated class sees the same interface and signature
+     * types as the caller, which is not the case when the interface comes
+     * from a class loader the application class loader does not delegate to.
+     */
+    private static boolean isLinkedAgainst(Class<?> adapterClass, Class<?> cl,
+                                           Method[] methods) {
+        if (!cl.isAssignableFrom(adapterClass)) {
+            return false;
+        }
+        ClassLoader loader = adapterClass.getClassLoader();
+        for (Method method : methods) {
+            if (!isVisible(loader, method.getReturnType())) {
+                return false;
+            }
+            for (Class<?> type : method.getParameterTypes()) {
+                if (!isVisible(loader, type)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(ClassLoader loader, Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, loader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private Object newAdapter(ContextFactory cf, Object target,
+                              Scriptable topScope) {
+        try {
+            return adapterCtor.newInstance(
+                    new Binding(this, cf, target, topScope));
+        } catch (InvocationTargetException ex) {
+            throw Context.throwAsScriptRuntimeEx(ex);
+        } catch (IllegalAccessException | InstantiationException ex) {
+            // Should not happen
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Generate a final class implementing interface cl whose methods call
+     * {@link Binding} with the index of the method in <code>methods</code>
+     * and the boxed arguments.
+     */
+    private static byte[] createAdapterCode(String adapterName, Class<?> cl,
+                                            Method[] methods) {
+        ClassFileWriter cfw = new ClassFileWriter(adapterName,
+                "java.lang.Object", "<adapter>");
+        cfw.setFlags((short) (ClassFileWriter.ACC_PUBLIC
+                | ClassFileWriter.ACC_FINAL));
+        cfw.addInterface(cl.getName());
+        cfw.addField("binding", "L" + BINDING_CLASS + ";",
+                (short) (ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL));
+
+        cfw.startMethod("<init>", "(L" + BINDING_CLASS + ";)V",
+                ClassFileWriter.ACC_PUBLIC);
+        cfw.add(ByteCode.ALOAD_0);
+        cfw.addInvoke(ByteCode.INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+        cfw.add(ByteCode.ALOAD_0);
+        cfw.add(ByteCode.ALOAD_1);
+        cfw.add(ByteCode.PUTFIELD, adapterName, "binding", "L" + BINDING_CLASS + ";");
+        cfw.add(ByteCode.RETURN);
+        cfw.stopMethod((short) 2); // this + binding
+
+        for (int i = 0; i != methods.length; ++i) {
+            generateAdapterMethod(cfw, adapterName, methods[i], i);
+        }
+
+        // Same hashCode() and toString() as proxies, equals() is inherited
+        // from Object and compares identity like proxies do.
+        cfw.startMethod("hashCode", "()I", ClassFileWriter.ACC_PUBLIC);
+        cfw.add(ByteCode.ALOAD_0);
+        cfw.add(ByteCode.GETFIELD, adapterName, "binding", "L" + BINDING_CLASS + ";");
+        cfw.addInvoke(ByteCode.INVOKEVIRTUAL, BINDING_CLASS, "hashCode", "()I");
+        cfw.add(ByteCode.IRETURN);
+        cfw.stopMethod((short) 1);
+
+        cfw.startMethod("toString", "()Ljava/lang/String;",
+                ClassFileWriter.ACC_PUBLIC);
+        cfw.add(ByteCode.ALOAD_0);
+        cfw.add(ByteCode.GETFIELD, adapterName, "binding", "L" + BINDING_CLASS + ";");
+        cfw.addInvoke(ByteCode.INVOKEVIRTUAL, BINDING_CLASS, "toString",
+                "()Ljava/lang/String;");
+        cfw.add(ByteCode.ARETURN);
+        cfw.stopMethod((short) 1);
+
+        return cfw.toByteArray();
+    }
+
+    /**
+     * Methods with at most this many parameters call the Binding entry point
+     * for their arity, which takes the arguments without an array.
+     */
+    private static final int MAX_SPECIALIZED_ARITY = 3;
+
+    private static void generateAdapterMethod(ClassFileWriter cfw,
+                                              String adapterName,
+                                              Method method, int index) {
+        Class<?>[] argTypes = method.getParameterTypes();
+        Class<?> returnType = method.getReturnType();
+        StringBuilder sb = new StringBuilder();
+        int paramsEnd = JavaAdapter.appendMethodSignature(argTypes, returnType, sb);
+        cfw.startMethod(method.getName(), sb.toString(),
+                ClassFileWriter.ACC_PUBLIC);
+
+        cfw.add(ByteCode.ALOAD_0);
+        cfw.add(ByteCode.GETFIELD, adapterName, "binding", "L" + BINDING_CLASS + ";");
+        cfw.add(ByteCode.ALOAD_0);
+        cfw.addPush(index);
+
+        if (argTypes.length <= MAX_SPECIALIZED_ARITY) {
+            StringBuilder invokeSig = new StringBuilder("(Ljava/lang/Object;I");
+            int paramOffset = 1;
+            for (Class<?> argType : argTypes) {
+                paramOffset += generateBoxArg(cfw, paramOffset, argType);
+                invokeSig.append("Ljava/lang/Object;");
+            }
+            invokeSig.append(")Ljava/lang/Object;");
+            cfw.addInvoke(ByteCode.INVOKEVIRTUAL, BINDING_CLASS,
+                    "invoke" + argTypes.length, invokeSig.toString());
+        } else {
+            cfw.addPush(argTypes.length);
+            cfw.add(ByteCode.ANEWARRAY, "java/lang/Object");
+            int paramOffset = 1;
+            for (int i = 0; i != argTypes.length; ++i) {
+                cfw.add(ByteCode.DUP);
+                cfw.addPush(i);
+                paramOffset += generateBoxArg(cfw, paramOffset, argTypes[i]);
+                cfw.add(ByteCode.AASTORE);
+            }
+            cfw.addInvoke(ByteCode.INVOKEVIRTUAL, BINDING_CLASS, "invoke",
+                    "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;");
+        }
+        generateUnboxResult(cfw, returnType);
+        cfw.stopMethod((short) paramsEnd);
+    }
+
+    /**
+     * Generates code to box a Java argument the same way reflection does
+     * for proxies, leaving the boxed value on the top of the stack.
+     */
+    private static int generateBoxArg(ClassFileWriter cfw, int paramOffset,
+                                      Class<?> argType) {
+        if (!argType.isPrimitive()) {
+            cfw.addALoad(paramOffset);
+            return 1;
+        }
+        if (argType == Long.TYPE) {
+            cfw.addLLoad(paramOffset);
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Long",
+                    "valueOf", "(J)Ljava/lang/Long;");
+            return 2;
+        }
+        if (argType == Double.TYPE) {
+            cfw.addDLoad(paramOffset);
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Double",
+                    "valueOf", "(D)Ljava/lang/Double;");
+            return 2;
+        }
+        if (argType == Float.TYPE) {
+            cfw.addFLoad(paramOffset);
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Float",
+                    "valueOf", "(F)Ljava/lang/Float;");
+            return 1;
+        }
+        cfw.addILoad(paramOffset);
+        if (argType == Boolean.TYPE) {
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Boolean",
+                    "valueOf", "(Z)Ljava/lang/Boolean;");
+        } else if (argType == Character.TYPE) {
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Character",
+                    "valueOf", "(C)Ljava/lang/Character;");
+        } else if (argType == Byte.TYPE) {
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Byte",
+                    "valueOf", "(B)Ljava/lang/Byte;");
+        } else if (argType == Short.TYPE) {
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Short",
+                    "valueOf", "(S)Ljava/lang/Short;");
+        } else {
+            cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Integer",
+                    "valueOf", "(I)Ljava/lang/Integer;");
+        }
+        return 1;
+    }
+
+    /**
+     * Generates code to return the value already converted by
+     * {@link Binding}, unboxing it for primitive return types.
+     */
+    private static void generateUnboxResult(ClassFileWriter cfw,
+                                            Class<?> retType) {
+        if (retType == Void.TYPE) {
+            cfw.add(ByteCode.POP);
+            cfw.add(ByteCode.RETURN);
+        } else if (retType == Boolean.TYPE) {
+            cfw.add(ByteCode.CHECKCAST, "java/lang/Boolean");
+            cfw.addInvoke(ByteCode.INVOKEVIRTUAL, "java/lang/Boolean",
+                    "booleanValue", "()Z");
+            cfw.add(ByteCode.IRETURN);
+        } else if (retType == Character.TYPE) {
+            cfw.add(ByteCode.CHECKCAST, "java/lang/Character");
+            cfw.addInvoke(ByteCode.INVOKEVIRTUAL, "java/lang/Character",
+                    "charValue", "()C");
+            cfw.add(ByteCode.IRETURN);
+        } else if (retType.isPrimitive()) {
+            cfw.add(ByteCode.CHECKCAST, "java/lang/Number");
+            if (retType == Long.TYPE) {
+                cfw.addInvoke(ByteCode.INVOKEVIRTUAL, "java/lang/Number",
+                        "longValue", "()J");
+                cfw.add(ByteCode.LRETURN);
+            } else if (retType == Double.TYPE) {
+                cfw.addInvoke(ByteCode.INVOKEVIRTUAL, "java/lang/Number",
+                        "doubleValue", "()D");
+                cfw.add(ByteCode.DRETURN);
+            } else if (retType == Float.TYPE) {
+                cfw.addInvoke(ByteCode.INVOKEVIRTUAL, "java/lang/Number",
+                        "floatValue", "()F");
+                cfw.add(ByteCode.FRETURN);
+            } else {
+                String unbox = retType == Byte.TYPE ? "byteValue"
+                        : retType == Short.TYPE ? "shortValue" : "intValue";
+                String sig = retType == Byte.TYPE ? "()B"
+                        : retType == Short.TYPE ? "()S" : "()I";
+                cfw.addInvoke(ByteCode.INVOKEVIRTUAL, "java/lang/Number",
+                        unbox, sig);
+                cfw.add(ByteCode.IRETURN);
+            }
+        } else {
+            cfw.add(ByteCode.CHECKCAST, retType.getName());
+            cfw.add(ByteCode.ARETURN);
+        }
+    }
+
+    /**
+     * State of a single generated adapter instance.
+     * Not intended for public use, called from generated adapter classes.
+     */
+    public static final class Binding {
+        private final InterfaceAdapter adapter;
+        private final ContextFactory factory;
+        private final Callable target;
+        private final Scriptable topScope;
+        // "this" for the JS function, wrapped on first call
+        private volatile Scriptable wrappedSelf;
+
+        Binding(InterfaceAdapter adapter, ContextFactory factory,
+                Object target, Scriptable topScope) {
+            this.adapter = adapter;
+            this.factory = factory;
+            this.target = (Callable) target;
+            this.topScope = topScope;
+        }
+
+        /**
+         * Call the JS function for the adapter method with the given index,
+         * reusing the Context already entered on the current thread if any.
+         */
+        public Object invoke(Object self, int methodIndex, Object[] args) {
+            Context cx = Context.getCurrentContext();
+            if (cx != null) {
+                return invokeImpl(cx, self, methodIndex, args);
+            }
+            return factory.call(c -> invokeImpl(c, self, methodIndex, args));
+        }
+
+        /**
+         * Call the JS function for an adapter method without parameters.
+         */
+        public Object invoke0(Object self, int methodIndex) {
+            Context cx = Context.getCurrentContext();
+            if (cx == null) {
+                return invoke(self, methodIndex, ScriptRuntime.emptyArgs);
+            }
+            return call(cx, self, methodIndex, ScriptRuntime.emptyArgs);
+        }
+
+        /**
+         * Call the JS function for an adapter method with one parameter.
+         */
+        public Object invoke1(Object self, int methodIndex, Object arg0) {
+            Context cx = Context.getCurrentContext();
+            if (cx == null) {
+                return invoke(self, methodIndex, new Object[]{arg0});
+            }
+            return call(cx, self, methodIndex,
+                    new Object[]{wrapArg(cx, arg0)});
+        }
+
+        /**
+         * Call the JS function for an adapter method with two parameters.
+         */
+        public Object invoke2(Object self, int methodIndex, Object arg0,
+                              Object arg1) {
+            Context cx = Context.getCurrentContext();
+            if (cx == null) {
+                return invoke(self, methodIndex, new Object[]{arg0, arg1});
+            }
+            return call(cx, self, methodIndex,
+                    new Object[]{wrapArg(cx, arg0), wrapArg(cx, arg1)});
+        }
+
+        /**
+         * Call the JS function for an adapter method with three parameters.
+         */
+        public Object invoke3(Object self, int methodIndex, Object arg0,
+                              Object arg1, Object arg2) {
+            Context cx = Context.getCurrentContext();
+            if (cx == null) {
+                return invoke(self, methodIndex,
+                        new Object[]{arg0, arg1, arg2});
+            }
+            return call(cx, self, methodIndex,
+                    new Object[]{wrapArg(cx, arg0), wrapArg(cx, arg1),
+                            wrapArg(cx, arg2)});
+        }
+
+        private Object invokeImpl(Context cx, Object self, int methodIndex,
+                                  Object[] args) {
+            return adapter.callFunction(cx, target, topScope,
+                    getThisObj(cx, self), adapter.adapterMethods[methodIndex],
+                    args);
+        }
+
+        /**
+         * Call the function with arguments already wrapped the same way
+         * {@link InterfaceAdapter#callFunction} wraps them.
+         */
+        private Object call(Context cx, Object self, int methodIndex,
+                            Object[] args) {
+            Object result = target.call(cx, topScope, getThisObj(cx, self),
+                    args);
+            Class<?> javaResultType =
+                    adapter.adapterMethods[methodIndex].getReturnType();
+            if (javaResultType == Void.TYPE) {
+                return null;
+            }
+            return Context.jsToJava(result, javaResultType);
+        }
+
+        private Object wrapArg(Context cx, Object arg) {
+            // neutralize wrap factory java primitive wrap feature
+            if (arg instanceof String || arg instanceof Number
+                    || arg instanceof Boolean) {
+                return arg;
+            }
+            return cx.getWrapFactory().wrap(cx, topScope, arg, null);
+        }
+
+        private Scriptable getThisObj(Context cx, Object self) {
+            Scriptable thisObj = wrappedSelf;
+            if (thisObj == null) {
+                thisObj = cx.getWrapFactory().wrapAsJavaObject(cx, topScope,
+                        self, null);
+                wrappedSelf = thisObj;
+            }
+            return thisObj;
+        }
+
+        @Override
+        public int hashCode() {
+            return target.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Proxy[" + target.toString() + "]";
+        }
     }
 
     public Object invoke(ContextFactory cf,
@@ -107,6 +584,17 @@ public class InterfaceAdapter {
                       Object thisObject,
                       Method method,
                       Object[] args) {
+        Scriptable thisObj = cx.getWrapFactory().wrapAsJavaObject(cx, topScope,
+                thisObject, null);
+        return callFunction(cx, target, topScope, thisObj, method, args);
+    }
+
+    Object callFunction(Context cx,
+                        Object target,
+                        Scriptable topScope,
+                        Scriptable thisObj,
+                        Method method,
+                        Object[] args) {
         Callable function;
         if (target instanceof Callable) {
             function = (Callable) target;
@@ -145,8 +633,6 @@ public class InterfaceAdapter {
                 }
             }
         }
-        Scriptable thisObj = wf.wrapAsJavaObject(cx, topScope, thisObject, null);
-
         Object result = function.call(cx, topScope, thisObj, args);
         Class<?> javaResultType = method.getReturnType();
         if (javaResultType == Void.TYPE) {
@@ -8,7 +8,8 @@ package org.mozilla.javascript;
 
 import org.mozilla.javascript.debug.DebuggableScript;
 
-final class InterpretedFunction extends NativeFunction implements Script {
+final class InterpretedFunction extends NativeFunction
+        implements Script, ScopeSnapshot.SharedReferences {
     private static final long serialVersionUID = 541475680333911468L;
 
     InterpreterData idata;
@@ -167,6 +168,14 @@ final class InterpretedFunction extends NativeFunction implements Script {
         return false;
     }
 
+    @Override
+    protected boolean retainsArguments() {
+        // Without an activation the arguments are copied to the frame.
+        // Whether a function needs one is only known once it is compiled.
+        return idata.lazyFunction != null
+                || idata.itsNeedsActivation || idata.itsFunctionType == 0;
+    }
+
     boolean hasFunctionNamed(String name) {
         for (int f = 0; f < idata.getFunctionCount(); f++) {
             InterpreterData functionData = (InterpreterData) idata.getFunction(f);
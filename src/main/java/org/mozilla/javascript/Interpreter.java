@@ -945,6 +945,10 @@ public final class Interpreter extends Icode implements Evaluator {
     }
 
     static String getEncodedSource(InterpreterData idata) {
+        if (idata.compressedSource != null) {
+            return idata.compressedSource.substring(idata.encodedSourceStart,
+                    idata.encodedSourceEnd);
+        }
         if (idata.encodedSource == null) {
             return null;
         }
@@ -2743,6 +2747,9 @@ public final class Interpreter extends Icode implements Evaluator {
                                        int argShift, int argCount,
                                        InterpretedFunction fnOrScript,
                                        CallFrame parentFrame) {
+        if (fnOrScript.idata.lazyFunction != null) {
+            CodeGenerator.compileLazyFunction(fnOrScript.idata);
+        }
         CallFrame frame = new CallFrame(cx, thisObj, fnOrScript, parentFrame);
         frame.initializeArgs(cx, callerScope, args, argsDbl, argShift, argCount);
         enterFrame(cx, frame, args, false);
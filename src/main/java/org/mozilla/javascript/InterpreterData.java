@@ -8,8 +8,13 @@ package org.mozilla.javascript;
 
 import org.mozilla.javascript.debug.DebuggableScript;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 final class InterpreterData implements Serializable, DebuggableScript {
     private static final long serialVersionUID = 5067677351589230234L;
@@ -28,12 +33,89 @@ final class InterpreterData implements Serializable, DebuggableScript {
     }
 
     InterpreterData(InterpreterData parent) {
+        this(parent, null);
+        init();
+    }
+
+    /**
+     * Create the data of a nested function that gets its code from
+     * {@link CodeGenerator#compileLazyFunction} when it is first called,
+     * if lazyFunction is not null.
+     */
+    InterpreterData(InterpreterData parent, LazyFunction lazyFunction) {
         this.parentData = parent;
         this.languageVersion = parent.languageVersion;
         this.itsSourceFile = parent.itsSourceFile;
         this.encodedSource = parent.encodedSource;
+        this.compressedSource = parent.compressedSource;
         this.isStrict = parent.isStrict;
-        init();
+        this.lazyFunction = lazyFunction;
+    }
+
+    /**
+     * Where to find the source of a function that is not compiled yet: the
+     * range [start, end) of the script source.
+     */
+    static final class LazyFunction {
+        final LazySource source;
+        final int start;
+        final int end;
+        final int lineno;
+
+        LazyFunction(LazySource source, int start, int end, int lineno) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.lineno = lineno;
+        }
+    }
+
+    /**
+     * The source of a script whose functions are compiled lazily, shared by
+     * all of them, with the compiler settings they need. It does not keep
+     * the CompilerEnvirons of the script, which holds its error reporter.
+     */
+    static final class LazySource {
+        final CharSequence text;
+        private final int languageVersion;
+        private final boolean generateDebugInfo;
+        private final boolean reservedKeywordAsIdentifier;
+        private final boolean strictMode;
+        private final boolean generatingSource;
+        private final boolean compressingSource;
+        private final Set<String> activationNames;
+
+        LazySource(CharSequence text, CompilerEnvirons compilerEnv) {
+            this.text = text;
+            this.languageVersion = compilerEnv.getLanguageVersion();
+            this.generateDebugInfo = compilerEnv.isGenerateDebugInfo();
+            this.reservedKeywordAsIdentifier =
+                    compilerEnv.isReservedKeywordAsIdentifier();
+            this.strictMode = compilerEnv.isStrictMode();
+            this.generatingSource = compilerEnv.isGeneratingSource();
+            this.compressingSource = compilerEnv.isCompressingSource();
+            Set<String> names = compilerEnv.getActivationNames();
+            this.activationNames = names == null ? null
+                    : Collections.unmodifiableSet(new HashSet<String>(names));
+        }
+
+        /**
+         * Returns new settings for compiling a function of this source that
+         * report errors to the given reporter.
+         */
+        CompilerEnvirons newCompilerEnvirons(ErrorReporter reporter) {
+            CompilerEnvirons compilerEnv = new CompilerEnvirons();
+            compilerEnv.setErrorReporter(reporter);
+            compilerEnv.setLanguageVersion(languageVersion);
+            compilerEnv.setGenerateDebugInfo(generateDebugInfo);
+            compilerEnv.setReservedKeywordAsIdentifier(reservedKeywordAsIdentifier);
+            compilerEnv.setStrictMode(strictMode);
+            compilerEnv.setGeneratingSource(generatingSource);
+            compilerEnv.setCompressingSource(compressingSource);
+            compilerEnv.setLazyFunctionCompilation(true);
+            compilerEnv.setActivationNames(activationNames);
+            return compilerEnv;
+        }
     }
 
     private void init() {
@@ -68,6 +150,7 @@ final class InterpreterData implements Serializable, DebuggableScript {
     int itsMaxCalleeArgs;
 
     String encodedSource;
+    CompressedSource compressedSource;
     int encodedSourceStart;
     int encodedSourceEnd;
 
@@ -94,6 +177,9 @@ final class InterpreterData implements Serializable, DebuggableScript {
     /** true if the function has been declared like "!function() {}". */
     boolean declaredAsFunctionExpression;
 
+    /** non-null until the code of a lazily compiled function is generated */
+    transient volatile LazyFunction lazyFunction;
+
     @Override
     public boolean isTopLevel() {
         return topLevel;
@@ -158,6 +244,14 @@ final class InterpreterData implements Serializable, DebuggableScript {
         return parentData;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (lazyFunction != null) {
+            // The source is not serialized, so the code is needed now
+            CodeGenerator.compileLazyFunction(this);
+        }
+        out.defaultWriteObject();
+    }
+
     public int icodeHashCode() {
         int h = icodeHashCode;
         if (h == 0) {
@@ -49,6 +49,29 @@ public final class LazilyLoadedCtor implements Serializable {
                 ScriptableObject.NOT_ENUMERABLE);
     }
 
+    private LazilyLoadedCtor(LazilyLoadedCtor ctor, ScopeSnapshot.Copier copier) {
+        this.scope = copier.copy(ctor.scope);
+        this.propertyName = ctor.propertyName;
+        this.className = ctor.className;
+        this.sealed = ctor.sealed;
+        this.privileged = ctor.privileged;
+        synchronized (ctor) {
+            if (ctor.state == STATE_INITIALIZING)
+                throw new IllegalStateException(
+                        "Copy during initialization of " + propertyName);
+            this.initializedValue = copier.copy(ctor.initializedValue);
+            this.state = ctor.state;
+        }
+    }
+
+    /**
+     * Return a copy for a {@link ScopeSnapshot}, which initializes the
+     * value in the copied scope.
+     */
+    LazilyLoadedCtor copy(ScopeSnapshot.Copier copier) {
+        return new LazilyLoadedCtor(this, copier);
+    }
+
     void init() {
         synchronized (this) {
             if (state == STATE_INITIALIZING)
@@ -59,12 +82,14 @@ public final class LazilyLoadedCtor implements Serializable {
                 // Set value now to have something to set in finally block if
                 // buildValue throws.
                 Object value = Scriptable.NOT_FOUND;
+                InitProfiler profiler = InitProfiler.start(Context.getCurrentContext());
                 try {
                     value = buildValue();
                 } finally {
                     initializedValue = value;
                     state = STATE_WITH_VALUE;
                 }
+                InitProfiler.done(profiler, propertyName, true);
             }
         }
     }
@@ -37,6 +37,22 @@ final class MemberBox implements Serializable {
         init(constructor);
     }
 
+    private MemberBox(MemberBox box, Object delegateTo) {
+        this.memberObject = box.memberObject;
+        this.argTypes = box.argTypes;
+        this.vararg = box.vararg;
+        this.delegateTo = delegateTo;
+    }
+
+    /**
+     * Return a copy for a {@link ScopeSnapshot}, or this box if it does
+     * not delegate to an object of the scope.
+     */
+    MemberBox copy(ScopeSnapshot.Copier copier) {
+        Object delegate = copier.copy(delegateTo);
+        return delegate == delegateTo ? this : new MemberBox(this, delegate);
+    }
+
     private void init(Method method) {
         this.memberObject = method;
         this.argTypes = method.getParameterTypes();
@@ -68,6 +68,12 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
         length = array.length;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        dense = copier.copyArray(dense);
+    }
+
 
 
     @Override
@@ -1018,6 +1024,9 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
     }
 
     private static void defineElem(Context cx, Scriptable target, long index, Object value) {
+        if (target instanceof NativeArray && ((NativeArray) target).defineDenseElem(index, value)) {
+            return;
+        }
         ScriptableObject so = ScriptableObject.ensureScriptableObject(target);
 
         NativeObject obj = cx.newObject(cx.topCallScope);
@@ -1032,6 +1041,57 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
         so.defineOwnProperty(cx, id, obj);
     }
 
+    /**
+     * Defines a writable, enumerable and configurable element the way
+     * defineOwnProperty does, but keeps the array dense. Returns false if
+     * the element can not be stored in <code>dense</code>.
+     */
+    private boolean defineDenseElem(long index, Object value) {
+        if (!denseOnly || dense == null || index >= Integer.MAX_VALUE
+                || isSealed() || !isExtensible()) {
+            return false;
+        }
+        if (index >= length && (lengthAttr & NOT_WRITABLE) != 0) {
+            return false;
+        }
+        int i = (int) index;
+        if (i >= dense.length && !(i < dense.length * GROW_FACTOR && ensureCapacity(i + 1))) {
+            return false;
+        }
+        dense[i] = value;
+        if (length <= i) {
+            length = (long) i + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Same as getRawElem, but reads the elements of a dense array directly.
+     */
+    private static Object getDenseElem(Scriptable target, long index) {
+        if (target instanceof NativeArray) {
+            NativeArray na = (NativeArray) target;
+            Object[] dense = na.dense;
+            if (na.denseOnly && dense != null && index < dense.length) {
+                Object elem = dense[(int) index];
+                if (elem != NOT_FOUND) {
+                    return elem;
+                }
+            }
+        }
+        return getRawElem(target, index);
+    }
+
+    /**
+     * Check if the callback may be passed the same argument array for
+     * every element, because no call keeps a reference to it.
+     */
+    private static boolean canReuseArguments(Context cx, Callable f) {
+        return f instanceof NativeFunction
+                && cx.getDebugger() == null
+                && !((NativeFunction) f).retainsArguments();
+    }
+
     private static void setElem(Scriptable target, long index,
                                 Object value) {
         if (index > Integer.MAX_VALUE) {
@@ -1242,32 +1302,30 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
      */
     private static Scriptable js_sort(final Context cx, final Scriptable scope,
                                       final Scriptable thisObj, final Object[] args) {
-        final Comparator<Object> comparator;
+        Comparator<Object> comparator = null;
         if (args.length > 0 && Undefined.instance != args[0]) {
             final Callable jsCompareFunction = ScriptRuntime
                     .getValueFunctionAndThis(args[0], cx);
             final Scriptable funThis = ScriptRuntime.lastStoredScriptable(cx);
-            final Object[] cmpBuf = new Object[2]; // Buffer for cmp arguments
-            comparator = new ElementComparator(
-                    new Comparator<Object>() {
-                        @Override
-                        public int compare(final Object x, final Object y) {
-                            // This comparator is invoked only for non-undefined objects
-                            cmpBuf[0] = x;
-                            cmpBuf[1] = y;
-                            Object ret = jsCompareFunction.call(cx, scope, funThis,
-                                    cmpBuf);
-                            final double d = ScriptRuntime.toNumber(ret);
-                            if (d < 0) {
-                                return -1;
-                            } else if (d > 0) {
-                                return +1;
-                            }
-                            return 0; // ??? double and 0???
-                        }
-                    });
-        } else {
-            comparator = DEFAULT_COMPARATOR;
+            // Buffer for cmp arguments, if the function does not keep them
+            final Object[] cmpBuf = canReuseArguments(cx, jsCompareFunction) ? new Object[2] : null;
+            comparator = new Comparator<Object>() {
+                @Override
+                public int compare(final Object x, final Object y) {
+                    Object[] cmpArgs = cmpBuf != null ? cmpBuf : new Object[2];
+                    cmpArgs[0] = x;
+                    cmpArgs[1] = y;
+                    Object ret = jsCompareFunction.call(cx, scope, funThis,
+                            cmpArgs);
+                    final double d = ScriptRuntime.toNumber(ret);
+                    if (d < 0) {
+                        return -1;
+                    } else if (d > 0) {
+                        return +1;
+                    }
+                    return 0; // ??? double and 0???
+                }
+            };
         }
 
         long llength = getLengthProperty(thisObj, false);
@@ -1277,22 +1335,67 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
                     "msg.arraylength.too.big", String.valueOf(llength));
         }
         // copy the JS array into a working array, so it can be
-        // sorted cheaply.
+        // sorted cheaply. As per ECMA 22.1.3.25.1 the holes and the
+        // undefined elements go to the end without being compared.
         final Object[] working = new Object[length];
+        int count = 0;
+        int undefinedCount = 0;
         for (int i = 0; i != length; ++i) {
-            working[i] = getRawElem(thisObj, i);
+            Object elem = getDenseElem(thisObj, i);
+            if (elem == Undefined.instance) {
+                undefinedCount++;
+            } else if (elem != NOT_FOUND) {
+                working[count++] = elem;
+            }
         }
 
-        Sorting.get().hybridSort(working, comparator);
+        if (comparator != null) {
+            Sorting.get().timSort(working, 0, count, comparator);
+        } else {
+            sortByString(working, count);
+        }
 
         // copy the working array back into thisObj
-        for (int i = 0; i < length; ++i) {
-            setRawElem(thisObj, i, working[i]);
+        for (int i = 0; i < count; ++i) {
+            setElem(thisObj, i, working[i]);
+        }
+        for (int i = count; i < count + undefinedCount; ++i) {
+            setElem(thisObj, i, Undefined.instance);
+        }
+        for (int i = count + undefinedCount; i < length; ++i) {
+            deleteElem(thisObj, i);
         }
 
         return thisObj;
     }
 
+    /**
+     * Sorts the elements as the default comparator does, but converts
+     * every element to a string only once.
+     */
+    private static void sortByString(Object[] working, int count) {
+        boolean allStrings = true;
+        for (int i = 0; i < count; ++i) {
+            if (!(working[i] instanceof String)) {
+                allStrings = false;
+                break;
+            }
+        }
+        if (allStrings) {
+            Sorting.get().timSort(working, 0, count, STRING_VALUE_COMPARATOR);
+            return;
+        }
+
+        Object[] keyed = new Object[count];
+        for (int i = 0; i < count; ++i) {
+            keyed[i] = new SortKey(ScriptRuntime.toString(working[i]), working[i]);
+        }
+        Sorting.get().timSort(keyed, SORT_KEY_COMPARATOR);
+        for (int i = 0; i < count; ++i) {
+            working[i] = ((SortKey) keyed[i]).value;
+        }
+    }
+
     private static Object js_push(Context cx, Scriptable thisObj,
                                   Object[] args) {
         if (thisObj instanceof NativeArray) {
@@ -2056,9 +2159,10 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
             }
         }
         long j = 0;
+        boolean reuseArgs = canReuseArguments(cx, f);
+        Object[] innerArgs = null;
         for (long i = 0; i < length; i++) {
-            Object[] innerArgs = new Object[3];
-            Object elem = getRawElem(o, i);
+            Object elem = getDenseElem(o, i);
             if (elem == Scriptable.NOT_FOUND) {
                 if (id == Id_map) {
                     defineElem(cx, array, i, Undefined.instance);
@@ -2069,6 +2173,9 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
                     continue;
                 }
             }
+            if (innerArgs == null || !reuseArgs) {
+                innerArgs = new Object[3];
+            }
             innerArgs[0] = elem;
             innerArgs[1] = Long.valueOf(i);
             innerArgs[2] = o;
@@ -2080,7 +2187,7 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
                     break;
                 case Id_filter:
                     if (ScriptRuntime.toBoolean(result))
-                        defineElem(cx, array, j++, innerArgs[0]);
+                        defineElem(cx, array, j++, elem);
                     break;
                 case Id_forEach:
                     break;
@@ -2134,9 +2241,11 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
         // hack to serve both reduce and reduceRight with the same loop
         boolean movingLeft = id == Id_reduce;
         Object value = args.length > 1 ? args[1] : Scriptable.NOT_FOUND;
+        boolean reuseArgs = canReuseArguments(cx, f);
+        Object[] innerArgs = null;
         for (long i = 0; i < length; i++) {
             long index = movingLeft ? i : (length - 1 - i);
-            Object elem = getRawElem(o, index);
+            Object elem = getDenseElem(o, index);
             if (elem == Scriptable.NOT_FOUND) {
                 continue;
             }
@@ -2144,7 +2253,13 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
                 // no initial value passed, use first element found as inital value
                 value = elem;
             } else {
-                Object[] innerArgs = {value, elem, index, o};
+                if (innerArgs == null || !reuseArgs) {
+                    innerArgs = new Object[4];
+                }
+                innerArgs[0] = value;
+                innerArgs[1] = elem;
+                innerArgs[2] = Long.valueOf(index);
+                innerArgs[3] = o;
                 value = f.call(cx, parent, parent, innerArgs);
             }
         }
@@ -2464,7 +2579,32 @@ public class NativeArray extends IdScriptableObject implements List<Object> {
     // Comparators for the js_sort method. Putting them here lets us unit-test them better.
 
     private static final Comparator<Object> STRING_COMPARATOR = new StringLikeComparator();
-    private static final Comparator<Object> DEFAULT_COMPARATOR = new ElementComparator();
+    private static final Comparator<Object> STRING_VALUE_COMPARATOR = new Comparator<Object>() {
+        @Override
+        public int compare(final Object x, final Object y) {
+            return ((String) x).compareTo((String) y);
+        }
+    };
+    private static final Comparator<Object> SORT_KEY_COMPARATOR = new Comparator<Object>() {
+        @Override
+        public int compare(final Object x, final Object y) {
+            return ((SortKey) x).key.compareTo(((SortKey) y).key);
+        }
+    };
+
+    /**
+     * An element with its string value, to sort by the string value
+     * without converting the element at every comparison.
+     */
+    private static final class SortKey {
+        final String key;
+        final Object value;
+
+        SortKey(String key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
 
     public static final class StringLikeComparator
             implements Comparator<Object> {
@@ -36,6 +36,12 @@ public final class NativeArrayIterator extends ES6Iterator {
         this.type = type;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        arrayLike = copier.copy(arrayLike);
+    }
+
     @Override
     public String getClassName() {
         return "Array Iterator";
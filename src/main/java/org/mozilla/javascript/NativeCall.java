@@ -147,6 +147,16 @@ public final class NativeCall extends IdScriptableObject {
         }
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        function = copier.copy(function);
+        callArgs = copier.copyArray(callArgs);
+        effectiveArgs = copier.copyArray(effectiveArgs);
+        arguments = copier.copy(arguments);
+        parentActivationCall = copier.copy(parentActivationCall);
+    }
+
     private static final int
             Id_constructor = 1,
             MAX_PROTOTYPE_ID = 1;
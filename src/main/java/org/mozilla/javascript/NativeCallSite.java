@@ -12,7 +12,8 @@ package org.mozilla.javascript;
  * fit.
  */
 
-public class NativeCallSite extends IdScriptableObject {
+public class NativeCallSite extends IdScriptableObject
+        implements ScopeSnapshot.SharedReferences {
     private static final long serialVersionUID = 2688372752566593594L;
     private static final String CALLSITE_TAG = "CallSite";
     private ScriptStackElement element;
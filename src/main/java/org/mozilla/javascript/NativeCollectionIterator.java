@@ -58,6 +58,13 @@ public class NativeCollectionIterator extends ES6Iterator {
         }
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        // As when serialized, the iteration of the collection is not copied
+        iterator = Collections.emptyIterator();
+    }
+
     private void readObject(ObjectInputStream stream)
             throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
@@ -8,7 +8,19 @@ package org.mozilla.javascript;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DecimalStyle;
+import java.time.format.FormatStyle;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Locale;
 import java.util.TimeZone;
 
 /**
@@ -20,7 +32,8 @@ import java.util.TimeZone;
  * Significant parts of this code are adapted from the venerable jsdate.cpp (also Mozilla):
  * https://dxr.mozilla.org/mozilla-central/source/js/src/jsdate.cpp
  */
-final class NativeDate extends IdScriptableObject {
+final class NativeDate extends IdScriptableObject
+        implements ScopeSnapshot.SharedReferences {
     private static final long serialVersionUID = -8307438915861678966L;
 
     private static final Object DATE_TAG = "Date";
@@ -395,8 +408,11 @@ final class NativeDate extends IdScriptableObject {
             case Id_getFullYear:
             case Id_getUTCFullYear:
                 if (!Double.isNaN(t)) {
-                    if (id != Id_getUTCFullYear) t = LocalTime(t);
-                    t = YearFromTime(t);
+                    if (id != Id_getUTCFullYear) {
+                        t = realThis.localFields().year;
+                    } else {
+                        t = YearFromTime(t);
+                    }
                     if (id == Id_getYear) {
                         if (cx.hasFeature(Context.FEATURE_NON_ECMA_GET_YEAR)) {
                             if (1900 <= t && t < 2000) {
@@ -412,23 +428,29 @@ final class NativeDate extends IdScriptableObject {
             case Id_getMonth:
             case Id_getUTCMonth:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getMonth) t = LocalTime(t);
-                    t = MonthFromTime(t);
+                    if (id == Id_getMonth) {
+                        t = realThis.localFields().month;
+                    } else {
+                        t = MonthFromTime(t);
+                    }
                 }
                 return ScriptRuntime.wrapNumber(t);
 
             case Id_getDate:
             case Id_getUTCDate:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getDate) t = LocalTime(t);
-                    t = DateFromTime(t);
+                    if (id == Id_getDate) {
+                        t = realThis.localFields().day;
+                    } else {
+                        t = DateFromTime(t);
+                    }
                 }
                 return ScriptRuntime.wrapNumber(t);
 
             case Id_getDay:
             case Id_getUTCDay:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getDay) t = LocalTime(t);
+                    if (id == Id_getDay) t = realThis.localFields().localTime;
                     t = WeekDay(t);
                 }
                 return ScriptRuntime.wrapNumber(t);
@@ -436,7 +458,7 @@ final class NativeDate extends IdScriptableObject {
             case Id_getHours:
             case Id_getUTCHours:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getHours) t = LocalTime(t);
+                    if (id == Id_getHours) t = realThis.localFields().localTime;
                     t = HourFromTime(t);
                 }
                 return ScriptRuntime.wrapNumber(t);
@@ -444,7 +466,7 @@ final class NativeDate extends IdScriptableObject {
             case Id_getMinutes:
             case Id_getUTCMinutes:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getMinutes) t = LocalTime(t);
+                    if (id == Id_getMinutes) t = realThis.localFields().localTime;
                     t = MinFromTime(t);
                 }
                 return ScriptRuntime.wrapNumber(t);
@@ -452,7 +474,7 @@ final class NativeDate extends IdScriptableObject {
             case Id_getSeconds:
             case Id_getUTCSeconds:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getSeconds) t = LocalTime(t);
+                    if (id == Id_getSeconds) t = realThis.localFields().localTime;
                     t = SecFromTime(t);
                 }
                 return ScriptRuntime.wrapNumber(t);
@@ -460,14 +482,14 @@ final class NativeDate extends IdScriptableObject {
             case Id_getMilliseconds:
             case Id_getUTCMilliseconds:
                 if (!Double.isNaN(t)) {
-                    if (id == Id_getMilliseconds) t = LocalTime(t);
+                    if (id == Id_getMilliseconds) t = realThis.localFields().localTime;
                     t = msFromTime(t);
                 }
                 return ScriptRuntime.wrapNumber(t);
 
             case Id_getTimezoneOffset:
                 if (!Double.isNaN(t)) {
-                    t = (t - LocalTime(t)) / msPerMinute;
+                    t = (t - realThis.localFields().localTime) / msPerMinute;
                 }
                 return ScriptRuntime.wrapNumber(t);
 
@@ -783,12 +805,117 @@ final class NativeDate extends IdScriptableObject {
             double day = MakeDay(year, MonthFromTime(t), DateFromTime(t));
             t = MakeDate(day, TimeWithinDay(t));
         }
-        Date date = new Date((long) t);
-        if (thisTimeZone.inDaylightTime(date))
+        if (getDaylightSavingTable().inDaylightTime((long) t))
             return msPerHour;
         return 0;
     }
 
+    private static DaylightSavingTable getDaylightSavingTable() {
+        DaylightSavingTable table = daylightSavingTable;
+        if (table == null || table.timeZone != thisTimeZone) {
+            table = new DaylightSavingTable(thisTimeZone);
+            daylightSavingTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Daylight saving status of a time zone between 1970 and 2100,
+     * precomputed from its offset transitions so that the common case
+     * does not need to allocate a {@link Date} and go through the
+     * synchronized {@link TimeZone} lookup. Times outside of that range
+     * are passed to {@link TimeZone#inDaylightTime(Date)}.
+     */
+    private static final class DaylightSavingTable {
+        private static final long TABLE_START = 0L;
+        private static final long TABLE_END = 4102444800000L; // 2100-01-01
+        private static final long PROBE_STEP = 7 * 24 * 3600 * 1000L;
+
+        final TimeZone timeZone;
+        private final long start;
+        private final long end;
+        private final long[] changes;
+        private final boolean firstDst;
+
+        DaylightSavingTable(TimeZone timeZone) {
+            this.timeZone = timeZone;
+            ZoneRules rules = null;
+            try {
+                // Only trust java.time rules for a zone that behaves like
+                // the system zone of the same id
+                if (TimeZone.getTimeZone(timeZone.getID()).hasSameRules(timeZone)) {
+                    rules = timeZone.toZoneId().getRules();
+                }
+            } catch (RuntimeException ex) {
+                // Unknown to java.time, fall back to TimeZone
+            }
+            if (rules == null) {
+                start = end = 0L;
+                changes = new long[0];
+                firstDst = false;
+                return;
+            }
+            long[] found = new long[16];
+            int count = 0;
+            boolean dst = timeZone.inDaylightTime(new Date(TABLE_START));
+            boolean current = dst;
+            long from = TABLE_START;
+            while (from < TABLE_END) {
+                ZoneOffsetTransition tr = rules.nextTransition(Instant.ofEpochMilli(from));
+                long to = (tr == null) ? TABLE_END
+                        : Math.min(tr.getInstant().toEpochMilli(), TABLE_END);
+                // The status can also change where only the standard offset
+                // does, which is not an offset transition, so probe weekly
+                long probe = from;
+                while (probe < to - 1) {
+                    long next = Math.min(probe + PROBE_STEP, to - 1);
+                    if (timeZone.inDaylightTime(new Date(next)) != current) {
+                        long lo = probe, hi = next;
+                        while (hi - lo > 1) {
+                            long mid = lo + (hi - lo) / 2;
+                            if (timeZone.inDaylightTime(new Date(mid)) == current) {
+                                lo = mid;
+                            } else {
+                                hi = mid;
+                            }
+                        }
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = hi;
+                        current = !current;
+                    }
+                    probe = next;
+                }
+                if (to == TABLE_END) {
+                    break;
+                }
+                if (timeZone.inDaylightTime(new Date(to)) != current) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = to;
+                    current = !current;
+                }
+                from = to;
+            }
+            start = TABLE_START;
+            end = TABLE_END;
+            changes = Arrays.copyOf(found, count);
+            firstDst = dst;
+        }
+
+        boolean inDaylightTime(long t) {
+            if (t < start || t >= end) {
+                return timeZone.inDaylightTime(new Date(t));
+            }
+            // Number of changes at or before t decides the status
+            int i = Arrays.binarySearch(changes, t);
+            int passed = (i >= 0) ? i + 1 : -(i + 1);
+            return ((passed & 1) == 0) == firstDst;
+        }
+    }
+
     /*
      * Find a year for which any given date will fall on the same weekday.
      *
@@ -1130,8 +1257,91 @@ final class NativeDate extends IdScriptableObject {
         return ScriptRuntime.NaN;
     }
 
+    /**
+     * Parse the fixed-width forms produced by toISOString, toUTCString and
+     * most network protocols without going through the general parsers:
+     * <pre>
+     * YYYY-MM-DDTHH:mm:ss.sssZ
+     * YYYY-MM-DDTHH:mm:ssZ
+     * Www, DD Mmm YYYY HH:mm:ss GMT
+     * </pre>
+     * Returns NaN when the input is not exactly one of these forms with
+     * valid fields, in which case the general parsers must be used.
+     */
+    private static double parseFixedFormat(String s) {
+        int len = s.length();
+        if (len == 24 || len == 20) {
+            if (s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T'
+                    || s.charAt(13) != ':' || s.charAt(16) != ':'
+                    || s.charAt(len - 1) != 'Z'
+                    || (len == 24 && s.charAt(19) != '.')) {
+                return ScriptRuntime.NaN;
+            }
+            int year = parseDigits(s, 0, 4);
+            int month = parseDigits(s, 5, 2);
+            int day = parseDigits(s, 8, 2);
+            int hour = parseDigits(s, 11, 2);
+            int min = parseDigits(s, 14, 2);
+            int sec = parseDigits(s, 17, 2);
+            int msec = (len == 24) ? parseDigits(s, 20, 3) : 0;
+            if (year < 0 || month < 1 || month > 12 || day < 1
+                    || day > DaysInMonth(year, month) || hour < 0 || hour > 23
+                    || min < 0 || min > 59 || sec < 0 || sec > 59 || msec < 0) {
+                return ScriptRuntime.NaN;
+            }
+            return date_msecFromDate(year, month - 1, day, hour, min, sec, msec);
+        }
+        if (len == 29) {
+            if (s.charAt(3) != ',' || s.charAt(4) != ' ' || s.charAt(7) != ' '
+                    || s.charAt(11) != ' ' || s.charAt(16) != ' '
+                    || s.charAt(19) != ':' || s.charAt(22) != ':'
+                    || !s.regionMatches(25, " GMT", 0, 4)
+                    || nameIndex(WEEK_DAY_NAMES, s, 0) < 0) {
+                return ScriptRuntime.NaN;
+            }
+            int month = nameIndex(MONTH_NAMES, s, 8);
+            int day = parseDigits(s, 5, 2);
+            int year = parseDigits(s, 12, 4);
+            int hour = parseDigits(s, 17, 2);
+            int min = parseDigits(s, 20, 2);
+            int sec = parseDigits(s, 23, 2);
+            // The general parser reads two digit years as 19xx
+            if (month < 0 || day < 1 || day > 31 || year < 100 || hour < 0
+                    || hour > 23 || min < 0 || min > 59 || sec < 0 || sec > 59) {
+                return ScriptRuntime.NaN;
+            }
+            return date_msecFromDate(year, month, day, hour, min, sec, 0);
+        }
+        return ScriptRuntime.NaN;
+    }
+
+    private static int parseDigits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start, end = start + count; i != end; ++i) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = 10 * value + (c - '0');
+        }
+        return value;
+    }
+
+    private static int nameIndex(String names, String s, int start) {
+        for (int i = 0; i < names.length(); i += 3) {
+            if (names.regionMatches(i, s, start, 3)) {
+                return i / 3;
+            }
+        }
+        return -1;
+    }
+
     private static double date_parseString(String s) {
-        double d = parseISOString(s);
+        double d = parseFixedFormat(s);
+        if (!Double.isNaN(d)) {
+            return d;
+        }
+        d = parseISOString(s);
         if (!Double.isNaN(d)) {
             return d;
         }
@@ -1474,90 +1684,172 @@ final class NativeDate extends IdScriptableObject {
     }
 
     private static String toLocale_helper(double t, int methodId) {
-        DateFormat formatter;
+        // java.time formatters are immutable, so unlike DateFormat they can
+        // be shared between threads without locking
+        DateTimeFormatter formatter;
         switch (methodId) {
             case Id_toLocaleString:
-                if (localeDateTimeFormatter == null) {
-                    localeDateTimeFormatter
-                            = DateFormat.getDateTimeInstance(DateFormat.LONG,
-                            DateFormat.LONG);
-                }
                 formatter = localeDateTimeFormatter;
+                if (formatter == null) {
+                    formatter = localeFormatter(DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG));
+                    localeDateTimeFormatter = formatter;
+                }
                 break;
             case Id_toLocaleTimeString:
-                if (localeTimeFormatter == null) {
-                    localeTimeFormatter
-                            = DateFormat.getTimeInstance(DateFormat.LONG);
-                }
                 formatter = localeTimeFormatter;
+                if (formatter == null) {
+                    formatter = localeFormatter(DateTimeFormatter.ofLocalizedTime(FormatStyle.LONG));
+                    localeTimeFormatter = formatter;
+                }
                 break;
             case Id_toLocaleDateString:
-                if (localeDateFormatter == null) {
-                    localeDateFormatter
-                            = DateFormat.getDateInstance(DateFormat.LONG);
-                }
                 formatter = localeDateFormatter;
+                if (formatter == null) {
+                    formatter = localeFormatter(DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG));
+                    localeDateFormatter = formatter;
+                }
                 break;
             default:
                 throw new AssertionError(); // unreachable
         }
 
-        synchronized (formatter) {
-            return formatter.format(new Date((long) t));
+        // Format the same local time and offset as the other getters.
+        // java.time would use the zone's LMT offset for old dates, while
+        // LocalTime applies the current standard offset and DST rules.
+        long local = (long) LocalTime(t);
+        LocalDateTime localTime = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(local, 1000L),
+                (int) Math.floorMod(local, 1000L) * 1000000,
+                ZoneOffset.UTC);
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(
+                (int) ((local - (long) t) / 1000L));
+        ZonedDateTime zoned = ZonedDateTime.ofInstant(localTime, offset,
+                thisTimeZone.toZoneId());
+        if (zoned.getOffset().equals(offset)) {
+            return formatter.format(zoned);
         }
+        // The zone's own rules disagree, so format with the offset alone
+        // and put the zone's name where the offset is, as toString does
+        ZoneId offsetZone = ZoneId.ofOffset("GMT", offset);
+        String result = formatter.format(ZonedDateTime.of(localTime, offsetZone));
+        int zoneStart = result.lastIndexOf(offsetZone.getId());
+        if (zoneStart < 0) {
+            // Date only
+            return result;
+        }
+        String zoneName = thisTimeZone.getDisplayName(DaylightSavingTA(t) != 0,
+                TimeZone.SHORT, Locale.getDefault(Locale.Category.FORMAT));
+        return result.substring(0, zoneStart) + zoneName
+                + result.substring(zoneStart + offsetZone.getId().length());
     }
 
-    private static String js_toUTCString(double date) {
-        StringBuilder result = new StringBuilder(60);
+    private static DateTimeFormatter localeFormatter(DateTimeFormatter style) {
+        // Match DateFormat: default format locale with its native digits
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        return style.withLocale(locale)
+                .withDecimalStyle(DecimalStyle.of(locale));
+    }
 
-        appendWeekDayName(result, WeekDay(date));
-        result.append(", ");
-        append0PaddedUint(result, DateFromTime(date), 2);
-        result.append(' ');
-        appendMonthName(result, MonthFromTime(date));
-        result.append(' ');
-        int year = YearFromTime(date);
+    private static String js_toUTCString(double date) {
+        // Www, DD Mmm YYYY HH:mm:ss GMT, with up to 6 year digits and a sign
+        char[] buf = new char[32];
+        long t = (long) date;
+        long days = Math.floorDiv(t, (long) msPerDay);
+        int time = (int) Math.floorMod(t, (long) msPerDay);
+        long ymd = civilFromDays(days);
+        int year = (int) (ymd >> 9);
+
+        int pos = putName(buf, 0, WEEK_DAY_NAMES, (int) Math.floorMod(days + 4, 7L));
+        buf[pos++] = ',';
+        buf[pos++] = ' ';
+        pos = put0Padded(buf, pos, (int) (ymd & 31), 2);
+        buf[pos++] = ' ';
+        pos = putName(buf, pos, MONTH_NAMES, (int) ((ymd >> 5) & 15));
+        buf[pos++] = ' ';
         if (year < 0) {
-            result.append('-');
+            buf[pos++] = '-';
             year = -year;
         }
-        append0PaddedUint(result, year, 4);
-        result.append(' ');
-        append0PaddedUint(result, HourFromTime(date), 2);
-        result.append(':');
-        append0PaddedUint(result, MinFromTime(date), 2);
-        result.append(':');
-        append0PaddedUint(result, SecFromTime(date), 2);
-        result.append(" GMT");
-        return result.toString();
+        pos = put0Padded(buf, pos, year, year > 99999 ? 6 : year > 9999 ? 5 : 4);
+        buf[pos++] = ' ';
+        pos = putTime(buf, pos, time);
+        buf[pos++] = ' ';
+        buf[pos++] = 'G';
+        buf[pos++] = 'M';
+        buf[pos++] = 'T';
+        return new String(buf, 0, pos);
     }
 
     private static String js_toISOString(double t) {
-        StringBuilder result = new StringBuilder(27);
-
-        int year = YearFromTime(t);
+        // YYYY-MM-DDTHH:mm:ss.sssZ, with 6 year digits and a sign for
+        // extended years
+        char[] buf = new char[27];
+        long tl = (long) t;
+        long ymd = civilFromDays(Math.floorDiv(tl, (long) msPerDay));
+        int time = (int) Math.floorMod(tl, (long) msPerDay);
+        int year = (int) (ymd >> 9);
+
+        int pos = 0;
         if (year < 0) {
-            result.append('-');
-            append0PaddedUint(result, -year, 6);
+            buf[pos++] = '-';
+            pos = put0Padded(buf, pos, -year, 6);
         } else if (year > 9999) {
-            append0PaddedUint(result, year, 6);
+            pos = put0Padded(buf, pos, year, 6);
         } else {
-            append0PaddedUint(result, year, 4);
+            pos = put0Padded(buf, pos, year, 4);
         }
-        result.append('-');
-        append0PaddedUint(result, MonthFromTime(t) + 1, 2);
-        result.append('-');
-        append0PaddedUint(result, DateFromTime(t), 2);
-        result.append('T');
-        append0PaddedUint(result, HourFromTime(t), 2);
-        result.append(':');
-        append0PaddedUint(result, MinFromTime(t), 2);
-        result.append(':');
-        append0PaddedUint(result, SecFromTime(t), 2);
-        result.append('.');
-        append0PaddedUint(result, msFromTime(t), 3);
-        result.append('Z');
-        return result.toString();
+        buf[pos++] = '-';
+        pos = put0Padded(buf, pos, (int) ((ymd >> 5) & 15) + 1, 2);
+        buf[pos++] = '-';
+        pos = put0Padded(buf, pos, (int) (ymd & 31), 2);
+        buf[pos++] = 'T';
+        pos = putTime(buf, pos, time);
+        buf[pos++] = '.';
+        pos = put0Padded(buf, pos, time % 1000, 3);
+        buf[pos++] = 'Z';
+        return new String(buf, 0, pos);
+    }
+
+    /**
+     * Convert days since the epoch to a proleptic Gregorian date packed
+     * as <code>year &lt;&lt; 9 | month &lt;&lt; 5 | day</code>, where month is
+     * zero-based. Same result as YearFromTime, MonthFromTime and
+     * DateFromTime, but in a single pass of integer arithmetic.
+     */
+    private static long civilFromDays(long days) {
+        // Shift the epoch to 0000-03-01 so that leap days end a 400 year era
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097L);
+        int doe = (int) (z - era * 146097);
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = (mp < 10) ? mp + 2 : mp - 10;
+        long year = yoe + era * 400 + (month < 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    private static int putTime(char[] buf, int pos, int timeWithinDay) {
+        int secs = timeWithinDay / 1000;
+        pos = put0Padded(buf, pos, secs / 3600, 2);
+        buf[pos++] = ':';
+        pos = put0Padded(buf, pos, secs / 60 % 60, 2);
+        buf[pos++] = ':';
+        return put0Padded(buf, pos, secs % 60, 2);
+    }
+
+    private static int put0Padded(char[] buf, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; --i) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static int putName(char[] buf, int pos, String names, int index) {
+        names.getChars(index * 3, index * 3 + 3, buf, pos);
+        return pos + 3;
     }
 
     private static void append0PaddedUint(StringBuilder sb, int i, int minWidth) {
@@ -1592,24 +1884,21 @@ final class NativeDate extends IdScriptableObject {
         sb.append((char) ('0' + i));
     }
 
+    // Take advantage of the fact that all month and week day abbreviations
+    // have the same length to minimize amount of strings runtime has
+    // to keep in memory
+    private static final String MONTH_NAMES = "Jan" + "Feb" + "Mar" + "Apr" + "May" + "Jun"
+            + "Jul" + "Aug" + "Sep" + "Oct" + "Nov" + "Dec";
+    private static final String WEEK_DAY_NAMES = "Sun" + "Mon" + "Tue" + "Wed" + "Thu" + "Fri" + "Sat";
+
     private static void appendMonthName(StringBuilder sb, int index) {
-        // Take advantage of the fact that all month abbreviations
-        // have the same length to minimize amount of strings runtime has
-        // to keep in memory
-        String months = "Jan" + "Feb" + "Mar" + "Apr" + "May" + "Jun"
-                + "Jul" + "Aug" + "Sep" + "Oct" + "Nov" + "Dec";
         index *= 3;
-        for (int i = 0; i != 3; ++i) {
-            sb.append(months.charAt(index + i));
-        }
+        sb.append(MONTH_NAMES, index, index + 3);
     }
 
     private static void appendWeekDayName(StringBuilder sb, int index) {
-        String days = "Sun" + "Mon" + "Tue" + "Wed" + "Thu" + "Fri" + "Sat";
         index *= 3;
-        for (int i = 0; i != 3; ++i) {
-            sb.append(days.charAt(index + i));
-        }
+        sb.append(WEEK_DAY_NAMES, index, index + 3);
     }
 
     private static double makeTime(double date, Object[] args, int methodId) {
@@ -2150,11 +2439,43 @@ final class NativeDate extends IdScriptableObject {
     private static TimeZone thisTimeZone;
     private static double LocalTZA;
     private static DateFormat timeZoneFormatter;
-    private static DateFormat localeDateTimeFormatter;
-    private static DateFormat localeDateFormatter;
-    private static DateFormat localeTimeFormatter;
+    private static volatile DaylightSavingTable daylightSavingTable;
+    private static DateTimeFormatter localeDateTimeFormatter;
+    private static DateTimeFormatter localeDateFormatter;
+    private static DateTimeFormatter localeTimeFormatter;
 
     private double date;
     private boolean isInstance = false;
+    private transient LocalFields localFields;
+
+    /**
+     * Local time of a date value decomposed into the fields that are
+     * expensive to derive, so that repeated getters on an unchanged date
+     * do not redo the time zone and calendar arithmetic.
+     */
+    private static final class LocalFields {
+        final double time;
+        final double localTime;
+        final int year;
+        final int month;
+        final int day;
+
+        LocalFields(double time) {
+            this.time = time;
+            this.localTime = LocalTime(time);
+            this.year = YearFromTime(localTime);
+            this.month = MonthFromTime(localTime);
+            this.day = DateFromTime(localTime);
+        }
+    }
+
+    private LocalFields localFields() {
+        LocalFields fields = localFields;
+        if (fields == null || fields.time != date) {
+            fields = new LocalFields(date);
+            localFields = fields;
+        }
+        return fields;
+    }
 }
 
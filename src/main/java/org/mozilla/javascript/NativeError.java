@@ -14,7 +14,8 @@ import java.lang.reflect.Method;
  * <p>
  * ECMA 15.11
  */
-final class NativeError extends IdScriptableObject {
+final class NativeError extends IdScriptableObject
+        implements ScopeSnapshot.SharedReferences {
     private static final long serialVersionUID = -5338413581437645187L;
 
     private static final Object ERROR_TAG = "Error";
@@ -362,7 +363,7 @@ final class NativeError extends IdScriptableObject {
      * We will attch this object to the constructor and use it solely to store the constructor properties
      * that are "global." We can't make them static because there can be many contexts in the same JVM.
      */
-    private static final class ProtoProps
+    static final class ProtoProps
             implements Serializable {
         static final String KEY = "_ErrorPrototypeProps";
 
@@ -387,6 +388,13 @@ final class NativeError extends IdScriptableObject {
         private int stackTraceLimit = DEFAULT_STACK_LIMIT;
         private Function prepareStackTrace;
 
+        ProtoProps copy(ScopeSnapshot.Copier copier) {
+            ProtoProps copy = new ProtoProps();
+            copy.stackTraceLimit = stackTraceLimit;
+            copy.prepareStackTrace = copier.copy(prepareStackTrace);
+            return copy;
+        }
+
         public Object getStackTraceLimit(Scriptable thisObj) {
             if (stackTraceLimit >= 0) {
                 return stackTraceLimit;
@@ -129,5 +129,15 @@ public abstract class NativeFunction extends BaseFunction {
     }
 
     protected abstract boolean isVarLexical(int index);
+
+    /**
+     * Check if a call of the function may keep a reference to the argument
+     * array it was passed, for example in its activation or arguments
+     * object. A caller may pass the same array to several calls only if
+     * this returns false.
+     */
+    protected boolean retainsArguments() {
+        return true;
+    }
 }
 
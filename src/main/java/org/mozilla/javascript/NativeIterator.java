@@ -47,6 +47,14 @@ public final class NativeIterator extends IdScriptableObject {
         this.objectIterator = objectIterator;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        if (objectIterator != null) {
+            throw new IllegalArgumentException("Cannot copy an iteration in progress");
+        }
+    }
+
     /**
      * Get the value of the "StopIteration" object. Note that this value
      * is stored in the top-level scope using "associateValue" so the
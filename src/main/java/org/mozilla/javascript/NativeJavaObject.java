@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -285,6 +286,78 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
     static final byte CONVERSION_NONTRIVIAL = 0;
     static final byte CONVERSION_NONE = 99;
 
+    // Actions a ConversionPlan can take in coerceTypeImpl
+    private static final int COERCE_IDENTITY = 0; // value as is
+    private static final int COERCE_TO_STRING = 1; // value.toString()
+    private static final int COERCE_JS_TO_STRING = 2; // ScriptRuntime.toString()
+    private static final int COERCE_TO_NUMBER = 3; // coerceToNumber()
+    private static final int COERCE_NUMBER_TO_OBJECT = 4; // Double or Long
+    private static final int COERCE_STRING_TO_CHAR = 5; // Character or number
+    private static final int COERCE_TO_DATE = 6; // NativeDate to java.util.Date
+    private static final int COERCE_TO_ARRAY = 7; // NativeArray to Java array
+    private static final int COERCE_TO_INTERFACE = 8; // interface adapter
+    private static final int COERCE_ERROR = 9; // conversion not allowed
+
+    /**
+     * Number of source classes remembered per target type, a power of two.
+     * A class that maps to a taken slot evicts the plan in it, so a target
+     * like java.lang.Object keeps up with the classes currently converted.
+     */
+    private static final int PLAN_CACHE_SIZE = 32;
+
+    /**
+     * Precomputed result of converting a JavaScript value of a given kind
+     * and class to a given Java type. Both the LC3 weight used for overload
+     * resolution and the coercion action only depend on classes, never on
+     * the actual value, so a plan is computed once and shared by
+     * getConversionWeight and coerceTypeImpl.
+     */
+    static final class ConversionPlan {
+        final int jsTypeCode;
+        final int weight;
+        final int action;
+
+        ConversionPlan(int jsTypeCode, int weight, int action) {
+            this.jsTypeCode = jsTypeCode;
+            this.weight = weight;
+            this.action = action;
+        }
+    }
+
+    /**
+     * A cached plan. The source class is only weakly referenced, as the
+     * plans are reachable from the target type, which may outlive the
+     * class loader of the source class.
+     */
+    private static final class PlanEntry {
+        final WeakReference<Class<?>> fromClass;
+        final ConversionPlan plan;
+
+        PlanEntry(Class<?> fromClass, ConversionPlan plan) {
+            this.fromClass = new WeakReference<Class<?>>(fromClass);
+            this.plan = plan;
+        }
+    }
+
+    /**
+     * Plans for a single target type, direct-mapped by source class. Java
+     * objects seen through a Wrapper are keyed by the class of the wrapped
+     * object, as that is what the conversion is decided on. Entries are
+     * immutable, so racing threads at worst evict each other's plans.
+     */
+    private static final class ConversionPlans {
+        final PlanEntry[] direct = new PlanEntry[PLAN_CACHE_SIZE];
+        final PlanEntry[] unwrapped = new PlanEntry[PLAN_CACHE_SIZE];
+    }
+
+    private static final ClassValue<ConversionPlans> CONVERSION_PLANS =
+            new ClassValue<ConversionPlans>() {
+                @Override
+                protected ConversionPlans computeValue(Class<?> type) {
+                    return new ConversionPlans();
+                }
+            };
+
     /**
      * Derive a ranking based on how "natural" the conversion is.
      * The special value CONVERSION_NONE means no conversion is possible,
@@ -295,16 +368,82 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
      * "preferred method conversions" from Live Connect 3</a>
      */
     static int getConversionWeight(Object fromObj, Class<?> to) {
-        int fromCode = getJSTypeCode(fromObj);
-
-        switch (fromCode) {
+        if (fromObj == null || fromObj == Undefined.instance) {
+            return to.isPrimitive() ? CONVERSION_NONE : 1;
+        }
+        return getConversionPlan(fromObj, to).weight;
+    }
 
-            case JSTYPE_UNDEFINED:
-            case JSTYPE_NULL:
-                if (!to.isPrimitive()) {
-                    return 1;
+    /**
+     * Return the cached conversion plan for converting the given value,
+     * which must not be null or undefined, to the given type.
+     */
+    static ConversionPlan getConversionPlan(Object value, Class<?> to) {
+        ConversionPlans plans = CONVERSION_PLANS.get(to);
+        if (value instanceof Wrapper) {
+            int fromCode = getJSTypeCode(value);
+            if (isJavaTypeCode(fromCode)) {
+                Object javaObj = ((Wrapper) value).unwrap();
+                if (javaObj == null) {
+                    return computeConversionPlan(fromCode, null, to);
                 }
-                break;
+                Class<?> javaClass = javaObj.getClass();
+                ConversionPlan plan = getCachedPlan(plans.unwrapped, javaClass);
+                if (plan == null || plan.jsTypeCode != fromCode) {
+                    plan = computeConversionPlan(fromCode, javaClass, to);
+                    cachePlan(plans.unwrapped, javaClass, plan);
+                }
+                return plan;
+            }
+        }
+        Class<?> valueClass = value.getClass();
+        ConversionPlan plan = getCachedPlan(plans.direct, valueClass);
+        if (plan == null) {
+            plan = computeConversionPlan(getJSTypeCode(value), valueClass, to);
+            cachePlan(plans.direct, valueClass, plan);
+        }
+        return plan;
+    }
+
+    private static ConversionPlan getCachedPlan(PlanEntry[] cache, Class<?> fromClass) {
+        PlanEntry entry = cache[planIndex(fromClass)];
+        return entry != null && entry.fromClass.get() == fromClass ? entry.plan : null;
+    }
+
+    private static void cachePlan(PlanEntry[] cache, Class<?> fromClass,
+                                  ConversionPlan plan) {
+        // Compiled scripts and adapters come and go with their class loaders
+        // and would only evict the plans of longer lived classes
+        if (!(fromClass.getClassLoader() instanceof GeneratedClassLoader)) {
+            cache[planIndex(fromClass)] = new PlanEntry(fromClass, plan);
+        }
+    }
+
+    private static int planIndex(Class<?> fromClass) {
+        int h = System.identityHashCode(fromClass);
+        return (h ^ (h >>> 16)) & (PLAN_CACHE_SIZE - 1);
+    }
+
+    private static boolean isJavaTypeCode(int code) {
+        return code == JSTYPE_JAVA_CLASS || code == JSTYPE_JAVA_OBJECT
+                || code == JSTYPE_JAVA_ARRAY;
+    }
+
+    private static ConversionPlan computeConversionPlan(int fromCode,
+                                                        Class<?> fromClass,
+                                                        Class<?> to) {
+        return new ConversionPlan(fromCode,
+                computeConversionWeight(fromCode, fromClass, to),
+                computeCoercionAction(fromCode, fromClass, to));
+    }
+
+    private static boolean isAssignable(Class<?> to, Class<?> fromClass) {
+        return fromClass != null && to.isAssignableFrom(fromClass);
+    }
+
+    private static int computeConversionWeight(int fromCode, Class<?> fromClass,
+                                               Class<?> to) {
+        switch (fromCode) {
 
             case JSTYPE_BOOLEAN:
                 // "boolean" is #1
@@ -342,7 +481,7 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
             case JSTYPE_STRING:
                 if (to == ScriptRuntime.StringClass) {
                     return 1;
-                } else if (to.isInstance(fromObj)) {
+                } else if (isAssignable(to, fromClass)) {
                     return 2;
                 } else if (to.isPrimitive()) {
                     if (to == Character.TYPE) {
@@ -365,11 +504,8 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 
             case JSTYPE_JAVA_OBJECT:
             case JSTYPE_JAVA_ARRAY:
-                Object javaObj = fromObj;
-                if (javaObj instanceof Wrapper) {
-                    javaObj = ((Wrapper) javaObj).unwrap();
-                }
-                if (to.isInstance(javaObj)) {
+                // fromClass is the class of the unwrapped Java object
+                if (isAssignable(to, fromClass)) {
                     return CONVERSION_NONTRIVIAL;
                 }
                 if (to == ScriptRuntime.StringClass) {
@@ -382,12 +518,12 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
 
             case JSTYPE_OBJECT:
                 // Other objects takes #1-#3 spots
-                if (to != ScriptRuntime.ObjectClass && to.isInstance(fromObj)) {
+                if (to != ScriptRuntime.ObjectClass && isAssignable(to, fromClass)) {
                     // No conversion required, but don't apply for java.lang.Object
                     return 1;
                 }
                 if (to.isArray()) {
-                    if (fromObj instanceof NativeArray) {
+                    if (isAssignable(NativeArray.class, fromClass)) {
                         // This is a native array conversion to a java array
                         // Array conversions are all equal, and preferable to object
                         // and string conversion, per LC3.
@@ -398,17 +534,17 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
                 } else if (to == ScriptRuntime.StringClass) {
                     return 4;
                 } else if (to == ScriptRuntime.DateClass) {
-                    if (fromObj instanceof NativeDate) {
+                    if (isAssignable(NativeDate.class, fromClass)) {
                         // This is a native date to java date conversion
                         return 1;
                     }
                 } else if (to.isInterface()) {
 
-                    if (fromObj instanceof BaseFunction) {
+                    if (isAssignable(BaseFunction.class, fromClass)) {
                         // See comments in createInterfaceAdapter
                         return 1;
                     }
-                    if (fromObj instanceof NativeObject) {
+                    if (isAssignable(NativeObject.class, fromClass)) {
                         return 2;
                     }
                     return 12;
@@ -421,6 +557,96 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
         return CONVERSION_NONE;
     }
 
+    /**
+     * Decide how coerceTypeImpl converts a value of the given kind and class.
+     * Conforms to LC3 specification.
+     */
+    private static int computeCoercionAction(int fromCode, Class<?> fromClass,
+                                             Class<?> type) {
+        switch (fromCode) {
+            case JSTYPE_BOOLEAN:
+                // Under LC3, only JS Booleans can be coerced into a Boolean value
+                if (type == Boolean.TYPE ||
+                        type == ScriptRuntime.BooleanClass ||
+                        type == ScriptRuntime.ObjectClass) {
+                    return COERCE_IDENTITY;
+                } else if (type == ScriptRuntime.StringClass) {
+                    return COERCE_TO_STRING;
+                }
+                break;
+
+            case JSTYPE_NUMBER:
+                if (type == ScriptRuntime.StringClass) {
+                    return COERCE_JS_TO_STRING;
+                } else if (type == ScriptRuntime.ObjectClass) {
+                    return COERCE_NUMBER_TO_OBJECT;
+                } else if ((type.isPrimitive() && type != Boolean.TYPE) ||
+                        ScriptRuntime.NumberClass.isAssignableFrom(type)) {
+                    return COERCE_TO_NUMBER;
+                }
+                break;
+
+            case JSTYPE_STRING:
+                if (type == ScriptRuntime.StringClass || isAssignable(type, fromClass)) {
+                    return COERCE_TO_STRING;
+                } else if (type == Character.TYPE
+                        || type == ScriptRuntime.CharacterClass) {
+                    return COERCE_STRING_TO_CHAR;
+                } else if ((type.isPrimitive() && type != Boolean.TYPE)
+                        || ScriptRuntime.NumberClass.isAssignableFrom(type)) {
+                    return COERCE_TO_NUMBER;
+                }
+                break;
+
+            case JSTYPE_JAVA_CLASS:
+                if (type == ScriptRuntime.ClassClass ||
+                        type == ScriptRuntime.ObjectClass) {
+                    return COERCE_IDENTITY;
+                } else if (type == ScriptRuntime.StringClass) {
+                    return COERCE_TO_STRING;
+                }
+                break;
+
+            case JSTYPE_JAVA_OBJECT:
+            case JSTYPE_JAVA_ARRAY:
+                if (type.isPrimitive()) {
+                    return type == Boolean.TYPE ? COERCE_ERROR : COERCE_TO_NUMBER;
+                }
+                if (type == ScriptRuntime.StringClass) {
+                    return COERCE_TO_STRING;
+                }
+                if (isAssignable(type, fromClass)) {
+                    return COERCE_IDENTITY;
+                }
+                break;
+
+            case JSTYPE_OBJECT:
+                if (type == ScriptRuntime.StringClass) {
+                    return COERCE_JS_TO_STRING;
+                } else if (type.isPrimitive()) {
+                    return type == Boolean.TYPE ? COERCE_ERROR : COERCE_TO_NUMBER;
+                } else if (isAssignable(type, fromClass)) {
+                    return COERCE_IDENTITY;
+                } else if (type == ScriptRuntime.DateClass
+                        && isAssignable(NativeDate.class, fromClass)) {
+                    return COERCE_TO_DATE;
+                } else if (type.isArray()
+                        && isAssignable(NativeArray.class, fromClass)) {
+                    return COERCE_TO_ARRAY;
+                } else if (type.isInterface()
+                        && (isAssignable(NativeObject.class, fromClass)
+                        || isAssignable(NativeFunction.class, fromClass)
+                        || isAssignable(ArrowFunction.class, fromClass)
+                        || isAssignable(BoundFunction.class, fromClass)
+                        || isAssignable(NativeJavaMethod.class, fromClass))) {
+                    // Try to use function/object as implementation of Java interface.
+                    return COERCE_TO_INTERFACE;
+                }
+                break;
+        }
+        return COERCE_ERROR;
+    }
+
     static int getSizeRank(Class<?> aType) {
         if (aType == Double.TYPE) {
             return 1;
@@ -496,157 +722,87 @@ public class NativeJavaObject implements Scriptable, SymbolScriptable, Wrapper,
             return value;
         }
 
-        switch (getJSTypeCode(value)) {
-            // It makes more sense to treat undefined like null instead of coercing to a string. This
-            // deviates from the LC3 spec, but is more user-friendly
-            case JSTYPE_UNDEFINED:
-            case JSTYPE_NULL:
-                // raise error if type.isPrimitive()
-                if (type.isPrimitive()) {
-                    reportConversionError(value, type);
-                }
-                return null;
+        // It makes more sense to treat undefined like null instead of coercing to a string. This
+        // deviates from the LC3 spec, but is more user-friendly
+        if (value == null || value == Undefined.instance) {
+            // raise error if type.isPrimitive()
+            if (type.isPrimitive()) {
+                reportConversionError(value, type);
+            }
+            return null;
+        }
 
+        ConversionPlan plan = getConversionPlan(value, type);
+        if (value instanceof Wrapper && isJavaTypeCode(plan.jsTypeCode)) {
+            value = ((Wrapper) value).unwrap();
+        }
 
-            case JSTYPE_BOOLEAN:
-                // Under LC3, only JS Booleans can be coerced into a Boolean value
-                if (type == Boolean.TYPE ||
-                        type == ScriptRuntime.BooleanClass ||
-                        type == ScriptRuntime.ObjectClass) {
-                    return value;
-                } else if (type == ScriptRuntime.StringClass) {
-                    return value.toString();
-                } else {
-                    reportConversionError(value, type);
-                }
-                break;
+        switch (plan.action) {
+            case COERCE_IDENTITY:
+                return value;
 
-            case JSTYPE_NUMBER:
-                if (type == ScriptRuntime.StringClass) {
-                    return ScriptRuntime.toString(value);
-                } else if (type == ScriptRuntime.ObjectClass) {
-                    Context context = Context.getCurrentContext();
-                    if ((context != null) &&
-                            context.hasFeature(Context.FEATURE_INTEGER_WITHOUT_DECIMAL_PLACE)) {
-                        //to process numbers like 2.0 as 2 without decimal place
-                        long roundedValue = Math.round(toDouble(value));
-                        if (roundedValue == toDouble(value)) {
-                            return coerceToNumber(Long.TYPE, value);
-                        }
-                    }
-                    return coerceToNumber(Double.TYPE, value);
-                } else if ((type.isPrimitive() && type != Boolean.TYPE) ||
-                        ScriptRuntime.NumberClass.isAssignableFrom(type)) {
-                    return coerceToNumber(type, value);
-                } else {
-                    reportConversionError(value, type);
-                }
-                break;
+            case COERCE_TO_STRING:
+                return value.toString();
 
-            case JSTYPE_STRING:
-                if (type == ScriptRuntime.StringClass || type.isInstance(value)) {
-                    return value.toString();
-                } else if (type == Character.TYPE
-                        || type == ScriptRuntime.CharacterClass) {
-                    // Special case for converting a single char string to a
-                    // character
-                    // Placed here because it applies *only* to JS strings,
-                    // not other JS objects converted to strings
-                    if (((CharSequence) value).length() == 1) {
-                        return Character.valueOf(((CharSequence) value).charAt(0));
+            case COERCE_JS_TO_STRING:
+                return ScriptRuntime.toString(value);
+
+            case COERCE_TO_NUMBER:
+                return coerceToNumber(type, value);
+
+            case COERCE_NUMBER_TO_OBJECT: {
+                Context context = Context.getCurrentContext();
+                if ((context != null) &&
+                        context.hasFeature(Context.FEATURE_INTEGER_WITHOUT_DECIMAL_PLACE)) {
+                    //to process numbers like 2.0 as 2 without decimal place
+                    long roundedValue = Math.round(toDouble(value));
+                    if (roundedValue == toDouble(value)) {
+                        return coerceToNumber(Long.TYPE, value);
                     }
-                    return coerceToNumber(type, value);
-                } else if ((type.isPrimitive() && type != Boolean.TYPE)
-                        || ScriptRuntime.NumberClass.isAssignableFrom(type)) {
-                    return coerceToNumber(type, value);
-                } else {
-                    reportConversionError(value, type);
                 }
-                break;
+                return coerceToNumber(Double.TYPE, value);
+            }
 
-            case JSTYPE_JAVA_CLASS:
-                if (value instanceof Wrapper) {
-                    value = ((Wrapper) value).unwrap();
+            case COERCE_STRING_TO_CHAR:
+                // Special case for converting a single char string to a
+                // character
+                // Placed here because it applies *only* to JS strings,
+                // not other JS objects converted to strings
+                if (((CharSequence) value).length() == 1) {
+                    return Character.valueOf(((CharSequence) value).charAt(0));
                 }
+                return coerceToNumber(type, value);
 
-                if (type == ScriptRuntime.ClassClass ||
-                        type == ScriptRuntime.ObjectClass) {
-                    return value;
-                } else if (type == ScriptRuntime.StringClass) {
-                    return value.toString();
-                } else {
-                    reportConversionError(value, type);
-                }
-                break;
+            case COERCE_TO_DATE: {
+                double time = ((NativeDate) value).getJSTimeValue();
+                // XXX: This will replace NaN by 0
+                return new Date((long) time);
+            }
 
-            case JSTYPE_JAVA_OBJECT:
-            case JSTYPE_JAVA_ARRAY:
-                if (value instanceof Wrapper) {
-                    value = ((Wrapper) value).unwrap();
-                }
-                if (type.isPrimitive()) {
-                    if (type == Boolean.TYPE) {
+            case COERCE_TO_ARRAY: {
+                // Make a new java array, and coerce the JS array components
+                // to the target (component) type.
+                NativeArray array = (NativeArray) value;
+                long length = array.getLength();
+                Class<?> arrayType = type.getComponentType();
+                Object Result = Array.newInstance(arrayType, (int) length);
+                for (int i = 0; i < length; ++i) {
+                    try {
+                        Array.set(Result, i, coerceTypeImpl(
+                                arrayType, array.get(i, array)));
+                    } catch (EvaluatorException ee) {
                         reportConversionError(value, type);
                     }
-                    return coerceToNumber(type, value);
-                }
-                if (type == ScriptRuntime.StringClass) {
-                    return value.toString();
-                }
-                if (type.isInstance(value)) {
-                    return value;
                 }
-                reportConversionError(value, type);
-                break;
 
-            case JSTYPE_OBJECT:
-                if (type == ScriptRuntime.StringClass) {
-                    return ScriptRuntime.toString(value);
-                } else if (type.isPrimitive()) {
-                    if (type == Boolean.TYPE) {
-                        reportConversionError(value, type);
-                    }
-                    return coerceToNumber(type, value);
-                } else if (type.isInstance(value)) {
-                    return value;
-                } else if (type == ScriptRuntime.DateClass
-                        && value instanceof NativeDate) {
-                    double time = ((NativeDate) value).getJSTimeValue();
-                    // XXX: This will replace NaN by 0
-                    return new Date((long) time);
-                } else if (type.isArray() && value instanceof NativeArray) {
-                    // Make a new java array, and coerce the JS array components
-                    // to the target (component) type.
-                    NativeArray array = (NativeArray) value;
-                    long length = array.getLength();
-                    Class<?> arrayType = type.getComponentType();
-                    Object Result = Array.newInstance(arrayType, (int) length);
-                    for (int i = 0; i < length; ++i) {
-                        try {
-                            Array.set(Result, i, coerceTypeImpl(
-                                    arrayType, array.get(i, array)));
-                        } catch (EvaluatorException ee) {
-                            reportConversionError(value, type);
-                        }
-                    }
+                return Result;
+            }
 
-                    return Result;
-                } else if (value instanceof Wrapper) {
-                    value = ((Wrapper) value).unwrap();
-                    if (type.isInstance(value))
-                        return value;
-                    reportConversionError(value, type);
-                } else if (type.isInterface() && (value instanceof NativeObject
-                        || value instanceof NativeFunction
-                        || value instanceof ArrowFunction
-                        || value instanceof BoundFunction
-                        || value instanceof NativeJavaMethod)) {
-                    // Try to use function/object as implementation of Java interface.
-                    return createInterfaceAdapter(type, (ScriptableObject) value);
-                } else {
-                    reportConversionError(value, type);
-                }
-                break;
+            case COERCE_TO_INTERFACE:
+                return createInterfaceAdapter(type, (ScriptableObject) value);
+
+            default:
+                reportConversionError(value, type);
         }
 
         return value;
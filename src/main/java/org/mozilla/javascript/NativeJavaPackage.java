@@ -156,6 +156,24 @@ public class NativeJavaPackage extends ScriptableObject {
         return newValue;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        if (negativeCache != null) {
+            negativeCache = new HashSet<String>(negativeCache);
+        }
+    }
+
+    @Override
+    Slot copySlot(Slot slot, ScopeSnapshot.Copier copier) {
+        // The slots cache subpackages and wrapped Java classes. The classes
+        // can't be copied, so the copy looks them up again when used.
+        if (!(slot.value instanceof NativeJavaPackage)) {
+            return null;
+        }
+        return super.copySlot(slot, copier);
+    }
+
     @Override
     public Object getDefaultValue(Class<?> ignored) {
         return toString();
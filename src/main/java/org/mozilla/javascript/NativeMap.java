@@ -15,7 +15,7 @@ public class NativeMap extends IdScriptableObject {
 
     private static final Object NULL_VALUE = new Object();
 
-    private final Hashtable entries = new Hashtable();
+    private Hashtable entries = new Hashtable();
 
     private boolean instanceOfMap = false;
 
@@ -34,6 +34,16 @@ public class NativeMap extends IdScriptableObject {
         }
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        Hashtable copy = new Hashtable();
+        for (Hashtable.Entry e : entries) {
+            copy.put(copier.copy(e.key()), copier.copy(e.value()));
+        }
+        entries = copy;
+    }
+
     @Override
     public String getClassName() {
         return "Map";
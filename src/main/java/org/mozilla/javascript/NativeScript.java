@@ -34,6 +34,12 @@ class NativeScript extends BaseFunction {
         this.script = script;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        script = copier.copy(script);
+    }
+
     /**
      * Returns the name of this JavaScript class, "Script".
      */
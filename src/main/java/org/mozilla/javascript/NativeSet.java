@@ -15,7 +15,7 @@ public class NativeSet extends IdScriptableObject {
 
     static final SymbolKey GETSIZE = new SymbolKey("[Symbol.getSize]");
 
-    private final Hashtable entries = new Hashtable();
+    private Hashtable entries = new Hashtable();
 
     private boolean instanceOfSet = false;
 
@@ -34,6 +34,16 @@ public class NativeSet extends IdScriptableObject {
         }
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        Hashtable copy = new Hashtable();
+        for (Hashtable.Entry e : entries) {
+            copy.put(copier.copy(e.key()), copier.copy(e.value()));
+        }
+        entries = copy;
+    }
+
     @Override
     public String getClassName() {
         return "Set";
@@ -27,7 +27,7 @@ public class NativeSymbol extends IdScriptableObject implements Symbol {
     private static final Object CONSTRUCTOR_SLOT = new Object();
 
     private final SymbolKey key;
-    private final NativeSymbol symbolData;
+    private NativeSymbol symbolData;
 
     public static void init(Context cx, Scriptable scope, boolean sealed) {
         NativeSymbol obj = new NativeSymbol("");
@@ -79,6 +79,13 @@ public class NativeSymbol extends IdScriptableObject implements Symbol {
         this.symbolData = s.symbolData;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        // The key is shared, so the copies of a symbol are equal to it
+        symbolData = copier.copy(symbolData);
+    }
+
     /**
      * Use this when we need to create symbols internally because of the convoluted way we have to
      * construct them.
@@ -411,6 +418,23 @@ public class NativeSymbol extends IdScriptableObject implements Symbol {
         return map;
     }
 
+    static boolean isSymbolMapKey(Object key) {
+        return key == GLOBAL_TABLE_KEY || key == OPERATOR_KEY
+                || key == UNARY_OPERATOR_KEY;
+    }
+
+    /**
+     * Copy a registry of {@link #getSymbolMap} for a {@link ScopeSnapshot}.
+     */
+    @SuppressWarnings("unchecked")
+    static Object copySymbolMap(Object map, ScopeSnapshot.Copier copier) {
+        Map<String, NativeSymbol> copy = new HashMap<>((Map<String, NativeSymbol>) map);
+        for (Map.Entry<String, NativeSymbol> e : copy.entrySet()) {
+            e.setValue(copier.copy(e.getValue()));
+        }
+        return copy;
+    }
+
     private Map<String, NativeSymbol> getGlobalMap() {
         return getSymbolMap(this, GLOBAL_TABLE_KEY);
     }
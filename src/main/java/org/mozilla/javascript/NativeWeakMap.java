@@ -35,6 +35,18 @@ public class NativeWeakMap extends IdScriptableObject {
         m.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        WeakHashMap<Scriptable, Object> copy = new WeakHashMap<>();
+        synchronized (map) {
+            for (Map.Entry<Scriptable, Object> e : map.entrySet()) {
+                copy.put(copier.copy(e.getKey()), copier.copy(e.getValue()));
+            }
+        }
+        map = copy;
+    }
+
     @Override
     public String getClassName() {
         return "WeakMap";
@@ -8,6 +8,7 @@ package org.mozilla.javascript;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.util.Map;
 import java.util.WeakHashMap;
 
 /**
@@ -31,6 +32,18 @@ public class NativeWeakSet extends IdScriptableObject {
         m.exportAsJSClass(MAX_PROTOTYPE_ID, scope, sealed);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        WeakHashMap<Scriptable, Boolean> copy = new WeakHashMap<>();
+        synchronized (map) {
+            for (Map.Entry<Scriptable, Boolean> e : map.entrySet()) {
+                copy.put(copier.copy(e.getKey()), copier.copy(e.getValue()));
+            }
+        }
+        map = copy;
+    }
+
     @Override
     public String getClassName() {
         return "WeakSet";
@@ -247,6 +247,17 @@ public class NativeWith implements Scriptable, SymbolScriptable, IdFunctionCall,
         return thisObj;
     }
 
+    NativeWith copy(ScopeSnapshot.Copier copier) {
+        if (getClass() != NativeWith.class) {
+            throw new IllegalArgumentException(
+                    "Cannot copy objects of " + getClass().getName());
+        }
+        NativeWith copy = new NativeWith();
+        copy.prototype = copier.copy(prototype);
+        copy.parent = copier.copy(parent);
+        return copy;
+    }
+
     private static final Object FTAG = "With";
 
     private static final int
@@ -67,7 +67,8 @@ public class Node implements Iterable<Node> {
             EXPORT_PROP = 35,
             INITIALIZE_PROP = 36,
             PARTIAL_PROP = 37,
-            CONST_DECL_PROP = 38;
+            CONST_DECL_PROP = 38,
+            LAZY_FUNCTION_PROP = 39; // function compiled on its first call
 
     // values of ISNUMBER_PROP to specify
     // which of the children are Number types
@@ -481,6 +482,8 @@ public class Node implements Iterable<Node> {
                     return "initialize_prop";
                 case PARTIAL_PROP:
                     return "partial_prop";
+                case LAZY_FUNCTION_PROP:
+                    return "lazy_function";
                 default:
                     throw Kit.codeBug();
             }
@@ -38,7 +38,9 @@ public class NodeTransformer {
         transformCompilationUnit(tree, useStrictMode);
         for (int i = 0; i != tree.getFunctionCount(); ++i) {
             FunctionNode fn = tree.getFunctionNode(i);
-            transform(fn, useStrictMode, env);
+            if (fn.getIntProp(Node.LAZY_FUNCTION_PROP, 0) == 0) {
+                transform(fn, useStrictMode, env);
+            }
         }
     }
 
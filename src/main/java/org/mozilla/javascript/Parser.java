@@ -471,10 +471,25 @@ public class Parser {
      * {@link CompilerEnvirons}.)
      */
     public AstRoot parse(String sourceString, String sourceURI, int lineno) {
+        return parse((CharSequence) sourceString, sourceURI, lineno);
+    }
+
+    /**
+     * Builds a parse tree from the given source, such as a {@link String} or
+     * a {@link java.nio.CharBuffer} holding a decoded file. The characters
+     * are scanned in place and must not change until the parse returns.
+     *
+     * @return an {@link AstRoot} object representing the parsed program.  If
+     * the parse fails, {@code null} will be returned.  (The parse failure will
+     * result in a call to the {@link ErrorReporter} from
+     * {@link CompilerEnvirons}.)
+     * @see #parse(String, String, int)
+     */
+    public AstRoot parse(CharSequence sourceString, String sourceURI, int lineno) {
         if (parseFinished) throw new IllegalStateException("parser reused");
         this.sourceURI = sourceURI;
         if (compilerEnv.isIdeMode()) {
-            this.sourceChars = sourceString.toCharArray();
+            this.sourceChars = sourceString.toString().toCharArray();
         }
         this.ts = new TokenStream(this, null, sourceString, lineno);
         try {
@@ -593,6 +608,10 @@ public class Parser {
 
         root.setLength(end - pos);
         root.setSourceName(sourceURI);
+        if (compilerEnv.isLazyFunctionCompilation()) {
+            // Kept for compiling function bodies on their first call
+            root.setSource(ts.getSourceString());
+        }
         root.setBaseLineno(baseLineno);
         root.setEndLineno(ts.lineno);
         return root;
@@ -1037,6 +1056,7 @@ public class Parser {
             parseFunctionParams(fnNode, objEntryKind == SET_ENTRY);
             fnNode.setBody(parseFunctionBody(type, fnNode));
             fnNode.setEncodedSourceBounds(functionSourceStart, ts.tokenEnd);
+            fnNode.setSourceBounds(functionSourceStart, ts.tokenEnd);
             fnNode.setLength(ts.tokenEnd - functionSourceStart);
 
             if (compilerEnv.isStrictMode()
@@ -3192,7 +3212,7 @@ public class Parser {
         if (matchToken(Token.RP))
             return null;
 
-        List<AstNode> result = new ArrayList<>();
+        List<AstNode> result = new ArrayList<>(4);
         boolean wasInForInit = inForInit;
         inForInit = false;
         try {
@@ -4198,7 +4218,13 @@ public class Parser {
         if ("arguments".equals(name) &&
                 // An arrow function not generate arguments. So it not need activation.
                 ((FunctionNode) currentScriptOrFn).getFunctionType() != FunctionNode.ARROW_FUNCTION) {
-            activation = true;
+            if (token == Token.NAME) {
+                // The code generator may do without the activation
+                ((FunctionNode) currentScriptOrFn).setUsesArguments();
+            } else {
+                // f.arguments finds the activation of a running f
+                activation = true;
+            }
         } else if (compilerEnv.getActivationNames() != null
                 && compilerEnv.getActivationNames().contains(name)) {
             activation = true;
@@ -0,0 +1,224 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+// API class
+
+package org.mozilla.javascript;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * A frozen copy of an initialized scope, from which new independent scopes
+ * can be made without running the initialization again.
+ * <pre>
+ * ScopeSnapshot snapshot = new ScopeSnapshot(cx.initStandardObjects());
+ * // for every module
+ * ScriptableObject global = snapshot.newScope();
+ * </pre>
+ * {@link #newScope()} copies the objects of the snapshot, their properties
+ * and their prototype chains field by field, which is much cheaper than
+ * building them again with {@link Context#initStandardObjects()}. The
+ * copies share nothing that scripts can change: a script modifying
+ * <code>Array.prototype</code> of one copy does not affect the others, nor
+ * the snapshot. Standard objects not used before the snapshot was taken,
+ * such as lazily loaded constructors and built-in methods, stay lazy in
+ * the copies.
+ * <p>
+ * A snapshot can contain the standard objects, plain objects and arrays,
+ * functions of scripts and other objects extending {@link ScriptableObject}
+ * whose fields are either primitive, copied by
+ * {@link ScriptableObject#copyReferences(ScopeSnapshot.Copier)} or shared as
+ * declared by {@link SharedReferences}.
+ * Java objects stored in properties are shared by the copies, while objects
+ * wrapping them, such as {@link NativeJavaObject}, cannot be copied. Java
+ * packages can be copied, but forget the classes they looked up.
+ * <p>
+ * The snapshot is never modified, so copies can be made on any thread
+ * without entering a {@link Context}.
+ */
+public final class ScopeSnapshot {
+    private final ScriptableObject scope;
+    private final int size;
+
+    /**
+     * Take a snapshot of the scope and all objects reachable from it.
+     * The scope can still be used, it is not part of the snapshot.
+     * It must not be modified while the snapshot is taken.
+     *
+     * @throws IllegalArgumentException if an object reachable from the
+     *                                  scope cannot be copied
+     */
+    public ScopeSnapshot(ScriptableObject scope) {
+        if (scope == null) throw new IllegalArgumentException();
+        Copier copier = new Copier(32, true);
+        this.scope = copier.copyAll(scope);
+        this.size = copier.copies.size();
+    }
+
+    /**
+     * Create a new scope from the snapshot.
+     */
+    public ScriptableObject newScope() {
+        // The objects of the snapshot were checked when it was taken
+        return new Copier(size, false).copyAll(scope);
+    }
+
+    /**
+     * Marks a class whose own fields refer only to objects that the copies
+     * of its instances can share with the snapshot, such as immutable
+     * objects, so it does not need to override
+     * {@link ScriptableObject#copyReferences(ScopeSnapshot.Copier)}.
+     * It applies to the fields declared by the class implementing it, not to
+     * those of its subclasses.
+     */
+    public interface SharedReferences {
+    }
+
+    /**
+     * Maps the objects of a scope being copied to their copies.
+     *
+     * @see ScriptableObject#copyReferences(ScopeSnapshot.Copier)
+     */
+    public static final class Copier {
+        private static final ClassValue<Boolean> COPYABLE = new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> type) {
+                for (Class<?> c = type; c != ScriptableObject.class; c = c.getSuperclass()) {
+                    if (!isCopyable(c)) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return Boolean.TRUE;
+            }
+        };
+
+        private final IdentityHashMap<Object, Object> copies;
+        private final ArrayDeque<ScriptableObject> pending;
+        private final boolean check;
+
+        private Copier(int expectedSize, boolean check) {
+            this.copies = new IdentityHashMap<>(expectedSize);
+            this.pending = new ArrayDeque<>(expectedSize);
+            this.check = check;
+        }
+
+        /**
+         * Return the copy of an object of the scope, making it if needed.
+         * Values that are not JavaScript objects, such as strings, numbers
+         * and Java objects, are returned as they are.
+         *
+         * @throws IllegalArgumentException if the value cannot be copied
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T copy(T value) {
+            if (value instanceof ScriptableObject) {
+                Object copy = copies.get(value);
+                if (copy == null) {
+                    copy = copyObject((ScriptableObject) value);
+                }
+                return (T) copy;
+            }
+            if (value == null || value instanceof String || value instanceof Number
+                    || value instanceof Boolean || value instanceof UniqueTag) {
+                return value;
+            }
+            Object copy = copies.get(value);
+            if (copy != null) {
+                return (T) copy;
+            }
+            if (value instanceof LazilyLoadedCtor) {
+                copy = ((LazilyLoadedCtor) value).copy(this);
+            } else if (value instanceof MemberBox) {
+                copy = ((MemberBox) value).copy(this);
+            } else if (value instanceof ClassCache) {
+                copy = ((ClassCache) value).copy(this);
+            } else if (value instanceof NativeError.ProtoProps) {
+                copy = ((NativeError.ProtoProps) value).copy(this);
+            } else if (value instanceof NativeWith) {
+                copy = ((NativeWith) value).copy(this);
+            } else if (value instanceof Scriptable
+                    && value != Undefined.SCRIPTABLE_UNDEFINED) {
+                throw new IllegalArgumentException(
+                        "Cannot copy objects of " + value.getClass().getName());
+            } else {
+                return value;
+            }
+            copies.put(value, copy);
+            return (T) copy;
+        }
+
+        /**
+         * Return a copy of an array with {@link #copy(Object)} applied to
+         * its elements. Arrays referred to by several objects are copied
+         * once.
+         */
+        public Object[] copyArray(Object[] array) {
+            if (array == null || array.length == 0) {
+                return array;
+            }
+            Object[] copy = (Object[]) copies.get(array);
+            if (copy == null) {
+                copy = array.clone();
+                copies.put(array, copy);
+                for (int i = 0; i != copy.length; ++i) {
+                    copy[i] = copy(copy[i]);
+                }
+            }
+            return copy;
+        }
+
+        private ScriptableObject copyObject(ScriptableObject obj) {
+            if (check && !COPYABLE.get(obj.getClass()).booleanValue()) {
+                throw new IllegalArgumentException(
+                        "Cannot copy objects of " + obj.getClass().getName());
+            }
+            ScriptableObject copy = obj.copyObject();
+            copies.put(obj, copy);
+            pending.add(copy);
+            return copy;
+        }
+
+        private ScriptableObject copyAll(ScriptableObject scope) {
+            ScriptableObject copy = copy(scope);
+            ScriptableObject obj;
+            while ((obj = pending.poll()) != null) {
+                obj.copyReferences(this);
+            }
+            return copy;
+        }
+
+        /**
+         * A class can be copied field by field if it copies its references
+         * to other objects itself, shares them, or has no such references.
+         */
+        private static boolean isCopyable(Class<?> c) {
+            if (Arrays.asList(c.getInterfaces()).contains(SharedReferences.class)) {
+                return true;
+            }
+            try {
+                c.getDeclaredMethod("copyReferences", Copier.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // check the fields
+            }
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> type = field.getType();
+                if (!type.isPrimitive() && !type.isEnum()
+                        && type != String.class && type != CharSequence.class) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
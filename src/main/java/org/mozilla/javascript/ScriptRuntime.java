@@ -129,6 +129,7 @@ public class ScriptRuntime {
     public static ScriptableObject initSafeStandardObjects(Context cx,
                                                            ScriptableObject scope,
                                                            boolean sealed) {
+        InitProfiler profiler = InitProfiler.start(cx);
         if (scope == null) {
             scope = new NativeObject();
         }
@@ -136,7 +137,9 @@ public class ScriptRuntime {
         (new ClassCache()).associate(scope);
 
         BaseFunction.init(scope, sealed);
+        InitProfiler.done(profiler, "Function", false);
         NativeObject.init(scope, sealed);
+        InitProfiler.done(profiler, "Object", false);
 
         Scriptable objectProto = ScriptableObject.getObjectPrototype(scope);
 
@@ -150,7 +153,9 @@ public class ScriptRuntime {
 
         // must precede NativeGlobal since it's needed therein
         NativeError.init(scope, sealed);
+        InitProfiler.done(profiler, "Error", false);
         NativeGlobal.init(cx, scope, sealed);
+        InitProfiler.done(profiler, "global functions", false);
 
         NativeArray.init(scope, sealed);
         if (cx.getOptimizationLevel() > 0) {
@@ -159,28 +164,46 @@ public class ScriptRuntime {
             // representation
             NativeArray.setMaximumInitialCapacity(200000);
         }
+        InitProfiler.done(profiler, "Array", false);
         NativeString.init(scope, sealed);
+        InitProfiler.done(profiler, "String", false);
         NativeBoolean.init(scope, sealed);
+        InitProfiler.done(profiler, "Boolean", false);
         NativeNumber.init(scope, sealed);
+        InitProfiler.done(profiler, "Number", false);
         NativeDate.init(scope, sealed);
+        InitProfiler.done(profiler, "Date", false);
         NativeMath.init(scope, sealed);
+        InitProfiler.done(profiler, "Math", false);
         NativeJSON.init(scope, sealed);
+        InitProfiler.done(profiler, "JSON", false);
         NativeReflect.init(scope, sealed);
+        InitProfiler.done(profiler, "Reflect", false);
         NativeProxy.init(scope, sealed);
+        InitProfiler.done(profiler, "Proxy", false);
 
         // Decorators
         DecoratorType.init(scope);
+        InitProfiler.done(profiler, "decorators", false);
 
         NativeWith.init(scope, sealed);
+        InitProfiler.done(profiler, "With", false);
         NativeCall.init(scope, sealed);
+        InitProfiler.done(profiler, "Call", false);
         NativeScript.init(scope, sealed);
+        InitProfiler.done(profiler, "Script", false);
 
         NativeIterator.init(scope, sealed);
+        InitProfiler.done(profiler, "Iterator", false);
         NativeGenerator.init(scope, sealed);
+        InitProfiler.done(profiler, "Generator", false);
 
         NativeArrayIterator.init(scope, sealed);
+        InitProfiler.done(profiler, "Array Iterator", false);
         NativeStringIterator.init(scope, sealed);
+        InitProfiler.done(profiler, "String Iterator", false);
         NativeGeneratorIterator.init(scope, sealed);
+        InitProfiler.done(profiler, "Generator Iterator", false);
 
         // define lazy-loaded properties using their class name
         new LazilyLoadedCtor(scope, "RegExp", "org.mozilla.javascript.regexp.NativeRegExp", sealed, true);
@@ -199,15 +222,23 @@ public class ScriptRuntime {
             new LazilyLoadedCtor(scope, "Float64Array", "org.mozilla.javascript.typedarrays.NativeFloat64Array", sealed, true);
             new LazilyLoadedCtor(scope, "DataView", "org.mozilla.javascript.typedarrays.NativeDataView", sealed, true);
         }
+        InitProfiler.done(profiler, "lazily loaded constructors", false);
 
         if (cx.getLanguageVersion() >= Context.VERSION_ES6) {
             NativeSymbol.init(cx, scope, sealed);
+            InitProfiler.done(profiler, "Symbol", false);
             NativeCollectionIterator.init(scope, NativeSet.ITERATOR_TAG, sealed);
+            InitProfiler.done(profiler, "Set Iterator", false);
             NativeCollectionIterator.init(scope, NativeMap.ITERATOR_TAG, sealed);
+            InitProfiler.done(profiler, "Map Iterator", false);
             NativeMap.init(cx, scope, sealed);
+            InitProfiler.done(profiler, "Map", false);
             NativeSet.init(cx, scope, sealed);
+            InitProfiler.done(profiler, "Set", false);
             NativeWeakMap.init(scope, sealed);
+            InitProfiler.done(profiler, "WeakMap", false);
             NativeWeakSet.init(scope, sealed);
+            InitProfiler.done(profiler, "WeakSet", false);
         }
 
         if (scope instanceof TopLevel) {
@@ -221,6 +252,7 @@ public class ScriptRuntime {
                                                        ScriptableObject scope,
                                                        boolean sealed) {
         ScriptableObject s = initSafeStandardObjects(cx, scope, sealed);
+        InitProfiler profiler = InitProfiler.start(cx);
 
         new LazilyLoadedCtor(s, "Packages", "org.mozilla.javascript.NativeJavaTopPackage", sealed, true);
         new LazilyLoadedCtor(s, "getClass", "org.mozilla.javascript.NativeJavaTopPackage", sealed, true);
@@ -230,6 +262,7 @@ public class ScriptRuntime {
         for (String packageName : getTopPackageNames()) {
             new LazilyLoadedCtor(s, packageName, "org.mozilla.javascript.NativeJavaTopPackage", sealed, true);
         }
+        InitProfiler.done(profiler, "Java packages", false);
 
         return s;
     }
@@ -565,6 +598,27 @@ public class ScriptRuntime {
     public static double toNumber(String s) {
         final int len = s.length();
 
+        // Short strings of decimal digits, such as array indexes, fit an int
+        if (len != 0 && len <= 9) {
+            int value = 0;
+            int i = 0;
+            for (; i != len; i++) {
+                int c = s.charAt(i) - '0';
+                if (c < 0 || c > 9) {
+                    break;
+                }
+                value = value * 10 + c;
+            }
+            if (i == len) {
+                return value;
+            }
+        }
+        int slot = s.hashCode() & (recentStringNumbers.length - 1);
+        NumberStringEntry entry = recentStringNumbers[slot];
+        if (entry != null && s.equals(entry.string)) {
+            return entry.number;
+        }
+
         // Skip whitespace at the start
         int start = 0;
         char startChar;
@@ -657,7 +711,11 @@ public class ScriptRuntime {
             return NaN;
         }
         try {
-            return Double.parseDouble(sub);
+            double d = Double.parseDouble(sub);
+            // Only decimal results are cached, they don't depend on the
+            // language version
+            recentStringNumbers[slot] = new NumberStringEntry(d, s);
+            return d;
         } catch (NumberFormatException ex) {
             return NaN;
         }
@@ -1454,20 +1512,72 @@ public class ScriptRuntime {
         if (d == 0.0)
             return "0";
 
+        int i = (int) d;
+        if (i == d) {
+            // Integers need neither dtoa nor any rounding
+            return base == 10 ? intToString(i) : Integer.toString(i, base);
+        }
+
         if (base != 10) {
             return DToA.JS_dtobasestr(base, d);
         }
+        int slot = (int) (Double.doubleToRawLongBits(d) * 0x9E3779B97F4A7C15L >>> 56);
+        NumberStringEntry entry = recentNumberStrings[slot];
+        if (entry != null && entry.number == d) {
+            return entry.string;
+        }
         // V8 FastDtoa can't convert all numbers, so try it first but
         // fall back to old DToA in case it fails
         String result = FastDtoa.numberToString(d);
-        if (result != null) {
-            return result;
+        if (result == null) {
+            StringBuilder buffer = new StringBuilder();
+            DToA.JS_dtostr(buffer, DToA.DTOSTR_STANDARD, 0, d);
+            result = buffer.toString();
         }
-        StringBuilder buffer = new StringBuilder();
-        DToA.JS_dtostr(buffer, DToA.DTOSTR_STANDARD, 0, d);
-        return buffer.toString();
+        recentNumberStrings[slot] = new NumberStringEntry(d, result);
+        return result;
     }
 
+    /**
+     * Optimized version of numberToString(double, 10) for int values.
+     * Strings of small non-negative values are shared.
+     */
+    public static String intToString(int i) {
+        if (i >= 0 && i < SMALL_INT_STRINGS_SIZE) {
+            String s = smallIntStrings[i];
+            if (s == null) {
+                s = Integer.toString(i);
+                smallIntStrings[i] = s;
+            }
+            return s;
+        }
+        return Integer.toString(i);
+    }
+
+    // Conversions are cached in plain arrays without locking: the cached
+    // strings and entries are immutable, so a racing thread at worst
+    // converts a number again.
+
+    private static final int SMALL_INT_STRINGS_SIZE = 1024;
+
+    private static final String[] smallIntStrings = new String[SMALL_INT_STRINGS_SIZE];
+
+    private static final class NumberStringEntry {
+        final double number;
+        final String string;
+
+        NumberStringEntry(double number, String string) {
+            this.number = number;
+            this.string = string;
+        }
+    }
+
+    // Direct mapped cache of the last non-integer numbers converted to
+    // decimal strings and of the last decimal strings converted to numbers
+    private static final NumberStringEntry[] recentNumberStrings = new NumberStringEntry[256];
+
+    private static final NumberStringEntry[] recentStringNumbers = new NumberStringEntry[256];
+
     static String uneval(Context cx, Scriptable scope, Object value) {
         if (value == null) {
             return "null";
@@ -3234,7 +3344,7 @@ public class ScriptRuntime {
             case Token.RSH:
                 return doArithmetic(val1, val2, ">>", () -> OptRuntime.wrapDouble(toInt32(val1) >> toInt32(val2)), cx);
             case Token.URSH:
-                return doArithmetic(val1, val2, ">>>", () -> OptRuntime.wrapDouble(toInt32(val1) >>> toInt32(val2)), cx);
+                return doArithmetic(val1, val2, ">>>", () -> OptRuntime.wrapDouble(toUint32(val1) >>> (toInt32(val2) & 0x1F)), cx);
             case Token.BITAND:
                 return doArithmetic(val1, val2, "&", () -> OptRuntime.wrapDouble(toInt32(val1) & toInt32(val2)), cx);
             case Token.BITOR:
@@ -37,7 +37,8 @@ public abstract class ScriptableObject implements Scriptable,
         SymbolScriptable,
         Serializable,
         DebuggableObject,
-        ConstProperties {
+        ConstProperties,
+        Cloneable {
 
     private static final long serialVersionUID = 2829861078851942586L;
 
@@ -116,6 +117,22 @@ public abstract class ScriptableObject implements Scriptable,
 
     private transient SlotMapContainer privateSlotMap;
 
+    /**
+     * Writable, enumerable and configurable data properties with small
+     * non-negative int keys, kept apart from the slots like the dense part
+     * of NativeArray. Missing elements are NOT_FOUND. An index is either
+     * here or in the slots, and moves to the slots as soon as it needs one.
+     */
+    private Object[] elements;
+
+    private int elementCount;
+
+    // An element is only added to the array if this does not grow it by
+    // more than this factor, sparse keys stay in the slots
+    private static final int ELEMENTS_GROW_FACTOR = 2;
+
+    private static final int MIN_ELEMENTS_LENGTH = 8;
+
     // Where external array data is stored.
     private transient ExternalArrayData externalData;
 
@@ -213,6 +230,16 @@ public abstract class ScriptableObject implements Scriptable,
             return buildDataDescriptor(scope, value, attributes);
         }
 
+        Slot copy(ScopeSnapshot.Copier copier) {
+            Slot copy = new Slot(copier.copy(name), indexOrHash, attributes);
+            copyValueTo(copy, copier);
+            return copy;
+        }
+
+        final void copyValueTo(Slot copy, ScopeSnapshot.Copier copier) {
+            copy.value = copier.copy(value);
+            copy.initialized = initialized;
+        }
     }
 
     protected static ScriptableObject buildDataDescriptor(Scriptable scope, Object value, int attributes) {
@@ -357,6 +384,15 @@ public abstract class ScriptableObject implements Scriptable,
             }
             return val;
         }
+
+        @Override
+        Slot copy(ScopeSnapshot.Copier copier) {
+            GetterSlot copy = new GetterSlot(copier.copy(name), indexOrHash, getAttributes());
+            copyValueTo(copy, copier);
+            copy.getter = copier.copy(getter);
+            copy.setter = copier.copy(setter);
+            return copy;
+        }
     }
 
     static void checkValidAttributes(int attributes) {
@@ -433,6 +469,9 @@ public abstract class ScriptableObject implements Scriptable,
         if (externalData != null) {
             return (index < externalData.getArrayLength());
         }
+        if (hasElement(index)) {
+            return true;
+        }
         return null != slotMap.query(null, index);
     }
 
@@ -479,6 +518,13 @@ public abstract class ScriptableObject implements Scriptable,
             return Scriptable.NOT_FOUND;
         }
 
+        Object[] elements = this.elements;
+        if (elements != null && 0 <= index && index < elements.length) {
+            Object value = elements[index];
+            if (value != NOT_FOUND) {
+                return value;
+            }
+        }
         Slot slot = slotMap.query(null, index);
         if (slot == null) {
             return Scriptable.NOT_FOUND;
@@ -597,6 +643,11 @@ public abstract class ScriptableObject implements Scriptable,
     @Override
     public void delete(int index) {
         checkNotSealed(null, index);
+        if (hasElement(index)) {
+            elements[index] = NOT_FOUND;
+            elementCount--;
+            return;
+        }
         slotMap.remove(null, index);
     }
 
@@ -734,6 +785,9 @@ public abstract class ScriptableObject implements Scriptable,
      * @see org.mozilla.javascript.ScriptableObject#EMPTY
      */
     public int getAttributes(int index) {
+        if (hasElement(index)) {
+            return EMPTY;
+        }
         return findAttributeSlot(null, index, SlotAccess.QUERY, false).getAttributes();
     }
 
@@ -887,6 +941,9 @@ public abstract class ScriptableObject implements Scriptable,
         if (!force) {
             checkNotSealed(name, index);
         }
+        if (name == null) {
+            elementToSlot(index);
+        }
 
         final GetterSlot gslot;
         SlotMapContainer slotMap = getSlotMap(isPrivate);
@@ -930,6 +987,8 @@ public abstract class ScriptableObject implements Scriptable,
     public Object getGetterOrSetter(String name, int index, boolean isSetter, boolean isPrivate) {
         if (name != null && index != 0)
             throw new IllegalArgumentException(name);
+        if (name == null && hasElement(index))
+            return Undefined.instance;
         Slot slot = getSlotMap(isPrivate).query(name, index);
         if (slot == null)
             return null;
@@ -993,6 +1052,9 @@ public abstract class ScriptableObject implements Scriptable,
         if (name != null && index != 0)
             throw new IllegalArgumentException(name);
         checkNotSealed(name, index);
+        if (name == null) {
+            elementToSlot(index);
+        }
         GetterSlot gslot = (GetterSlot) slotMap.get(name, index,
                 SlotAccess.MODIFY_GETTER_SETTER);
         gslot.setAttributes(attributes);
@@ -2978,6 +3040,28 @@ public abstract class ScriptableObject implements Scriptable,
         Slot slot;
         SlotMapContainer slotMap = getSlotMap(isPrivate);
 
+        if (key == null && index >= 0 && !isPrivate) {
+            if (hasElement(index)) {
+                // The same as for a plain slot below
+                if (!isExtensible && Context.getContext().isStrictMode())
+                    throw ScriptRuntime.typeError0("msg.not.extensible");
+                if (this != start) {
+                    return false;
+                }
+                if (isExtensible && isSealed) checkNotSealed(null, index);
+                elements[index] = value;
+                return true;
+            }
+            if (this == start && isExtensible && !isSealed
+                    && !(slotMap instanceof ThreadSafeSlotMapContainer)
+                    && ensureElementCapacity(index)
+                    && slotMap.query(null, index) == null) {
+                elements[index] = value;
+                elementCount++;
+                return true;
+            }
+        }
+
         if (this != start) {
             slot = slotMap.query(key, index);
             if (!isExtensible && Context.getContext().isStrictMode() && (slot == null || !(slot instanceof GetterSlot)))
@@ -3015,6 +3099,9 @@ public abstract class ScriptableObject implements Scriptable,
      */
     private boolean putConstImpl(String name, int index, Scriptable start, Object value, int constFlag) {
         assert (constFlag != EMPTY);
+        if (name == null) {
+            elementToSlot(index);
+        }
         if (!isExtensible) {
             Context cx = Context.getContext();
             if (cx.isStrictMode()) {
@@ -3054,6 +3141,9 @@ public abstract class ScriptableObject implements Scriptable,
     }
 
     private Slot findAttributeSlot(String name, int index, SlotAccess accessType, boolean isPrivate) {
+        if (name == null && !isPrivate) {
+            elementToSlot(index);
+        }
         Slot slot = getSlotMap(isPrivate).get(name, index, accessType);
         if (slot == null) {
             String str = (name != null ? name : Integer.toString(index));
@@ -3070,6 +3160,52 @@ public abstract class ScriptableObject implements Scriptable,
         return slot;
     }
 
+    private boolean hasElement(int index) {
+        Object[] elements = this.elements;
+        return elements != null && 0 <= index && index < elements.length
+                && elements[index] != NOT_FOUND;
+    }
+
+    private boolean ensureElementCapacity(int index) {
+        Object[] elements = this.elements;
+        int length = elements == null ? 0 : elements.length;
+        if (index < length) {
+            return true;
+        }
+        int newLength = Math.max(MIN_ELEMENTS_LENGTH, length * ELEMENTS_GROW_FACTOR);
+        if (index >= newLength) {
+            return false;
+        }
+        if (elements == null) {
+            // getIds lists the elements before the slots, which only agrees
+            // with the enumeration order if int keys are enumerated first
+            Context cx = Context.getCurrentContext();
+            if (cx == null || !cx.hasFeature(Context.FEATURE_ENUMERATE_IDS_FIRST)) {
+                return false;
+            }
+        }
+        Object[] newElements = new Object[newLength];
+        if (elements != null) {
+            System.arraycopy(elements, 0, newElements, 0, length);
+        }
+        Arrays.fill(newElements, length, newLength, NOT_FOUND);
+        this.elements = newElements;
+        return true;
+    }
+
+    /**
+     * Move the element at index, if any, to a slot for the code that
+     * needs a slot to change its attributes or make it an accessor.
+     */
+    private void elementToSlot(int index) {
+        if (hasElement(index)) {
+            Object value = elements[index];
+            elements[index] = NOT_FOUND;
+            elementCount--;
+            slotMap.get(null, index, SlotAccess.MODIFY).setValue(value);
+        }
+    }
+
     public Object[] getIds(boolean getNonEnumerable, boolean getSymbols) {
         Object[] a;
         int externalLen = (externalData == null ? 0 : externalData.getArrayLength());
@@ -3082,6 +3218,20 @@ public abstract class ScriptableObject implements Scriptable,
                 a[i] = i;
             }
         }
+        if (elementCount != 0) {
+            // Elements follow the external array ones in ascending order,
+            // and the slots are added after both
+            Object[] oldA = a;
+            a = new Object[externalLen + elementCount];
+            System.arraycopy(oldA, 0, a, 0, externalLen);
+            int c = externalLen;
+            for (int i = 0; i < elements.length; i++) {
+                if (elements[i] != NOT_FOUND) {
+                    a[c++] = i;
+                }
+            }
+            externalLen = c;
+        }
         if (slotMap.isEmpty()) {
             return a;
         }
@@ -3126,6 +3276,91 @@ public abstract class ScriptableObject implements Scriptable,
         return result;
     }
 
+    /**
+     * Return a copy of this object for a {@link ScopeSnapshot}, sharing
+     * all fields with it until {@link #copyReferences} is called.
+     */
+    final ScriptableObject copyObject() {
+        try {
+            return (ScriptableObject) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replace the references of a copy made for a {@link ScopeSnapshot} to
+     * objects of the snapshot by references to their copies, obtained from
+     * {@link ScopeSnapshot.Copier#copy(Object)}. When this method is called,
+     * the fields of this object have the same values as in the object it
+     * is a copy of.
+     * <p>
+     * Subclasses declaring fields that refer to other objects must override
+     * this method and call the super implementation, or their instances
+     * cannot be copied. Subclasses whose fields only refer to immutable
+     * objects can implement {@link ScopeSnapshot.SharedReferences} instead.
+     *
+     * @param copier the copier of the scope
+     */
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        prototypeObject = copier.copy(prototypeObject);
+        parentScopeObject = copier.copy(parentScopeObject);
+        slotMap = copySlotMap(slotMap, copier);
+        privateSlotMap = copySlotMap(privateSlotMap, copier);
+        if (elements != null) {
+            Object[] copy = new Object[elements.length];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = copier.copy(elements[i]);
+            }
+            elements = copy;
+        }
+        externalData = copier.copy(externalData);
+        Map<Object, Object> values = associatedValues;
+        if (values != null) {
+            Map<Object, Object> copy = new HashMap<>(values);
+            for (Map.Entry<Object, Object> e : copy.entrySet()) {
+                Object value = e.getValue();
+                if (NativeSymbol.isSymbolMapKey(e.getKey())) {
+                    value = NativeSymbol.copySymbolMap(value, copier);
+                } else {
+                    value = copier.copy(value);
+                }
+                e.setValue(value);
+            }
+            associatedValues = copy;
+        }
+    }
+
+    /**
+     * Return the copy of a slot of this object for a {@link ScopeSnapshot},
+     * or null to leave the property out of the copy.
+     */
+    Slot copySlot(Slot slot, ScopeSnapshot.Copier copier) {
+        return slot.copy(copier);
+    }
+
+    private SlotMapContainer copySlotMap(SlotMapContainer slotMap,
+                                         ScopeSnapshot.Copier copier) {
+        final long stamp = slotMap.readLock();
+        try {
+            int size = slotMap.dirtySize();
+            SlotMapContainer copy = slotMap instanceof ThreadSafeSlotMapContainer
+                    ? new ThreadSafeSlotMapContainer(size)
+                    : new SlotMapContainer(size);
+            if (size != 0) {
+                for (Slot slot : slotMap) {
+                    Slot slotCopy = copySlot(slot, copier);
+                    if (slotCopy != null) {
+                        copy.addSlot(slotCopy);
+                    }
+                }
+            }
+            return copy;
+        } finally {
+            slotMap.unlockRead(stamp);
+        }
+    }
+
     private void writeObject(ObjectOutputStream out) throws IOException {
         out.defaultWriteObject();
         writeSlotMap(out, slotMap);
@@ -3154,6 +3389,12 @@ public abstract class ScriptableObject implements Scriptable,
 
         slotMap = readSlotMap(in);
         privateSlotMap = readSlotMap(in);
+        if (elements != null && slotMap instanceof ThreadSafeSlotMapContainer) {
+            for (int i = 0; i < elements.length; i++) {
+                elementToSlot(i);
+            }
+            elements = null;
+        }
     }
 
     private SlotMapContainer readSlotMap(ObjectInputStream in) throws IOException, ClassNotFoundException {
@@ -3167,9 +3408,16 @@ public abstract class ScriptableObject implements Scriptable,
     }
 
     public ScriptableObject getOwnPropertyDescriptor(Context cx, Object id) {
+        Scriptable scope = getParentScope();
+        if (elements != null && !(id instanceof Symbol)
+                && ScriptRuntime.toStringIdOrIndex(cx, id) == null) {
+            int index = ScriptRuntime.lastIndexResult(cx);
+            if (hasElement(index)) {
+                return buildDataDescriptor(scope == null ? this : scope, elements[index], EMPTY);
+            }
+        }
         Slot slot = getSlot(cx, id, SlotAccess.QUERY);
         if (slot == null) return null;
-        Scriptable scope = getParentScope();
         return slot.getPropertyDescriptor(cx, (scope == null ? this : scope));
     }
 
@@ -3179,7 +3427,9 @@ public abstract class ScriptableObject implements Scriptable,
         }
         String name = ScriptRuntime.toStringIdOrIndex(cx, id);
         if (name == null) {
-            return slotMap.get(null, ScriptRuntime.lastIndexResult(cx), accessType);
+            int index = ScriptRuntime.lastIndexResult(cx);
+            elementToSlot(index);
+            return slotMap.get(null, index, accessType);
         }
         return slotMap.get(name, 0, accessType);
     }
@@ -3188,11 +3438,11 @@ public abstract class ScriptableObject implements Scriptable,
     // a subclass that implements java.util.Map.
 
     public int size() {
-        return slotMap.size();
+        return slotMap.size() + elementCount;
     }
 
     public boolean isEmpty() {
-        return slotMap.isEmpty();
+        return slotMap.isEmpty() && elementCount == 0;
     }
 
     public Object get(Object key, Scriptable start) {
@@ -8,6 +8,7 @@ import java.util.Comparator;
 
 public final class Sorting {
     private static final int SMALLSORT = 16;
+    private static final int MIN_MERGE = 32;
 
     private static final Sorting sorting = new Sorting();
 
@@ -36,6 +37,281 @@ public final class Sorting {
         }
     }
 
+    /*
+    Stable merge sort in the style of TimSort by Tim Peters. Finds the runs that are
+    already ascending or strictly descending, extends short runs with binary insertion
+    sort and merges the runs so that merged runs stay balanced, which keeps the number
+    of comparisons low for partially sorted input. The comparator is always called with
+    the element that comes first in the input as the first argument, and the elements
+    are only reordered if it returns a positive value. Unlike java.util.Arrays.sort it
+    does not fail for an inconsistent comparator, the order is just unspecified then.
+    */
+    public void timSort(Object[] a, Comparator<Object> cmp) {
+        timSort(a, 0, a.length, cmp);
+    }
+
+    public void timSort(Object[] a, int start, int end, Comparator<Object> cmp) {
+        int remaining = end - start;
+        if (remaining < 2) {
+            return;
+        }
+        if (remaining < MIN_MERGE) {
+            int runLength = countRunAndMakeAscending(a, start, end, cmp);
+            binaryInsertionSort(a, start, end, start + runLength, cmp);
+            return;
+        }
+
+        MergeState state = new MergeState(a, cmp);
+        int minRun = minRunLength(remaining);
+        int lo = start;
+        do {
+            int runLength = countRunAndMakeAscending(a, lo, end, cmp);
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binaryInsertionSort(a, lo, lo + force, lo + runLength, cmp);
+                runLength = force;
+            }
+            state.pushRun(lo, runLength);
+            state.mergeCollapse();
+            lo += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+        state.mergeForceCollapse();
+    }
+
+    /*
+    Return the length of the run starting at start, reversing it if it is
+    strictly descending. Descending runs must be strict to keep the sort stable.
+    */
+    private static int countRunAndMakeAscending(Object[] a, int start, int end,
+                                                Comparator<Object> cmp) {
+        int runEnd = start + 1;
+        if (runEnd == end) {
+            return 1;
+        }
+        if (cmp.compare(a[start], a[runEnd++]) > 0) {
+            while (runEnd < end && cmp.compare(a[runEnd - 1], a[runEnd]) > 0) {
+                runEnd++;
+            }
+            for (int i = start, j = runEnd - 1; i < j; i++, j--) {
+                Object tmp = a[i];
+                a[i] = a[j];
+                a[j] = tmp;
+            }
+        } else {
+            while (runEnd < end && cmp.compare(a[runEnd - 1], a[runEnd]) <= 0) {
+                runEnd++;
+            }
+        }
+        return runEnd - start;
+    }
+
+    /*
+    Sort a[start..end) given that a[start..sorted) is already sorted, finding
+    the place of every further element with a binary search.
+    */
+    private static void binaryInsertionSort(Object[] a, int start, int end, int sorted,
+                                            Comparator<Object> cmp) {
+        if (sorted == start) {
+            sorted++;
+        }
+        for (; sorted < end; sorted++) {
+            Object x = a[sorted];
+            int left = start;
+            int right = sorted;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (cmp.compare(a[mid], x) > 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(a, left, a, left + 1, sorted - left);
+            a[left] = x;
+        }
+    }
+
+    /*
+    Return the minimum run length, so that the number of runs is a power of
+    two or slightly less, which keeps the merges balanced.
+    */
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /*
+    The stack of pending runs of a timSort and the buffer for merging them.
+    */
+    private static final class MergeState {
+        private final Object[] a;
+        private final Comparator<Object> cmp;
+        private final int[] runBase = new int[49];
+        private final int[] runLength = new int[49];
+        private int stackSize;
+        private Object[] tmp = new Object[0];
+
+        MergeState(Object[] a, Comparator<Object> cmp) {
+            this.a = a;
+            this.cmp = cmp;
+        }
+
+        void pushRun(int base, int length) {
+            runBase[stackSize] = base;
+            runLength[stackSize] = length;
+            stackSize++;
+        }
+
+        /*
+        Merge the runs on top of the stack until the run lengths decrease
+        faster than the Fibonacci numbers again.
+        */
+        void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                        || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                    if (runLength[n - 1] < runLength[n + 1]) {
+                        n--;
+                    }
+                } else if (runLength[n] > runLength[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        private void mergeAt(int i) {
+            int base1 = runBase[i];
+            int length1 = runLength[i];
+            int base2 = runBase[i + 1];
+            int length2 = runLength[i + 1];
+
+            runLength[i] = length1 + length2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            stackSize--;
+
+            // The elements of the first run that are not greater than the
+            // first element of the second run are in place already
+            int k = upperBound(a[base2], base1, length1);
+            base1 += k;
+            length1 -= k;
+            if (length1 == 0) {
+                return;
+            }
+            // and so are the elements of the second run that are not less
+            // than the last element of the first run
+            length2 = lowerBound(a[base1 + length1 - 1], base2, length2);
+            if (length2 == 0) {
+                return;
+            }
+
+            if (length1 <= length2) {
+                mergeLow(base1, length1, base2, length2);
+            } else {
+                mergeHigh(base1, length1, base2, length2);
+            }
+        }
+
+        /*
+        Return the number of elements of a[base..base+length) not greater than x.
+        */
+        private int upperBound(Object x, int base, int length) {
+            int left = 0;
+            int right = length;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (cmp.compare(a[base + mid], x) > 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            return left;
+        }
+
+        /*
+        Return the number of elements of a[base..base+length) less than x.
+        */
+        private int lowerBound(Object x, int base, int length) {
+            int left = 0;
+            int right = length;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (cmp.compare(x, a[base + mid]) > 0) {
+                    left = mid + 1;
+                } else {
+                    right = mid;
+                }
+            }
+            return left;
+        }
+
+        /*
+        Merge from the start, with the shorter first run moved to the buffer.
+        */
+        private void mergeLow(int base1, int length1, int base2, int length2) {
+            Object[] buf = ensureCapacity(length1);
+            System.arraycopy(a, base1, buf, 0, length1);
+            int dest = base1;
+            int c1 = 0;
+            int c2 = base2;
+            int end2 = base2 + length2;
+            while (c1 < length1 && c2 < end2) {
+                if (cmp.compare(buf[c1], a[c2]) > 0) {
+                    a[dest++] = a[c2++];
+                } else {
+                    a[dest++] = buf[c1++];
+                }
+            }
+            System.arraycopy(buf, c1, a, dest, length1 - c1);
+        }
+
+        /*
+        Merge from the end, with the shorter second run moved to the buffer.
+        */
+        private void mergeHigh(int base1, int length1, int base2, int length2) {
+            Object[] buf = ensureCapacity(length2);
+            System.arraycopy(a, base2, buf, 0, length2);
+            int dest = base2 + length2 - 1;
+            int c1 = base1 + length1 - 1;
+            int c2 = length2 - 1;
+            while (c1 >= base1 && c2 >= 0) {
+                if (cmp.compare(a[c1], buf[c2]) > 0) {
+                    a[dest--] = a[c1--];
+                } else {
+                    a[dest--] = buf[c2--];
+                }
+            }
+            System.arraycopy(buf, 0, a, dest - c2, c2 + 1);
+        }
+
+        private Object[] ensureCapacity(int capacity) {
+            if (tmp.length < capacity) {
+                tmp = new Object[Math.max(capacity, Math.min(a.length >>> 1, capacity * 2))];
+            }
+            return tmp;
+        }
+    }
+
     /*
     Hybrid sorting mechanism similar to Introsort by David Musser. Uses quicksort's
     partitioning mechanism recursively until the resulting array is small or the
@@ -33,7 +33,7 @@ class TokenStream {
 
     private final static char BYTE_ORDER_MARK = '\uFEFF';
 
-    TokenStream(Parser parser, Reader sourceReader, String sourceString,
+    TokenStream(Parser parser, Reader sourceReader, CharSequence sourceString,
                 int lineno) {
         this.parser = parser;
         this.lineno = lineno;
@@ -44,7 +44,10 @@ class TokenStream {
             this.sourceEnd = 0;
         } else {
             if (sourceString == null) Kit.codeBug();
-            this.sourceString = sourceString;
+            this.sourceChars = sourceString;
+            if (sourceString instanceof String) {
+                this.sourceString = (String) sourceString;
+            }
             this.sourceEnd = sourceString.length();
         }
         this.sourceCursor = this.cursor = 0;
@@ -416,8 +419,8 @@ class TokenStream {
         return id & 0xff;
     }
 
-    final String getSourceString() {
-        return sourceString;
+    final CharSequence getSourceString() {
+        return sourceChars;
     }
 
     final int getLineno() {
@@ -622,8 +625,7 @@ class TokenStream {
                     endOfTemplate = true;
                 }
 
-                String str = getStringFromBuffer();
-                this.string = (String) allStrings.intern(str);
+                this.string = internStringFromBuffer();
                 return Token.STRING;
             } else if (justBeganTemplateExpr) {
                 justBeganTemplateExpr = false;
@@ -754,11 +756,8 @@ class TokenStream {
                 if (!containsEscape)
                     ungetChar(c);
 
-                String str = getStringFromBuffer();
+                String str = internStringFromBuffer();
                 if (!containsEscape) {
-                    // OPT we shouldn't have to make a string (object!) to
-                    // check if it's a keyword.
-
                     // Return the corresponding token if it's a keyword
                     int result = stringToKeyword(str, parser.compilerEnv.getLanguageVersion(), parser.inUseStrictDirective());
                     if (result != Token.EOF) {
@@ -771,7 +770,7 @@ class TokenStream {
                         }
                         // Save the string in case we need to use in
                         // object literal definitions.
-                        this.string = (String) allStrings.intern(str);
+                        this.string = str;
                         if (result != Token.RESERVED) {
                             return result;
                         } else if (parser.compilerEnv.getLanguageVersion() >= Context.VERSION_ES6) {
@@ -783,9 +782,9 @@ class TokenStream {
                 } else if (isKeyword(str, parser.compilerEnv.getLanguageVersion(), parser.inUseStrictDirective())) {
                     // If a string contains unicodes, and converted to a keyword,
                     // we convert the last character back to unicode
-                    str = convertLastCharToHex(str);
+                    str = intern(convertLastCharToHex(str));
                 }
-                this.string = (String) allStrings.intern(str);
+                this.string = str;
                 return Token.NAME;
             }
 
@@ -1092,8 +1091,7 @@ class TokenStream {
                     c = getChar(false);
                 }
 
-                String str = getStringFromBuffer();
-                this.string = (String) allStrings.intern(str);
+                this.string = internStringFromBuffer();
                 return Token.STRING;
             }
 
@@ -1445,6 +1443,76 @@ class TokenStream {
         return flags;
     }
 
+    /**
+     * Return the string in the string buffer, reusing the string returned
+     * earlier for the same characters, so that names and literals that occur
+     * many times in a script don't allocate a string each time.
+     */
+    private String internStringFromBuffer() {
+        tokenEnd = cursor;
+        char[] buf = stringBuffer;
+        int length = stringBufferTop;
+        int hash = 0;
+        for (int i = 0; i != length; ++i) {
+            hash = 31 * hash + buf[i];
+        }
+        String[] table = internTable;
+        int mask = table.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        for (String str; (str = table[index]) != null; index = (index + 1) & mask) {
+            if (str.length() == length && matchesStringBuffer(str)) {
+                return str;
+            }
+        }
+        String str = new String(buf, 0, length);
+        addInterned(table, index, str);
+        return str;
+    }
+
+    private boolean matchesStringBuffer(String str) {
+        char[] buf = stringBuffer;
+        for (int i = 0, length = str.length(); i != length; ++i) {
+            if (str.charAt(i) != buf[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String intern(String str) {
+        // The hash matches the one computed by internStringFromBuffer
+        int hash = str.hashCode();
+        String[] table = internTable;
+        int mask = table.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        for (String s; (s = table[index]) != null; index = (index + 1) & mask) {
+            if (s.equals(str)) {
+                return s;
+            }
+        }
+        addInterned(table, index, str);
+        return str;
+    }
+
+    private void addInterned(String[] table, int index, String str) {
+        table[index] = str;
+        if (++internCount * 2 > table.length) {
+            String[] newTable = new String[table.length * 2];
+            int mask = newTable.length - 1;
+            for (String s : table) {
+                if (s != null) {
+                    int hash = s.hashCode();
+                    int i = (hash ^ (hash >>> 16)) & mask;
+                    while (newTable[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    newTable[i] = s;
+                }
+            }
+            internTable = newTable;
+        }
+    }
+
     private String getStringFromBuffer() {
         tokenEnd = cursor;
         return new String(stringBuffer, 0, stringBufferTop);
@@ -1501,13 +1569,15 @@ class TokenStream {
 
         for (; ; ) {
             int c;
-            if (sourceString != null) {
+            if (sourceChars != null) {
                 if (sourceCursor == sourceEnd) {
                     hitEOF = true;
                     return EOF_CHAR;
                 }
                 cursor++;
-                c = sourceString.charAt(sourceCursor++);
+                c = sourceString != null
+                        ? sourceString.charAt(sourceCursor++)
+                        : sourceChars.charAt(sourceCursor++);
             } else {
                 if (sourceCursor == sourceEnd) {
                     if (!fillSourceBuffer()) {
@@ -1556,13 +1626,15 @@ class TokenStream {
 
         for (; ; ) {
             int c;
-            if (sourceString != null) {
+            if (sourceChars != null) {
                 if (sourceCursor == sourceEnd) {
                     hitEOF = true;
                     return EOF_CHAR;
                 }
                 cursor++;
-                c = sourceString.charAt(sourceCursor++);
+                c = sourceString != null
+                        ? sourceString.charAt(sourceCursor++)
+                        : sourceChars.charAt(sourceCursor++);
             } else {
                 if (sourceCursor == sourceEnd) {
                     if (!fillSourceBuffer()) {
@@ -1622,11 +1694,13 @@ class TokenStream {
         if (index < 0) {
             return EOF_CHAR;
         }
-        if (sourceString != null) {
+        if (sourceChars != null) {
             if (index >= sourceEnd) {
                 return EOF_CHAR;
             }
-            return sourceString.charAt(index);
+            return sourceString != null
+                    ? sourceString.charAt(index)
+                    : sourceChars.charAt(index);
         }
         if (index >= sourceEnd) {
             int oldSourceCursor = sourceCursor;
@@ -1649,6 +1723,9 @@ class TokenStream {
         if (sourceString != null) {
             return sourceString.substring(beginIndex, endIndex);
         }
+        if (sourceChars != null) {
+            return sourceChars.subSequence(beginIndex, endIndex).toString();
+        }
         int count = endIndex - beginIndex;
         return new String(sourceBuffer, beginIndex, count);
     }
@@ -1717,7 +1794,7 @@ class TokenStream {
     }
 
     private boolean fillSourceBuffer() throws IOException {
-        if (sourceString != null) Kit.codeBug();
+        if (sourceChars != null) Kit.codeBug();
         if (sourceEnd == sourceBuffer.length) {
             if (lineStart != 0 && !isMarkingComment()) {
                 System.arraycopy(sourceBuffer, lineStart, sourceBuffer, 0,
@@ -1797,9 +1874,9 @@ class TokenStream {
     }
 
     final String getAndResetCurrentComment() {
-        if (sourceString != null) {
+        if (sourceChars != null) {
             if (isMarkingComment()) Kit.codeBug();
-            return sourceString.substring(tokenBeg, tokenEnd);
+            return substring(tokenBeg, tokenEnd);
         }
         if (!isMarkingComment()) Kit.codeBug();
         StringBuilder comment = new StringBuilder(commentPrefix);
@@ -1874,7 +1951,10 @@ class TokenStream {
 
     private char[] stringBuffer = new char[128];
     private int stringBufferTop;
-    private ObjToIntMap allStrings = new ObjToIntMap(50);
+    // Open addressing hash table of the strings returned for names and
+    // string literals, see internStringFromBuffer()
+    private String[] internTable = new String[128];
+    private int internCount;
 
     // Room to backtrace from to < on failed match of the last - in <!--
     private final int[] ungetBuffer = new int[3];
@@ -1886,6 +1966,11 @@ class TokenStream {
     private int lineEndChar = -1;
     int lineno;
 
+    // The in-memory source, usually a String but also a CharBuffer when
+    // parsing a decoded file without copying it into a String first.
+    // sourceString is set as well when it is a String, so the scanner reads
+    // it directly rather than through the CharSequence interface.
+    private CharSequence sourceChars;
     private String sourceString;
     private Reader sourceReader;
     private char[] sourceBuffer;
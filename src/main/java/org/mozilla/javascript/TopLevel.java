@@ -156,6 +156,19 @@ public class TopLevel extends IdScriptableObject {
         }
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        if (ctors != null) {
+            ctors = new EnumMap<Builtins, BaseFunction>(ctors);
+            ctors.replaceAll((builtin, ctor) -> copier.copy(ctor));
+        }
+        if (errors != null) {
+            errors = new EnumMap<NativeErrors, BaseFunction>(errors);
+            errors.replaceAll((error, ctor) -> copier.copy(ctor));
+        }
+    }
+
     /**
      * Static helper method to get a built-in object constructor with the given
      * <code>type</code> from the given <code>scope</code>. If the scope is not
@@ -62,6 +62,31 @@ public abstract class VMBridge {
      */
     protected abstract void setContext(Object contextHelper, Context cx);
 
+    /**
+     * Get the {@link Context} instance kept by the current thread for reuse
+     * after it was exited, or null if none.
+     * <p>
+     * The default implementation keeps no contexts, so that each thread
+     * entering a context gets a new one.
+     *
+     * @param contextHelper The result of {@link #getThreadContextHelper()}
+     *                      called from the current thread.
+     * @see ContextFactory#setRetainingThreadContexts(boolean)
+     */
+    protected Context getRetainedContext(Object contextHelper) {
+        return null;
+    }
+
+    /**
+     * Keep {@link Context} instance for reuse by the current thread, or
+     * drop the kept instance if <code>cx</code> is null.
+     *
+     * @param contextHelper The result of {@link #getThreadContextHelper()}
+     *                      called from the current thread.
+     */
+    protected void setRetainedContext(Object contextHelper, Context cx) {
+    }
+
     /**
      * In many JVMSs, public methods in private
      * classes are not accessible by default (Sun Bug #4071593).
@@ -25,6 +25,7 @@ import java.util.TreeSet;
 public class AstRoot extends ScriptNode {
 
     private SortedSet<Comment> comments;
+    private transient CharSequence source;
 
     {
         type = Token.SCRIPT;
@@ -63,6 +64,20 @@ public class AstRoot extends ScriptNode {
         }
     }
 
+    /**
+     * Returns the source text the tree was parsed from. It is only recorded
+     * when compiling functions lazily.
+     *
+     * @return the source text.  Can be {@code null}.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public void setSource(CharSequence source) {
+        this.source = source;
+    }
+
     /**
      * Add a comment to the comment set.
      *
@@ -81,6 +81,8 @@ public class FunctionCall extends AstNode {
         } else {
             if (this.arguments != null)
                 this.arguments.clear();
+            else
+                this.arguments = new ArrayList<AstNode>(arguments.size());
             for (AstNode arg : arguments) {
                 addArgument(arg);
             }
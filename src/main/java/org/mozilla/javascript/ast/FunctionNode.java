@@ -81,10 +81,14 @@ public class FunctionNode extends ScriptNode {
     private Form functionForm = Form.FUNCTION;
     private int lp = -1;
     private int rp = -1;
+    private int sourceStart = -1;
+    private int sourceEnd = -1;
 
     // codegen variables
     private int functionType;
     private boolean needsActivation;
+    private boolean usesArguments;
+    private boolean directArguments;
     private boolean isGenerator;
     private List<Node> generatorResumePoints = new ArrayList<>();
     private Map<Node, int[]> liveLocals;
@@ -193,7 +197,7 @@ public class FunctionNode extends ScriptNode {
     public void addParam(AstNode param) {
         assertNotNull(param);
         if (params == null) {
-            params = new ArrayList<>();
+            params = new ArrayList<>(4);
         }
         params.add(param);
         param.setParent(this);
@@ -299,6 +303,28 @@ public class FunctionNode extends ScriptNode {
         this.isExpressionClosure = isExpressionClosure;
     }
 
+    /**
+     * Returns the offset of the function in the source text, or -1 if it is
+     * not known. Unlike {@link #getAbsolutePosition()} this stays valid
+     * after the tree has been transformed by the IRFactory.
+     */
+    public int getSourceStart() {
+        return sourceStart;
+    }
+
+    /**
+     * Returns the offset of the end of the function in the source text, or
+     * -1 if it is not known.
+     */
+    public int getSourceEnd() {
+        return sourceEnd;
+    }
+
+    public void setSourceBounds(int start, int end) {
+        this.sourceStart = start;
+        this.sourceEnd = end;
+    }
+
     public boolean isConstructable() {
         return isConstructable;
     }
@@ -346,13 +372,38 @@ public class FunctionNode extends ScriptNode {
      * if there is a lexical closure, or in a number of other situations.
      */
     public boolean requiresActivation() {
-        return needsActivation;
+        return needsActivation || (usesArguments && !directArguments);
     }
 
     public void setRequiresActivation() {
         needsActivation = true;
     }
 
+    /**
+     * Return true if the function refers to its {@code arguments} object.
+     * This requires an activation, unless {@link #hasDirectArguments()}.
+     */
+    public boolean usesArguments() {
+        return usesArguments;
+    }
+
+    public void setUsesArguments() {
+        usesArguments = true;
+    }
+
+    /**
+     * Return true if the code generator reads {@code arguments[i]} and
+     * {@code arguments.length} from the argument array, so that the
+     * function does not need an activation for its arguments object.
+     */
+    public boolean hasDirectArguments() {
+        return directArguments;
+    }
+
+    public void setDirectArguments(boolean directArguments) {
+        this.directArguments = directArguments;
+    }
+
     public boolean isGenerator() {
         return isGenerator;
     }
@@ -26,7 +26,7 @@ import java.util.List;
  */
 public class VariableDeclaration extends AstNode {
 
-    private List<VariableInitializer> variables = new ArrayList<VariableInitializer>();
+    private List<VariableInitializer> variables = new ArrayList<VariableInitializer>(2);
     private boolean isStatement;
 
     {
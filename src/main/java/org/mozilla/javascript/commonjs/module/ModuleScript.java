@@ -8,6 +8,9 @@ import org.mozilla.javascript.Script;
 
 import java.io.Serializable;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents a compiled CommonJS module script. The {@link Require} functions
@@ -22,6 +25,7 @@ public class ModuleScript implements Serializable {
     private final Script script;
     private final URI uri;
     private final URI base;
+    private final List<String> literalRequires;
 
     /**
      * Creates a new CommonJS module.
@@ -31,9 +35,25 @@ public class ModuleScript implements Serializable {
      * @param base   the base URI, or null.
      */
     public ModuleScript(Script script, URI uri, URI base) {
+        this(script, uri, base, Collections.<String>emptyList());
+    }
+
+    /**
+     * Creates a new CommonJS module whose literal dependencies are known.
+     *
+     * @param script          the script representing the code of the module.
+     * @param uri             the URI of the module.
+     * @param base            the base URI, or null.
+     * @param literalRequires the IDs of the require() calls with a single
+     *                        string literal argument in the module's source.
+     */
+    public ModuleScript(Script script, URI uri, URI base,
+                        List<String> literalRequires) {
         this.script = script;
         this.uri = uri;
         this.base = base;
+        this.literalRequires = Collections.unmodifiableList(
+                new ArrayList<String>(literalRequires));
     }
 
     /**
@@ -45,6 +65,17 @@ public class ModuleScript implements Serializable {
         return script;
     }
 
+    /**
+     * Returns the IDs of the require() calls with a single string literal
+     * argument in the module's source, as found when it was compiled. The
+     * list is empty if they are not known.
+     *
+     * @return the literal module IDs required by the module.
+     */
+    public List<String> getLiteralRequires() {
+        return literalRequires;
+    }
+
     /**
      * Returns the URI of the module.
      *
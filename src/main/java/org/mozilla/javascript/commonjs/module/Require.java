@@ -13,7 +13,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implements the require() function as defined by
@@ -24,6 +26,18 @@ import java.util.concurrent.ConcurrentHashMap;
  * you use shared top-level scopes and installing most objects into them.
  * Module loading is thread safe, so using a single require() in a shared
  * top-level scope is also safe.
+ * <h1>Parallel loading</h1>
+ * When created with a {@link ForkJoinPool}, module scripts are fetched and
+ * compiled on that pool. As soon as a module is compiled, the literal
+ * require() calls in its source are resolved and those modules are compiled
+ * in turn, so the dependency graph is compiled ahead of and in parallel with
+ * execution. The compiled scripts are kept by the module script provider
+ * only, so the pool is of use with a caching provider such as
+ * {@link org.mozilla.javascript.commonjs.module.provider.StrongCachingModuleScriptProvider},
+ * which also checks that the source is unchanged when the module is
+ * required. Modules still execute one at a time on the requiring thread,
+ * in the order of the require() calls. Use {@link #preload(Context, String...)}
+ * to start compiling modules before they are first required.
  * <h1>Creation</h1>
  * If you need to create many otherwise identical require() functions for
  * different scopes, you might want to use {@link RequireBuilder} for
@@ -44,6 +58,7 @@ public class Require extends BaseFunction {
     private final boolean sandboxed;
     private final Script preExec;
     private final Script postExec;
+    private final transient ForkJoinPool loadingPool;
     private String mainModuleId = null;
     private Scriptable mainExports;
 
@@ -55,6 +70,11 @@ public class Require extends BaseFunction {
     // dependencies while loading.
     private static final ThreadLocal<Map<String, Scriptable>>
             loadingModuleInterfaces = new ThreadLocal<Map<String, Scriptable>>();
+    // Modules being fetched and compiled on the loading pool. Removed once
+    // the module is in the cache of the module script provider, or when
+    // loading fails.
+    private final transient Map<String, CompletableFuture<Void>> pendingModules =
+            new ConcurrentHashMap<String, CompletableFuture<Void>>();
 
     /**
      * Creates a new instance of the require() function. Upon constructing it,
@@ -78,11 +98,29 @@ public class Require extends BaseFunction {
     public Require(Context cx, Scriptable nativeScope,
                    ModuleScriptProvider moduleScriptProvider, Script preExec,
                    Script postExec, boolean sandboxed) {
+        this(cx, nativeScope, moduleScriptProvider, preExec, postExec,
+                sandboxed, null);
+    }
+
+    /**
+     * Creates a new instance of the require() function that fetches and
+     * compiles modules and their literal dependencies on the specified pool.
+     * See {@link #Require(Context, Scriptable, ModuleScriptProvider, Script,
+     * Script, boolean)} for the other parameters.
+     *
+     * @param loadingPool the pool to compile modules on, or null to load
+     *                    them on the requiring thread only. The module script
+     *                    provider must be thread safe when it is not null.
+     */
+    public Require(Context cx, Scriptable nativeScope,
+                   ModuleScriptProvider moduleScriptProvider, Script preExec,
+                   Script postExec, boolean sandboxed, ForkJoinPool loadingPool) {
         this.moduleScriptProvider = moduleScriptProvider;
         this.nativeScope = nativeScope;
         this.sandboxed = sandboxed;
         this.preExec = preExec;
         this.postExec = postExec;
+        this.loadingPool = loadingPool;
         setPrototype(ScriptableObject.getFunctionPrototype(nativeScope));
         if (!sandboxed) {
             paths = cx.newArray(nativeScope, 0);
@@ -194,24 +232,13 @@ public class Require extends BaseFunction {
             base = moduleScope.getBase();
             URI current = moduleScope.getUri();
             uri = current.resolve(id);
-
-            if (base == null) {
-                // calling module is absolute, resolve to absolute URI
-                // (but without file extension)
-                id = uri.toString();
-            } else {
-                // try to convert to a relative URI rooted on base
-                id = base.relativize(current).resolve(id).toString();
-                if (id.charAt(0) == '.') {
-                    // resulting URI is not contained in base,
-                    // throw error or make absolute depending on sandbox flag.
-                    if (sandboxed) {
-                        throw ScriptRuntime.throwError(cx, scope,
-                                "Module \"" + id + "\" is not contained in sandbox.");
-                    }
-                    id = uri.toString();
-                }
+            String resolved = resolveRelativeId(id, current, base);
+            if (resolved == null) {
+                throw ScriptRuntime.throwError(cx, scope,
+                        "Module \"" + base.relativize(current).resolve(id) +
+                                "\" is not contained in sandbox.");
             }
+            id = resolved;
         }
 
         // If URI is a directory, attempt to grab an index.js file
@@ -232,6 +259,148 @@ public class Require extends BaseFunction {
         return getExportedModuleInterface(cx, id, uri, base, false);
     }
 
+    /**
+     * Resolve a relative module ID against the URI of the requiring module.
+     * Returns null if the result escapes the base in sandboxed mode.
+     */
+    private String resolveRelativeId(String id, URI current, URI base) {
+        URI uri = current.resolve(id);
+        if (base == null) {
+            // calling module is absolute, resolve to absolute URI
+            // (but without file extension)
+            return uri.toString();
+        }
+        // try to convert to a relative URI rooted on base
+        String relative = base.relativize(current).resolve(id).toString();
+        if (relative.charAt(0) == '.') {
+            // resulting URI is not contained in base,
+            // error or make absolute depending on sandbox flag.
+            return sandboxed ? null : uri.toString();
+        }
+        return relative;
+    }
+
+    /**
+     * Starts fetching and compiling the specified modules and their literal
+     * dependencies on the loading pool, without executing them. Does nothing
+     * if this require() was created without a loading pool.
+     *
+     * @param cx        the current context
+     * @param moduleIds absolute IDs of the modules to load
+     */
+    public void preload(Context cx, String... moduleIds) {
+        if (loadingPool == null) {
+            return;
+        }
+        Scriptable paths = snapshotPaths(cx);
+        for (String id : moduleIds) {
+            loadAsync(cx, id, null, null, paths);
+        }
+    }
+
+    /**
+     * Returns a copy of the module paths for the loading pool, which must
+     * not read the array while scripts may change it.
+     */
+    private Scriptable snapshotPaths(Context cx) {
+        return paths == null ? null
+                : cx.newArray(nativeScope, cx.getElements(paths));
+    }
+
+    private CompletableFuture<Void> loadAsync(Context cx, final String id,
+                                              final URI uri, final URI base,
+                                              final Scriptable paths) {
+        CompletableFuture<Void> future = pendingModules.get(id);
+        if (future != null || exportedModuleInterfaces.containsKey(id)) {
+            return future;
+        }
+        // Compile with the settings of the requesting context
+        final ContextFactory factory = cx.getFactory();
+        final int languageVersion = cx.getLanguageVersion();
+        final int optimizationLevel = cx.getOptimizationLevel();
+        final boolean generatingSource = cx.isGeneratingSource();
+        final CompletableFuture<Void> created = new CompletableFuture<Void>();
+        future = pendingModules.putIfAbsent(id, created);
+        if (future != null) {
+            return future;
+        }
+        loadingPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    factory.call(new ContextAction<Void>() {
+                        @Override
+                        public Void run(Context cx) {
+                            cx.setLanguageVersion(languageVersion);
+                            cx.setOptimizationLevel(optimizationLevel);
+                            cx.setGeneratingSource(generatingSource);
+                            loadDependencies(cx,
+                                    getModule(cx, id, uri, base, paths), paths);
+                            return null;
+                        }
+                    });
+                    pendingModules.remove(id, created);
+                    created.complete(null);
+                } catch (Throwable t) {
+                    pendingModules.remove(id, created);
+                    created.completeExceptionally(t);
+                }
+            }
+        });
+        return created;
+    }
+
+    private void loadDependencies(Context cx, ModuleScript moduleScript,
+                                  Scriptable paths) {
+        for (String id : moduleScript.getLiteralRequires()) {
+            URI uri = null;
+            URI base = null;
+            if (id.startsWith("./") || id.startsWith("../")) {
+                URI current = moduleScript.getUri();
+                if (current == null) {
+                    continue;
+                }
+                base = moduleScript.getBase();
+                uri = current.resolve(id);
+                id = resolveRelativeId(id, current, base);
+                if (id == null || !"file".equals(uri.getScheme())) {
+                    continue;
+                }
+                File file = new File(uri);
+                if (file.isDirectory()) {
+                    File indexFile = new File(file, "index.js");
+                    if (!indexFile.exists()) {
+                        continue;
+                    }
+                    uri = indexFile.toURI();
+                }
+            }
+            loadAsync(cx, id, uri, base, paths);
+        }
+    }
+
+    /**
+     * Returns the module script for execution. With a loading pool, waits
+     * for the pool to compile the module into the cache of the module
+     * script provider, which checks that the source is still valid when the
+     * script is taken from it. Failures on the pool are retried on this
+     * thread so that they are reported to the requiring script.
+     */
+    private ModuleScript takeModule(Context cx, String id, URI uri, URI base) {
+        if (loadingPool != null) {
+            CompletableFuture<Void> future = loadAsync(cx, id, uri, base,
+                    snapshotPaths(cx));
+            if (future != null) {
+                try {
+                    future.join();
+                } catch (RuntimeException e) {
+                    // loaded again below
+                }
+            }
+        }
+        return getModule(cx, id, uri, base, paths);
+    }
+
     @Override
     public Scriptable construct(Context cx, Scriptable scope, Object[] args) {
         throw ScriptRuntime.throwError(cx, scope,
@@ -275,7 +444,7 @@ public class Require extends BaseFunction {
                 return exports;
             }
             // Nope, still not loaded; we're loading it then.
-            final ModuleScript moduleScript = getModule(cx, id, uri, base);
+            final ModuleScript moduleScript = takeModule(cx, id, uri, base);
             if (sandboxed && !moduleScript.isSandboxed()) {
                 throw ScriptRuntime.throwError(cx, nativeScope, "Module \""
                         + id + "\" is not contained in sandbox.");
@@ -368,7 +537,8 @@ public class Require extends BaseFunction {
                 ScriptableObject.NOT_CONFIGURABLE);
     }
 
-    private ModuleScript getModule(Context cx, String id, URI uri, URI base) {
+    private ModuleScript getModule(Context cx, String id, URI uri, URI base,
+                                   Scriptable paths) {
         try {
             final ModuleScript moduleScript =
                     moduleScriptProvider.getModuleScript(cx, id, uri, base, paths);
@@ -9,6 +9,7 @@ import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 
 import java.io.Serializable;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A builder for {@link Require} instances. Useful when you're creating many
@@ -27,6 +28,7 @@ public class RequireBuilder implements Serializable {
     private ModuleScriptProvider moduleScriptProvider;
     private Script preExec;
     private Script postExec;
+    private transient ForkJoinPool loadingPool;
 
     /**
      * Sets the {@link ModuleScriptProvider} for the {@link Require} instances
@@ -80,6 +82,21 @@ public class RequireBuilder implements Serializable {
         return this;
     }
 
+    /**
+     * Sets the pool that the created require() instances fetch and compile
+     * modules and their literal dependencies on. See
+     * {@link Require#Require(Context, Scriptable, ModuleScriptProvider,
+     * Script, Script, boolean, ForkJoinPool)} for explanation.
+     *
+     * @param loadingPool the pool to load modules on, or null to load them
+     *                    on the requiring thread only.
+     * @return this, so you can chain ("fluidize") setter invocations
+     */
+    public RequireBuilder setLoadingPool(ForkJoinPool loadingPool) {
+        this.loadingPool = loadingPool;
+        return this;
+    }
+
     /**
      * Creates a new require() function. You are still responsible for invoking
      * either {@link Require#install(Scriptable)} or
@@ -92,6 +109,6 @@ public class RequireBuilder implements Serializable {
      */
     public Require createRequire(Context cx, Scriptable globalScope) {
         return new Require(cx, globalScope, moduleScriptProvider, preExec,
-                postExec, sandboxed);
+                postExec, sandboxed, loadingPool);
     }
 }
\ No newline at end of file
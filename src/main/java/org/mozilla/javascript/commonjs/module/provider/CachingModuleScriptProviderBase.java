@@ -5,13 +5,22 @@
 package org.mozilla.javascript.commonjs.module.provider;
 
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Kit;
+import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ast.AstNode;
+import org.mozilla.javascript.ast.FunctionCall;
+import org.mozilla.javascript.ast.Name;
+import org.mozilla.javascript.ast.NodeVisitor;
+import org.mozilla.javascript.ast.StringLiteral;
 import org.mozilla.javascript.commonjs.module.ModuleScript;
 import org.mozilla.javascript.commonjs.module.ModuleScriptProvider;
 
 import java.io.Reader;
 import java.io.Serializable;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Abstract base class that implements caching of loaded module scripts. It
@@ -77,7 +86,8 @@ public abstract class CachingModuleScriptProviderBase implements ModuleScriptPro
         if (moduleSource == null) {
             return null;
         }
-        try (Reader reader = moduleSource.getReader()) {
+        final CharSequence source = moduleSource.getSource();
+        try (Reader reader = source == null ? moduleSource.getReader() : null) {
             final int idHash = moduleId.hashCode();
             synchronized (loadLocks[(idHash >>> loadLockShift) & loadLockMask]) {
                 final CachedModuleScript cachedModule2 = getLoadedModule(moduleId);
@@ -87,10 +97,16 @@ public abstract class CachingModuleScriptProviderBase implements ModuleScriptPro
                     }
                 }
                 final URI sourceUri = moduleSource.getUri();
-                final ModuleScript moduleScript = new ModuleScript(
-                        cx.compileReader(reader, sourceUri.toString(), 1,
-                                moduleSource.getSecurityDomain()),
-                        sourceUri, moduleSource.getBase());
+                // Collect the literal dependencies while the source is
+                // parsed for compiling, so it need not be parsed again
+                final LiteralRequireCollector requires =
+                        new LiteralRequireCollector();
+                final Script script = cx.compileSource(
+                        source != null ? source : Kit.readReader(reader),
+                        sourceUri.toString(), 1,
+                        moduleSource.getSecurityDomain(), requires);
+                final ModuleScript moduleScript = new ModuleScript(script,
+                        sourceUri, moduleSource.getBase(), requires.ids);
                 putLoadedModule(moduleId, moduleScript,
                         moduleSource.getValidator());
                 return moduleScript;
@@ -159,6 +175,28 @@ public abstract class CachingModuleScriptProviderBase implements ModuleScriptPro
         }
     }
 
+    /**
+     * Collects the IDs of the require() calls with a single string literal
+     * argument in a module's syntax tree.
+     */
+    private static final class LiteralRequireCollector implements NodeVisitor {
+        final List<String> ids = new ArrayList<String>();
+
+        @Override
+        public boolean visit(AstNode node) {
+            if (node instanceof FunctionCall) {
+                FunctionCall call = (FunctionCall) node;
+                List<AstNode> args = call.getArguments();
+                if (call.getTarget() instanceof Name
+                        && "require".equals(((Name) call.getTarget()).getIdentifier())
+                        && args.size() == 1 && args.get(0) instanceof StringLiteral) {
+                    ids.add(((StringLiteral) args.get(0)).getValue());
+                }
+            }
+            return true;
+        }
+    }
+
     private static Object getValidator(CachedModuleScript cachedModule) {
         return cachedModule == null ? null : cachedModule.getValidator();
     }
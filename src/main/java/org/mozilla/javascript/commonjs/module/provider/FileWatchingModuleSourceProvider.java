@@ -0,0 +1,339 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.commonjs.module.provider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A module source provider for modules in local directories that uses a
+ * {@link WatchService} to learn about changes of the loaded files, instead of
+ * checking their last-modified time. The validators it creates stay valid
+ * until a change event is received for their file, so revalidating a cached
+ * module in a {@link CachingModuleScriptProviderBase} costs no I/O at all, and
+ * the next require after an edit loads the new source.
+ * <p>
+ * Any file: URI can be loaded, both from the privileged and fallback
+ * directories and from require.paths; the directory of every loaded file is
+ * registered with the watch service. Creating or deleting a file invalidates
+ * all validators, as it can change how module IDs resolve. Other URIs are not
+ * handled. How quickly events arrive depends on the platform's watch service
+ * implementation, which may fall back to polling; {@link #invalidate(Path)}
+ * can be used to report changes directly.
+ * <p>
+ * The provider runs a daemon thread processing change events, which is
+ * stopped by {@link #close()}. After it has been closed the provider keeps
+ * loading modules, but every cached module is revalidated by loading it again.
+ */
+public class FileWatchingModuleSourceProvider extends ModuleSourceProviderBase
+        implements Closeable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<URI> privilegedDirectories;
+    private final List<URI> fallbackDirectories;
+    private final String charset;
+
+    private transient ConcurrentMap<Path, FileValidator> validators;
+    private transient ConcurrentMap<Path, WatchKey> watchedDirectories;
+    private transient WatchService watchService;
+    private transient boolean closed;
+
+    /**
+     * Creates a new module source provider that loads UTF-8 encoded modules
+     * from a set of privileged and fallback directories.
+     *
+     * @param privilegedDirectories the privileged directories. Can be null if
+     *                              no privileged directories are used.
+     * @param fallbackDirectories   the fallback directories. Can be null if no
+     *                              fallback directories are used.
+     */
+    public FileWatchingModuleSourceProvider(Iterable<Path> privilegedDirectories,
+                                            Iterable<Path> fallbackDirectories) {
+        this(privilegedDirectories, fallbackDirectories, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new module source provider that loads modules from a set of
+     * privileged and fallback directories.
+     *
+     * @param privilegedDirectories the privileged directories. Can be null if
+     *                              no privileged directories are used.
+     * @param fallbackDirectories   the fallback directories. Can be null if no
+     *                              fallback directories are used.
+     * @param charset               the encoding of the module files.
+     */
+    public FileWatchingModuleSourceProvider(Iterable<Path> privilegedDirectories,
+                                            Iterable<Path> fallbackDirectories,
+                                            Charset charset) {
+        this.privilegedDirectories = toUris(privilegedDirectories);
+        this.fallbackDirectories = toUris(fallbackDirectories);
+        this.charset = charset.name();
+        init();
+    }
+
+    private static List<URI> toUris(Iterable<Path> directories) {
+        if (directories == null) {
+            return null;
+        }
+        final List<URI> uris = new ArrayList<URI>();
+        for (Path directory : directories) {
+            uris.add(directory.toAbsolutePath().toUri());
+        }
+        return uris;
+    }
+
+    private void init() {
+        validators = new ConcurrentHashMap<Path, FileValidator>();
+        watchedDirectories = new ConcurrentHashMap<Path, WatchKey>();
+    }
+
+    @Override
+    protected ModuleSource loadFromPrivilegedLocations(
+            String moduleId, Object validator)
+            throws IOException, URISyntaxException {
+        return loadFromDirectories(moduleId, validator, privilegedDirectories);
+    }
+
+    @Override
+    protected ModuleSource loadFromFallbackLocations(
+            String moduleId, Object validator)
+            throws IOException, URISyntaxException {
+        return loadFromDirectories(moduleId, validator, fallbackDirectories);
+    }
+
+    private ModuleSource loadFromDirectories(String moduleId,
+                                             Object validator, List<URI> directories)
+            throws IOException, URISyntaxException {
+        if (directories == null) {
+            return null;
+        }
+        for (URI base : directories) {
+            final ModuleSource moduleSource = loadFromUri(
+                    base.resolve(moduleId), base, validator);
+            if (moduleSource != null) {
+                return moduleSource;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected ModuleSource loadFromUri(URI uri, URI base, Object validator)
+            throws IOException, URISyntaxException {
+        if (!"file".equals(uri.getScheme())) {
+            return null;
+        }
+        // As creating or deleting files invalidates all validators, a valid
+        // validator also means the URI still resolves to the same file.
+        if (!entityNeedsRevalidation(validator)) {
+            return NOT_MODIFIED;
+        }
+        final Path path = Paths.get(uri);
+        final String fileName = path.getFileName() == null ? "" :
+                path.getFileName().toString();
+        // Like UrlModuleSourceProvider, we expect modules to have a ".js"
+        // file name extension, but support modules without extension, ids
+        // with explicit extension, and directories with an index.js.
+        ModuleSource source = loadFromFile(
+                path.resolveSibling(fileName + ".js"), base);
+        if (source == null) {
+            source = loadFromFile(Files.isDirectory(path)
+                    ? path.resolve("index.js") : path, base);
+        }
+        return source;
+    }
+
+    private ModuleSource loadFromFile(Path file, URI base) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        file = file.toAbsolutePath().normalize();
+        // The validator is registered before the file is read, so a change
+        // made while reading it invalidates the source we return.
+        final FileValidator newValidator = getValidator(file);
+        try {
+            return ModuleSource.ofCharSequence(readSource(file, Charset.forName(charset)),
+                    null, file.toUri(), base, newValidator);
+        } catch (NoSuchFileException e) {
+            invalidate(file);
+            return null;
+        }
+    }
+
+    private FileValidator getValidator(Path file) {
+        if (!watch(file.getParent())) {
+            // Validators for files we can't watch are never valid, so those
+            // files are simply read again on every require.
+            return new FileValidator(file, false);
+        }
+        for (; ; ) {
+            final FileValidator validator = validators.get(file);
+            if (validator != null && validator.isValid()) {
+                return validator;
+            }
+            final FileValidator newValidator = new FileValidator(file, true);
+            if (validator == null
+                    ? validators.putIfAbsent(file, newValidator) == null
+                    : validators.replace(file, validator, newValidator)) {
+                return newValidator;
+            }
+        }
+    }
+
+    private synchronized boolean watch(Path directory) {
+        if (closed || directory == null) {
+            return false;
+        }
+        if (!watchedDirectories.containsKey(directory)) {
+            try {
+                if (watchService == null) {
+                    watchService = directory.getFileSystem().newWatchService();
+                    startWatching(watchService);
+                }
+                watchedDirectories.put(directory, directory.register(
+                        watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY));
+            } catch (IOException | UnsupportedOperationException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startWatching(final WatchService service) {
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processEvents(service);
+            }
+        }, "Rhino module watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void processEvents(WatchService service) {
+        try {
+            for (; ; ) {
+                final WatchKey key = service.take();
+                final Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY) {
+                        invalidate(directory.resolve((Path) event.context()));
+                    } else {
+                        // Created or deleted files may change which file a
+                        // module ID resolves to, and overflow means we lost
+                        // track of the changes.
+                        invalidateAll();
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirectories.remove(directory, key);
+                    invalidateAll();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed; validators are invalidated by close()
+        }
+    }
+
+    /**
+     * Reports a change of a file, so that a module loaded from it is loaded
+     * again on its next require. This is done automatically when the watch
+     * service reports the change.
+     *
+     * @param file the changed file
+     */
+    public void invalidate(Path file) {
+        final FileValidator validator = validators.remove(
+                file.toAbsolutePath().normalize());
+        if (validator != null) {
+            validator.invalidate();
+        }
+    }
+
+    /**
+     * Causes all loaded modules to be loaded again on their next require.
+     */
+    public void invalidateAll() {
+        for (FileValidator validator : validators.values()) {
+            validators.remove(validator.file, validator);
+            validator.invalidate();
+        }
+    }
+
+    /**
+     * Stops watching the loaded files. All validators are invalidated, and
+     * modules loaded after this are revalidated by loading them again.
+     *
+     * @throws IOException if closing the watch service fails.
+     */
+    @Override
+    public void close() throws IOException {
+        final WatchService service;
+        synchronized (this) {
+            closed = true;
+            service = watchService;
+            watchService = null;
+            watchedDirectories.clear();
+        }
+        invalidateAll();
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Override
+    protected boolean entityNeedsRevalidation(Object validator) {
+        return !(validator instanceof FileValidator)
+                || !((FileValidator) validator).isValid();
+    }
+
+    private void readObject(java.io.ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+    }
+
+    private static final class FileValidator implements Serializable {
+        private static final long serialVersionUID = 1L;
+        // Deserialized validators are always invalid, as the file was not
+        // watched in between
+        private final transient Path file;
+        private transient volatile boolean valid;
+
+        FileValidator(Path file, boolean watched) {
+            this.file = file;
+            this.valid = watched;
+        }
+
+        boolean isValid() {
+            return valid;
+        }
+
+        void invalidate() {
+            valid = false;
+        }
+    }
+}
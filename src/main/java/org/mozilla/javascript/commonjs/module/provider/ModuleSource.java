@@ -6,6 +6,7 @@ package org.mozilla.javascript.commonjs.module.provider;
 
 import java.io.Reader;
 import java.io.Serializable;
+import java.io.StringReader;
 import java.net.URI;
 
 /**
@@ -33,7 +34,8 @@ import java.net.URI;
  */
 public class ModuleSource implements Serializable {
     private static final long serialVersionUID = 1L;
-    private final Reader reader;
+    private final CharSequence source;
+    private Reader reader;
     private final Object securityDomain;
     private final URI uri;
     private final URI base;
@@ -51,6 +53,13 @@ public class ModuleSource implements Serializable {
      */
     public ModuleSource(Reader reader, Object securityDomain, URI uri,
                         URI base, Object validator) {
+        this(null, reader, securityDomain, uri, base, validator);
+    }
+
+    private ModuleSource(CharSequence source, Reader reader,
+                         Object securityDomain, URI uri, URI base,
+                         Object validator) {
+        this.source = source;
         this.reader = reader;
         this.securityDomain = securityDomain;
         this.uri = uri;
@@ -58,6 +67,38 @@ public class ModuleSource implements Serializable {
         this.validator = validator;
     }
 
+    /**
+     * Creates a new module source from source text in memory, which can be
+     * compiled without copying it.
+     *
+     * @param source         the source text of the module.
+     * @param securityDomain the object representing the security domain for
+     *                       the module's source (passed to Rhino script compiler).
+     * @param uri            the URI of the module's source text
+     * @param validator      a validator that can be used for subsequent cache
+     *                       validation of the source text.
+     * @return the new module source.
+     * @see ModuleSourceProviderBase#readSource(java.nio.file.Path, java.nio.charset.Charset)
+     */
+    public static ModuleSource ofCharSequence(CharSequence source,
+                                              Object securityDomain, URI uri,
+                                              URI base, Object validator) {
+        if (source == null) throw new IllegalArgumentException();
+        return new ModuleSource(source, null, securityDomain, uri, base,
+                validator);
+    }
+
+    /**
+     * Returns the source text of the module if it was created from source
+     * text in memory.
+     *
+     * @return the source text of the module, or null if it is only available
+     * through {@link #getReader()}.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
     /**
      * Returns the reader returning the source text of the module. Note that
      * subsequent calls to this method return the same object, thus it is not
@@ -66,6 +107,9 @@ public class ModuleSource implements Serializable {
      * @return the reader returning the source text of the module.
      */
     public Reader getReader() {
+        if (reader == null && source != null) {
+            reader = new StringReader(source.toString());
+        }
         return reader;
     }
 
@@ -13,6 +13,13 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.net.URISyntaxException;
 
 /**
@@ -167,4 +174,98 @@ public abstract class ModuleSourceProviderBase implements ModuleSourceProvider,
             throws IOException, URISyntaxException {
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the source text of a module from a file, for creating a
+     * {@link ModuleSource} that is compiled without copying the text again.
+     * The file is read into memory and closed before returning, then decoded
+     * once into a {@link java.nio.CharBuffer}. If the file only contains ASCII
+     * characters and the charset is ASCII compatible, the bytes are not
+     * decoded at all but are scanned in place. Malformed input is replaced,
+     * as by {@link java.io.InputStreamReader}.
+     *
+     * @param file    the file
+     * @param charset the encoding of the file
+     * @return the source text of the file.
+     * @throws IOException if the file can't be read.
+     */
+    protected static CharSequence readSource(Path file, Charset charset)
+            throws IOException {
+        final ByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file);
+            }
+            // Not memory mapped, as a mapped file stays locked on some
+            // platforms and couldn't be replaced while it is watched
+            bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+            }
+            bytes.flip();
+        }
+        if (charset.equals(StandardCharsets.ISO_8859_1)
+                || ((charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)) && isAscii(bytes))) {
+            return new ByteSource(bytes);
+        }
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes);
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        final int limit = bytes.limit();
+        int i = 0;
+        for (; i + 8 <= limit; i += 8) {
+            if ((bytes.getLong(i) & 0x8080808080808080L) != 0) {
+                return false;
+            }
+        }
+        for (; i < limit; ++i) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The characters of a file in a single byte encoding.
+     */
+    private static final class ByteSource implements CharSequence {
+        private final ByteBuffer bytes;
+
+        ByteSource(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > bytes.limit() || start > end) {
+                throw new IndexOutOfBoundsException();
+            }
+            final byte[] chars = new byte[end - start];
+            final ByteBuffer slice = bytes.duplicate();
+            slice.position(start);
+            slice.get(chars);
+            return new String(chars, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
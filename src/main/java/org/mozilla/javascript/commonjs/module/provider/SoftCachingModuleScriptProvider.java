@@ -16,6 +16,7 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -72,21 +73,24 @@ public class SoftCachingModuleScriptProvider extends CachingModuleScriptProvider
                                    Object validator) {
         scripts.put(moduleId, new ScriptReference(moduleScript.getScript(),
                 moduleId, moduleScript.getUri(), moduleScript.getBase(),
-                validator, scriptRefQueue));
+                moduleScript.getLiteralRequires(), validator, scriptRefQueue));
     }
 
     private static class ScriptReference extends SoftReference<Script> {
         private final String moduleId;
         private final URI uri;
         private final URI base;
+        private final List<String> literalRequires;
         private final Object validator;
 
         ScriptReference(Script script, String moduleId, URI uri, URI base,
-                        Object validator, ReferenceQueue<Script> refQueue) {
+                        List<String> literalRequires, Object validator,
+                        ReferenceQueue<Script> refQueue) {
             super(script, refQueue);
             this.moduleId = moduleId;
             this.uri = uri;
             this.base = base;
+            this.literalRequires = literalRequires;
             this.validator = validator;
         }
 
@@ -95,7 +99,8 @@ public class SoftCachingModuleScriptProvider extends CachingModuleScriptProvider
             if (script == null) {
                 return null;
             }
-            return new CachedModuleScript(new ModuleScript(script, uri, base),
+            return new CachedModuleScript(new ModuleScript(script, uri, base,
+                    literalRequires),
                     validator);
         }
 
@@ -65,6 +65,15 @@ public final class NativeGenerator extends IdScriptableObject {
         this.setPrototype(prototype);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        if (savedState != null) {
+            throw new IllegalArgumentException("Cannot copy a running generator");
+        }
+        function = copier.copy(function);
+    }
+
     public static final int GENERATOR_SEND = 0,
             GENERATOR_THROW = 1,
             GENERATOR_CLOSE = 2;
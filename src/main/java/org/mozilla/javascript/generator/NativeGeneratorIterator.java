@@ -28,6 +28,13 @@ public class NativeGeneratorIterator extends ES6Iterator {
         }
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        generator = copier.copy(generator);
+        prevValue = copier.copy(prevValue);
+    }
+
     @Override
     public boolean isDone(Context cx, Scriptable scope) {
         return done;
@@ -23,10 +23,11 @@ public class VMBridge_jdk18 extends VMBridge {
         // garbage collection of Rhino classes. For details see comments
         // by Attila Szegedi in
         // https://bugzilla.mozilla.org/show_bug.cgi?id=281067#c5
+        // The second element holds a retained context.
 
         Object[] storage = contextLocal.get();
         if (storage == null) {
-            storage = new Object[1];
+            storage = new Object[2];
             contextLocal.set(storage);
         }
         return storage;
@@ -44,6 +45,18 @@ public class VMBridge_jdk18 extends VMBridge {
         storage[0] = cx;
     }
 
+    @Override
+    protected Context getRetainedContext(Object contextHelper) {
+        Object[] storage = (Object[]) contextHelper;
+        return (Context) storage[1];
+    }
+
+    @Override
+    protected void setRetainedContext(Object contextHelper, Context cx) {
+        Object[] storage = (Object[]) contextHelper;
+        storage[1] = cx;
+    }
+
     @Override
     protected boolean tryToMakeAccessible(AccessibleObject accessible) {
         if (accessible.isAccessible()) {
@@ -100,11 +100,11 @@ class Block {
             }
         }
 
-        // for (int i = paramCount; i != varCount; i++) {
-        //     if (varTypes[i] == Optimizer.NumberType) {
-        //         fn.setIsNumberVar(i);
-        //     }
-        // }
+        for (int i = paramCount; i != varCount; i++) {
+            if (varTypes[i] == Optimizer.NumberType) {
+                fn.setIsNumberVar(i);
+            }
+        }
     }
 
     private static Block[] buildBlocks(Node[] statementNodes) {
@@ -443,7 +443,7 @@ class Block {
         the type of an expression is relatively unknown. Cases we can be sure
         about are -
             Literals,
-            Arithmetic operations - always return a Number
+            Arithmetic operations on a Number - always return a Number
     */
     private static int findExpressionType(OptFunctionNode fn, Node n,
                                           int[] varTypes) {
@@ -467,20 +467,30 @@ class Block {
 
             case Token.INC:
             case Token.DEC:
+                // Properties and names may overload ++ and --, local
+                // variables are always converted to numbers
+                return n.getFirstChild().getType() == Token.GETVAR
+                        ? Optimizer.NumberType : Optimizer.AnyType;
+
             case Token.MUL:
             case Token.DIV:
             case Token.MOD:
+            case Token.EXP:
             case Token.BITOR:
             case Token.BITXOR:
             case Token.BITAND:
-            case Token.BITNOT:
             case Token.LSH:
             case Token.RSH:
             case Token.URSH:
             case Token.SUB:
+            case Token.BITNOT:
             case Token.POS:
             case Token.NEG:
-                return Optimizer.NumberType;
+                // The left operand may overload the operator with a
+                // Symbol.operator method, which can return anything
+                return findExpressionType(fn, n.getFirstChild(), varTypes)
+                        == Optimizer.NumberType
+                        ? Optimizer.NumberType : Optimizer.AnyType;
 
             case Token.VOID:
                 // NYI: undefined type
@@ -252,40 +252,25 @@ public class Codegen implements Evaluator {
 
     private void transform(ScriptNode tree) {
         initOptFunctions_r(tree);
+        DirectArguments.mark(tree);
 
         int optLevel = compilerEnv.getOptimizationLevel();
 
         Map<String, OptFunctionNode> possibleDirectCalls = null;
         if (optLevel > 0) {
             /*
-             * Collect all of the contained functions into a hashtable
-             * so that the call optimizer can access the class name & parameter
-             * count for any call it encounters
+             * Give every function that can do without the generic call
+             * sequence a direct entry point, and collect the named ones
+             * into a hashtable so that the call optimizer can link calls
+             * by name to them. Calls it can not link statically are linked
+             * at run time by InvokeDynamicSupport.
              */
-            if (tree.getType() == Token.SCRIPT) {
-                int functionCount = tree.getFunctionCount();
-                for (int i = 0; i != functionCount; ++i) {
-                    OptFunctionNode ofn = OptFunctionNode.get(tree, i);
-                    if (ofn.fnode.getFunctionType()
-                            == FunctionNode.FUNCTION_STATEMENT) {
-                        String name = ofn.fnode.getName();
-                        if (name.length() != 0) {
-                            if (possibleDirectCalls == null) {
-                                possibleDirectCalls = new HashMap<>();
-                            }
-                            possibleDirectCalls.put(name, ofn);
-                        }
-                    }
-                }
-            }
-        }
-
-        if (possibleDirectCalls != null) {
             directCallTargets = new ObjArray();
+            possibleDirectCalls = new HashMap<>();
+            collectDirectCallTargets_r(tree, possibleDirectCalls);
         }
 
-        OptTransformer ot = new OptTransformer(possibleDirectCalls,
-                directCallTargets);
+        OptTransformer ot = new OptTransformer(possibleDirectCalls);
         ot.transform(tree, compilerEnv);
 
         if (optLevel > 0) {
@@ -293,6 +278,48 @@ public class Codegen implements Evaluator {
         }
     }
 
+    private void collectDirectCallTargets_r(ScriptNode scriptOrFn,
+                                            Map<String, OptFunctionNode> possibleDirectCalls) {
+        for (int i = 0, N = scriptOrFn.getFunctionCount(); i != N; ++i) {
+            OptFunctionNode ofn = OptFunctionNode.get(scriptOrFn, i);
+            if (isDirectCallable(ofn.fnode)) {
+                ofn.setDirectTargetIndex(directCallTargets.size());
+                directCallTargets.add(ofn);
+                String name = ofn.fnode.getName();
+                if (name.length() != 0) {
+                    // a name shared by several functions links to none of them
+                    if (possibleDirectCalls.containsKey(name)) {
+                        possibleDirectCalls.put(name, null);
+                    } else {
+                        possibleDirectCalls.put(name, ofn);
+                    }
+                }
+            }
+            collectDirectCallTargets_r(ofn.fnode, possibleDirectCalls);
+        }
+    }
+
+    /**
+     * Check if the function can be entered through its body method,
+     * skipping the checks and the argument unpacking of call().
+     */
+    private static boolean isDirectCallable(FunctionNode fn) {
+        return fn.getType() == Token.FUNCTION
+                && !fn.requiresActivation()
+                && !fn.hasDirectArguments()
+                && !fn.isGenerator()
+                && !fn.isInStrictMode()
+                && !fn.isClassConstructor()
+                && fn.getFunctionType() != FunctionNode.ARROW_FUNCTION
+                && !fn.hasRest()
+                && !fn.hasComplexParameters()
+                && fn.getDefaultParams().isEmpty()
+                && fn.getParentClass() == null
+                && !(fn instanceof DecoratorDeclarationNode)
+                // prevent code explosion for wacky test cases
+                && fn.getParamCount() <= MAX_DIRECT_CALL_PARAMS;
+    }
+
     private static void initOptFunctions_r(ScriptNode scriptOrFn) {
         for (int i = 0, N = scriptOrFn.getFunctionCount(); i != N; ++i) {
             FunctionNode fn = scriptOrFn.getFunctionNode(i);
@@ -338,6 +365,15 @@ public class Codegen implements Evaluator {
                 SUPER_CLASS_NAME,
                 sourceFile);
         cfw.addField(ID_FIELD_NAME, "I", ACC_PRIVATE);
+        if (directCallTargets != null) {
+            // Marks the bodies InvokeDynamicSupport may link to, as a target
+            // without parameters has the signature of any other body
+            for (int i = 0; i != directCallTargets.size(); ++i) {
+                OptFunctionNode ofn = (OptFunctionNode) directCallTargets.get(i);
+                cfw.addField(DIRECT_TARGET_FIELD_PREFIX + getIndex(ofn.fnode), "I",
+                        (short) (ACC_PRIVATE | ACC_STATIC));
+            }
+        }
 
         if (hasFunctions) {
             generateFunctionConstructor(cfw);
@@ -865,7 +901,18 @@ public class Codegen implements Evaluator {
         final int Do_hasRest = 7;
         final int Do_isCallable = 8;
         final int Do_isVarLexical = 9;
-        final int SWITCH_COUNT = 10;
+        final int Do_retainsArguments = 10;
+        final int SWITCH_COUNT = 11;
+
+        // With compressed source the string constant holds the packed
+        // deflated source, which is only inflated on demand
+        boolean compressSource = encodedSource != null && compilerEnv.isCompressingSource();
+        if (compressSource) {
+            // Kept in a static field, as CompressedSource caches the
+            // inflated text per packed string, and a constant over 64K
+            // would be concatenated into a new string on every push
+            packedSource = CompressedSource.compress(encodedSource).pack();
+        }
 
         for (int methodIndex = 0; methodIndex != SWITCH_COUNT; ++methodIndex) {
             if (methodIndex == Do_getEncodedSource && encodedSource == null) {
@@ -902,7 +949,12 @@ public class Codegen implements Evaluator {
                 case Do_getEncodedSource:
                     methodLocals = 1; // Only this
                     cfw.startMethod("getEncodedSource", "()Ljava/lang/String;", ACC_PUBLIC);
-                    cfw.addPush(encodedSource);
+                    if (compressSource) {
+                        cfw.add(ByteCode.GETSTATIC, mainClassName,
+                                PACKED_SOURCE_FIELD_NAME, "Ljava/lang/String;");
+                    } else {
+                        cfw.addPush(encodedSource);
+                    }
                     break;
                 case Do_construct:
                     methodLocals = 4;
@@ -924,6 +976,10 @@ public class Codegen implements Evaluator {
                     methodLocals = 2;
                     cfw.startMethod("isVarLexical", "(I)Z", ACC_PUBLIC);
                     break;
+                case Do_retainsArguments:
+                    methodLocals = 1;
+                    cfw.startMethod("retainsArguments", "()Z", ACC_PUBLIC);
+                    break;
                 default:
                     throw Kit.codeBug();
             }
@@ -1056,10 +1112,17 @@ public class Codegen implements Evaluator {
                         // to prepare for encodedSource.substring(start, end)
                         cfw.addPush(n.getEncodedSourceStart());
                         cfw.addPush(n.getEncodedSourceEnd());
-                        cfw.addInvoke(ByteCode.INVOKEVIRTUAL,
-                                "java/lang/String",
-                                "substring",
-                                "(II)Ljava/lang/String;");
+                        if (compressSource) {
+                            cfw.addInvoke(ByteCode.INVOKESTATIC,
+                                    "org/mozilla/javascript/CompressedSource",
+                                    "unpackSubstring",
+                                    "(Ljava/lang/String;II)Ljava/lang/String;");
+                        } else {
+                            cfw.addInvoke(ByteCode.INVOKEVIRTUAL,
+                                    "java/lang/String",
+                                    "substring",
+                                    "(II)Ljava/lang/String;");
+                        }
                         cfw.add(ByteCode.ARETURN);
                         break;
 
@@ -1137,6 +1200,19 @@ public class Codegen implements Evaluator {
 
                         break;
 
+                    case Do_retainsArguments:
+                        // Without an activation the parameters are copied
+                        // out of the argument array, unless arguments[i]
+                        // reads it directly
+                        if (n instanceof FunctionNode) {
+                            FunctionNode fn = (FunctionNode) n;
+                            cfw.addPush(fn.requiresActivation() || fn.hasDirectArguments());
+                        } else {
+                            cfw.addPush(true);
+                        }
+                        cfw.add(ByteCode.IRETURN);
+                        break;
+
                     default:
                         throw Kit.codeBug();
                 }
@@ -1215,11 +1291,19 @@ public class Codegen implements Evaluator {
 
     private void emitConstantDudeInitializers(ClassFileWriter cfw) {
         int N = itsConstantListSize;
-        if (N == 0)
+        if (N == 0 && packedSource == null)
             return;
 
         cfw.startMethod("<clinit>", "()V", (short) (ACC_STATIC | ACC_FINAL));
 
+        if (packedSource != null) {
+            cfw.addField(PACKED_SOURCE_FIELD_NAME, "Ljava/lang/String;",
+                    (short) (ACC_STATIC | ACC_PRIVATE | ACC_FINAL));
+            cfw.addPush(packedSource);
+            cfw.add(ByteCode.PUTSTATIC, mainClassName,
+                    PACKED_SOURCE_FIELD_NAME, "Ljava/lang/String;");
+        }
+
         double[] array = itsConstantList;
         for (int i = 0; i != N; ++i) {
             double num = array[i];
@@ -1403,6 +1487,12 @@ public class Codegen implements Evaluator {
 
     static final String ID_FIELD_NAME = "_id";
 
+    static final String DIRECT_TARGET_FIELD_PREFIX = "_dt";
+
+    private static final String PACKED_SOURCE_FIELD_NAME = "_src";
+
+    static final int MAX_DIRECT_CALL_PARAMS = 32;
+
     static final String REGEXP_INIT_METHOD_NAME = "_reInit";
     static final String REGEXP_INIT_METHOD_SIGNATURE
             = "(Lorg/mozilla/javascript/Context;)V";
@@ -1432,6 +1522,9 @@ public class Codegen implements Evaluator {
 
     private double[] itsConstantList;
     private int itsConstantListSize;
+
+    // The deflated encoded source stored in PACKED_SOURCE_FIELD_NAME
+    private String packedSource;
 }
 
 
@@ -1884,6 +1977,12 @@ class BodyCodegen {
 
         if (hasVarsInRegs) {
             // No need to create activation. Pad arguments if need be.
+            if (fnCurrent != null && fnCurrent.fnode.hasDirectArguments()) {
+                // keep the arguments as passed for arguments[i]
+                directArgsLocal = getNewWordLocal();
+                cfw.addALoad(argsLocal);
+                cfw.addAStore(directArgsLocal);
+            }
             int paramCount = scriptOrFn.getParamCount();
             if (paramCount > 0 && !inDirectCallFunction) {
                 // Set up args array
@@ -2680,6 +2779,8 @@ class BodyCodegen {
                     visitSetConstVar(child, child.getFirstChild(), false);
                 } else if (child.getType() == Token.YIELD) {
                     generateYieldPoint(child, false);
+                } else if (isNumberElemStore(child)) {
+                    visitSetNumberElem(child, child.getFirstChild());
                 } else {
                     generateExpression(child, node);
                     if (node.getIntProp(Node.ISNUMBER_PROP, -1) != -1)
@@ -3194,8 +3295,7 @@ class BodyCodegen {
 
             case Token.TO_DOUBLE: {
                 // cnvt to double (not Double)
-                generateExpression(child, node);
-                addObjectToDouble();
+                generateExpressionAsNumber(child, node);
                 break;
             }
 
@@ -3264,6 +3364,11 @@ class BodyCodegen {
                     break;
                 }
 
+                if (isDirectArguments(child)) {
+                    visitGetDirectArgument(node, child);
+                    break;
+                }
+
                 generateExpression(child, node); // object
 
 
@@ -4381,6 +4486,10 @@ class BodyCodegen {
 
         Node firstArgChild = child.getNext();
         int childType = child.getType();
+        // as with direct calls, only calls in functions are worth linking
+        boolean linkCalls = fnCurrent != null && compilerEnv.getOptimizationLevel() > 0
+                && !isPartial && node.getProp(Node.CHAINING_PROP) == null
+                && countArguments(firstArgChild) <= Codegen.MAX_DIRECT_CALL_PARAMS;
 
         String methodName;
         String[] signature;
@@ -4411,6 +4520,10 @@ class BodyCodegen {
                     return;
                 }
 
+                if (linkCalls) {
+                    visitLinkedCall(node, child, null, false);
+                    return;
+                }
                 String name = child.getString();
                 cfw.addPush(name);
                 methodName = "callName0";
@@ -4431,6 +4544,11 @@ class BodyCodegen {
                     return;
                 }
 
+                if (linkCalls && !isPrivate && child.getProp(Node.CHAINING_PROP) == null) {
+                    visitLinkedCall(node, child, null, false);
+                    return;
+                }
+
                 generateExpression(propTarget, node);
                 String property = id.getString();
                 cfw.addPush(property);
@@ -4453,6 +4571,9 @@ class BodyCodegen {
                     generateExpression(child, node);
                     methodName = "optionalCall0";
                     signature = new String[] { OBJECT, CONTEXT, SCRIPTABLE };
+                } else if (linkCalls) {
+                    visitLinkedCall(node, child, null, isPrivate);
+                    return;
                 } else {
                     generateFunctionAndThisObj(child, node, isPrivate);
                     methodName = "call0";
@@ -4461,25 +4582,22 @@ class BodyCodegen {
             }
 
         } else if (childType == Token.NAME) {
-            // XXX: this optimization is only possible if name
-            // resolution
-            // is not affected by arguments evaluation and currently
-            // there are no checks for it
+            if (linkCalls && child.getProp(Node.SUPER_PROP) == null
+                    && !hasSpreadArgument(firstArgChild)) {
+                visitLinkedCall(node, child, firstArgChild, false);
+                return;
+            }
             if (isPartial) {
                 generateExpression(child, node);
                 cfw.addALoad(thisObjLocal);
-            }
-
-            generateCallArgArray(node, firstArgChild, false);
-
-            if (isPartial) {
+                generateCallArgArray(node, firstArgChild, false);
                 cfw.addInvoke(ByteCode.INVOKESPECIAL, "org/mozilla/javascript/PartialFunction", "<init>", "(" + CONTEXT + SCRIPTABLE + CALLABLE + SCRIPTABLE + "[I" + OBJECT_ARRAY + ")V");
                 cfw.add(ByteCode.CHECKCAST, "java/lang/Object");
                 return;
             }
 
-            String name = child.getString();
             if (child.getProp(Node.SUPER_PROP) != null) {
+                generateCallArgArray(node, firstArgChild, false);
                 boolean isReturned = node.getNext() != null && node.getNext().getType() == Token.RETURN;
                 cfw.addPush(isReturned);
                 cfw.addALoad(funObjLocal);
@@ -4496,9 +4614,20 @@ class BodyCodegen {
                 return;
             }
 
-            cfw.addPush(name);
-            methodName = "callName";
-            signature = new String[]{ OBJECT_ARRAY, STRING, CONTEXT, SCRIPTABLE };
+            if (argumentsRunNoCode(firstArgChild)) {
+                // The order doesn't matter, so use the shorter sequence
+                generateCallArgArray(node, firstArgChild, false);
+                cfw.addPush(child.getString());
+                methodName = "callName";
+                signature = new String[]{ OBJECT_ARRAY, STRING, CONTEXT, SCRIPTABLE };
+            } else {
+                // The name is resolved before the arguments are evaluated,
+                // as in the interpreter and in linked and direct calls
+                generateFunctionAndThisObj(child, node, false);
+                generateCallArgArray(node, firstArgChild, false);
+                methodName = "callN";
+                signature = new String[]{ CALLABLE, SCRIPTABLE, OBJECT_ARRAY, CONTEXT, SCRIPTABLE };
+            }
         } else {
             if (isPartial) {
                 generateFunctionAndThisObj(child, node, isPrivate);
@@ -4555,6 +4684,10 @@ class BodyCodegen {
                     signature = new String[]{ OBJECT, OBJECT_ARRAY, CONTEXT, SCRIPTABLE };
                 }
 
+            } else if (linkCalls && argCount != -1
+                    && child.getProp(Node.CHAINING_PROP) == null) {
+                visitLinkedCall(node, child, firstArgChild, isPrivate);
+                return;
             } else if (argCount == 1) {
                 generateFunctionAndThisObj(child, node, isPrivate);
                 generateExpression(firstArgChild, node);
@@ -4579,6 +4712,75 @@ class BodyCodegen {
         addOptRuntimeInvoke(methodName, OBJECT, signature);
     }
 
+    /**
+     * Generate a call through an invokedynamic site, which
+     * InvokeDynamicSupport links to the direct entry of the compiled
+     * function it finds called there.
+     */
+    private void visitLinkedCall(Node node, Node child, Node firstArgChild, boolean isPrivate) {
+        generateFunctionAndThisObj(child, node, isPrivate);
+        cfw.addALoad(contextLocal);
+        cfw.addALoad(variableObjectLocal);
+        StringBuilder type = new StringBuilder();
+        type.append('(').append(CALLABLE).append(SCRIPTABLE).append(CONTEXT).append(SCRIPTABLE);
+        for (Node arg = firstArgChild; arg != null; arg = arg.getNext()) {
+            generateExpression(arg, node);
+            type.append(OBJECT);
+        }
+        type.append(')').append(OBJECT);
+        cfw.addInvokeDynamic("call", type.toString(), CALL_BOOTSTRAP);
+    }
+
+    private static int countArguments(Node argChild) {
+        int count = 0;
+        for (Node arg = argChild; arg != null; arg = arg.getNext()) {
+            ++count;
+        }
+        return count;
+    }
+
+    // Whether evaluating the arguments can't run any script or Java code,
+    // which could change what a name being called refers to
+    private static boolean argumentsRunNoCode(Node argChild) {
+        for (Node arg = argChild; arg != null; arg = arg.getNext()) {
+            switch (arg.getType()) {
+                case Token.NUMBER:
+                case Token.STRING:
+                case Token.TRUE:
+                case Token.FALSE:
+                case Token.NULL:
+                case Token.THIS:
+                case Token.GETVAR:
+                    if (arg.getProp(Node.SPREAD_PROP) != null) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasSpreadArgument(Node argChild) {
+        for (Node arg = argChild; arg != null; arg = arg.getNext()) {
+            if (arg.getProp(Node.SPREAD_PROP) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final ClassFileWriter.MHandle CALL_BOOTSTRAP = new ClassFileWriter.MHandle(
+            ByteCode.MH_INVOKESTATIC,
+            "org/mozilla/javascript/optimizer/InvokeDynamicSupport",
+            "bootstrapCall",
+            MethodType.methodType(
+                    CallSite.class, MethodHandles.Lookup.class,
+                    String.class, MethodType.class
+            ).toMethodDescriptorString()
+    );
+
     private void visitStandardNew(Node node, Node child) {
         if (node.getType() != Token.NEW) throw Codegen.badTree();
 
@@ -4637,11 +4839,19 @@ If the argument is an incoming arg, just pass the orginal pair thru.
 Else, if the argument is known to be typed 'Number', pass Void.TYPE
 in the aReg and the number is the dReg
 Else pass the JS object in the aReg and 0.0 in the dReg.
+Arguments beyond the parameters are evaluated for their side effects,
+and undefined is passed for the missing ones.
 */
+        int paramCount = target.fnode.getParamCount();
+        int argIndex = 0;
         Node argChild = firstArgChild;
         while (argChild != null) {
             int dcp_register = nodeIsDirectCallParameter(argChild);
-            if (dcp_register >= 0) {
+            if (argIndex++ >= paramCount) {
+                generateExpression(argChild, node);
+                cfw.add(argChild.getIntProp(Node.ISNUMBER_PROP, -1) == Node.BOTH
+                        ? ByteCode.POP2 : ByteCode.POP);
+            } else if (dcp_register >= 0) {
                 cfw.addALoad(dcp_register);
                 cfw.addDLoad(dcp_register + 1);
             } else if (argChild.getIntProp(Node.ISNUMBER_PROP, -1)
@@ -4657,6 +4867,10 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
             }
             argChild = argChild.getNext();
         }
+        for (; argIndex < paramCount; ++argIndex) {
+            Codegen.pushUndefined(cfw);
+            cfw.addPush(0.0);
+        }
 
         cfw.add(ByteCode.GETSTATIC,
                 "org/mozilla/javascript/ScriptRuntime",
@@ -5725,10 +5939,21 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
                 break;
         }
 
+        int numberFlag = node.getIntProp(Node.ISNUMBER_PROP, -1);
+        if (numberFlag == Node.BOTH || numberFlag == Node.LEFT) {
+            // The left operand is a number, so the operator can not be
+            // overloaded and is computed without boxing
+            visitNumberOperator(node, child, op);
+            return;
+        }
+
         generateExpression(child, node);
 
         if (!unary) {
             generateExpression(child.getNext(), node);
+            if (numberFlag == Node.RIGHT) {
+                addDoubleWrap();
+            }
         }
 
         cfw.addPush(op);
@@ -5741,6 +5966,128 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
         }
     }
 
+    private void visitNumberOperator(Node node, Node child, int op) {
+        switch (op) {
+            case Token.LE:
+            case Token.LT:
+            case Token.GE:
+            case Token.GT: {
+                int trueGOTO = cfw.acquireLabel();
+                int falseGOTO = cfw.acquireLabel();
+                visitIfJumpRelOp(node, child, trueGOTO, falseGOTO);
+                addJumpedBooleanWrap(trueGOTO, falseGOTO);
+                return;
+            }
+            case Token.BITOR:
+            case Token.BITXOR:
+            case Token.BITAND:
+            case Token.BITNOT:
+            case Token.LSH:
+            case Token.RSH:
+                generateInt32Expression(node);
+                cfw.add(ByteCode.I2D);
+                return;
+            case Token.URSH:
+                generateExpression(child, node);
+                addScriptRuntimeInvoke("toUint32", "J", DOUBLE);
+                generateInt32Expression(child.getNext(), node);
+                cfw.addPush(0x1f);
+                cfw.add(ByteCode.IAND);
+                cfw.add(ByteCode.LUSHR);
+                cfw.add(ByteCode.L2D);
+                return;
+        }
+
+        generateExpression(child, node);
+        switch (op) {
+            case Token.POS:
+                return;
+            case Token.NEG:
+                cfw.add(ByteCode.DNEG);
+                return;
+        }
+
+        generateExpression(child.getNext(), node);
+        switch (op) {
+            case Token.SUB:
+                cfw.add(ByteCode.DSUB);
+                break;
+            case Token.MUL:
+                cfw.add(ByteCode.DMUL);
+                break;
+            case Token.DIV:
+                cfw.add(ByteCode.DDIV);
+                break;
+            case Token.MOD:
+                cfw.add(ByteCode.DREM);
+                break;
+            case Token.EXP:
+                cfw.addInvoke(ByteCode.INVOKESTATIC, "java/lang/Math", "pow", "(DD)D");
+                break;
+            default:
+                throw Codegen.badTree();
+        }
+    }
+
+    /**
+     * Generate a number typed expression as an int with the ToInt32 value.
+     * Nested bitwise operations stay ints without a round trip through
+     * double.
+     */
+    private void generateInt32Expression(Node node, Node parent) {
+        if (node.getType() == Token.NUMBER) {
+            double num = node.getDouble();
+            int inum = ScriptRuntime.toInt32(num);
+            if (inum == num) {
+                cfw.addPush(inum);
+                return;
+            }
+        } else if (node.getIntProp(Node.ISNUMBER_PROP, -1) == Node.BOTH) {
+            switch (node.getType()) {
+                case Token.BITOR:
+                case Token.BITXOR:
+                case Token.BITAND:
+                case Token.BITNOT:
+                case Token.LSH:
+                case Token.RSH:
+                    generateInt32Expression(node);
+                    return;
+            }
+        }
+        generateExpression(node, parent);
+        addScriptRuntimeInvoke("toInt32", "I", DOUBLE);
+    }
+
+    private void generateInt32Expression(Node node) {
+        Node child = node.getFirstChild();
+        generateInt32Expression(child, node);
+        if (node.getType() == Token.BITNOT) {
+            cfw.addPush(-1);
+            cfw.add(ByteCode.IXOR);
+            return;
+        }
+        generateInt32Expression(child.getNext(), node);
+        switch (node.getType()) {
+            case Token.BITOR:
+                cfw.add(ByteCode.IOR);
+                break;
+            case Token.BITXOR:
+                cfw.add(ByteCode.IXOR);
+                break;
+            case Token.BITAND:
+                cfw.add(ByteCode.IAND);
+                break;
+            case Token.LSH:
+                cfw.add(ByteCode.ISHL);
+                break;
+            case Token.RSH:
+                cfw.add(ByteCode.ISHR);
+                break;
+            default:
+                throw Codegen.badTree();
+        }
+    }
+
     private int nodeIsDirectCallParameter(Node node) {
         if (node.getType() == Token.GETVAR
                 && inDirectCallFunction && !itsForcedObjectParameters) {
@@ -5811,8 +6158,7 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
             } else if (left_dcp_register != -1) {
                 dcpLoadAsNumber(left_dcp_register);
             } else {
-                generateExpression(child, node);
-                addObjectToDouble();
+                generateExpressionAsNumber(child, node);
             }
 
             if (childNumberFlag != Node.LEFT) {
@@ -5821,8 +6167,7 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
             } else if (right_dcp_register != -1) {
                 dcpLoadAsNumber(right_dcp_register);
             } else {
-                generateExpression(rChild, node);
-                addObjectToDouble();
+                generateExpressionAsNumber(rChild, node);
             }
 
             genSimpleCompare(type, trueGOTO, falseGOTO);
@@ -6099,6 +6444,29 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
         }
     }
 
+    /**
+     * Return true if node is the arguments object of a function that reads
+     * it from the argument array.
+     */
+    private boolean isDirectArguments(Node node) {
+        return node.getType() == Token.NAME
+                && fnCurrent != null
+                && fnCurrent.fnode.hasDirectArguments()
+                && "arguments".equals(node.getString());
+    }
+
+    private void visitGetDirectArgument(Node node, Node child) {
+        cfw.addALoad(directArgsLocal);
+        generateExpression(child.getNext(), node); // index
+        cfw.addALoad(contextLocal);
+        cfw.addALoad(variableObjectLocal);
+        cfw.addALoad(funObjLocal);
+        cfw.addPush(scriptOrFn.isInStrictMode());
+        String index = node.getIntProp(Node.ISNUMBER_PROP, -1) != -1 ? DOUBLE : OBJECT;
+        addOptRuntimeInvoke("getArgument", OBJECT, OBJECT_ARRAY, index, CONTEXT, SCRIPTABLE,
+                NATIVE_FUNCTION, BOOLEAN);
+    }
+
     private void visitGetProp(Node node, Node child) {
         boolean isPrivate = node.getProp(Node.PRIVATE_ACCESS_PROP) != null;
 
@@ -6110,6 +6478,14 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
             return;
         }
 
+        if (isDirectArguments(child)) {
+            // arguments.length
+            cfw.addALoad(directArgsLocal);
+            cfw.add(ByteCode.ARRAYLENGTH);
+            generateIntegerWrap();
+            return;
+        }
+
         generateExpression(child, node); // object
         short objLocal = 0;
         if (isPrivate) {
@@ -6204,6 +6580,37 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
         addScriptRuntimeInvoke("setObjectProp", OBJECT, OBJECT, STRING, OBJECT, CONTEXT, SCRIPTABLE, BOOLEAN);
     }
 
+    /**
+     * Check for the statement obj[index] = value where both index and
+     * value are numbers, which {@link #visitSetNumberElem} stores without
+     * boxing the value.
+     */
+    private static boolean isNumberElemStore(Node node) {
+        if (node.getType() != Token.SETELEM
+                || node.getIntProp(Node.ISNUMBER_PROP, -1) == -1) {
+            return false;
+        }
+        Node child = node.getFirstChild();
+        if (child.getProp(Node.SUPER_PROP) != null) {
+            return false;
+        }
+        // The Optimizer wraps a number value in TO_OBJECT
+        Node value = child.getNext().getNext();
+        return value.getType() == Token.TO_OBJECT
+                && value.getFirstChild().getIntProp(Node.ISNUMBER_PROP, -1) != -1;
+    }
+
+    private void visitSetNumberElem(Node node, Node child) {
+        generateExpression(child, node); // <obj>[index] = value
+        child = child.getNext();
+        generateExpression(child, node); // obj[<index>] = value
+        child = child.getNext();
+        generateExpression(child.getFirstChild(), child); // obj[index] = <value>
+        cfw.addALoad(contextLocal);
+        cfw.addALoad(variableObjectLocal);
+        addOptRuntimeInvoke("setNumberIndex", VOID, OBJECT, DOUBLE, DOUBLE, CONTEXT, SCRIPTABLE);
+    }
+
     private void visitSetElem(int type, Node node, Node child) {
         boolean isSuper = child.getProp(Node.SUPER_PROP) != null;
 
@@ -6302,6 +6709,30 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
         cfw.add(jumpcode, targetLabel);
     }
 
+    /**
+     * Generate an expression converted to a number. An element read with
+     * a number index goes through OptRuntime.getNumberIndex, so that the
+     * elements of typed arrays are not boxed.
+     */
+    private void generateExpressionAsNumber(Node node, Node parent) {
+        Node child = node.getFirstChild();
+        if (node.getType() == Token.GETELEM
+                && node.getIntProp(Node.ISNUMBER_PROP, -1) != -1
+                && node.getProp(Node.CHAINING_PROP) == null
+                && node.getProp(Node.SPREAD_PROP) == null
+                && child.getProp(Node.SUPER_PROP) == null
+                && !isDirectArguments(child)) {
+            generateExpression(child, node);
+            generateExpression(child.getNext(), node);
+            cfw.addALoad(contextLocal);
+            cfw.addALoad(variableObjectLocal);
+            addOptRuntimeInvoke("getNumberIndex", DOUBLE, OBJECT, DOUBLE, CONTEXT, SCRIPTABLE);
+            return;
+        }
+        generateExpression(node, parent);
+        addObjectToDouble();
+    }
+
     private void addObjectToDouble() {
         addScriptRuntimeInvoke("toNumber", DOUBLE, OBJECT);
     }
@@ -6490,6 +6921,7 @@ Else pass the JS object in the aReg and 0.0 in the dReg.
     private short popvLocal;
     private short contextLocal;
     private short argsLocal;
+    private short directArgsLocal;
     private short operationLocal;
     private short thisObjLocal;
     private short funObjLocal;
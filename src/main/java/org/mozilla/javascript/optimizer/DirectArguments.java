@@ -0,0 +1,168 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.optimizer;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.mozilla.javascript.Node;
+import org.mozilla.javascript.Token;
+import org.mozilla.javascript.ast.DecoratorDeclarationNode;
+import org.mozilla.javascript.ast.FunctionNode;
+import org.mozilla.javascript.ast.Name;
+import org.mozilla.javascript.ast.Scope;
+import org.mozilla.javascript.ast.ScriptNode;
+import org.mozilla.javascript.ast.Symbol;
+
+/**
+ * Finds the functions that need an activation only for their
+ * {@code arguments} object, and use it only as {@code arguments[i]} and
+ * {@code arguments.length}. Codegen reads those from the argument array,
+ * so the locals of the function stay in registers and no
+ * {@code NativeCall} or {@code Arguments} is created for a call.
+ * <p>
+ * In non-strict code the arguments object aliases the parameters, so
+ * the parameters must not be assigned either. Must run before the
+ * {@link OptTransformer}, which lays out the variables depending on
+ * {@link FunctionNode#requiresActivation()}.
+ */
+final class DirectArguments {
+
+    private static final String ARGUMENTS = "arguments";
+
+    private final FunctionNode fn;
+    private final Set<String> params = new HashSet<>();
+
+    private DirectArguments(FunctionNode fn) {
+        this.fn = fn;
+    }
+
+    static void mark(ScriptNode tree) {
+        for (int i = 0, N = tree.getFunctionCount(); i != N; ++i) {
+            FunctionNode fn = tree.getFunctionNode(i);
+            if (fn.usesArguments()) {
+                fn.setDirectArguments(true);
+                if (fn.requiresActivation() || !new DirectArguments(fn).isDirect()) {
+                    fn.setDirectArguments(false);
+                }
+            }
+            mark(fn);
+        }
+    }
+
+    private boolean isDirect() {
+        if (fn.isGenerator()
+                || fn.getFunctionType() == FunctionNode.ARROW_FUNCTION
+                || fn.hasRest()
+                || fn.hasComplexParameters()
+                || !fn.getDefaultParams().isEmpty()
+                || fn.getParentClass() != null
+                || fn instanceof DecoratorDeclarationNode
+                || ARGUMENTS.equals(fn.getName())) {
+            return false;
+        }
+        if (!fn.isInStrictMode()) {
+            Map<String, Symbol> symbols = fn.getSymbolTable();
+            if (symbols != null) {
+                for (Symbol symbol : symbols.values()) {
+                    if (symbol.getDeclType() == Token.LP) {
+                        params.add(symbol.getName());
+                    }
+                }
+            }
+        }
+        return isDirect_r(fn, fn);
+    }
+
+    private boolean isDirect_r(Node parent, Node node) {
+        if (node instanceof Scope) {
+            Map<String, Symbol> symbols = ((Scope) node).getSymbolTable();
+            if (symbols != null && symbols.containsKey(ARGUMENTS)) {
+                return false;
+            }
+        }
+        switch (node.getType()) {
+            case Token.NAME:
+                if (isArguments(node)) {
+                    return isDirectRead(parent, node);
+                }
+                if (node.getFirstChild() != null && params.contains(node.getString())) {
+                    // var declaration with an initializer
+                    return false;
+                }
+                break;
+            case Token.BINDNAME:
+            case Token.TYPEOFNAME:
+                if (isArguments(node) || params.contains(node.getString())) {
+                    return false;
+                }
+                break;
+            case Token.GETELEM:
+            case Token.GETPROP:
+                if (isArguments(node.getFirstChild()) && !isDirectUse(parent, node)) {
+                    return false;
+                }
+                break;
+            case Token.INC:
+            case Token.DEC: {
+                Node child = node.getFirstChild();
+                if (child.getType() == Token.NAME && params.contains(child.getString())) {
+                    return false;
+                }
+                break;
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+            if (!isDirect_r(node, child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that the element or property of the arguments object is not
+     * modified, deleted or called as a method.
+     */
+    private static boolean isDirectUse(Node parent, Node node) {
+        switch (parent.getType()) {
+            case Token.INC:
+            case Token.DEC:
+                return false;
+            case Token.CALL:
+            case Token.NEW:
+            case Token.REF_CALL:
+                return parent.getFirstChild() != node;
+        }
+        return true;
+    }
+
+    /**
+     * Check that node, the arguments object, is read as arguments[i] or
+     * arguments.length.
+     */
+    private static boolean isDirectRead(Node parent, Node node) {
+        if (parent.getFirstChild() != node
+                || parent.getProp(Node.CHAINING_PROP) != null
+                || parent.getProp(Node.SPREAD_PROP) != null
+                || parent.getProp(Node.PRIVATE_ACCESS_PROP) != null) {
+            return false;
+        }
+        if (parent.getType() == Token.GETPROP) {
+            Node id = node.getNext();
+            if (!"length".equals(id.getString())) {
+                return false;
+            }
+        } else if (parent.getType() != Token.GETELEM) {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isArguments(Node node) {
+        return node instanceof Name && ARGUMENTS.equals(node.getString());
+    }
+}
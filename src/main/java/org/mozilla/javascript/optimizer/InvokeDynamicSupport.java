@@ -1,11 +1,19 @@
 package org.mozilla.javascript.optimizer;
 
+import org.mozilla.javascript.Callable;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.NativeFunction;
 import org.mozilla.javascript.ScriptRuntime;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.Undefined;
 
 import java.lang.invoke.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public class InvokeDynamicSupport {
     public static CallSite bootstrapGetObjectProp(MethodHandles.Lookup lookup, String name, MethodType type) {
@@ -54,6 +62,164 @@ public class InvokeDynamicSupport {
         return value;
     }
 
+    /*
+     * Calls compiled by Codegen as
+     *   invokedynamic call(Callable fn, Scriptable thisObj, Context cx, Scriptable scope, Object... args)
+     * are linked to the body method of the function they call when it is
+     * a direct call target of the calling class, guarded by the class and
+     * id of the function object. The body methods stay private, so only
+     * calls to functions of the same script are linked, through the lookup
+     * of the calling class. The call that links the site and the calls
+     * that fail the guard go through the generic call. When another
+     * function turns up the site is linked again, until it has seen too
+     * many functions and stays on the generic call.
+     */
+    public static CallSite bootstrapCall(MethodHandles.Lookup lookup, String name, MethodType type) {
+        return new FunctionCallSite(lookup, type);
+    }
+
+    private static final class FunctionCallSite extends MutableCallSite {
+        final MethodHandles.Lookup lookup;
+        final MethodHandle generic;
+        final MethodHandle link;
+        int linkCount;
+
+        FunctionCallSite(MethodHandles.Lookup lookup, MethodType type) {
+            super(type);
+            this.lookup = lookup;
+            int argCount = type.parameterCount() - 4;
+            MethodHandle call = argCount == 0
+                    ? MethodHandles.insertArguments(CALL, 4, (Object) ScriptRuntime.emptyArgs)
+                    : CALL.asCollector(Object[].class, argCount);
+            generic = call.asType(type);
+            link = MethodHandles.foldArguments(generic, LINK_CALL.bindTo(this));
+            setTarget(link);
+        }
+    }
+
+    private static final int MAX_CALL_LINKS = 8;
+
+    private static void linkCall(FunctionCallSite callSite, Callable fn) throws Throwable {
+        MethodHandle target = null;
+        if (++callSite.linkCount <= MAX_CALL_LINKS) {
+            target = directCall(callSite.lookup, fn, callSite.type(), callSite.link);
+        }
+        callSite.setTarget(target != null ? target : callSite.generic);
+    }
+
+    public static Object call(Callable fn, Scriptable thisObj, Context cx, Scriptable scope, Object[] args) {
+        return fn.call(cx, scope, thisObj, args);
+    }
+
+    private static MethodHandle directCall(MethodHandles.Lookup lookup, Object fn,
+                                           MethodType type, MethodHandle fallback) throws Throwable {
+        if (!(fn instanceof NativeFunction) || fn.getClass() != lookup.lookupClass()) {
+            return null;
+        }
+        Map<Integer, Method> bodies = DIRECT_ENTRIES.get(fn.getClass());
+        if (bodies.isEmpty()) {
+            return null;
+        }
+        MethodHandle idGetter = lookup.findGetter(fn.getClass(), Codegen.ID_FIELD_NAME, int.class);
+        int id = (int) idGetter.invoke(fn);
+        Method body = bodies.get(id);
+        if (body == null) {
+            return null;
+        }
+        MethodHandle entry = lookup.unreflect(body);
+
+        // (fn, cx, scope, thisObj, arg0, 0.0, arg1, 0.0, ..., emptyArgs)
+        int paramCount = (entry.type().parameterCount() - 5) / 2;
+        int argCount = type.parameterCount() - 4;
+        MethodHandle h = MethodHandles.insertArguments(entry, 4 + 2 * paramCount, (Object) ScriptRuntime.emptyArgs);
+        for (int i = paramCount - 1; i >= 0; i--) {
+            h = MethodHandles.insertArguments(h, 5 + 2 * i, 0.0);
+        }
+        if (argCount < paramCount) {
+            Object[] missing = new Object[paramCount - argCount];
+            Arrays.fill(missing, Undefined.instance);
+            h = MethodHandles.insertArguments(h, 4 + argCount, missing);
+        } else if (argCount > paramCount) {
+            h = MethodHandles.dropArguments(h, 4 + paramCount,
+                    Collections.<Class<?>>nCopies(argCount - paramCount, Object.class));
+        }
+        int[] reorder = new int[type.parameterCount()];
+        reorder[0] = 0;
+        reorder[1] = 2;
+        reorder[2] = 3;
+        reorder[3] = 1;
+        for (int i = 4; i < reorder.length; i++) {
+            reorder[i] = i;
+        }
+        h = MethodHandles.permuteArguments(h.asType(h.type().changeParameterType(0, Callable.class)), type, reorder);
+
+        MethodHandle test = MethodHandles.guardWithTest(
+                MethodHandles.insertArguments(HAS_CLASS, 0, fn.getClass()),
+                MethodHandles.filterReturnValue(idGetter.asType(MethodType.methodType(int.class, Object.class)),
+                        MethodHandles.insertArguments(INT_EQUALS, 0, id)),
+                MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, Object.class));
+        test = test.asType(MethodType.methodType(boolean.class, Callable.class));
+        test = MethodHandles.dropArguments(test, 1, type.parameterList().subList(1, type.parameterCount()));
+        return MethodHandles.guardWithTest(test, h, fallback);
+    }
+
+    public static boolean hasClass(Class<?> type, Object value) {
+        return value.getClass() == type;
+    }
+
+    public static boolean intEquals(int a, int b) {
+        return a == b;
+    }
+
+    // The body methods of the direct call targets of a compiled class by
+    // function id, unreflected with the lookup of the class when linked
+    private static final ClassValue<Map<Integer, Method>> DIRECT_ENTRIES = new ClassValue<Map<Integer, Method>>() {
+        @Override
+        protected Map<Integer, Method> computeValue(Class<?> type) {
+            Map<Integer, Method> bodies = new HashMap<>();
+            for (Method m : type.getDeclaredMethods()) {
+                int index = directEntryIndex(type, m);
+                if (index >= 0) {
+                    bodies.put(index, m);
+                }
+            }
+            return bodies;
+        }
+    };
+
+    // The function id of the body method of a direct call target, -1 for
+    // any other method
+    private static int directEntryIndex(Class<?> type, Method m) {
+        String name = m.getName();
+        Class<?>[] params = m.getParameterTypes();
+        int n = params.length;
+        if (m.getDeclaringClass() != type || !Modifier.isStatic(m.getModifiers())
+                || !name.startsWith("_c_") || m.getReturnType() != Object.class
+                || n < 5 || n % 2 == 0
+                || params[0] != type || params[1] != Context.class
+                || params[2] != Scriptable.class || params[3] != Scriptable.class
+                || params[n - 1] != Object[].class) {
+            return -1;
+        }
+        for (int i = 4; i < n - 1; i += 2) {
+            if (params[i] != Object.class || params[i + 1] != double.class) {
+                return -1;
+            }
+        }
+        String index = name.substring(name.lastIndexOf('_') + 1);
+        try {
+            type.getDeclaredField(Codegen.DIRECT_TARGET_FIELD_PREFIX + index);
+            return Integer.parseInt(index);
+        } catch (NoSuchFieldException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final MethodHandle LINK_CALL;
+    private static final MethodHandle CALL;
+    private static final MethodHandle HAS_CLASS;
+    private static final MethodHandle INT_EQUALS;
+
     private static final MethodHandle INIT_GET_OBJ_PROP;
     private static final MethodHandle REAL_GET_OBJ_PROP;
 
@@ -90,8 +256,32 @@ public class InvokeDynamicSupport {
                     MethodType.methodType(Object.class, MutableCallSite.class, Object[].class, int.class, Object[].class, Object.class, Context.class, Scriptable.class, Scriptable.class)
             );
 
+            LINK_CALL = lookup.findStatic(
+                    InvokeDynamicSupport.class,
+                    "linkCall",
+                    MethodType.methodType(void.class, FunctionCallSite.class, Callable.class)
+            );
+
+            CALL = lookup.findStatic(
+                    InvokeDynamicSupport.class,
+                    "call",
+                    MethodType.methodType(Object.class, Callable.class, Scriptable.class, Context.class, Scriptable.class, Object[].class)
+            );
+
             // ====== UTILS ======
 
+            HAS_CLASS = lookup.findStatic(
+                    InvokeDynamicSupport.class,
+                    "hasClass",
+                    MethodType.methodType(boolean.class, Class.class, Object.class)
+            );
+
+            INT_EQUALS = lookup.findStatic(
+                    InvokeDynamicSupport.class,
+                    "intEquals",
+                    MethodType.methodType(boolean.class, int.class, int.class)
+            );
+
             ARRAY_EQUALS = lookup.findStatic(
                     Arrays.class,
                     "equals",
@@ -6,6 +6,7 @@ package org.mozilla.javascript.optimizer;
 
 import org.mozilla.javascript.*;
 import org.mozilla.javascript.generator.NativeGenerator;
+import org.mozilla.javascript.typedarrays.NativeTypedArrayView;
 
 public final class OptRuntime extends ScriptRuntime {
 
@@ -170,6 +171,69 @@ public final class OptRuntime extends ScriptRuntime {
         );
     }
 
+    /**
+     * Implement obj[index] where the element is converted to a number at
+     * once. The elements of a typed array are read without boxing them.
+     */
+    public static double getNumberIndex(Object obj, double index,
+        Context cx, Scriptable scope) {
+        if (obj instanceof NativeTypedArrayView) {
+            NativeTypedArrayView<?> view = (NativeTypedArrayView<?>) obj;
+            int i = view.elementIndex(index);
+            if (i >= 0) {
+                return view.getDoubleElement(i);
+            }
+        }
+        return toNumber(ScriptRuntime.getObjectIndex(obj, index, cx, scope));
+    }
+
+    /**
+     * Implement the statement obj[index] = value for a number value. The
+     * elements of a typed array are written without boxing the value.
+     */
+    public static void setNumberIndex(Object obj, double index, double value,
+        Context cx, Scriptable scope) {
+        if (obj instanceof NativeTypedArrayView) {
+            NativeTypedArrayView<?> view = (NativeTypedArrayView<?>) obj;
+            int i = view.elementIndex(index);
+            if (i >= 0) {
+                view.setDoubleElement(i, value);
+                return;
+            }
+        }
+        ScriptRuntime.setObjectIndex(obj, index, wrapDouble(value), cx, scope);
+    }
+
+    /**
+     * Implement arguments[index] for a function that has no activation.
+     * Anything but an index of a passed argument is looked up in an
+     * arguments object created for the purpose.
+     */
+    public static Object getArgument(Object[] args, double index, Context cx,
+        Scriptable scope, NativeFunction fn, boolean isStrict) {
+        int i = (int) index;
+        if (i == index && i >= 0 && i < args.length) {
+            return args[i];
+        }
+        return ScriptRuntime.getObjectIndex(createArguments(args, cx, scope, fn, isStrict),
+                                            index, cx, scope);
+    }
+
+    public static Object getArgument(Object[] args, Object index, Context cx,
+        Scriptable scope, NativeFunction fn, boolean isStrict) {
+        if (index instanceof Number) {
+            return getArgument(args, ((Number) index).doubleValue(), cx, scope, fn, isStrict);
+        }
+        return ScriptRuntime.getObjectElem(createArguments(args, cx, scope, fn, isStrict),
+                                           index, cx, scope);
+    }
+
+    private static Object createArguments(Object[] args, Context cx,
+        Scriptable scope, NativeFunction fn, boolean isStrict) {
+        Scriptable activation = ScriptRuntime.createFunctionActivation(fn, scope, args, isStrict, false);
+        return ScriptableObject.getProperty(activation, "arguments");
+    }
+
     public static Object[] padStart(Object[] currentArgs, int count) {
         Object[] result = new Object[currentArgs.length + count];
         System.arraycopy(currentArgs, 0, result, count, currentArgs.length);
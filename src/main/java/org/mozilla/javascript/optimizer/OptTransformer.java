@@ -19,9 +19,8 @@ import java.util.Map;
 
 class OptTransformer extends NodeTransformer {
 
-    OptTransformer(Map<String, OptFunctionNode> possibleDirectCalls, ObjArray directCallTargets) {
+    OptTransformer(Map<String, OptFunctionNode> possibleDirectCalls) {
         this.possibleDirectCalls = possibleDirectCalls;
-        this.directCallTargets = directCallTargets;
     }
 
     @Override
@@ -64,7 +63,7 @@ class OptTransformer extends NodeTransformer {
              *  else
              *      ScriptRuntime.Call(fn, tmp, b, c)
              */
-            if (possibleDirectCalls != null) {
+            if (possibleDirectCalls != null && isPlainCall(node)) {
                 String targetName = null;
                 if (left.getType() == Token.NAME) {
                     targetName = left.getString();
@@ -76,26 +75,40 @@ class OptTransformer extends NodeTransformer {
                 if (targetName != null) {
                     OptFunctionNode ofn;
                     ofn = possibleDirectCalls.get(targetName);
-                    if (ofn != null
-                            && argCount == ofn.fnode.getParamCount()
-                            && !ofn.fnode.requiresActivation()) {
-                        // Refuse to directCall any function with more
-                        // than 32 parameters - prevent code explosion
-                        // for wacky test cases
-                        if (argCount <= 32) {
-                            node.putProp(Node.DIRECTCALL_PROP, ofn);
-                            if (!ofn.isTargetOfDirectCall()) {
-                                int index = directCallTargets.size();
-                                directCallTargets.add(ofn);
-                                ofn.setDirectTargetIndex(index);
-                            }
-                        }
+                    // Arguments beyond the parameters are evaluated and
+                    // dropped, missing ones are passed as undefined.
+                    // Refuse to directCall with more than 32 arguments
+                    // - prevent code explosion for wacky test cases
+                    if (ofn != null && argCount <= Codegen.MAX_DIRECT_CALL_PARAMS) {
+                        node.putProp(Node.DIRECTCALL_PROP, ofn);
                     }
                 }
             }
         }
     }
 
+    /**
+     * Check that the call has no spread or partial arguments and is not
+     * an optional, private or super call.
+     */
+    private static boolean isPlainCall(Node node) {
+        Node left = node.getFirstChild();
+        if (node.getProp(Node.PARTIAL_PROP) != null
+                || node.getProp(Node.CHAINING_PROP) != null
+                || left.getProp(Node.CHAINING_PROP) != null
+                || left.getProp(Node.PRIVATE_ACCESS_PROP) != null
+                || left.getProp(Node.SUPER_PROP) != null
+                || (left.getFirstChild() != null
+                    && left.getFirstChild().getProp(Node.SUPER_PROP) != null)) {
+            return false;
+        }
+        for (Node arg = left.getNext(); arg != null; arg = arg.getNext()) {
+            if (arg.getProp(Node.SPREAD_PROP) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Map<String, OptFunctionNode> possibleDirectCalls;
-    private ObjArray directCallTargets;
 }
@@ -48,11 +48,10 @@ class Optimizer {
              * Number typed vars is marked so that the codegen will
              * generate non-object code.
              */
-            parameterUsedInNumberContext = true;
-            // parameterUsedInNumberContext = false;
-            // for (Node theStatementNode : theStatementNodes) {
-            //     rewriteForNumberVariables(theStatementNode, NumberType);
-            // }
+            parameterUsedInNumberContext = false;
+            for (Node theStatementNode : theStatementNodes) {
+                rewriteForNumberVariables(theStatementNode, NumberType);
+            }
             theFunction.setParameterNumberContext(parameterUsedInNumberContext);
         }
 
@@ -124,13 +123,10 @@ class Optimizer {
                 return NumberType;
 
             case Token.GETVAR: {
+                // Parameters are not treated as numbers, as the argument
+                // may be an object overloading the operator applied to it
                 int varIndex = theFunction.getVarIndex(n);
-                if (inDirectCallFunction
-                        && theFunction.isParameter(varIndex)
-                        && desired == NumberType) {
-                    n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
-                    return NumberType;
-                } else if (theFunction.isNumberVar(varIndex)) {
+                if (theFunction.isNumberVar(varIndex)) {
                     n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
                     return NumberType;
                 }
@@ -236,32 +232,17 @@ class Optimizer {
                 int rType = rewriteForNumberVariables(rChild, NumberType);
 
 
-                if (convertParameter(lChild)) {
-                    if (convertParameter(rChild)) {
-                        return NoType;
-                    }
+                if (lType == NumberType) {
                     if (rType == NumberType) {
-                        n.putIntProp(Node.ISNUMBER_PROP, Node.RIGHT);
-                    }
-                } else {
-                    if (convertParameter(rChild)) {
-                        if (lType == NumberType) {
-                            n.putIntProp(Node.ISNUMBER_PROP, Node.LEFT);
-                        }
-                    } else {
-                        if (lType == NumberType) {
-                            if (rType == NumberType) {
-                                n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
-                                return NumberType;
-                            }
-                            n.putIntProp(Node.ISNUMBER_PROP, Node.LEFT);
-                        } else {
-                            if (rType == NumberType) {
-                                n.putIntProp(Node.ISNUMBER_PROP,
-                                        Node.RIGHT);
-                            }
-                        }
+                        n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
+                        return NumberType;
                     }
+                    n.putIntProp(Node.ISNUMBER_PROP, Node.LEFT);
+                } else if (rType == NumberType) {
+                    // An object on the left may overload +, so keep the
+                    // generic add
+                    n.removeChild(rChild);
+                    n.addChildToBack(new Node(Token.TO_OBJECT, rChild));
                 }
                 return NoType;
             }
@@ -270,52 +251,43 @@ class Optimizer {
             case Token.BITOR:
             case Token.BITAND:
             case Token.RSH:
+            case Token.URSH:
             case Token.LSH:
             case Token.SUB:
             case Token.MUL:
             case Token.DIV:
-            case Token.MOD: {
+            case Token.MOD:
+            case Token.EXP: {
                 Node lChild = n.getFirstChild();
                 Node rChild = lChild.getNext();
                 int lType = rewriteForNumberVariables(lChild, NumberType);
                 int rType = rewriteForNumberVariables(rChild, NumberType);
-                markDCPNumberContext(lChild);
-                markDCPNumberContext(rChild);
-                if (lType == NumberType) {
+                if (lType != NumberType) {
+                    // An object on the left may overload the operator
                     if (rType == NumberType) {
-                        n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
-                        return NumberType;
-                    }
-                    if (!convertParameter(rChild)) {
                         n.removeChild(rChild);
-                        n.addChildToBack(
-                                new Node(Token.TO_DOUBLE, rChild));
-                        n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
-                    }
-                    return NumberType;
-                }
-                if (rType == NumberType) {
-                    if (!convertParameter(lChild)) {
-                        n.removeChild(lChild);
-                        n.addChildToFront(
-                                new Node(Token.TO_DOUBLE, lChild));
-                        n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
+                        n.addChildToBack(new Node(Token.TO_OBJECT, rChild));
                     }
-                    return NumberType;
-                }
-                if (!convertParameter(lChild)) {
-                    n.removeChild(lChild);
-                    n.addChildToFront(
-                            new Node(Token.TO_DOUBLE, lChild));
+                    return NoType;
                 }
-                if (!convertParameter(rChild)) {
+                if (rType != NumberType) {
                     n.removeChild(rChild);
-                    n.addChildToBack(
-                            new Node(Token.TO_DOUBLE, rChild));
+                    n.addChildToBack(new Node(Token.TO_DOUBLE, rChild));
                 }
                 n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
                 return NumberType;
             }
+            case Token.BITNOT:
+            case Token.POS:
+            case Token.NEG: {
+                Node child = n.getFirstChild();
+                int type = rewriteForNumberVariables(child, NumberType);
+                if (type == NumberType) {
+                    n.putIntProp(Node.ISNUMBER_PROP, Node.BOTH);
+                    return NumberType;
+                }
+                return NoType;
+            }
             case Token.SETELEM:
             case Token.SETELEM_OP: {
                 Node arrayBase = n.getFirstChild();
@@ -373,8 +345,15 @@ class Optimizer {
             case Token.CALL: {
                 Node child = n.getFirstChild(); // the function node
                 // must be an object
-                rewriteAsObjectChildren(child, child.getFirstChild());
-                child = child.getNext(); // the first arg
+                if (child.getType() == Token.GETPROP
+                        || child.getType() == Token.GETELEM) {
+                    rewriteAsObjectChildren(child, child.getFirstChild());
+                    child = child.getNext(); // the first arg
+                } else {
+                    Node nextChild = child.getNext();
+                    rewriteAsObject(n, child);
+                    child = nextChild;
+                }
 
                 OptFunctionNode target
                         = (OptFunctionNode) n.getProp(Node.DIRECTCALL_PROP);
@@ -406,21 +385,26 @@ class Optimizer {
         // Force optimized children to be objects
         while (child != null) {
             Node nextChild = child.getNext();
-            int type = rewriteForNumberVariables(child, NoType);
-            if (type == NumberType) {
-                if (!convertParameter(child)) {
-                    n.removeChild(child);
-                    Node nuChild = new Node(Token.TO_OBJECT, child);
-                    if (nextChild == null)
-                        n.addChildToBack(nuChild);
-                    else
-                        n.addChildBefore(nuChild, nextChild);
-                }
-            }
+            rewriteAsObject(n, child);
             child = nextChild;
         }
     }
 
+    private void rewriteAsObject(Node n, Node child) {
+        Node nextChild = child.getNext();
+        int type = rewriteForNumberVariables(child, NoType);
+        if (type == NumberType) {
+            if (!convertParameter(child)) {
+                n.removeChild(child);
+                Node nuChild = new Node(Token.TO_OBJECT, child);
+                if (nextChild == null)
+                    n.addChildToBack(nuChild);
+                else
+                    n.addChildBefore(nuChild, nextChild);
+            }
+        }
+    }
+
     private static void buildStatementList_r(Node node, ObjArray statements) {
         int type = node.getType();
         if (type == Token.BLOCK
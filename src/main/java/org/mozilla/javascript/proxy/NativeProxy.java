@@ -35,6 +35,14 @@ public class NativeProxy extends IdScriptableObject implements Function {
         this.handlerIds = handler == null ? Collections.emptyList() : Arrays.asList(handler.getIds());
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        // The property names of the handler are shared
+        super.copyReferences(copier);
+        target = copier.copy(target);
+        handler = copier.copy(handler);
+    }
+
     public ScriptableObject getTarget() {
         return target;
     }
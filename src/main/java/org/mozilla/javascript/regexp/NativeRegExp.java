@@ -132,6 +132,13 @@ public class NativeRegExp extends IdScriptableObject implements Function {
         ScriptRuntime.setBuiltinProtoAndParent(this, scope, TopLevel.Builtins.RegExp);
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        // The compiled regular expression is shared
+        super.copyReferences(copier);
+        lastIndex = copier.copy(lastIndex);
+    }
+
     @Override
     public String getClassName() {
         return "RegExp";
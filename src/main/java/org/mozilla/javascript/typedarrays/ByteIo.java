@@ -6,6 +6,10 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 public class ByteIo {
     public static Object readInt8(byte[] buf, int offset) {
         return buf[offset];
@@ -189,4 +193,143 @@ public class ByteIo {
         long base = Double.doubleToLongBits(val);
         writeUint64(buf, offset, base, littleEndian);
     }
+
+    // The same for a ByteBuffer, using its absolute, bulk accessors. The
+    // buffer may have either byte order, the values are swapped if it
+    // does not match the requested one.
+
+    private static boolean swap(ByteBuffer buf, boolean littleEndian) {
+        return littleEndian != (buf.order() == ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Copy bytes between two buffers, or within one, as System.arraycopy
+     * does, so overlapping ranges are copied correctly.
+     */
+    public static void copy(ByteBuffer src, int srcOffset, ByteBuffer dst, int dstOffset, int length) {
+        if (src.hasArray() && dst.hasArray()) {
+            System.arraycopy(src.array(), src.arrayOffset() + srcOffset,
+                    dst.array(), dst.arrayOffset() + dstOffset, length);
+            return;
+        }
+        // Through Buffer, as ByteBuffer only overrides position since Java 9
+        byte[] tmp = new byte[length];
+        ByteBuffer from = src.duplicate();
+        ((Buffer) from).position(srcOffset);
+        from.get(tmp);
+        ByteBuffer to = dst.duplicate();
+        ((Buffer) to).position(dstOffset);
+        to.put(tmp);
+    }
+
+    public static byte readInt8Primitive(ByteBuffer buf, int offset) {
+        return buf.get(offset);
+    }
+
+    public static Object readInt8(ByteBuffer buf, int offset) {
+        return readInt8Primitive(buf, offset);
+    }
+
+    public static void writeInt8(ByteBuffer buf, int offset, int val) {
+        buf.put(offset, (byte) val);
+    }
+
+    public static int readUint8Primitive(ByteBuffer buf, int offset) {
+        return buf.get(offset) & 0xff;
+    }
+
+    public static Object readUint8(ByteBuffer buf, int offset) {
+        return readUint8Primitive(buf, offset);
+    }
+
+    public static void writeUint8(ByteBuffer buf, int offset, int val) {
+        buf.put(offset, (byte) (val & 0xff));
+    }
+
+    public static short readInt16Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        short val = buf.getShort(offset);
+        return swap(buf, littleEndian) ? Short.reverseBytes(val) : val;
+    }
+
+    private static void doWriteInt16(ByteBuffer buf, int offset, int val, boolean littleEndian) {
+        buf.putShort(offset, swap(buf, littleEndian) ? Short.reverseBytes((short) val) : (short) val);
+    }
+
+    public static Object readInt16(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readInt16Primitive(buf, offset, littleEndian);
+    }
+
+    public static void writeInt16(ByteBuffer buf, int offset, int val, boolean littleEndian) {
+        doWriteInt16(buf, offset, val, littleEndian);
+    }
+
+    public static int readUint16Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readInt16Primitive(buf, offset, littleEndian) & 0xffff;
+    }
+
+    public static Object readUint16(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readUint16Primitive(buf, offset, littleEndian);
+    }
+
+    public static void writeUint16(ByteBuffer buf, int offset, int val, boolean littleEndian) {
+        doWriteInt16(buf, offset, val & 0xffff, littleEndian);
+    }
+
+    public static int readInt32Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        int val = buf.getInt(offset);
+        return swap(buf, littleEndian) ? Integer.reverseBytes(val) : val;
+    }
+
+    public static Object readInt32(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readInt32Primitive(buf, offset, littleEndian);
+    }
+
+    public static void writeInt32(ByteBuffer buf, int offset, int val, boolean littleEndian) {
+        buf.putInt(offset, swap(buf, littleEndian) ? Integer.reverseBytes(val) : val);
+    }
+
+    public static long readUint32Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readInt32Primitive(buf, offset, littleEndian) & 0xffffffffL;
+    }
+
+    public static void writeUint32(ByteBuffer buf, int offset, long val, boolean littleEndian) {
+        writeInt32(buf, offset, (int) val, littleEndian);
+    }
+
+    public static Object readUint32(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readUint32Primitive(buf, offset, littleEndian);
+    }
+
+    public static long readUint64Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        long val = buf.getLong(offset);
+        return swap(buf, littleEndian) ? Long.reverseBytes(val) : val;
+    }
+
+    public static void writeUint64(ByteBuffer buf, int offset, long val, boolean littleEndian) {
+        buf.putLong(offset, swap(buf, littleEndian) ? Long.reverseBytes(val) : val);
+    }
+
+    public static float readFloat32Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        return Float.intBitsToFloat(readInt32Primitive(buf, offset, littleEndian));
+    }
+
+    public static Object readFloat32(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readFloat32Primitive(buf, offset, littleEndian);
+    }
+
+    public static void writeFloat32(ByteBuffer buf, int offset, double val, boolean littleEndian) {
+        writeInt32(buf, offset, Float.floatToIntBits((float) val), littleEndian);
+    }
+
+    public static double readFloat64Primitive(ByteBuffer buf, int offset, boolean littleEndian) {
+        return Double.longBitsToDouble(readUint64Primitive(buf, offset, littleEndian));
+    }
+
+    public static Object readFloat64(ByteBuffer buf, int offset, boolean littleEndian) {
+        return readFloat64Primitive(buf, offset, littleEndian);
+    }
+
+    public static void writeFloat64(ByteBuffer buf, int offset, double val, boolean littleEndian) {
+        writeUint64(buf, offset, Double.doubleToLongBits(val), littleEndian);
+    }
 }
@@ -8,9 +8,18 @@ package org.mozilla.javascript.typedarrays;
 
 import org.mozilla.javascript.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * A NativeArrayBuffer is the backing buffer for a typed array. Used inside JavaScript code,
- * it implements the ArrayBuffer interface. Used directly from Java, it simply holds a byte array.
+ * it implements the ArrayBuffer interface. Used directly from Java, it holds a ByteBuffer,
+ * which may be a heap buffer or one that Java code wraps, such as a direct buffer or a
+ * memory-mapped file, so that the content is shared without copying.
  */
 
 public class NativeArrayBuffer extends IdScriptableObject {
@@ -18,11 +27,16 @@ public class NativeArrayBuffer extends IdScriptableObject {
 
     public static final String CLASS_NAME = "ArrayBuffer";
 
-    private static final byte[] EMPTY_BUF = new byte[0];
+    private static final ByteBuffer EMPTY_BUF = ByteBuffer.allocate(0);
 
     public static final NativeArrayBuffer EMPTY_BUFFER = new NativeArrayBuffer();
 
-    byte[] buffer;
+    /**
+     * The content, from index 0 to the capacity, always in big endian order. It is not
+     * the buffer passed by Java code but a slice of it, so its position and order
+     * are never changed.
+     */
+    transient ByteBuffer buffer;
 
     @Override
     public String getClassName() {
@@ -59,27 +73,86 @@ public class NativeArrayBuffer extends IdScriptableObject {
         if (intLen == 0) {
             buffer = EMPTY_BUF;
         } else {
-            buffer = new byte[intLen];
+            buffer = ByteBuffer.allocate(intLen);
+        }
+    }
+
+    /**
+     * Create a buffer that shares the content of the given buffer from its position to
+     * its limit, without copying it. Later changes of the position, limit or byte order
+     * of the given buffer do not affect this one.
+     *
+     * @throws IllegalArgumentException if the buffer is read-only
+     */
+    public NativeArrayBuffer(ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new IllegalArgumentException("read-only buffer");
+        }
+        this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Create an ArrayBuffer for the given scope that shares the content of the given
+     * buffer, as {@link #NativeArrayBuffer(ByteBuffer)} does. Typed arrays and DataViews
+     * created from it in JavaScript read and write the buffer directly.
+     */
+    public static NativeArrayBuffer wrap(Scriptable scope, ByteBuffer buffer) {
+        NativeArrayBuffer result = new NativeArrayBuffer(buffer);
+        result.setParentScope(getTopLevelScope(scope));
+        result.setPrototype(getClassPrototype(scope, CLASS_NAME));
+        return result;
+    }
+
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        if (buffer.capacity() != 0) {
+            buffer = copyOf(buffer, 0, buffer.capacity());
         }
     }
 
-    private NativeArrayBuffer(byte[] buffer) {
-        this.buffer = buffer;
+    private static ByteBuffer copyOf(ByteBuffer buffer, int start, int end) {
+        // Through Buffer, as ByteBuffer only overrides these methods since Java 9
+        ByteBuffer src = buffer.duplicate();
+        ((Buffer) src).limit(end);
+        ((Buffer) src).position(start);
+        ByteBuffer copy = ByteBuffer.allocate(end - start);
+        copy.put(src);
+        ((Buffer) copy).clear();
+        return copy;
     }
 
     /**
      * Get the number of bytes in the buffer.
      */
     public int getLength() {
-        return buffer.length;
+        return buffer.capacity();
     }
 
     /**
-     * Return the actual bytes that back the buffer. This is a reference to the real buffer,
-     * so changes to bytes here will be reflected in the actual object and all its views.
+     * Return the actual bytes that back the buffer. For a buffer created by JavaScript code,
+     * this is a reference to the real buffer, so changes to bytes here will be reflected in
+     * the actual object and all its views. For a buffer that wraps a ByteBuffer which is not
+     * backed by an array of the same length, this is a copy of the content.
+     *
+     * @see #getByteBuffer()
      */
     public byte[] getBuffer() {
-        return buffer;
+        if (buffer.hasArray() && buffer.arrayOffset() == 0
+                && buffer.array().length == buffer.capacity()) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.capacity()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Return a ByteBuffer that shares the content of the buffer, in big endian order. Changes
+     * of the content will be reflected in the actual object and all its views.
+     */
+    public ByteBuffer getByteBuffer() {
+        return buffer.duplicate();
     }
 
     // Actual implementations of actual code
@@ -97,21 +170,35 @@ public class NativeArrayBuffer extends IdScriptableObject {
     public NativeArrayBuffer slice(double s, double e) {
         // Handle negative start as relative to start
         // Clamp as per the spec to between 0 and length
-        int end = ScriptRuntime.toInt32(Math.max(0, Math.min(buffer.length, (e < 0 ? buffer.length + e : e))));
-        int start = ScriptRuntime.toInt32(Math.min(end, Math.max(0, (s < 0 ? buffer.length + s : s))));
-        int len = end - start;
+        int length = buffer.capacity();
+        int end = ScriptRuntime.toInt32(Math.max(0, Math.min(length, (e < 0 ? length + e : e))));
+        int start = ScriptRuntime.toInt32(Math.min(end, Math.max(0, (s < 0 ? length + s : s))));
 
-        NativeArrayBuffer newBuf = new NativeArrayBuffer(len);
-        System.arraycopy(buffer, start, newBuf.buffer, 0, len);
+        NativeArrayBuffer newBuf = new NativeArrayBuffer();
+        if (end > start) {
+            newBuf.buffer = copyOf(buffer, start, end);
+        }
         return newBuf;
     }
 
     public NativeArrayBuffer transfer() {
-        NativeArrayBuffer newBuf = new NativeArrayBuffer(this.buffer);
+        NativeArrayBuffer newBuf = new NativeArrayBuffer();
+        newBuf.buffer = this.buffer;
         this.buffer = EMPTY_BUF;
         return newBuf;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getBuffer());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        byte[] bytes = (byte[]) in.readObject();
+        buffer = bytes.length == 0 ? EMPTY_BUF : ByteBuffer.wrap(bytes);
+    }
+
 
 
     // Function-calling dispatcher
@@ -136,7 +223,7 @@ public class NativeArrayBuffer extends IdScriptableObject {
             case Id_slice:
                 NativeArrayBuffer self = realThis(thisObj, f);
                 double start = isArg(args, 0) ? ScriptRuntime.toNumber(args[0]) : 0;
-                double end = isArg(args, 1) ? ScriptRuntime.toNumber(args[1]) : self.buffer.length;
+                double end = isArg(args, 1) ? ScriptRuntime.toNumber(args[1]) : self.getLength();
                 return self.slice(start, end);
 
             case Id_transfer:
@@ -235,7 +322,7 @@ public class NativeArrayBuffer extends IdScriptableObject {
     @Override
     protected Object getInstanceIdValue(int id) {
         if (id == Id_byteLength) {
-            return ScriptRuntime.wrapInt(buffer.length);
+            return ScriptRuntime.wrapInt(buffer.capacity());
         }
         return super.getInstanceIdValue(id);
     }
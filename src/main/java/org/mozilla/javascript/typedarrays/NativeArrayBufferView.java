@@ -8,6 +8,7 @@ package org.mozilla.javascript.typedarrays;
 
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdScriptableObject;
+import org.mozilla.javascript.ScopeSnapshot;
 import org.mozilla.javascript.ScriptRuntime;
 import org.mozilla.javascript.Undefined;
 
@@ -24,7 +25,7 @@ public abstract class NativeArrayBufferView extends IdScriptableObject {
     /**
      * Many view objects can share the same backing array
      */
-    protected final NativeArrayBuffer arrayBuffer;
+    protected NativeArrayBuffer arrayBuffer;
     /**
      * The offset, in bytes, from the start of the backing array
      */
@@ -46,6 +47,12 @@ public abstract class NativeArrayBufferView extends IdScriptableObject {
         this.arrayBuffer = ab;
     }
 
+    @Override
+    protected void copyReferences(ScopeSnapshot.Copier copier) {
+        super.copyReferences(copier);
+        arrayBuffer = copier.copy(arrayBuffer);
+    }
+
     /**
      * Return the buffer that backs this view.
      */
@@ -77,11 +77,25 @@ public class NativeFloat32Array extends NativeTypedArrayView<Float> {
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        double val = ScriptRuntime.toNumber(c);
-        ByteIo.writeFloat32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readFloat32Primitive(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeFloat32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, value, useLittleEndian());
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     @Override
     public Float get(int i) {
         if (checkIndex(i)) {
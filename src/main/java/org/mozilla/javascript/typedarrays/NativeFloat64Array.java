@@ -79,12 +79,25 @@ public class NativeFloat64Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        double val = ScriptRuntime.toNumber(c);
-        long base = Double.doubleToLongBits(val);
-        ByteIo.writeUint64(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, base, useLittleEndian());
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readFloat64Primitive(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeFloat64(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, value, useLittleEndian());
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     @Override
     public Double get(int i) {
         if (checkIndex(i)) {
@@ -78,11 +78,25 @@ public class NativeInt16Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        int val = Conversions.toInt16(c);
-        ByteIo.writeInt16(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readInt16Primitive(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeInt16(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, Conversions.toInt16(value), useLittleEndian());
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     @Override
     public Short get(int i) {
         if (checkIndex(i)) {
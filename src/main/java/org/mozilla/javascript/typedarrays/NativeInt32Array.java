@@ -78,11 +78,25 @@ public class NativeInt32Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        int val = ScriptRuntime.toInt32(c);
-        ByteIo.writeInt32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readInt32Primitive(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeInt32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, ScriptRuntime.toInt32(value), useLittleEndian());
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     @Override
     public Integer get(int i) {
         if (checkIndex(i)) {
@@ -76,11 +76,25 @@ public class NativeInt8Array extends NativeTypedArrayView<Byte> {
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        int val = Conversions.toInt8(c);
-        ByteIo.writeInt8(arrayBuffer.buffer, index + offset, val);
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readInt8Primitive(arrayBuffer.buffer, index + offset);
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeInt8(arrayBuffer.buffer, index + offset, Conversions.toInt8(value));
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     // List implementation (much of it handled by the superclass)
 
     @Override
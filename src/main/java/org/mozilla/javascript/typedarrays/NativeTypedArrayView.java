@@ -195,7 +195,7 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
                     NativeTypedArrayView<T> self = realThis(thisObj, f);
                     if (args[0] instanceof NativeTypedArrayView) {
                         int offset = isArg(args, 1) ? ScriptRuntime.toInt32(args[1]) : 0;
-                        self.setRange((NativeTypedArrayView<T>) args[0], offset);
+                        self.setRange((NativeTypedArrayView<?>) args[0], offset);
                         return Undefined.instance;
                     }
                     if (args[0] instanceof NativeArray) {
@@ -232,7 +232,7 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
             case Id_lastIndexOf:
                 return realThis(thisObj, f).js_lastIndexOf(
                         args.length > 0 ? args[0] : null,
-                        args.length > 1 ? args[1] : 0
+                        args.length > 1 ? args[1] : ((NativeTypedArrayView) thisObj).length - 1
                 );
             case Id_slice:
                 return realThis(thisObj, f).js_slice(
@@ -392,6 +392,40 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
 
     protected abstract Object js_set(int index, Object c);
 
+    /**
+     * Return the element at the specified index as a number. The index must be in range.
+     * The built-in views read the element without boxing it.
+     */
+    public double getDoubleElement(int index) {
+        return ScriptRuntime.toNumber(js_get(index));
+    }
+
+    /**
+     * Convert a number to the element type and store it at the specified index. The index
+     * must be in range. The built-in views store the element without boxing it.
+     */
+    public void setDoubleElement(int index, double value) {
+        js_set(index, value);
+    }
+
+    /**
+     * Return the element index that a numeric property key denotes, or -1 if the key is not
+     * an integer in the range of this array. Compiled code uses this as the guard for
+     * reading and writing elements as numbers. Only the built-in views override it, so
+     * other subclasses always get the generic element access.
+     */
+    public int elementIndex(double key) {
+        return -1;
+    }
+
+    /**
+     * The range check of {@link #elementIndex(double)} for the built-in views.
+     */
+    final int checkedElementIndex(double key) {
+        int index = (int) key;
+        return (index == key && index >= 0 && index < length) ? index : -1;
+    }
+
     protected abstract NativeTypedArrayView<T> realThis(Scriptable thisObj, IdFunctionObject f);
 
     private NativeArrayBuffer makeArrayBuffer(Context cx, Scriptable scope, int length) {
@@ -418,13 +452,10 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
 
         if (arg0 instanceof NativeTypedArrayView) {
             // Copy elements from the old array and convert them into our own
-            NativeTypedArrayView<T> src = (NativeTypedArrayView<T>) arg0;
+            NativeTypedArrayView<?> src = (NativeTypedArrayView<?>) arg0;
             NativeArrayBuffer na = makeArrayBuffer(cx, scope, src.length * getBytesPerElement());
             NativeTypedArrayView<T> v = construct(na, 0, src.length);
-
-            for (int i = 0; i < src.length; i++) {
-                v.js_set(i, src.js_get(i));
-            }
+            v.copyElements(src, 0, 0, src.length);
             return v;
         }
 
@@ -440,10 +471,10 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
                 byteLen = na.getLength() - byteOff;
             }
 
-            if ((byteOff < 0) || (byteOff > na.buffer.length)) {
+            if ((byteOff < 0) || (byteOff > na.getLength())) {
                 throw ScriptRuntime.constructError("RangeError", "offset out of range");
             }
-            if ((byteLen < 0) || ((byteOff + byteLen) > na.buffer.length)) {
+            if ((byteLen < 0) || ((byteOff + byteLen) > na.getLength())) {
                 throw ScriptRuntime.constructError("RangeError", "length out of range");
             }
             if ((byteOff % getBytesPerElement()) != 0) {
@@ -491,7 +522,7 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
         throw ScriptRuntime.constructError("Error", "invalid argument");
     }
 
-    private void setRange(NativeTypedArrayView<T> v, int off) {
+    private void setRange(NativeTypedArrayView<?> v, int off) {
         if (off >= length) {
             throw ScriptRuntime.constructError("RangeError", "offset out of range");
         }
@@ -500,22 +531,65 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
             throw ScriptRuntime.constructError("RangeError", "source array too long");
         }
 
-        if (v.arrayBuffer == arrayBuffer) {
-            // Copy to temporary space first, as per spec, to avoid messing up overlapping copies
-            Object[] tmp = new Object[v.length];
-            for (int i = 0; i < v.length; i++) {
-                tmp[i] = v.js_get(i);
+        copyElements(v, 0, off, v.length);
+    }
+
+    /**
+     * Check whether the elements of src can be copied to this array as bytes. That is the
+     * case for arrays of the same type, and for integer arrays with elements of the same
+     * size, whose conversions keep the bits, unless the elements of this one are clamped.
+     */
+    private boolean isByteCompatible(NativeTypedArrayView<?> src) {
+        if (src.getClass() == getClass()) {
+            return true;
+        }
+        return src.getBytesPerElement() == getBytesPerElement()
+                && !(src instanceof NativeFloat32Array)
+                && !(this instanceof NativeFloat32Array)
+                && !(this instanceof NativeUint8ClampedArray);
+    }
+
+    /**
+     * Copy elements of src to this array, converting them to the element type of this one.
+     * The ranges must be in bounds, and may overlap if both arrays share a buffer. Elements
+     * are copied as bytes where the types allow it, and as numbers otherwise.
+     */
+    private void copyElements(NativeTypedArrayView<?> src, int srcIndex, int index, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (isByteCompatible(src)) {
+            int size = getBytesPerElement();
+            ByteIo.copy(src.arrayBuffer.buffer, src.offset + srcIndex * size,
+                    arrayBuffer.buffer, offset + index * size, count * size);
+        } else if (src.arrayBuffer == arrayBuffer) {
+            // Read all elements first, as the conversion changes their size
+            double[] tmp = new double[count];
+            for (int i = 0; i < count; i++) {
+                tmp[i] = src.getDoubleElement(srcIndex + i);
             }
-            for (int i = 0; i < v.length; i++) {
-                js_set(i + off, tmp[i]);
+            for (int i = 0; i < count; i++) {
+                setDoubleElement(index + i, tmp[i]);
             }
         } else {
-            for (int i = 0; i < v.length; i++) {
-                js_set(i + off, v.js_get(i));
+            for (int i = 0; i < count; i++) {
+                setDoubleElement(index + i, src.getDoubleElement(srcIndex + i));
             }
         }
     }
 
+    /**
+     * Convert an index argument that counts from the end if negative to an index clamped
+     * to the range from 0 to the length.
+     */
+    private int relativeIndex(Object arg) {
+        double d = ScriptRuntime.toInteger(arg);
+        if (d < 0) {
+            return (int) Math.max(length + d, 0);
+        }
+        return (int) Math.min(d, length);
+    }
+
     private void setRange(NativeArray a, int off) {
         if (off > length) {
             throw ScriptRuntime.constructError("RangeError", "offset out of range");
@@ -563,13 +637,14 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
     }
 
     private int js_indexOf(Object object, Object start) {
-        if (!(start instanceof Number)) {
-            start = ScriptRuntime.toNumber(start);
-        }
-
-        for (int i = (int) start; i < length; i++) {
-            if (ScriptRuntime.shallowEq(getArrayElement(i), object)) {
-                return i;
+        int k = relativeIndex(start);
+        // Only a number is strictly equal to an element
+        if (object instanceof Number) {
+            double d = ((Number) object).doubleValue();
+            for (; k < length; k++) {
+                if (getDoubleElement(k) == d) {
+                    return k;
+                }
             }
         }
 
@@ -577,13 +652,14 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
     }
 
     private int js_lastIndexOf(Object object, Object start) {
-        if (!(start instanceof Number)) {
-            start = ScriptRuntime.toNumber(start);
-        }
-
-        for (int i = length; i > (int) start; i--) {
-            if (ScriptRuntime.shallowEq(getArrayElement(i), object)) {
-                return i;
+        double n = ScriptRuntime.toInteger(start);
+        int k = n < 0 ? (int) (length + n) : (int) Math.min(n, length - 1);
+        if (object instanceof Number) {
+            double d = ((Number) object).doubleValue();
+            for (; k >= 0; k--) {
+                if (getDoubleElement(k) == d) {
+                    return k;
+                }
             }
         }
 
@@ -591,35 +667,13 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
     }
 
     private NativeTypedArrayView<T> js_slice(Context cx, Scriptable scope, Object _start, Object _end) {
-        if (!(_start instanceof Number)) {
-            _start = (int) ScriptRuntime.toNumber(_start);
-        } else if (_start instanceof Double) {
-            _start = ((Double) _start).intValue();
-        }
-        if (!(_end instanceof Number)) {
-            _end = (int) ScriptRuntime.toNumber(_end);
-        } else if (_end instanceof Double) {
-            _end = ((Double) _end).intValue();
-        }
-
-        int start = (int) _start;
-        int end = (int) _end;
-
-        if (start < 0) {
-            start = length + start;
-        }
-        if (end < 0) {
-            end = length + end;
-        }
-
-        int length = Math.max(end - start, 0);
-
-        NativeArrayBuffer na = makeArrayBuffer(cx, scope, length);
-        NativeTypedArrayView<T> view = construct(na, 0, length);
+        int start = relativeIndex(_start);
+        int end = Undefined.isUndefined(_end) ? length : relativeIndex(_end);
+        int count = Math.max(end - start, 0);
 
-        for (int i = start; i < end; i++) {
-            view.js_set(start - i, getArrayElement(i));
-        }
+        NativeArrayBuffer na = makeArrayBuffer(cx, scope, count * getBytesPerElement());
+        NativeTypedArrayView<T> view = construct(na, 0, count);
+        view.copyElements(this, start, 0, count);
 
         return view;
     }
@@ -768,29 +822,11 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
             return this;
         }
 
-        int target = (int) ScriptRuntime.toNumber(_target);
-        int start = (int) ScriptRuntime.toNumber(_start);
-        int end = (int) ScriptRuntime.toNumber(_end);
-
-        int copyLength = Math.max(end - start, 0);
-        if (copyLength == 0) return this;
+        int target = relativeIndex(_target);
+        int start = relativeIndex(_start);
+        int end = Undefined.isUndefined(_end) ? length : relativeIndex(_end);
 
-        if (target + copyLength >= length) {
-            copyLength = length - target;
-        }
-
-        // To store the elements
-        LinkedList<Object> ll = new LinkedList<>();
-
-        for (int i = 0; i < copyLength; i++) {
-            ll.add(getArrayElement(start + i));
-        }
-
-        // Copy
-        int i = 0;
-        for (Object el : ll) {
-            setArrayElement(target + i++, el);
-        }
+        copyElements(this, start, target, Math.min(end - start, length - target));
 
         return this;
     }
@@ -826,51 +862,61 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
     private NativeTypedArrayView<T> js_fill(Object value, Object _start, Object _end) {
         if (value == null) return this;
 
-        int start = (int) ScriptRuntime.toNumber(_start);
-        int end = (int) ScriptRuntime.toNumber(_end);
-
-        for (int i = start; i < end; i++) {
-            setArrayElement(i, value);
+        double d = ScriptRuntime.toNumber(value);
+        int start = relativeIndex(_start);
+        int end = Undefined.isUndefined(_end) ? length : relativeIndex(_end);
+
+        if (start < end) {
+            setDoubleElement(start, d);
+            // Double the filled range with each copy
+            for (int filled = 1; filled < end - start; ) {
+                int count = Math.min(filled, end - start - filled);
+                copyElements(this, start, start + filled, count);
+                filled += count;
+            }
         }
 
         return this;
     }
 
     private NativeTypedArrayView<T> js_sort(Context cx, Scriptable scope, Scriptable thisObj, Object sorter) {
-        Comparator<T> cmp;
-
-        if (sorter == null) {
-            cmp = Comparable::compareTo;
-        } else if (!(sorter instanceof Callable)) {
+        if (sorter == null || Undefined.isUndefined(sorter)) {
+            // Sort the numbers themselves, Arrays.sort puts -0 before +0
+            // and NaN last as the default comparison does
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = ScriptRuntime.toNumber(js_get(i));
+            }
+            Arrays.sort(values);
+            for (int i = 0; i < length; i++) {
+                js_set(i, values[i]);
+            }
+            return this;
+        }
+        if (!(sorter instanceof Callable)) {
             throw ScriptRuntime.typeError1("msg.isnt.function", ScriptRuntime.toString(sorter));
-        } else {
-            Callable fn = (Callable) sorter;
-            cmp = (T a, T b) -> {
-                Object result = fn.call(cx, scope, thisObj, new Object[]{a, b});
-                if (result instanceof Scriptable) {
-                    return isFalsey(result) ? 0 : 1;
-                }
-                return (int) ScriptRuntime.toNumber(result);
-            };
         }
 
-        boolean sorted;
-
-        do {
-            sorted = true;
-
-            for (int i = 0; i < length - 1; i++) {
-                Object el1 = getArrayElement(i);
-                Object el2 = getArrayElement(i + 1);
-                int res = cmp.compare((T) el1, (T) el2);
-                if (res > 0) {
-                    sorted = false;
-                    setArrayElement(i, el2);
-                    setArrayElement(i + 1, el1);
-                }
+        Callable fn = (Callable) sorter;
+        Comparator<Object> cmp = (Object a, Object b) -> {
+            Object result = fn.call(cx, scope, thisObj, new Object[]{a, b});
+            double d = ScriptRuntime.toNumber(result);
+            if (d < 0) {
+                return -1;
+            } else if (d > 0) {
+                return 1;
             }
-        } while (!sorted);
+            return 0;
+        };
 
+        Object[] values = new Object[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = js_get(i);
+        }
+        Sorting.get().timSort(values, cmp);
+        for (int i = 0; i < length; i++) {
+            js_set(i, values[i]);
+        }
         return this;
     }
 
@@ -885,9 +931,21 @@ public abstract class NativeTypedArrayView<T extends Comparable<T>> extends Nati
             k = 0;
         }
 
-        for (; k < length; k++) {
-            if (ScriptRuntime.shallowEq(getArrayElement(k), searchElement)) {
-                return true;
+        if (searchElement instanceof Number) {
+            double d = ((Number) searchElement).doubleValue();
+            if (Double.isNaN(d)) {
+                // SameValueZero, unlike ==, finds NaN
+                for (; k < length; k++) {
+                    if (Double.isNaN(getDoubleElement(k))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (; k < length; k++) {
+                if (getDoubleElement(k) == d) {
+                    return true;
+                }
             }
         }
 
@@ -78,11 +78,25 @@ public class NativeUint16Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        int val = Conversions.toUint16(c);
-        ByteIo.writeUint16(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readUint16Primitive(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeUint16(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, Conversions.toUint16(value), useLittleEndian());
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     @Override
     public Integer get(int i) {
         if (checkIndex(i)) {
@@ -77,11 +77,25 @@ public class NativeUint8Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        int val = Conversions.toUint8(c);
-        ByteIo.writeUint8(arrayBuffer.buffer, index + offset, val);
+        setDoubleElement(index, ScriptRuntime.toNumber(c));
         return null;
     }
 
+    @Override
+    public double getDoubleElement(int index) {
+        return ByteIo.readUint8Primitive(arrayBuffer.buffer, index + offset);
+    }
+
+    @Override
+    public void setDoubleElement(int index, double value) {
+        ByteIo.writeUint8(arrayBuffer.buffer, index + offset, Conversions.toUint8(value));
+    }
+
+    @Override
+    public int elementIndex(double key) {
+        return checkedElementIndex(key);
+    }
+
     @Override
     public Integer get(int i) {
         if (checkIndex(i)) {
@@ -0,0 +1,88 @@
+package org.mozilla.javascript.benchmarks;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+
+/**
+ * Round trips dates through the string forms used by network protocols.
+ */
+@SuppressWarnings("unused")
+public class CaliperDateBenchmark
+{
+    static final String SOURCE =
+        "function isoRoundTrip(count) {\n" +
+        "  var t = 1.6e12, s = 0;\n" +
+        "  for (var i = 0; i < count; i++) {\n" +
+        "    s += Date.parse(new Date(t + i * 61001).toISOString());\n" +
+        "  }\n" +
+        "  return s;\n" +
+        "}\n" +
+        "function utcRoundTrip(count) {\n" +
+        "  var t = 1.6e12, s = 0;\n" +
+        "  for (var i = 0; i < count; i++) {\n" +
+        "    s += Date.parse(new Date(t + i * 61000).toUTCString());\n" +
+        "  }\n" +
+        "  return s;\n" +
+        "}\n" +
+        "function localFields(count) {\n" +
+        "  var t = 1.6e12, s = 0;\n" +
+        "  for (var i = 0; i < count; i++) {\n" +
+        "    var d = new Date(t + i * 61000);\n" +
+        "    s += d.getHours() + d.getMinutes() + d.getSeconds();\n" +
+        "  }\n" +
+        "  return s;\n" +
+        "}\n";
+
+    @Param("9") int optLevel;
+
+    private Context cx;
+    private Scriptable scope;
+
+    @BeforeExperiment
+    void create()
+    {
+        cx = Context.enter();
+        cx.setOptimizationLevel(optLevel);
+        cx.setLanguageVersion(Context.VERSION_ES6);
+
+        scope = cx.initStandardObjects();
+        cx.evaluateString(scope, SOURCE, "dates.js", 1, null);
+    }
+
+    @AfterExperiment
+    void close()
+    {
+        Context.exit();
+    }
+
+    private Object run(String name, int count)
+    {
+        Function f = (Function)ScriptableObject.getProperty(scope, name);
+        return f.call(cx, scope, null, new Object[] { count });
+    }
+
+    @Benchmark
+    Object isoRoundTrip(int count)
+    {
+        return run("isoRoundTrip", count);
+    }
+
+    @Benchmark
+    Object utcRoundTrip(int count)
+    {
+        return run("utcRoundTrip", count);
+    }
+
+    @Benchmark
+    Object localFields(int count)
+    {
+        return run("localFields", count);
+    }
+}
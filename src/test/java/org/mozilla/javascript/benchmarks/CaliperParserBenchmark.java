@@ -0,0 +1,102 @@
+package org.mozilla.javascript.benchmarks;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.IRFactory;
+import org.mozilla.javascript.Kit;
+import org.mozilla.javascript.Parser;
+import org.mozilla.javascript.ast.AstRoot;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+
+/**
+ * Parses and compiles real-world libraries from the benchmark suites,
+ * without running them.
+ */
+@SuppressWarnings("unused")
+public class CaliperParserBenchmark
+{
+    public static final File FILE_BASE = new File("src/test/java/benchmarks");
+
+    @Param({
+        "v8-benchmarks-v6/earley-boyer.js", "v8-benchmarks-v6/crypto.js",
+        "v8-benchmarks-v6/deltablue.js", "v8-benchmarks-v6/raytrace.js",
+        "v8-benchmarks-v6/regexp.js", "sunspider-0.9.1/string-tagcloud.js",
+        "sunspider-0.9.1/date-format-xparb.js"
+    })
+    String fileName;
+
+    @Param("9") int optLevel;
+
+    private Context cx;
+    private String source;
+
+    @BeforeExperiment
+    void create()
+        throws IOException
+    {
+        cx = Context.enter();
+        cx.setOptimizationLevel(optLevel);
+        cx.setLanguageVersion(Context.VERSION_ES6);
+
+        FileReader rdr = new FileReader(new File(FILE_BASE, fileName));
+        try {
+            source = Kit.readReader(rdr);
+        } finally {
+            rdr.close();
+        }
+    }
+
+    @AfterExperiment
+    void close()
+    {
+        Context.exit();
+    }
+
+    private AstRoot parse()
+    {
+        CompilerEnvirons env = new CompilerEnvirons();
+        env.initFromContext(cx);
+        return new Parser(env).parse(source, fileName, 1);
+    }
+
+    @Benchmark
+    Object parse(int count)
+    {
+        Object result = null;
+        for (int i = 0; i < count; i++) {
+            result = parse();
+        }
+        return result;
+    }
+
+    @Benchmark
+    Object transform(int count)
+    {
+        Object result = null;
+        for (int i = 0; i < count; i++) {
+            CompilerEnvirons env = new CompilerEnvirons();
+            env.initFromContext(cx);
+            AstRoot root = new Parser(env).parse(source, fileName, 1);
+            result = new IRFactory(env).transformTree(root);
+        }
+        return result;
+    }
+
+    @Benchmark
+    Object compile(int count)
+    {
+        Object result = null;
+        for (int i = 0; i < count; i++) {
+            result = cx.compileString(source, fileName, 1, null);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,143 @@
+package org.mozilla.javascript.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Measures the time to the result of a first script in a new JVM: entering
+ * a bare Context, initializing the standard objects and evaluating a small
+ * script. Each run starts a new JVM, so class loading and interpretation
+ * of the cold code are included, while the start of the JVM itself is
+ * not.
+ * <p>
+ * Prints the median time of the runs, followed by the median time and
+ * allocation of each standard object as reported to a
+ * {@link ContextFactory.InitListener}.
+ * <pre>
+ * java -cp ... StartupBenchmark [runs] [optimization level]
+ * </pre>
+ */
+public class StartupBenchmark
+{
+    private static final String SCRIPT =
+        "var words = 'the quick brown fox'.split(' ');"
+        + "JSON.stringify(words.map(function(w) { return w.length; }))";
+
+    private static final String RESULT = "RESULT ";
+    private static final String INIT = "INIT ";
+
+    public static void main(String[] args)
+        throws IOException, InterruptedException
+    {
+        if (args.length > 0 && args[0].equals("--run")) {
+            runOnce(Integer.parseInt(args[1]));
+            return;
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        String optLevel = args.length > 1 ? args[1] : "-1";
+
+        List<Long> totals = new ArrayList<Long>();
+        Map<String, List<long[]>> inits = new TreeMap<String, List<long[]>>();
+        for (int i = 0; i < runs; i++) {
+            Process p = new ProcessBuilder(
+                    System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                    "-cp", System.getProperty("java.class.path"),
+                    StartupBenchmark.class.getName(), "--run", optLevel)
+                .redirectErrorStream(true).start();
+            BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), "UTF-8"));
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith(RESULT)) {
+                        totals.add(Long.valueOf(line.substring(RESULT.length())));
+                    } else if (line.startsWith(INIT)) {
+                        String[] fields = line.substring(INIT.length()).split("\t");
+                        List<long[]> values = inits.get(fields[0]);
+                        if (values == null) {
+                            values = new ArrayList<long[]>();
+                            inits.put(fields[0], values);
+                        }
+                        values.add(new long[] { Long.parseLong(fields[1]), Long.parseLong(fields[2]) });
+                    } else {
+                        System.out.println(line);
+                    }
+                }
+            } finally {
+                in.close();
+            }
+            if (p.waitFor() != 0) {
+                throw new IllegalStateException("Run failed with exit code " + p.exitValue());
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "Time to first script, median of %d runs: %.2f ms%n",
+                totals.size(), median(totals) / 1e6);
+        System.out.printf(Locale.ROOT, "%-32s %10s %10s %5s%n", "Standard object", "us", "KiB", "runs");
+        for (Map.Entry<String, List<long[]>> e : inits.entrySet()) {
+            List<Long> nanos = new ArrayList<Long>();
+            List<Long> bytes = new ArrayList<Long>();
+            for (long[] v : e.getValue()) {
+                nanos.add(v[0]);
+                bytes.add(v[1]);
+            }
+            System.out.printf(Locale.ROOT, "%-32s %10.1f %10.1f %5d%n", e.getKey(),
+                    median(nanos) / 1e3, median(bytes) / 1024.0, e.getValue().size());
+        }
+    }
+
+    private static void runOnce(int optLevel)
+    {
+        final StringBuilder report = new StringBuilder();
+        ContextFactory factory = new ContextFactory();
+        factory.addListener(new ContextFactory.InitListener() {
+            @Override
+            public void standardObjectInitialized(Context cx, String name, boolean lazy,
+                                                  long nanos, long allocatedBytes)
+            {
+                report.append(INIT).append(lazy ? name + " (lazy)" : name)
+                    .append('\t').append(nanos)
+                    .append('\t').append(allocatedBytes).append('\n');
+            }
+        });
+
+        long start = System.nanoTime();
+        Context cx = factory.enterContext();
+        try {
+            cx.setOptimizationLevel(optLevel);
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            Scriptable scope = cx.initStandardObjects();
+            Object result = cx.evaluateString(scope, SCRIPT, "startup", 1, null);
+            if (!"[3,5,5,3]".equals(Context.toString(result))) {
+                throw new IllegalStateException(Context.toString(result));
+            }
+        } finally {
+            Context.exit();
+        }
+        long total = System.nanoTime() - start;
+        System.out.print(report);
+        System.out.println(RESULT + total);
+    }
+
+    private static double median(List<Long> values)
+    {
+        List<Long> sorted = new ArrayList<Long>(values);
+        Collections.sort(sorted);
+        int n = sorted.size();
+        if (n == 0) {
+            return 0;
+        }
+        return (n % 2 == 1) ? sorted.get(n / 2) : (sorted.get(n / 2 - 1) + sorted.get(n / 2)) / 2.0;
+    }
+}
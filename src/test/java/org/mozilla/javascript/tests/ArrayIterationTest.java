@@ -0,0 +1,84 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the dense array paths of the Array.prototype iteration methods.
+ */
+public class ArrayIterationTest {
+
+    @Test
+    public void results() {
+        assertEvaluates("1,3,5;2,4,6,8,10;15;false;true;3;2;54321",
+                "var a = [1, 2, 3, 4, 5];\n"
+                + "[a.filter(function(x) { return x % 2; }),\n"
+                + " a.map(function(x) { return x * 2; }),\n"
+                + " a.reduce(function(s, x) { return s + x; }),\n"
+                + " a.every(function(x, i) { return x < 5 && i < 4; }),\n"
+                + " a.some(function(x, i, o) { return o === a && i == 4; }),\n"
+                + " a.find(function(x) { return x > 2; }),\n"
+                + " a.findIndex(function(x) { return x > 2; }),\n"
+                + " a.reduceRight(function(s, x) { return s + x; }, '')].join(';')");
+    }
+
+    @Test
+    public void holesAndPrototype() {
+        assertEvaluates("0:a,2:p,4:e;3;0,,2,,4;b",
+                "Array.prototype[2] = 'p';\n"
+                + "var a = ['a', , , , 'e']; delete a[1]; a[1] = undefined; delete a[1];\n"
+                + "var r = []; a.forEach(function(x, i) { r.push(i + ':' + x); });\n"
+                + "var m = a.map(function(x, i) { return i; });\n"
+                + "var f = a.filter(function() { return true; });\n"
+                + "var res = [r, f.length, m, ['a', 'b'].find(function(x, i) { return i == 1; })].join(';');\n"
+                + "delete Array.prototype[2]; res");
+    }
+
+    @Test
+    public void callbackModifiesArray() {
+        assertEvaluates("1,2,3;1,2;3",
+                "var a = [1, 2, 3], seen = [];\n"
+                + "a.forEach(function(x) { seen.push(x); a.push(x); });\n"
+                + "var b = [1, 2, 3, 4], seen2 = [];\n"
+                + "b.forEach(function(x) { seen2.push(x); b.length = 2; });\n"
+                + "[seen, seen2, seen.length].join(';')");
+    }
+
+    @Test
+    public void callbackKeepsArguments() {
+        assertEvaluates("1,2,3;0,1,2;3,6",
+                "var kept = [], keptIdx = [];\n"
+                + "[1, 2, 3].forEach(function() { kept.push(arguments); });\n"
+                + "[1, 2, 3].forEach(function(x, i) { keptIdx.push(function() { return i; }); });\n"
+                + "var sums = [];\n"
+                + "[1, 2, 3].reduce(function(s, x) { var args = arguments; sums.push(function() { return args[0] + args[1]; }); return s + x; });\n"
+                + "[kept.map(function(a) { return a[0]; }),\n"
+                + " keptIdx.map(function(g) { return g(); }),\n"
+                + " sums.map(function(g) { return g(); })].join(';')");
+    }
+
+    @Test
+    public void resultStaysArray() {
+        assertEvaluates("3,true,1,4,9,2",
+                "var m = [1, 2, 3].map(function(x) { return x * x; });\n"
+                + "m.push(m.filter(function(x) { return x > 1; }).length);\n"
+                + "[m.length - 1, Array.isArray(m), m].join()");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,83 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for Array.prototype.sort and %TypedArray%.prototype.sort.
+ */
+public class ArraySortTest {
+
+    @Test
+    public void defaultOrder() {
+        assertEvaluates("1,10,2,20,9,a,b;-1,-2,0,1.5,NaN,false,,true",
+                "[[10, 'b', 2, 9, 'a', 1, 20].sort(),\n"
+                + " [true, 1.5, null, NaN, -2, false, 0, -1].sort()].join(';')");
+    }
+
+    @Test
+    public void stable() {
+        assertEvaluates("true",
+                "var a = [];\n"
+                + "for (var i = 0; i < 2000; i++) a.push({ k: (i * 7919) % 10, i: i });\n"
+                + "a.sort(function(x, y) { return x.k - y.k; });\n"
+                + "var ok = true;\n"
+                + "for (var i = 1; i < a.length; i++) {\n"
+                + "  if (a[i - 1].k > a[i].k || a[i - 1].k == a[i].k && a[i - 1].i > a[i].i) ok = false;\n"
+                + "}\n"
+                + "ok");
+    }
+
+    @Test
+    public void undefinedAndHoles() {
+        assertEvaluates("a,b,c,,,;6;true;false;2",
+                "var a = ['c', undefined, , 'a', undefined, , 'b'];\n"
+                + "var calls = 0;\n"
+                + "a.sort(function(x, y) { calls++; if (x === undefined || y === undefined) throw 'undefined'; return x < y ? -1 : 1; });\n"
+                + "[a.slice(0, 6), 5 in a ? 7 : 6, 4 in a, 5 in a, calls > 0 ? 2 : 0].join(';')");
+    }
+
+    @Test
+    public void objectsConvertedOnce() {
+        assertEvaluates("a,b,c;3",
+                "var n = 0;\n"
+                + "function o(s) { return { s: s, toString: function() { n++; return s; } }; }\n"
+                + "var a = [o('c'), o('a'), o('b')].sort();\n"
+                + "[a.map(function(x) { return x.s; }), n].join(';')");
+    }
+
+    @Test
+    public void comparatorKeepsArguments() {
+        assertEvaluates("1,2,3;true",
+                "var kept = [], first = [];\n"
+                + "var a = [3, 1, 2].sort(function(x, y) { kept.push(arguments); first.push(x); return x - y; });\n"
+                + "[a, kept.every(function(args, i) { return args[0] === first[i]; })].join(';')");
+    }
+
+    @Test
+    public void typedArrays() {
+        assertEvaluates("-Infinity,-1,0,0,2,10,NaN;-0;3,2,1;1.5,0.5,0.25",
+                "var f = new Float64Array([10, NaN, 0, -1, 2, -0, -Infinity]).sort();\n"
+                + "var g = new Int8Array([1, 3, 2]).sort(function(a, b) { return b - a; });\n"
+                + "var h = new Float32Array([0.5, 1.5, 0.25]).sort(function(a, b) { return (b - a) / 4; });\n"
+                + "[Array.prototype.join.call(f), 1 / f[2] < 0 ? '-0' : '+0',\n"
+                + " Array.prototype.join.call(g), Array.prototype.join.call(h)].join(';')");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        });
+    }
+}
@@ -291,12 +291,14 @@ public class Bug708801Test {
                 assertNumberVars("var b; var c=1; b=c&&c&&2", "b", "c");
                 // bit not:
                 assertNumberVars("var b = ~0", "b");
-                assertNumberVars("var b = ~o", "b");
+                // o may overload ~ with Symbol.operator
+                assertNumberVars("var b = ~o");
                 assertNumberVars("var b; var c=1; b=~c", "b", "c");
                 // increment, function call:
                 assertNumberVars("var b; var g; b = (g=0,g++)", "b", "g");
                 assertNumberVars("var b; var x = fn(b=1)", "b");
-                assertNumberVars("var b; var x = fn(b=1).p++", "b", "x");
+                // properties may overload ++ with Symbol.operator
+                assertNumberVars("var b; var x = fn(b=1).p++", "b");
                 assertNumberVars("var b; ({1:{}})[b=1].p++", "b");
                 assertNumberVars("var b; o[b=1]++", "b");
                 // destructuring
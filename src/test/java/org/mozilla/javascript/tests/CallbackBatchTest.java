@@ -0,0 +1,117 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.CallbackBatch;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.JavaScriptException;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for {@link CallbackBatch}.
+ */
+public class CallbackBatchTest {
+
+    private ContextFactory factory;
+    private ScriptableObject scope;
+    private Function handler;
+    private int entered;
+
+    @Before
+    public void setUp() {
+        factory = new ContextFactory();
+        factory.addListener(new ContextFactory.Listener() {
+            @Override
+            public void contextCreated(Context cx) {
+                entered++;
+            }
+
+            @Override
+            public void contextReleased(Context cx) {
+            }
+        });
+        factory.call(cx -> {
+            scope = cx.initStandardObjects();
+            handler = (Function) cx.evaluateString(scope,
+                    "var log = []; (function(e) { if (e < 0) throw e; log.push(e); })",
+                    "test", 1, null);
+            return null;
+        });
+        entered = 0;
+    }
+
+    @Test
+    public void callsRunInOrderUnderOneEnter() {
+        inNewThread(() -> {
+            CallbackBatch batch = new CallbackBatch(factory);
+            for (int i = 0; i < 100; i++) {
+                batch.add(handler, scope, scope, new Object[] {i});
+            }
+            assertEquals(100, batch.size());
+            assertEquals(100, batch.run());
+            assertEquals(0, batch.size());
+            assertEquals(0, batch.run());
+            assertEquals(1, entered);
+            assertNull(Context.getCurrentContext());
+            Object log = factory.call(cx -> cx.evaluateString(scope,
+                    "log.length + ':' + log[0] + ':' + log[99]", "test", 1, null));
+            assertEquals("100:0:99", log);
+        });
+    }
+
+    @Test
+    public void failuresDoNotStopBatch() {
+        inNewThread(() -> {
+            CallbackBatch batch = new CallbackBatch(factory);
+            batch.add(handler, scope, scope, new Object[] {-1});
+            batch.add(handler, scope, scope, new Object[] {1});
+            batch.add(handler, scope, scope, new Object[] {-2});
+            try {
+                batch.run();
+                fail();
+            } catch (JavaScriptException e) {
+                assertEquals(-1, ((Number) e.getValue()).intValue());
+                assertEquals(1, e.getSuppressed().length);
+            }
+            Object log = factory.call(cx -> cx.evaluateString(scope,
+                    "log.join()", "test", 1, null));
+            assertEquals("1", log);
+        });
+    }
+
+    /**
+     * Run the test on a new thread, as other tests may leave a context
+     * entered on the current one.
+     */
+    private static void inNewThread(Runnable test) {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                test.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        } else if (failure[0] != null) {
+            throw new AssertionError(failure[0]);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.CompilationService;
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.Function;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for compiling scripts on worker threads.
+ */
+public class CompilationServiceTest {
+
+    private ExecutorService executor;
+    private CompilationService service;
+    private Context cx;
+    private ScriptableObject scope;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        service = new CompilationService(new ContextFactory(), executor);
+        cx = Context.enter();
+        scope = cx.initStandardObjects();
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+        executor.shutdown();
+    }
+
+    private CompilerEnvirons snapshot(int optLevel) {
+        cx.setOptimizationLevel(optLevel);
+        CompilerEnvirons env = new CompilerEnvirons();
+        env.initFromContext(cx);
+        return env;
+    }
+
+    @Test
+    public void compileScriptsWhileExecuting() {
+        List<CompletableFuture<Script>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(service.compileString(snapshot(i % 2 == 0 ? -1 : 9),
+                    "var x" + i + " = " + i + "; x" + i + " * 2", "s" + i, 1, null));
+            // keep this thread busy executing meanwhile
+            cx.evaluateString(scope, "for (var k = 0; k < 1000; k++) {}", "busy", 1, null);
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Object result = futures.get(i).join().exec(cx, scope);
+            assertEquals(i * 2, ((Number) result).intValue());
+        }
+    }
+
+    @Test
+    public void compileReaderAndFunction() {
+        Script script = service.compileReader(snapshot(0),
+                new StringReader("'from reader'"), "reader", 1, null).join();
+        assertEquals("from reader", script.exec(cx, scope));
+
+        Function f = service.compileFunction(snapshot(-1), scope,
+                "function add(a, b) { return a + b; }", "fn", 1, null).join();
+        assertEquals(5, ((Number) f.call(cx, scope, scope, new Object[] {2, 3})).intValue());
+    }
+
+    @Test
+    public void syntaxErrorCompletesExceptionally() {
+        CompletableFuture<Script> future = service.compileString(snapshot(-1),
+                "if (", "bad", 1, null);
+        try {
+            future.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof EvaluatorException);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.CharBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for compiling source held in a {@link CharSequence}.
+ */
+public class CompileSourceTest {
+
+    private Context cx;
+    private ScriptableObject scope;
+
+    @Before
+    public void setUp() {
+        cx = Context.enter();
+        scope = cx.initStandardObjects();
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    @Test
+    public void compileCharBuffer() {
+        char[] chars = "xx/* comment */ var s = 'abc'; // line\n s + 'd'; yy".toCharArray();
+        CharBuffer source = CharBuffer.wrap(chars, 2, chars.length - 4).slice();
+        for (int level = -1; level <= 9; level += 10) {
+            cx.setOptimizationLevel(level);
+            Script script = cx.compileSource(source, "test", 1, null);
+            assertEquals("abcd", script.exec(cx, scope));
+        }
+    }
+
+    @Test
+    public void functionSourceFromCharBuffer() {
+        String source = "function f(a) { return a; }";
+        cx.compileSource(CharBuffer.wrap(source), "test", 1, null).exec(cx, scope);
+        Object fromBuffer = cx.evaluateString(scope, "f.toString()", "test", 1, null);
+        cx.evaluateString(scope, source, "test", 1, null);
+        assertEquals(cx.evaluateString(scope, "f.toString()", "test", 1, null), fromBuffer);
+    }
+
+    @Test
+    public void syntaxErrorInCharBuffer() {
+        try {
+            cx.compileSource(CharBuffer.wrap("var a = 1;\nif (a"), "test", 1, null);
+            fail();
+        } catch (EvaluatorException e) {
+            assertEquals(2, e.lineNumber());
+            assertEquals("if (a", e.lineSource());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Random;
+
+import org.junit.Test;
+import org.mozilla.javascript.CompressedSource;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Checks that functions decompile the same way with compressed source.
+ */
+public class CompressedSourceTest {
+
+    private static final String SOURCE =
+            "function outer(a, b) {\n"
+            + "  var s = 'str\\u00e9\\ud83d\\ude00';\n"
+            + "  function inner(x) { return x * 2 + a; }\n"
+            + "  return [inner, (y) => y + b, s];\n"
+            + "}\n"
+            + "var r = outer(1, 2);\n"
+            + "[outer.toString(), r[0].toString(), r[1].toString(), r[2]].join('|');";
+
+    private static String run(int optLevel, boolean compress) {
+        return run(optLevel, compress, SOURCE);
+    }
+
+    private static String run(int optLevel, boolean compress, String source) {
+        Context cx = Context.enter();
+        try {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            cx.setOptimizationLevel(optLevel);
+            cx.setCompressingSource(compress);
+            Scriptable scope = cx.initStandardObjects();
+            return (String) cx.evaluateString(scope, source, "test", 1, null);
+        } finally {
+            Context.exit();
+        }
+    }
+
+    @Test
+    public void interpretedToStringMatches() {
+        assertEquals(run(-1, false), run(-1, true));
+    }
+
+    @Test
+    public void compiledToStringMatches() {
+        assertEquals(run(0, false), run(0, true));
+        assertEquals(run(9, false), run(9, true));
+    }
+
+    // Source that deflates to more than a class file string constant holds
+    private static String largeSource() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            sb.append("function f").append(i).append("() { return '");
+            for (int j = 0; j < 250; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            sb.append("'; }\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void largeCompiledToStringMatches() {
+        String source = largeSource() + "[f0, f200, f399].join('|');";
+        assertEquals(run(9, false, source), run(9, true, source));
+    }
+
+    @Test
+    public void largePackedSourceIsStoredOnce() {
+        Context cx = Context.enter();
+        try {
+            cx.setOptimizationLevel(9);
+            cx.setCompressingSource(true);
+            Scriptable scope = cx.initStandardObjects();
+            Object f = cx.evaluateString(scope, largeSource() + "f1;", "test", 1, null);
+            // The packed source is over 64K, so it is not a single constant
+            int packedFields = 0;
+            for (Field field : f.getClass().getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                    packedFields++;
+                }
+            }
+            assertEquals(1, packedFields);
+            assertTrue(Context.toString(f).contains("function f1()"));
+        } finally {
+            Context.exit();
+        }
+    }
+
+    @Test
+    public void packRoundTrip() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            sb.append((char) (i * 31));
+        }
+        String s = sb.toString();
+        CompressedSource cs = CompressedSource.compress(s);
+        assertEquals(s, cs.toString());
+        assertEquals(s.substring(5, 60000), cs.substring(5, 60000));
+        assertEquals(s.substring(3, 9), CompressedSource.unpackSubstring(cs.pack(), 3, 9));
+    }
+}
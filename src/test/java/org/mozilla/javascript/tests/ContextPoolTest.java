@@ -0,0 +1,171 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.ContextPool;
+import org.mozilla.javascript.EcmaError;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for {@link ContextPool}.
+ */
+public class ContextPoolTest {
+
+    private ContextFactory factory;
+    private int created;
+    private int released;
+
+    @Before
+    public void setUp() {
+        factory = new ContextFactory();
+        factory.addListener(new ContextFactory.Listener() {
+            @Override
+            public void contextCreated(Context cx) {
+                created++;
+            }
+
+            @Override
+            public void contextReleased(Context cx) {
+                released++;
+            }
+        });
+    }
+
+    @Test
+    public void contextIsReused() {
+        inNewThread(() -> {
+            ContextPool pool = new ContextPool(factory, 2,
+                    cx -> cx.setLanguageVersion(Context.VERSION_ES6));
+            Context first = pool.call(cx -> cx);
+            assertNull(Context.getCurrentContext());
+            assertSame(first, pool.call(cx -> cx));
+            assertEquals(Context.VERSION_ES6,
+                    pool.call(Context::getLanguageVersion).intValue());
+            assertEquals(1, created);
+            assertEquals(0, released);
+            assertEquals(1, pool.getIdleCount());
+
+            pool.clear();
+            assertEquals(0, pool.getIdleCount());
+            assertEquals(1, released);
+        });
+    }
+
+    @Test
+    public void settingsAreRestored() {
+        inNewThread(() -> {
+            ContextPool pool = new ContextPool(factory, 2,
+                    cx -> cx.setOptimizationLevel(-1));
+            pool.call(cx -> {
+                cx.setOptimizationLevel(9);
+                cx.setLanguageVersion(Context.VERSION_1_7);
+                cx.putThreadLocal("key", "value");
+                return null;
+            });
+            pool.call(cx -> {
+                assertEquals(-1, cx.getOptimizationLevel());
+                assertEquals(Context.VERSION_DEFAULT, cx.getLanguageVersion());
+                assertNull(cx.getThreadLocal("key"));
+                return null;
+            });
+        });
+    }
+
+    @Test
+    public void nestedCallUsesCurrentContext() {
+        inNewThread(() -> {
+            ContextPool pool = new ContextPool(factory);
+            pool.call(outer -> {
+                assertSame(outer, pool.call(cx -> cx));
+                return null;
+            });
+            assertEquals(1, created);
+        });
+    }
+
+    @Test
+    public void contextIsReturnedAfterException() {
+        inNewThread(() -> {
+            ContextPool pool = new ContextPool(factory);
+            try {
+                pool.call(cx -> cx.evaluateString(cx.initStandardObjects(),
+                        "undefined.x", "test", 1, null));
+                fail();
+            } catch (EcmaError e) {
+                // expected
+            }
+            assertNull(Context.getCurrentContext());
+            assertEquals(1, pool.getIdleCount());
+        });
+    }
+
+    @Test
+    public void submitToExecutor() throws Exception {
+        ContextPool pool = new ContextPool(factory);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ScriptableObject scope = pool.submit(executor,
+                    Context::initStandardObjects).get();
+            for (int i = 0; i < 10; i++) {
+                final int n = i;
+                Object result = pool.submit(executor, cx -> cx.evaluateString(
+                        scope, n + " * 2", "test", 1, null)).get();
+                assertEquals(n * 2, ((Number) result).intValue());
+            }
+            try {
+                pool.submit(executor, cx -> cx.evaluateString(
+                        scope, "undefined.x", "test", 1, null)).get();
+                fail();
+            } catch (ExecutionException e) {
+                assertEquals(EcmaError.class, e.getCause().getClass());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // at most one context per thread of the executor
+        assertTrue(created <= 2);
+        assertEquals(0, released);
+    }
+
+    /**
+     * Run the test on a new thread, as other tests may leave a context
+     * entered on the current one.
+     */
+    private static void inNewThread(Runnable test) {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                test.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        } else if (failure[0] != null) {
+            throw new AssertionError(failure[0]);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ScriptableObject;
+
+import junit.framework.TestCase;
+
+/**
+ * The locale strings of dates show the same time zone name as toString,
+ * also for dates before the zone adopted standard time. Relies on the
+ * America/Los_Angeles time zone and the en_US locale the tests run in.
+ */
+public class DateLocaleStringTest extends TestCase
+{
+    private static void assertEvaluates(final String expected, final String source)
+    {
+        Utils.runWithAllOptimizationLevels(_cx -> {
+            final ScriptableObject scope = _cx.initStandardObjects();
+            final Object result = _cx.evaluateString(scope, source, "test", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        });
+    }
+
+    public void testZoneName()
+    {
+        assertEvaluates("10:00:00 AM PST|10:00:00 AM PDT",
+            "[new Date(2020, 0, 1, 10).toLocaleTimeString(),"
+            + " new Date(2020, 6, 1, 10).toLocaleTimeString()].join('|')");
+    }
+
+    public void testZoneNameBeforeStandardTime()
+    {
+        assertEvaluates("January 1, 1850 at 10:00:00 AM PST|(PST)",
+            "var d = new Date(1850, 0, 1, 10);"
+            + "d.toLocaleString() + '|' + d.toString().replace(/.* /, '')");
+    }
+}
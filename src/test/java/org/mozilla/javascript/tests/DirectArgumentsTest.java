@@ -0,0 +1,80 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextAction;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the functions that compiled code runs without an activation
+ * although they use {@code arguments}.
+ */
+public class DirectArgumentsTest {
+
+    @Test
+    public void elementsAndLength() {
+        assertEvaluates("1,1,1,,,,;6,3,1,2,2,,;0,0,,,,,", "function f(a, b) {\n"
+                + "  var s = 0;\n"
+                + "  for (var i = 0; i < arguments.length; i++) s += arguments[i];\n"
+                + "  return [s, arguments.length, a, b, arguments[1], arguments[-1], arguments[1.5]];\n"
+                + "}\n"
+                + "[f(1), f(1, 2, 3), f()].join(';')");
+    }
+
+    @Test
+    public void otherProperties() {
+        assertEvaluates("1,2,p,function,false", "Object.prototype[4] = 'p';\n"
+                + "function f(a) {\n"
+                + "  var k = 'length';\n"
+                + "  return [arguments['0'], arguments[k], arguments[4], typeof arguments.callee,\n"
+                + "          arguments[Symbol.iterator] === Array.prototype.values];\n"
+                + "}\n"
+                + "var r = f(1, 2).join(); delete Object.prototype[4]; r");
+    }
+
+    /**
+     * The interpreter does not alias parameters and {@code arguments}, so
+     * this only runs compiled.
+     */
+    @Test
+    public void parameterAliasing() {
+        final ContextAction<Object> action = evaluates("2,2,3,1",
+                "function f(a) { a = 2; return arguments[0]; }\n"
+                + "function g(a) { a++; return arguments[0]; }\n"
+                + "function h(a) { var a = 3; return arguments[0]; }\n"
+                + "function s(a) { 'use strict'; a = 2; return arguments[0]; }\n"
+                + "[f(1), g(1), h(1), s(1)].join()");
+        Utils.runWithOptimizationLevel(action, 0);
+        Utils.runWithOptimizationLevel(action, 1);
+    }
+
+    @Test
+    public void escapingArguments() {
+        assertEvaluates("2,5,2,2,3,2", "function f() { return arguments; }\n"
+                + "function g() { arguments[0] = 5; return arguments[0]; }\n"
+                + "function h() { var o = arguments; return o[1]; }\n"
+                + "function k() { return Array.prototype.slice.call(arguments, 1); }\n"
+                + "function n() { return (function() { return arguments[0]; })(arguments[1]); }\n"
+                + "[f(1, 2).length, g(1), h(1, 2), k(1, 2, 3), n(1, 2)].join()");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(evaluates(expected, source));
+    }
+
+    private static ContextAction<Object> evaluates(final String expected, final String source) {
+        return cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        };
+    }
+}
@@ -0,0 +1,117 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the calls that compiled code links directly to the body of
+ * the compiled function called.
+ */
+public class DirectCallTest {
+
+    @Test
+    public void arity() {
+        assertEvaluates("1/,1/2,1/2,true,3",
+                "function add(a, b) { return [a, b].join('/'); }\n"
+                + "function f() {\n"
+                + "  var log = [];\n"
+                + "  function arg(x) { log.push(x); return x; }\n"
+                + "  return [add(1), add(1, 2), add(1, 2, arg(3)), new add(1).constructor === add, log].join();\n"
+                + "}\n"
+                + "f()");
+    }
+
+    @Test
+    public void closuresAndMethods() {
+        assertEvaluates("1,10,3,11,3,12,5,13,5,14,7,15,7,16,9,17,9,18,11,19,11,20,13,21,13,22,15,23,15,24,17,25,17,26,19,27,19,28,21,29,8",
+                "function make(k) { return function(x) { return x + k; }; }\n"
+                + "var o = { k: 10, m: function(x) { return this.k + x; } };\n"
+                + "function f() {\n"
+                + "  var fs = [make(1), make(2)], r = [];\n"
+                + "  for (var i = 0; i < 20; i++) {\n"
+                + "    var g = fs[i % 2];\n"
+                + "    r.push(g(i), o.m(i));\n"
+                + "  }\n"
+                + "  function inner(a) { return a * 2; }\n"
+                + "  r.push(inner(4));\n"
+                + "  return r.join();\n"
+                + "}\n"
+                + "f()");
+    }
+
+    @Test
+    public void rebinding() {
+        assertEvaluates("1,2,3;other0,other1,other2;1,1,2;-1,0,1;TypeError",
+                "function lib(a, b) { return a + b; }\n"
+                + "function other(a) { return 'other' + a; }\n"
+                + "function run() { var r = []; for (var i = 0; i < 3; i++) r.push(lib(i, 1)); return r.join(); }\n"
+                + "var r = [run()];\n"
+                + "lib = other; r.push(run());\n"
+                + "lib = Math.max; r.push(run());\n"
+                + "lib = function(a, b) { return a - b; }; r.push(run());\n"
+                + "lib = 1; try { run(); } catch (e) { r.push(e.name); }\n"
+                + "r.join(';')");
+    }
+
+    @Test
+    public void calleesUsingArguments() {
+        assertEvaluates("2,2,2,3",
+                "var count = function count(a, b) { return arguments.length; };\n"
+                + "function f(x) { return count(true, x); }\n"
+                + "[f(1), f(1), f(1), count(1, 2, 3)].join()");
+    }
+
+    @Test
+    public void calleeEvaluatedFirst() {
+        String functions = "var log = [];\n"
+                + "function side() { log.push('side'); return 1; }\n"
+                + "function a(x) { return 'a' + x; }\n"
+                + "function b(x) { return 'b' + x; }\n";
+        assertEvaluates("a1,b1,ReferenceError", functions
+                + "function f() {\n"
+                + "  var r = [a((a = b, 1)), a(1)];\n"
+                + "  try { notDefined(side()); } catch (e) { r.push(e.name); }\n"
+                + "  return r.concat(log).join();\n"
+                + "}\n"
+                + "f()");
+        assertEvaluates("a1,b1,ReferenceError", functions
+                + "var r = [a((a = b, 1)), a(1)];\n"
+                + "try { notDefined(side()); } catch (e) { r.push(e.name); }\n"
+                + "r.concat(log).join()");
+    }
+
+    @Test
+    public void crossScript() {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            final Scriptable scope = cx.initStandardObjects();
+            eval(cx, scope, "function lib(a, b) { return a * b; } var util = { sq: function(x) { return x * x; } };");
+            eval(cx, scope, "function run(n) { var t = 0; for (var i = 0; i < n; i++) t += lib(i, 2) + util.sq(i); return t; }");
+            assertEquals("26", eval(cx, scope, "run(4)"));
+            eval(cx, scope, "var util = { sq: function(x, y) { return -x; } };");
+            assertEquals("6", eval(cx, scope, "run(4)"));
+            eval(cx, scope, "lib = function(a) { return arguments.length; };");
+            assertEquals("2", eval(cx, scope, "run(4)"));
+            return null;
+        });
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            assertEquals(expected, eval(cx, scope, source));
+            return null;
+        });
+    }
+
+    private static String eval(Context cx, Scriptable scope, String source) {
+        return Context.toString(cx.evaluateString(scope, source, "test.js", 1, null));
+    }
+}
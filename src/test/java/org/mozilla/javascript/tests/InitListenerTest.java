@@ -0,0 +1,129 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for {@link ContextFactory.InitListener}.
+ */
+public class InitListenerTest {
+
+    private final Map<String, Long> initialized = new LinkedHashMap<>();
+    private final List<String> loaded = new ArrayList<>();
+
+    private final ContextFactory.InitListener listener = new ContextFactory.InitListener() {
+        @Override
+        public void standardObjectInitialized(Context cx, String name, boolean lazy,
+                                              long nanos, long allocatedBytes) {
+            assertTrue(nanos >= 0);
+            assertTrue(allocatedBytes >= -1);
+            if (lazy) {
+                loaded.add(name);
+            } else {
+                initialized.put(name, allocatedBytes);
+            }
+        }
+    };
+
+    @Test
+    public void standardObjectsAreReported() {
+        inNewThread(() -> {
+            ContextFactory factory = new ContextFactory();
+            factory.addListener(listener);
+            factory.call(cx -> {
+                cx.setLanguageVersion(Context.VERSION_ES6);
+                ScriptableObject scope = cx.initStandardObjects();
+                assertTrue(initialized.containsKey("Object"));
+                assertTrue(initialized.containsKey("Array"));
+                assertTrue(initialized.containsKey("Map"));
+                assertTrue(initialized.containsKey("Java packages"));
+                assertEquals(0, loaded.size());
+
+                cx.evaluateString(scope, "/a/.test('a'); /b/.test('b'); new Int8Array(1)",
+                        "test", 1, null);
+                assertEquals("[RegExp, Int8Array, ArrayBuffer]", loaded.toString());
+                return null;
+            });
+        });
+    }
+
+    @Test
+    public void removedListenerIsNotCalled() {
+        inNewThread(() -> {
+            ContextFactory factory = new ContextFactory();
+            factory.addListener(listener);
+            factory.removeListener(listener);
+            factory.call(cx -> {
+                cx.evaluateString(cx.initSafeStandardObjects(), "/a/.test('a')",
+                        "test", 1, null);
+                return null;
+            });
+            assertTrue(initialized.isEmpty());
+            assertTrue(loaded.isEmpty());
+        });
+    }
+
+    @Test
+    public void otherListenersAreNotCalled() {
+        inNewThread(() -> {
+            ContextFactory factory = new ContextFactory();
+            boolean[] created = new boolean[1];
+            factory.addListener(new ContextFactory.Listener() {
+                @Override
+                public void contextCreated(Context cx) {
+                    created[0] = true;
+                }
+
+                @Override
+                public void contextReleased(Context cx) {
+                }
+            });
+            factory.addListener(listener);
+            factory.call(Context::initSafeStandardObjects);
+            assertTrue(created[0]);
+            assertFalse(initialized.isEmpty());
+            assertFalse(initialized.containsKey("Java packages"));
+        });
+    }
+
+    /**
+     * Run the test on a new thread, as other tests may leave a context
+     * entered on the current one.
+     */
+    private static void inNewThread(Runnable test) {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                test.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        } else if (failure[0] != null) {
+            throw new AssertionError(failure[0]);
+        }
+    }
+}
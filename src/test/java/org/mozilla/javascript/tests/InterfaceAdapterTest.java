@@ -0,0 +1,130 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for JS functions passed to Java where an interface is expected.
+ */
+public class InterfaceAdapterTest {
+
+    public interface Primitives {
+        double apply(int i, long l, float f, double d, boolean b, char c);
+    }
+
+    public interface Three {
+        String describe(Object o, String s, int i);
+    }
+
+    public static Object last;
+
+    public static void takePrimitives(Primitives p) {
+        last = p;
+    }
+
+    public static void takeThree(Three t) {
+        last = t;
+    }
+
+    public static void takeComparator(Comparator<Object> c) {
+        last = c;
+    }
+
+    public static void takeRunnable(Runnable r) {
+        last = r;
+    }
+
+    private Context cx;
+    private ScriptableObject scope;
+
+    @Before
+    public void setUp() {
+        cx = Context.enter();
+        scope = cx.initStandardObjects();
+        last = null;
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    private void eval(String source) {
+        cx.evaluateString(scope, "var T = Packages." + getClass().getName() + ";\n"
+                + source, "test", 1, null);
+    }
+
+    @Test
+    public void functionIsAdaptedWithoutProxy() {
+        eval("var count = 0; T.takeRunnable(function() { count++; });");
+        Runnable r = (Runnable) last;
+        assertFalse(Proxy.isProxyClass(r.getClass()));
+        r.run();
+        r.run();
+        assertEquals(2, ((Number) scope.get("count", scope)).intValue());
+    }
+
+    @Test
+    public void primitiveArgumentsAndResult() {
+        eval("T.takePrimitives(function(i, l, f, d, b, c) {"
+                + "  return i + l + f + d + (b ? 100 : 0) + String(c).length; })");
+        Primitives p = (Primitives) last;
+        assertEquals(1 + 2 + 0.5 + 0.25 + 100 + 1,
+                p.apply(1, 2L, 0.5f, 0.25, true, 'x'), 0.0);
+    }
+
+    @Test
+    public void argumentsAreWrappedLikeProxies() {
+        eval("T.takeThree(function(o, s, i) {"
+                + "  return [typeof o, o.size(), typeof s, typeof i, i].join(); })");
+        Three t = (Three) last;
+        assertEquals("object,0,string,number,7",
+                t.describe(new java.util.ArrayList<Object>(), "x", 7));
+    }
+
+    @Test
+    public void sameAdapterForSameFunction() {
+        eval("var f = function(a, b) { return a - b; }; T.takeComparator(f);");
+        Object first = last;
+        eval("T.takeComparator(f);");
+        assertSame(first, last);
+    }
+
+    @Test
+    public void defaultMethodsUseInterfaceImplementation() {
+        eval("T.takeComparator(function(a, b) { return a - b; })");
+        @SuppressWarnings("unchecked")
+        Comparator<Object> c = (Comparator<Object>) last;
+        assertEquals(-1, c.compare(1, 2));
+        assertEquals(1, c.reversed().compare(1, 2));
+        assertTrue(c.equals(c));
+    }
+
+    @Test
+    public void callWithoutEnteredContext() {
+        eval("T.takeComparator(function(a, b) { return a - b; })");
+        @SuppressWarnings("unchecked")
+        Comparator<Object> c = (Comparator<Object>) last;
+        Context.exit();
+        try {
+            assertEquals(1, c.compare(3, 2));
+        } finally {
+            cx = Context.enter();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.JavaScriptException;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for compiling nested functions on their first call.
+ */
+public class LazyFunctionCompilationTest {
+
+    private static final String SOURCE = "var x = 10;\n"
+            + "function add(a, b) { return a + b + x; }\n"
+            + "var sum = function sum(n) { return n <= 0 ? 0 : n + sum(n - 1); };\n"
+            + "function outer(p) {\n"
+            + "  let q = p * 2;\n"
+            + "  var fs = [];\n"
+            + "  for (let i = 0; i < 3; i++) fs.push(function() { return p + q + i; });\n"
+            + "  return fs.map(function(f) { return f(); }).join();\n"
+            + "}\n"
+            + "function strict() {\n"
+            + "  'use strict';\n"
+            + "  return (function() { return this === undefined; })();\n"
+            + "}\n"
+            + "function args() { return arguments.length; }\n"
+            + "[add(1, 2), sum(4), outer(1), strict(), args(1, 2, 3),\n"
+            + " add.length, add.name, sum.name, add.toString(), outer.toString()].join('|')";
+
+    private Context cx;
+    private ScriptableObject scope;
+
+    @Before
+    public void setUp() {
+        cx = Context.enter();
+        cx.setLanguageVersion(Context.VERSION_ES6);
+        cx.setOptimizationLevel(-1);
+        scope = cx.initStandardObjects();
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    @Test
+    public void sameResultsAsEagerCompilation() {
+        Object eager = cx.evaluateString(scope, SOURCE, "test", 1, null);
+        cx.setLazyFunctionCompilation(true);
+        Object lazy = cx.evaluateString(cx.initStandardObjects(), SOURCE, "test", 1, null);
+        assertEquals(eager, lazy);
+        assertEquals("13|10|", lazy.toString().substring(0, 6));
+    }
+
+    @Test
+    public void onlyCalledFunctionsAreCompiled() {
+        cx.setLazyFunctionCompilation(true);
+        RecordingSource source = new RecordingSource(
+                "function used() { return nested(); function nested() { return 1; } }\n"
+                + "function unused() { return 2; }\n"
+                + "used();");
+        Script script = cx.compileSource(source, "test", 1, null);
+        source.reads.clear();
+        assertEquals(1, ((Number) script.exec(cx, scope)).intValue());
+        // nested() is compiled from the script source shared with used()
+        assertEquals(2, source.reads.size());
+        assertEquals("function used() { return nested(); function nested() { return 1; } }",
+                source.reads.get(0));
+        assertEquals("function nested() { return 1; }", source.reads.get(1));
+    }
+
+    @Test
+    public void syntaxErrorsAreReportedByCompile() {
+        cx.setLazyFunctionCompilation(true);
+        try {
+            cx.compileString("function f() { return 1 +; }", "test", 1, null);
+            fail();
+        } catch (EvaluatorException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void lineNumbersOfLazyFunctions() {
+        cx.setLazyFunctionCompilation(true);
+        try {
+            cx.evaluateString(scope, "var a = 1;\n\n"
+                    + "function f() {\n"
+                    + "  var b = 2;\n"
+                    + "  throw 'boom';\n"
+                    + "}\n"
+                    + "f();", "test", 1, null);
+            fail();
+        } catch (JavaScriptException e) {
+            assertEquals(5, e.lineNumber());
+        }
+    }
+
+    @Test
+    public void uncompiledCallbacksKeepArguments() {
+        cx.setLazyFunctionCompilation(true);
+        Object result = cx.evaluateString(scope, "var saved = [];\n"
+                + "[1, 2, 3].forEach(function(x) { saved.push(arguments); });\n"
+                + "[4, 5].reduce(function(s, x) { saved.push(arguments); return s + x; });\n"
+                + "saved.map(function(a) { return a[0] + ':' + a[1]; }).join()",
+                "test", 1, null);
+        assertEquals("1:0,2:1,3:2,4:5", result);
+    }
+
+    @Test
+    public void serializeUncompiledFunctions() throws Exception {
+        cx.setLazyFunctionCompilation(true);
+        Script script = cx.compileString("function f(a) { return a * 2; } f(21);",
+                "test", 1, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(script);
+        }
+        Script copy;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Script) in.readObject();
+        }
+        assertEquals(42, ((Number) copy.exec(cx, scope)).intValue());
+    }
+
+    private static final class RecordingSource implements CharSequence {
+        final String source;
+        final List<String> reads = new ArrayList<String>();
+
+        RecordingSource(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public int length() {
+            return source.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return source.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            String s = source.substring(start, end);
+            reads.add(s);
+            return s;
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+}
@@ -4,11 +4,20 @@
 
 package org.mozilla.javascript.tests;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.Undefined;
+import org.mozilla.javascript.typedarrays.NativeArrayBuffer;
 
 public class NativeArrayBufferTest {
 
@@ -26,4 +35,68 @@ public class NativeArrayBufferTest {
         Assert.assertEquals(Undefined.instance, result);
         Context.exit();
     }
+
+    @Test
+    public void wrapSharesContent() {
+        Context cx = Context.enter();
+        try {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            Scriptable global = cx.initStandardObjects();
+            ByteBuffer direct = ByteBuffer.allocateDirect(20).order(ByteOrder.LITTLE_ENDIAN);
+            direct.putInt(4, 0x01020304);
+            direct.position(4);
+            ScriptableObject.putProperty(global, "buf", NativeArrayBuffer.wrap(global, direct));
+
+            Object result = cx.evaluateString(global,
+                    "var v = new DataView(buf);\n"
+                    + "var r = [buf.byteLength, buf instanceof ArrayBuffer, v.getInt32(0), v.getInt32(0, true)];\n"
+                    + "new Int32Array(buf)[1] = -1; v.setFloat64(8, 1.5, true);\n"
+                    + "r.push(buf.slice(0, 4).byteLength); r.join()", "", 1, null);
+            Assert.assertEquals("16,true,67305985,16909060,4", Context.toString(result));
+            // the order and position of the wrapped buffer stay as they were
+            Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, direct.order());
+            Assert.assertEquals(4, direct.position());
+            Assert.assertEquals(-1, direct.getInt(8));
+            Assert.assertEquals(1.5, direct.getDouble(12), 0);
+
+            direct.put(4, (byte) 7);
+            Assert.assertEquals(7, ((Number) cx.evaluateString(global,
+                    "new Uint8Array(buf)[0]", "", 1, null)).intValue());
+        } finally {
+            Context.exit();
+        }
+    }
+
+    @Test
+    public void getBuffer() {
+        NativeArrayBuffer heap = new NativeArrayBuffer(8);
+        Assert.assertSame(heap.getBuffer(), heap.getBuffer());
+        heap.getBuffer()[0] = 5;
+        Assert.assertEquals(5, heap.getByteBuffer().get(0));
+
+        byte[] bytes = { 1, 2, 3, 4 };
+        NativeArrayBuffer offset = new NativeArrayBuffer(ByteBuffer.wrap(bytes, 1, 3));
+        Assert.assertArrayEquals(new byte[] { 2, 3, 4 }, offset.getBuffer());
+        offset.getByteBuffer().put(0, (byte) 9);
+        Assert.assertEquals(9, bytes[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readOnly() {
+        new NativeArrayBuffer(ByteBuffer.allocate(4).asReadOnlyBuffer());
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        NativeArrayBuffer buf = new NativeArrayBuffer(ByteBuffer.allocateDirect(3));
+        buf.getByteBuffer().put(1, (byte) 42);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(buf);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            NativeArrayBuffer copy = (NativeArrayBuffer) in.readObject();
+            Assert.assertArrayEquals(new byte[] { 0, 42, 0 }, copy.getBuffer());
+        }
+    }
 }
@@ -0,0 +1,54 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.mozilla.javascript.ScriptRuntime;
+
+/**
+ * Tests for the int fast paths and caches of the conversions between
+ * numbers and strings.
+ */
+public class NumberStringConversionTest {
+
+    @Test
+    public void intsToString() {
+        assertEquals("0", ScriptRuntime.numberToString(-0.0, 10));
+        assertEquals("1023", ScriptRuntime.numberToString(1023, 10));
+        assertEquals("-2147483648", ScriptRuntime.numberToString(Integer.MIN_VALUE, 10));
+        assertEquals("2147483648", ScriptRuntime.numberToString(2147483648.0, 10));
+        assertEquals("-ff", ScriptRuntime.numberToString(-255, 16));
+        assertEquals("1e+21", ScriptRuntime.numberToString(1e21, 10));
+        assertSame(ScriptRuntime.intToString(42), ScriptRuntime.numberToString(42, 10));
+    }
+
+    @Test
+    public void repeatedDoublesToString() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals("0.1", ScriptRuntime.numberToString(0.1, 10));
+            assertEquals("-1.5", ScriptRuntime.numberToString(-1.5, 10));
+            assertEquals("1.5", ScriptRuntime.numberToString(1.5, 10));
+            assertEquals("1.8", ScriptRuntime.numberToString(1.5, 16));
+            assertEquals("1e-7", ScriptRuntime.numberToString(1e-7, 10));
+        }
+    }
+
+    @Test
+    public void stringsToNumber() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(123456789, ScriptRuntime.toNumber("123456789"), 0);
+            assertEquals(1234567890, ScriptRuntime.toNumber("1234567890"), 0);
+            assertEquals(7, ScriptRuntime.toNumber("007"), 0);
+            assertEquals(12, ScriptRuntime.toNumber(" 12\n"), 0);
+            assertEquals(1.5, ScriptRuntime.toNumber("1.5"), 0);
+            assertEquals(Double.NEGATIVE_INFINITY, 1 / ScriptRuntime.toNumber("-0"), 0);
+            assertEquals(Double.NaN, ScriptRuntime.toNumber("1x"), 0);
+            assertEquals(0, ScriptRuntime.toNumber(""), 0);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextAction;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the local variables the optimizer keeps as unboxed numbers.
+ */
+public class NumberTypingTest {
+
+    private static final String OVERLOADING =
+            "function V(v) { this.v = v; }\n"
+            + "V.prototype[Symbol.operator('-')] = function(o) { return 'sub'; };\n"
+            + "V.prototype[Symbol.operator('*')] = function(o) { return 'mul'; };\n"
+            + "V.prototype[Symbol.operator('<')] = function(o) { return 'lt'; };\n"
+            + "V.prototype[Symbol.operator('+')] = function(o) { return 'add'; };\n";
+
+    @Test
+    public void arithmetic() {
+        assertEvaluates("97.98308126879168", "function f(n) {\n"
+                + "  var x = 0.5;\n"
+                + "  for (var i = 1; i <= n; i++) { x = x - x * x / i % 3 + (-x) + (+i); }\n"
+                + "  return x;\n"
+                + "}\n"
+                + "f(100)");
+        assertEvaluates("12157665459056929000",
+                "function f() { var x = 1; for (var i = 0; i < 40; i++) x = x * 3; return x; }\n"
+                + "f()");
+        assertEvaluates("Infinity,-Infinity,NaN,1,-1,-Infinity",
+                "function f() { var x = 4; return [x / 0, -x / 0, 0 / 0, 5 % -2, -5 % 2, 1 / -(x - x)].join(); }\n"
+                + "f()");
+    }
+
+    @Test
+    public void bitwise() {
+        assertEvaluates("-317655241", "function f(n) {\n"
+                + "  var h = 0;\n"
+                + "  for (var i = 0; i < n; i++) {\n"
+                + "    h = (h * 31 + i) | 0; h = h ^ (h >>> 7); h = ~h & 0xffff | (h << 3) >> 1;\n"
+                + "  }\n"
+                + "  return h;\n"
+                + "}\n"
+                + "f(1000)");
+        assertEvaluates("4294967295,16777215,256,-1,2115098112,-3",
+                "function f() { var x = -1; var y = 40; return [x >>> 0, x >>> y, 1 << y, x >> 33, 1.5e10 | 0, ~2.5].join(); }\n"
+                + "f()");
+    }
+
+    @Test
+    public void unsignedShift() {
+        assertEvaluates("4294967295,2147483647,1",
+                "var a = -1; var b = 33; [a >>> 0, a >>> b, 3 >>> b].join()");
+    }
+
+    @Test
+    public void comparisons() {
+        assertEvaluates("25,false,true,true,false", "function f(n) {\n"
+                + "  var c = 0; var x = NaN;\n"
+                + "  for (var i = 0; i < n; i++) {\n"
+                + "    var b = i < 5; var d = i >= n - 2;\n"
+                + "    if (b) c++; if (d) c += 10; if (x < i || x >= i) c += 100;\n"
+                + "  }\n"
+                + "  return [c, b, d, c < '30', c > n].join();\n"
+                + "}\n"
+                + "f(100)");
+    }
+
+    @Test
+    public void mixedOperands() {
+        assertEvaluates("1,12,43,34,false,NaN,8,6,-2,6", "function f() {\n"
+                + "  var t = 4; var s = '3'; var u; var o = { valueOf: function() { return 2; } };\n"
+                + "  return [t - s, t * s, t + s, s + t, t < s, t - u, t * o, t + o, o - t, o + t].join();\n"
+                + "}\n"
+                + "f()");
+    }
+
+    @Test
+    public void operatorsStayOverloaded() {
+        assertCompiledEvaluates("sub,mul,lt,add,NaN,2[object Object],mul,mul", OVERLOADING
+                + "function f() {\n"
+                + "  var v = new V(1); var n = 2;\n"
+                + "  var r = [v - n, v * 2, v < n, v + n, n - v, n + v];\n"
+                + "  for (var i = 0; i < 2; i++) r.push(v * i);\n"
+                + "  return r.join();\n"
+                + "}\n"
+                + "f()");
+    }
+
+    @Test
+    public void directCallParameters() {
+        assertCompiledEvaluates("2,-1,true,3,mul,sub,lt,4,8,-1,true,51", OVERLOADING
+                + "function g(a, b) { var x = a * 2; return [x, a - b, a < b, b + 1]; }\n"
+                + "function f() { return [g(1, 2), g(new V(1), 3), g('4', '5')].join(); }\n"
+                + "f()");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(evaluates(expected, source));
+    }
+
+    /**
+     * The interpreter only applies Symbol.operator overloads to +, so these
+     * cases run compiled, with and without the optimizer.
+     */
+    private static void assertCompiledEvaluates(final String expected, final String source) {
+        Utils.runWithOptimizationLevel(evaluates(expected, source), 0);
+        Utils.runWithOptimizationLevel(evaluates(expected, source), 1);
+    }
+
+    private static ContextAction<Object> evaluates(final String expected, final String source) {
+        return cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        };
+    }
+}
@@ -0,0 +1,84 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the int-keyed properties of plain objects, which are stored
+ * apart from the named properties.
+ */
+public class ObjectElementsTest {
+
+    @Test
+    public void keysAndValues() {
+        assertEvaluates("0,1,2,7,100,b,a,-1;3,,two,7;true,true,false,;9,8",
+                "var o = { b: 1, 2: 'two', 1: null, a: 2 };\n"
+                + "o[0] = 3; o[-1] = 'neg'; o['7'] = 7; o[100] = 100;\n"
+                + "var r = [Object.keys(o), [o[0], o[1], o['2'], o[7]]];\n"
+                + "r.push([1 in o, delete o[2], 2 in o, o[2]]);\n"
+                + "var m = {};\n"
+                + "for (var i = 0; i < 10; i++) m[i] = i;\n"
+                + "delete m[8];\n"
+                + "r.push([Object.keys(m).length, m[9] - 1]);\n"
+                + "r.join(';')");
+    }
+
+    @Test
+    public void attributesAndAccessors() {
+        assertEvaluates("true,true,true;3,false;g;undefined;1,true",
+                "var o = { 0: 3, 1: 1 };\n"
+                + "var d = Object.getOwnPropertyDescriptor(o, '0');\n"
+                + "var r = [[d.writable, d.enumerable, d.configurable]];\n"
+                + "Object.defineProperty(o, 0, { writable: false });\n"
+                + "o[0] = 99;\n"
+                + "r.push([o[0], Object.getOwnPropertyDescriptor(o, 0).writable]);\n"
+                + "o.__defineGetter__(1, function() { return 'g'; });\n"
+                + "r.push(o[1]);\n"
+                + "r.push(typeof o.__lookupGetter__(0));\n"
+                + "var f = Object.freeze({ 1: 1 });\n"
+                + "f[1] = 5; f[2] = 2;\n"
+                + "r.push([f[1], Object.isFrozen(f) && !(2 in f)]);\n"
+                + "r.join(';')");
+    }
+
+    @Test
+    public void prototypesAndExtensibility() {
+        assertEvaluates("p,true;own,p;6,;7,,1;TypeError",
+                "var proto = { 5: 'p' }, c = Object.create(proto);\n"
+                + "var r = [[c[5], 5 in c]];\n"
+                + "c[5] = 'own';\n"
+                + "r.push([c[5], proto[5]]);\n"
+                + "function attempt(f) { try { f(); } catch (e) {} }\n"
+                + "var s = Object.seal({ 1: 1 });\n"
+                + "s[1] = 6;\n"
+                + "attempt(function() { s[2] = 2; });\n"
+                + "attempt(function() { delete s[1]; });\n"
+                + "r.push([s[1], s[2]]);\n"
+                + "var p = Object.preventExtensions({ 1: 1 });\n"
+                + "p[1] = 7;\n"
+                + "attempt(function() { p[2] = 2; });\n"
+                + "r.push([p[1], p[2], Object.keys(p)]);\n"
+                + "r.push((function() {\n"
+                + "  'use strict';\n"
+                + "  try { p[3] = 3; return 'no'; } catch (e) { return e.name; }\n"
+                + "})());\n"
+                + "r.join(';')");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        });
+    }
+}
@@ -376,6 +376,28 @@ public class ParserTest extends TestCase {
       assertEquals(3, expr.getLineno());
     }
 
+    public void testVarDeclPositions() {
+      AstRoot root = parse("var longName = 'hello world', n = longName;");
+
+      VariableDeclaration decl = (VariableDeclaration) root.getFirstChild();
+      List<VariableInitializer> vars = decl.getVariables();
+      VariableInitializer init = vars.get(0);
+      AstNode name = init.getTarget();
+      AstNode str = init.getInitializer();
+      AstNode ref = vars.get(1).getInitializer();
+
+      assertEquals(0, decl.getAbsolutePosition());
+      assertEquals(43, decl.getLength());
+      assertEquals(4, name.getAbsolutePosition());
+      assertEquals(8, name.getLength());
+      assertEquals(15, str.getAbsolutePosition());
+      assertEquals(13, str.getLength());
+      assertEquals(4, init.getAbsolutePosition());
+      assertEquals(24, init.getLength());
+      assertEquals(34, ref.getAbsolutePosition());
+      assertEquals(8, ref.getLength());
+    }
+
     public void testLinenoReturn() {
       AstRoot root = parse(
           "\nfunction\n" +
@@ -0,0 +1,123 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+
+/**
+ * Tests for contexts kept by threads between enters, see
+ * {@link ContextFactory#setRetainingThreadContexts(boolean)}.
+ */
+public class RetainedContextTest {
+
+    private ContextFactory factory;
+    private int created;
+    private int released;
+
+    @Before
+    public void setUp() {
+        factory = new ContextFactory();
+        factory.addListener(new ContextFactory.Listener() {
+            @Override
+            public void contextCreated(Context cx) {
+                created++;
+            }
+
+            @Override
+            public void contextReleased(Context cx) {
+                released++;
+            }
+        });
+    }
+
+    @Test
+    public void contextIsReused() {
+        inNewThread(() -> {
+            factory.setRetainingThreadContexts(true);
+            Context first = factory.call(cx -> cx);
+            Context second = factory.call(cx -> cx);
+            assertSame(first, second);
+            assertNull(Context.getCurrentContext());
+            assertEquals(1, created);
+            assertEquals(0, released);
+
+            factory.releaseThreadContext();
+            assertEquals(1, released);
+            assertNotSame(first, factory.call(cx -> cx));
+            assertEquals(2, created);
+        });
+    }
+
+    @Test
+    public void contextIsNotReusedByDefault() {
+        inNewThread(() -> {
+            Context first = factory.call(cx -> cx);
+            assertNotSame(first, factory.call(cx -> cx));
+            assertEquals(2, created);
+            assertEquals(2, released);
+        });
+    }
+
+    @Test
+    public void contextOfOtherFactoryIsReleased() {
+        inNewThread(() -> {
+            factory.setRetainingThreadContexts(true);
+            Context first = factory.call(cx -> cx);
+            Context other = new ContextFactory().call(cx -> cx);
+            assertNotSame(first, other);
+            assertEquals(1, released);
+        });
+    }
+
+    @Test
+    public void retainedContextCanNotBeEnteredElsewhere() {
+        inNewThread(() -> {
+            factory.setRetainingThreadContexts(true);
+            Context retained = factory.call(cx -> cx);
+            try {
+                new ContextFactory().enterContext(retained);
+                Context.exit();
+                fail();
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        });
+    }
+
+    /**
+     * Run the test on a new thread, as other tests may leave a context
+     * entered on the current one.
+     */
+    private static void inNewThread(Runnable test) {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                test.run();
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        if (failure[0] instanceof Error) {
+            throw (Error) failure[0];
+        } else if (failure[0] != null) {
+            throw new AssertionError(failure[0]);
+        }
+    }
+}
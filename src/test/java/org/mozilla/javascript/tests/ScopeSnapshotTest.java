@@ -0,0 +1,179 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.NativeJavaObject;
+import org.mozilla.javascript.ScopeSnapshot;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * Tests for {@link ScopeSnapshot}.
+ */
+public class ScopeSnapshotTest {
+
+    private Context cx;
+
+    @Before
+    public void setUp() {
+        cx = Context.enter();
+        cx.setLanguageVersion(Context.VERSION_ES6);
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    @Test
+    public void copiesAreIsolated() {
+        ScopeSnapshot snapshot = new ScopeSnapshot(cx.initStandardObjects());
+        ScriptableObject first = snapshot.newScope();
+        ScriptableObject second = snapshot.newScope();
+        assertNotSame(first, second);
+
+        eval(first, "Array.prototype.last = function() { return this[this.length - 1] };"
+                + "Math.answer = 42; var x = 1;");
+        assertEquals("3", eval(first, "String([1, 2, 3].last())"));
+        assertEquals("undefined", eval(second, "typeof [].last"));
+        assertEquals("undefined", eval(second, "typeof Math.answer"));
+        assertEquals("undefined", eval(second, "typeof x"));
+        assertEquals("undefined", eval(snapshot.newScope(), "typeof [].last"));
+    }
+
+    @Test
+    public void scriptsRunBeforeSnapshot() {
+        ScriptableObject scope = cx.initStandardObjects();
+        eval(scope, "function double(x) { return [x].map(v => v * 2)[0]; }"
+                + "var cache = new Map([['a', 1]]);"
+                + "var words = new Set(['x']);"
+                + "var pattern = /a+/g;"
+                + "var bytes = new Int8Array([1, 2, 3]);"
+                + "var key = Symbol.for('key');"
+                + "var counter = { n: 0, get next() { return ++this.n; } };");
+        ScopeSnapshot snapshot = new ScopeSnapshot(scope);
+
+        for (int i = 0; i < 2; i++) {
+            ScriptableObject copy = snapshot.newScope();
+            assertEquals("42", eval(copy, "String(double(21))"));
+            assertEquals("1,true", eval(copy,
+                    "cache.set('b', 2); words.add('y'); String([cache.get('a'), words.has('x')])"));
+            assertEquals("2,2", eval(copy, "String([cache.size, words.size])"));
+            assertEquals("true,2", eval(copy, "String([pattern.test('aa'), pattern.lastIndex])"));
+            assertEquals("9", eval(copy, "bytes[0] = 9; String(bytes[0])"));
+            assertEquals("true", eval(copy, "String(Symbol.for('key') === key)"));
+            assertEquals("1", eval(copy, "String(counter.next)"));
+        }
+        // the scope the snapshot was taken from is unchanged
+        assertEquals("1,1,0,1", eval(scope,
+                "String([cache.size, words.size, pattern.lastIndex, bytes[0]])"));
+    }
+
+    @Test
+    public void lazyConstructorsStayLazy() {
+        ScopeSnapshot snapshot = new ScopeSnapshot(cx.initStandardObjects());
+        ScriptableObject first = snapshot.newScope();
+        assertEquals("abc", eval(first,
+                "RegExp.prototype.extra = 1; JSON.stringify({ a: 'abc' }).match(/abc/)[0]"));
+        ScriptableObject second = snapshot.newScope();
+        assertEquals("undefined", eval(second, "typeof RegExp.prototype.extra"));
+        assertEquals("true", eval(second, "String(/x/ instanceof RegExp)"));
+    }
+
+    @Test
+    public void functionsUseTheirCopy() {
+        ScriptableObject scope = cx.initStandardObjects();
+        eval(scope, "var value = 'snapshot'; function get() { return value; }");
+        ScopeSnapshot snapshot = new ScopeSnapshot(scope);
+        ScriptableObject copy = snapshot.newScope();
+        eval(copy, "value = 'copy'");
+        assertEquals("copy", eval(copy, "get()"));
+        assertEquals("snapshot", eval(scope, "get()"));
+        assertEquals("snapshot", eval(snapshot.newScope(), "get()"));
+    }
+
+    @Test
+    public void javaObjectsCannotBeCopied() {
+        ScriptableObject scope = cx.initStandardObjects();
+        ScriptableObject.putProperty(scope, "list",
+                new NativeJavaObject(scope, new ArrayList<String>(), null));
+        try {
+            new ScopeSnapshot(scope);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("NativeJavaObject"));
+        }
+    }
+
+    @Test
+    public void javaPackagesAreCopied() {
+        ScriptableObject scope = cx.initStandardObjects();
+        eval(scope, "var text = String(java.lang.String.valueOf(1)); var pkg = java.util;");
+        ScopeSnapshot snapshot = new ScopeSnapshot(scope);
+        for (int i = 0; i < 2; i++) {
+            ScriptableObject copy = snapshot.newScope();
+            assertEquals("2", eval(copy, "String(java.lang.Math.max(2, 1))"));
+            assertEquals("true,true", eval(copy,
+                    "String([Packages.java === java, pkg === java.util])"));
+            assertEquals("3", eval(copy, "String(new pkg.ArrayList([1, 2, 3]).size())"));
+        }
+    }
+
+    @Test
+    public void runningGeneratorsCannotBeCopied() {
+        ScriptableObject scope = cx.initStandardObjects();
+        eval(scope, "function* gen() { yield 1; yield 2; } var it = gen(); it.next();");
+        try {
+            new ScopeSnapshot(scope);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void copiesOnOtherThreads() throws Exception {
+        ScriptableObject scope = cx.initStandardObjects();
+        eval(scope, "var list = [1, 2, 3];");
+        ScopeSnapshot snapshot = new ScopeSnapshot(scope);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final int n = i;
+                results.add(executor.submit(() -> new ContextFactory().call(c -> {
+                    c.setLanguageVersion(Context.VERSION_ES6);
+                    ScriptableObject copy = snapshot.newScope();
+                    return c.evaluateString(copy,
+                            "list.push(" + n + "); String(list.length)", "test", 1, null);
+                })));
+            }
+            for (Future<Object> result : results) {
+                assertEquals("4", result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Object eval(ScriptableObject scope, String source) {
+        return cx.evaluateString(scope, source, "test", 1, null);
+    }
+}
@@ -66,6 +66,53 @@ public class SortingTest {
         hybridSort(randomArray(10000));
     }
 
+    private void timSort(Object[] expected, Comparator<Object> cmp)
+    {
+        Object[] after = Arrays.copyOf(expected, expected.length);
+        sorter.timSort(after, cmp);
+        // java.util.Arrays.sort is stable as well
+        Arrays.sort(expected, cmp);
+        assertArrayEquals(expected, after);
+    }
+
+    @Test
+    public void testTimSort()
+    {
+        timSort(randomArray(10), new IntComparator());
+        timSort(forwardArray(100), new IntComparator());
+        timSort(reverseArray(100), new IntComparator());
+        timSort(randomArray(100), new IntComparator());
+        timSort(sameArray(100), new IntComparator());
+        timSort(new Object[] {}, new IntComparator());
+        timSort(randomArray(10000), new IntComparator());
+        timSort(runsArray(10000), new IntComparator());
+    }
+
+    @Test
+    public void testTimSortStable()
+    {
+        // Compare only the tens, so that the order of equal keys shows
+        Comparator<Object> tens = (a, b) -> Integer.compare((Integer) a / 10, (Integer) b / 10);
+        Integer[] a = new Integer[10000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = rand.nextInt(1000);
+        }
+        timSort(a, tens);
+        timSort(runsArray(10000), tens);
+        timSort(reverseArray(1000), tens);
+    }
+
+    @Test
+    public void testTimSortInconsistentComparator()
+    {
+        Object[] a = randomArray(10000);
+        Object[] after = Arrays.copyOf(a, a.length);
+        sorter.timSort(after, (x, y) -> rand.nextInt(3) - 1);
+        Arrays.sort(a, new IntComparator());
+        Arrays.sort(after, new IntComparator());
+        assertArrayEquals(a, after);
+    }
+
     @Test
     public void testMedian()
     {
@@ -97,6 +144,15 @@ public class SortingTest {
         }
     }
 
+    @Test
+    public void testBenchRandomTimSort()
+    {
+        for (int i = 0; i < ITERATIONS; i++) {
+            Object[] a = Arrays.copyOf(bigRandom, bigRandom.length);
+            sorter.timSort(a, new IntComparator());
+        }
+    }
+
     @Test
     public void testBenchRandomJavaUtil()
     {
@@ -189,6 +245,16 @@ public class SortingTest {
         return a;
     }
 
+    private static Integer[] runsArray(int length)
+    {
+        Integer[] a = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            int run = i / 100;
+            a[i] = run % 2 == 0 ? i % 100 : 100 - i % 100;
+        }
+        return a;
+    }
+
     private static Integer[] sameArray(int length)
     {
         Integer[] a = new Integer[length];
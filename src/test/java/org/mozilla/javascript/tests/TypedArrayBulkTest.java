@@ -0,0 +1,93 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the typed array methods that copy, fill and search elements
+ * in bulk.
+ */
+public class TypedArrayBulkTest {
+
+    private static final String JOIN =
+            "function s(a) { return Array.prototype.join.call(a); }\n";
+
+    @Test
+    public void slice() {
+        assertEvaluates("-2,3,4,5;5,-6;0;1,-2,3,4,5,-6;2,3",
+                "var a = new Int16Array([1, -2, 3, 4, 5, -6]);\n"
+                + "[s(a.slice(1, -1)), s(a.slice(-2)), a.slice(4, 2).length, s(a.slice()),\n"
+                + " s(new Float32Array([1, 2, 3, 4]).slice(1, 3))].join(';')");
+    }
+
+    @Test
+    public void fillAndCopyWithin() {
+        assertEvaluates("0,0,7,7,7,7,7,7,0,0;0.5,0.5,0.5,0.5,0.5;1,2,1,2,3,4,5,8;4,5,6,7,8,6,7,8;1,2,3,4,5,6,1,2",
+                "var b = new Uint8Array(10); b.fill(7, 2, -2);\n"
+                + "var c = new Float64Array(5); c.fill(0.5);\n"
+                + "function d() { return new Int8Array([1, 2, 3, 4, 5, 6, 7, 8]); }\n"
+                + "[s(b), s(c), s(d().copyWithin(2, 0, 5)), s(d().copyWithin(0, 3)),\n"
+                + " s(d().copyWithin(-2, 0))].join(';')");
+    }
+
+    @Test
+    public void search() {
+        assertEvaluates("2,-1,5,-1,2,0,-1,4,true,false,false",
+                "var a = new Int16Array([1, -2, 3, 4, 5, -6]);\n"
+                + "[a.indexOf(3), a.indexOf(3, 3), a.indexOf(-6, -1), a.indexOf('3'),\n"
+                + " a.lastIndexOf(3), a.lastIndexOf(1), a.lastIndexOf(5, -3), a.lastIndexOf(5, -2),\n"
+                + " a.includes(4), a.includes(7), a.includes(1, 1)].join()");
+    }
+
+    @Test
+    public void searchNaN() {
+        assertEvaluates("true,false,false,true,-1,-1,false",
+                "var f = new Float64Array([1, NaN, -0]);\n"
+                + "[f.includes(NaN), f.includes(NaN, 2), new Float32Array([1]).includes(NaN),\n"
+                + " f.includes(0), f.indexOf(NaN), f.lastIndexOf(NaN), new Int8Array([0]).includes(NaN)].join()");
+    }
+
+    @Test
+    public void setAndConvert() {
+        assertEvaluates("1,2,3,4,250,251,252,253;1,2,3,4;1,255,254,4;0,100,127;4294967296,1;4294967295,5",
+                "var buf = new ArrayBuffer(16), u8 = new Uint8Array(buf), i16 = new Int16Array(buf);\n"
+                + "u8.set([1, 2, 3, 4, 250, 251, 252, 253]);\n"
+                + "i16.set(u8.subarray(0, 4), 4);\n"
+                + "var r = [s(u8.subarray(0, 8)), s(i16.subarray(4))];\n"
+                + "u8.set(new Int8Array([-1, -2]), 1);\n"
+                + "r.push(s(u8.subarray(0, 4)),\n"
+                + "       s(new Uint8ClampedArray(new Int8Array([-5, 100, 127]))),\n"
+                + "       s(new Float32Array(new Uint32Array([4294967295, 1]))),\n"
+                + "       s(new Uint32Array(new Int32Array([-1, 5]))));\n"
+                + "r.join(';')");
+    }
+
+    @Test
+    public void overlappingSet() {
+        assertEvaluates("1,2,1,2,3,4;3,4,5",
+                "var a = new Uint8Array([1, 2, 3, 4, 5, 6]);\n"
+                + "a.set(a.subarray(0, 4), 2);\n"
+                + "var b = new Uint8Array(8);\n"
+                + "b.set([1, 2, 3, 4, 5]);\n"
+                + "var c = new Uint16Array(b.buffer);\n"
+                + "c.set(b.subarray(2, 5), 1);\n"
+                + "[s(a), s(c.subarray(1))].join(';')");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, JOIN + source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,95 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+/**
+ * Tests for the element reads and writes of typed arrays that compiled
+ * code does without boxing the numbers.
+ */
+public class TypedArrayElementTest {
+
+    // Writing 2 * x / 2 rather than x makes a value a number for the
+    // Optimizer, as the operator of an object on the left may be overloaded
+
+    @Test
+    public void conversions() {
+        assertEvaluates("0,false,1,false,-1,true,-1,true,0,false,127,false,0,false,0,false,0,false,0,false,0,false,0,false;"
+                + "0,false,1,false,255,false,255,false,0,false,127,false,0,false,0,false,0,false,0,false,0,false,0,false;"
+                + "0,false,2,false,0,false,255,false,255,false,0,false,255,false,255,false,0,false,0,false,255,false,255,false;"
+                + "0,false,1,false,-1,true,255,false,256,false,-129,true,0,false,0,false,0,false,0,false,0,false,-7168,true;"
+                + "0,false,1,false,65535,false,255,false,256,false,65407,false,0,false,0,false,0,false,0,false,0,false,58368,false;"
+                + "0,false,1,false,-1,true,255,false,256,false,-129,true,65536,false,-2147483648,true,0,false,0,false,0,false,1410065408,false;"
+                + "0,false,1,false,4294967295,false,255,false,256,false,4294967167,false,65536,false,2147483648,false,0,false,0,false,0,false,1410065408,false;"
+                + "0,false,1.5,false,-1.5,true,255.5,false,256,false,-129,true,65536.5,false,2147483648,false,0,true,NaN,false,Infinity,false,10000000000,false;"
+                + "0,false,1.5,false,-1.5,true,255.5,false,256,false,-129,true,65536.5,false,2147483648,false,0,true,NaN,false,Infinity,false,10000000000,false",
+                "function f(a) {\n"
+                + "  var v = [0, 1.5, -1.5, 255.5, 256, -129, 65536.5, 2147483648, -0, NaN, Infinity, 1e10];\n"
+                + "  for (var i = 0; i < v.length; i++) a[i] = 2 * v[i] / 2;\n"
+                + "  var r = [];\n"
+                + "  for (var i = 0; i < v.length; i++) r.push(2 * a[i] / 2, 1 / a[i] < 0);\n"
+                + "  return r.join();\n"
+                + "}\n"
+                + "[Int8Array, Uint8Array, Uint8ClampedArray, Int16Array, Uint16Array,\n"
+                + " Int32Array, Uint32Array, Float32Array, Float64Array].map(function(T) {\n"
+                + "  return f(new T(12));\n"
+                + "}).join(';')");
+    }
+
+    @Test
+    public void outOfRange() {
+        assertEvaluates("NaN,NaN,7,7,7,7;4;0,1,2,3|NaN,NaN,7,7,7,7;4;0,1,2,3",
+                "function f(a) {\n"
+                + "  var r = [];\n"
+                + "  var k = [-1, 4, 1.5, NaN, -0, 3];\n"
+                + "  for (var i = 0; i < k.length; i++) { var j = 2 * k[i] / 2; a[j] = 7; r.push(2 * a[j] / 2); }\n"
+                + "  return [r, a.length, Object.keys(a)].join(';');\n"
+                + "}\n"
+                + "[f(new Float64Array(4)), f(new Int16Array(new ArrayBuffer(16), 4, 4))].join('|')");
+    }
+
+    @Test
+    public void otherObjects() {
+        assertEvaluates("NaN,NaN,106,NaN,NaN",
+                "function f(a) {\n"
+                + "  for (var i = 0; i < 3; i++) a[i] = i * 2;\n"
+                + "  var s = 0;\n"
+                + "  for (var i = 0; i < 4; i++) s = s + 2 * a[i] / 2;\n"
+                + "  return s;\n"
+                + "}\n"
+                + "var o = { get 1() { return 10; }, set 1(v) {} };\n"
+                + "var p = { 3: { valueOf: function() { return 100; } } };\n"
+                + "[f([]), f(o), f(p), f('abc'), f(new Uint8Array(2))].join()");
+    }
+
+    @Test
+    public void sharedBuffer() {
+        assertEvaluates("true,false,true",
+                "function f() {\n"
+                + "  var b = new ArrayBuffer(8), d = new Float64Array(b), u = new Uint8Array(b);\n"
+                + "  d[0] = 0.1;\n"
+                + "  var s = 0;\n"
+                + "  for (var i = 0; i < 8; i++) s = s * 256 + 2 * u[i] / 2;\n"
+                + "  u[7] = 0;\n"
+                + "  return [s > 0, d[0] === 0.1, d[0] < 0.1].join();\n"
+                + "}\n"
+                + "f()");
+    }
+
+    private static void assertEvaluates(final String expected, final String source) {
+        Utils.runWithAllOptimizationLevels(cx -> {
+            cx.setLanguageVersion(Context.VERSION_ES6);
+            final Scriptable scope = cx.initStandardObjects();
+            final Object result = cx.evaluateString(scope, source, "test.js", 1, null);
+            assertEquals(expected, Context.toString(result));
+            return null;
+        });
+    }
+}
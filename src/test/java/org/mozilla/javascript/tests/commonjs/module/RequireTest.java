@@ -5,10 +5,17 @@ import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.commonjs.module.ModuleScriptProvider;
 import org.mozilla.javascript.commonjs.module.Require;
 import org.mozilla.javascript.commonjs.module.provider.StrongCachingModuleScriptProvider;
 import org.mozilla.javascript.commonjs.module.provider.UrlModuleSourceProvider;
@@ -68,6 +75,42 @@ public class RequireTest extends TestCase
                 "testRelativeId.js", 1, null);
     }
 
+    public void testRelativeIdWithLoadingPool() throws Exception {
+        final Context cx = createContext();
+        final Scriptable scope = cx.initStandardObjects();
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        final ModuleScriptProvider provider = new StrongCachingModuleScriptProvider(
+                new UrlModuleSourceProvider(Collections.singleton(getDirectory()), null));
+        final Set<String> loadedOnPool = Collections.newSetFromMap(
+                new ConcurrentHashMap<String, Boolean>());
+        final CountDownLatch dependencyLoaded = new CountDownLatch(1);
+        try {
+            final Require require = new Require(cx, cx.initStandardObjects(),
+                    (cx1, moduleId, moduleUri, baseUri, paths) -> {
+                        final Thread thread = Thread.currentThread();
+                        if (thread instanceof ForkJoinWorkerThread
+                                && ((ForkJoinWorkerThread) thread).getPool() == pool) {
+                            loadedOnPool.add(moduleId);
+                        }
+                        if (moduleId.equals("x/modz")) {
+                            dependencyLoaded.countDown();
+                        }
+                        return provider.getModuleScript(cx1, moduleId, moduleUri, baseUri, paths);
+                    }, null, null, true, pool);
+            require.install(scope);
+            require.preload(cx, "x/y/mody", "x/modx");
+            // a literal dependency of both, found when they were compiled
+            assertTrue(dependencyLoaded.await(10, TimeUnit.SECONDS));
+            cx.evaluateReader(scope, getReader("testRelativeId.js"),
+                    "testRelativeId.js", 1, null);
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(loadedOnPool.contains("x/y/mody"));
+        assertTrue(loadedOnPool.contains("x/modx"));
+        assertTrue(loadedOnPool.contains("x/modz"));
+    }
+
     public void testSetMainForAlreadyLoadedModule() throws Exception {
         final Context cx = createContext();
         final Scriptable scope = cx.initStandardObjects();
@@ -0,0 +1,167 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript.tests.commonjs.module.provider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.commonjs.module.Require;
+import org.mozilla.javascript.commonjs.module.ModuleScript;
+import org.mozilla.javascript.commonjs.module.provider.FileWatchingModuleSourceProvider;
+import org.mozilla.javascript.commonjs.module.provider.ModuleSource;
+import org.mozilla.javascript.commonjs.module.provider.ModuleSourceProvider;
+import org.mozilla.javascript.commonjs.module.provider.StrongCachingModuleScriptProvider;
+
+public class FileWatchingModuleSourceProviderTest {
+
+    private Path dir;
+    private FileWatchingModuleSourceProvider sourceProvider;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("modules");
+        sourceProvider = new FileWatchingModuleSourceProvider(
+                Collections.singletonList(dir), null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        sourceProvider.close();
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private Path write(String name, String source) throws IOException {
+        return Files.write(dir.resolve(name), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ModuleSource load(String moduleId, Object validator) throws Exception {
+        final ModuleSource source = sourceProvider.loadSource(moduleId, null, validator);
+        if (source != null && source != ModuleSourceProvider.NOT_MODIFIED) {
+            source.getReader().close();
+        }
+        return source;
+    }
+
+    @Test
+    public void testNotModifiedUntilInvalidated() throws Exception {
+        final Path file = write("a.js", "exports.x = 1;");
+        final ModuleSource source = load("a", null);
+        Assert.assertNotNull(source);
+        Assert.assertEquals(file.toUri(), source.getUri());
+        Assert.assertSame(ModuleSourceProvider.NOT_MODIFIED,
+                load("a", source.getValidator()));
+        Assert.assertSame(ModuleSourceProvider.NOT_MODIFIED,
+                sourceProvider.loadSource(dir.toUri().resolve("a"), dir.toUri(),
+                        source.getValidator()));
+
+        sourceProvider.invalidate(file);
+        final ModuleSource reloaded = load("a", source.getValidator());
+        Assert.assertNotNull(reloaded);
+        Assert.assertNotSame(ModuleSourceProvider.NOT_MODIFIED, reloaded);
+        Assert.assertSame(ModuleSourceProvider.NOT_MODIFIED,
+                load("a", reloaded.getValidator()));
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded() throws Exception {
+        final Path file = write("b.js", "exports.x = 1;");
+        final ModuleSource source = load("b", null);
+        write("b.js", "exports.x = 2;");
+        // Wait for the watch service, which may poll on some platforms
+        final long deadline = System.currentTimeMillis() + 30000L;
+        ModuleSource reloaded;
+        while ((reloaded = load("b", source.getValidator())) == ModuleSourceProvider.NOT_MODIFIED) {
+            Assert.assertTrue("No change event for " + file,
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(file.toUri(), reloaded.getUri());
+    }
+
+    @Test
+    public void testCachedModuleScriptInvalidated() throws Exception {
+        final Path file = write("c.js", "exports.x = 1;");
+        final StrongCachingModuleScriptProvider scriptProvider =
+                new StrongCachingModuleScriptProvider(sourceProvider);
+        final Context cx = Context.enter();
+        try {
+            final ModuleScript first = scriptProvider.getModuleScript(cx, "c", null, null, null);
+            Assert.assertNotNull(first);
+            Assert.assertSame(first, scriptProvider.getModuleScript(cx, "c", null, null, null));
+
+            write("c.js", "exports.x = 2;");
+            sourceProvider.invalidate(file);
+            final ModuleScript second = scriptProvider.getModuleScript(cx, "c", null, null, null);
+            Assert.assertNotSame(first, second);
+        } finally {
+            Context.exit();
+        }
+    }
+
+    @Test
+    public void testClosedProviderRevalidates() throws Exception {
+        write("d.js", "exports.x = 1;");
+        final ModuleSource source = load("d", null);
+        sourceProvider.close();
+        final ModuleSource reloaded = load("d", source.getValidator());
+        Assert.assertNotSame(ModuleSourceProvider.NOT_MODIFIED, reloaded);
+        Assert.assertNotSame(ModuleSourceProvider.NOT_MODIFIED,
+                load("d", reloaded.getValidator()));
+    }
+
+    @Test
+    public void testSourceIsReadIntoMemory() throws Exception {
+        final StringBuilder large = new StringBuilder("exports.x = [");
+        while (large.length() < 512 * 1024) {
+            large.append("'\u00e9t\u00e9', ");
+        }
+        large.append("'\u00e9t\u00e9'].join('\u00e7');");
+        write("ascii.js", "exports.x = 'abc';");
+        write("small.js", "exports.x = '\u00e9t\u00e9';");
+        write("large.js", large.toString());
+        final StrongCachingModuleScriptProvider scriptProvider =
+                new StrongCachingModuleScriptProvider(sourceProvider);
+        final Context cx = Context.enter();
+        try {
+            // The large array literal is too big for a class file
+            cx.setOptimizationLevel(-1);
+            final Scriptable scope = cx.initStandardObjects();
+            final Require require = new Require(cx, scope, scriptProvider,
+                    null, null, false);
+            for (String id : new String[]{"ascii", "small", "large"}) {
+                final ModuleSource source = load(id, null);
+                Assert.assertNotNull(source.getSource());
+                Assert.assertEquals(new String(Files.readAllBytes(dir.resolve(id + ".js")),
+                        StandardCharsets.UTF_8), source.getSource().toString());
+            }
+            Assert.assertEquals("abc", eval(require, scope, "ascii"));
+            Assert.assertEquals("\u00e9t\u00e9", eval(require, scope, "small"));
+            Assert.assertTrue(eval(require, scope, "large").startsWith("\u00e9t\u00e9\u00e7"));
+        } finally {
+            Context.exit();
+        }
+    }
+
+    private static String eval(Require require, Scriptable scope, String id) {
+        final Scriptable exports = (Scriptable) require.call(
+                Context.getCurrentContext(), scope, scope, new Object[]{id});
+        return (String) ScriptableObject.getProperty(exports, "x");
+    }
+}